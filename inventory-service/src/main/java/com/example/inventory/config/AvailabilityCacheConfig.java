@@ -0,0 +1,30 @@
+package com.example.inventory.config;
+
+import com.example.inventory.config.MetricsConfig.InventoryMetrics;
+import com.example.inventory.service.AvailabilityNearCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "inventory.near-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class AvailabilityCacheConfig {
+    
+    @Bean
+    public AvailabilityNearCache availabilityNearCache(
+            @Value("${inventory.near-cache.max-size:10000}") long maxSize,
+            @Value("${inventory.near-cache.max-staleness-ms:2000}") long maxStalenessMillis,
+            InventoryMetrics inventoryMetrics,
+            MeterRegistry meterRegistry) {
+        AvailabilityNearCache cache = new AvailabilityNearCache(maxSize, maxStalenessMillis, Ticker.systemTicker(),
+            inventoryMetrics);
+        Gauge.builder("inventory_availability_cache_size", cache, AvailabilityNearCache::size)
+            .description("Number of availability snapshots held in the near-cache")
+            .register(meterRegistry);
+        return cache;
+    }
+}
\ No newline at end of file
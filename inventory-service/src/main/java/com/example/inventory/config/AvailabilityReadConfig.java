@@ -0,0 +1,22 @@
+package com.example.inventory.config;
+
+import com.example.common.concurrent.ThreadPools;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+public class AvailabilityReadConfig {
+    
+    /**
+     * Bounded pool for the point gets of batch availability checks.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService availabilityReadExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${inventory.batch-check.parallelism:8}") int parallelism) {
+        return ThreadPools.fixed("availability-read", parallelism, meterRegistry);
+    }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.inventory.config;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -8,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
@@ -25,9 +27,16 @@ public class MetricsConfig {
         private final Counter reservationFailureCounter;
         private final Counter confirmationCounter;
         private final Counter cancellationCounter;
+        private final Counter expirationCounter;
+        private final Counter availabilityCacheHitCounter;
+        private final Counter availabilityCacheMissCounter;
+        private final Counter availabilityCacheEvictionCounter;
         private final Timer reservationProcessingTimer;
+        private final Timer sweepLagTimer;
+        private final DistributionSummary releasedPerTick;
         private final AtomicInteger activeReservations = new AtomicInteger(0);
         private final AtomicInteger lowStockProducts = new AtomicInteger(0);
+        private final AtomicInteger scheduledExpirations = new AtomicInteger(0);
 
         public InventoryMetrics(MeterRegistry meterRegistry) {
             // Counters
@@ -49,11 +58,37 @@ public class MetricsConfig {
                 .description("Total number of inventory cancellations")
                 .register(meterRegistry);
             
+            this.expirationCounter = Counter.builder("inventory_expiration_total")
+                .description("Total number of reservations released by the expiry sweeper")
+                .register(meterRegistry);
+            
+            this.availabilityCacheHitCounter = Counter.builder("inventory_availability_cache_total")
+                .description("Availability checks answered from the near-cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+            
+            this.availabilityCacheMissCounter = Counter.builder("inventory_availability_cache_total")
+                .description("Availability checks that read from storage")
+                .tag("result", "miss")
+                .register(meterRegistry);
+            
+            this.availabilityCacheEvictionCounter = Counter.builder("inventory_availability_cache_evictions_total")
+                .description("Availability snapshots evicted by size or staleness")
+                .register(meterRegistry);
+            
             // Timer
             this.reservationProcessingTimer = Timer.builder("inventory_reservation_duration_seconds")
                 .description("Time taken to process inventory reservations")
                 .register(meterRegistry);
             
+            this.sweepLagTimer = Timer.builder("inventory_expiry_sweep_lag_seconds")
+                .description("Delay between a reservation's expires_at and its release by the sweeper")
+                .register(meterRegistry);
+            
+            this.releasedPerTick = DistributionSummary.builder("inventory_expiry_released_per_tick")
+                .description("Number of reservations released per sweeper tick")
+                .register(meterRegistry);
+            
             // Gauges
             Gauge.builder("inventory_active_reservations")
                 .description("Number of active inventory reservations")
@@ -62,6 +97,10 @@ public class MetricsConfig {
             Gauge.builder("inventory_low_stock_products")
                 .description("Number of products with low stock")
                 .register(meterRegistry, this, metrics -> metrics.lowStockProducts.get());
+            
+            Gauge.builder("inventory_expiry_scheduled_reservations")
+                .description("Number of reservations held in the expiry timing wheel")
+                .register(meterRegistry, this, metrics -> metrics.scheduledExpirations.get());
         }
 
         public void incrementReservationSuccess() {
@@ -98,5 +137,31 @@ public class MetricsConfig {
         public void decrementActiveReservations() {
             activeReservations.decrementAndGet();
         }
+
+        public void recordSweepLag(long lagMillis) {
+            sweepLagTimer.record(lagMillis, TimeUnit.MILLISECONDS);
+        }
+
+        public void recordSweepTick(int released) {
+            releasedPerTick.record(released);
+            expirationCounter.increment(released);
+            activeReservations.addAndGet(-released);
+        }
+
+        public void setScheduledExpirations(int count) {
+            scheduledExpirations.set(count);
+        }
+
+        public void incrementAvailabilityCacheHit() {
+            availabilityCacheHitCounter.increment();
+        }
+
+        public void incrementAvailabilityCacheMiss() {
+            availabilityCacheMissCounter.increment();
+        }
+
+        public void incrementAvailabilityCacheEviction() {
+            availabilityCacheEvictionCounter.increment();
+        }
     }
 }
\ No newline at end of file
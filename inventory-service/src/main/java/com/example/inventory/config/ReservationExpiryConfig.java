@@ -0,0 +1,19 @@
+package com.example.inventory.config;
+
+import com.example.inventory.service.ReservationTimingWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "inventory.reservation.auto-cleanup", havingValue = "true", matchIfMissing = true)
+public class ReservationExpiryConfig {
+    
+    @Bean
+    public ReservationTimingWheel reservationTimingWheel(
+            @Value("${inventory.reservation.sweeper.tick-millis:1000}") long tickMillis,
+            @Value("${inventory.reservation.sweeper.wheel-size:60}") int wheelSize) {
+        return new ReservationTimingWheel(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+}
\ No newline at end of file
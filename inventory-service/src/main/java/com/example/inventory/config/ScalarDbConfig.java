@@ -1,7 +1,12 @@
 package com.example.inventory.config;
 
+import com.example.common.scalardb.ReadOnlyTransactionManager;
+import com.example.common.scalardb.TransactionBatchExecutor;
+import com.scalar.db.api.DistributedStorage;
 import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.service.StorageFactory;
 import com.scalar.db.service.TransactionFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import java.io.IOException;
@@ -13,6 +18,31 @@ public class ScalarDbConfig {
     
     @Bean
     public DistributedTransactionManager transactionManager() throws IOException {
+        TransactionFactory factory = TransactionFactory.create(loadProperties());
+        return factory.getTransactionManager();
+    }
+    
+    // Used by read-only query paths that skip the transaction coordinator
+    @Bean
+    public DistributedStorage distributedStorage() throws IOException {
+        StorageFactory factory = StorageFactory.create(loadProperties());
+        return factory.getStorage();
+    }
+    
+    @Bean
+    public ReadOnlyTransactionManager readOnlyTransactionManager(DistributedStorage distributedStorage,
+            DistributedTransactionManager transactionManager,
+            @Value("${inventory.read-only-queries.enabled:true}") boolean enabled) {
+        return new ReadOnlyTransactionManager(distributedStorage, transactionManager, enabled);
+    }
+    
+    @Bean
+    public TransactionBatchExecutor transactionBatchExecutor(DistributedTransactionManager transactionManager,
+            @Value("${inventory.bulk.chunk-size:100}") int chunkSize) {
+        return new TransactionBatchExecutor(transactionManager, chunkSize);
+    }
+    
+    private Properties loadProperties() throws IOException {
         Properties properties = new Properties();
         
         // Load ScalarDB properties from classpath
@@ -22,8 +52,6 @@ public class ScalarDbConfig {
             }
             properties.load(input);
         }
-        
-        TransactionFactory factory = TransactionFactory.create(properties);
-        return factory.getTransactionManager();
+        return properties;
     }
 }
\ No newline at end of file
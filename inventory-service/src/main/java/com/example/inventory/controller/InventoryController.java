@@ -1,16 +1,24 @@
 package com.example.inventory.controller;
 
 import com.example.inventory.dto.CreateInventoryItemRequest;
+import com.example.inventory.dto.CursorPage;
 import com.example.inventory.dto.ReserveInventoryRequest;
+import com.example.inventory.dto.InventoryCheckBatchRequest;
 import com.example.inventory.dto.InventoryCheckResponse;
+import com.example.inventory.dto.ReservationGroupResponse;
 import com.example.inventory.entity.InventoryItem;
 import com.example.inventory.entity.InventoryReservation;
 import com.example.inventory.service.InventoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,15 +26,38 @@ import java.util.Optional;
 @RequestMapping("/api/v1/inventory")
 public class InventoryController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     @Autowired
     private InventoryService inventoryService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @PostMapping("/items")
     public ResponseEntity<InventoryItem> createInventoryItem(@Valid @RequestBody CreateInventoryItemRequest request) {
         InventoryItem item = inventoryService.createInventoryItem(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(item);
     }
     
+    /**
+     * Streams the inventory catalog as newline-delimited JSON, one page at a time,
+     * so a full export never has to be held in memory.
+     */
+    @GetMapping(value = "/items/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportInventoryItems(
+            @RequestParam(required = false) String status) {
+        StreamingResponseBody body = out -> {
+            String cursor = null;
+            do {
+                CursorPage<InventoryItem> page = inventoryService.getInventoryExportPage(status, cursor);
+                writeNdjson(out, page.getItems());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
     @GetMapping("/items/{productId}")
     public ResponseEntity<InventoryItem> getInventoryItem(@PathVariable String productId) {
         Optional<InventoryItem> item = inventoryService.getInventoryItem(productId);
@@ -36,17 +67,29 @@ public class InventoryController {
     
     @GetMapping("/items")
     public ResponseEntity<List<InventoryItem>> getAllInventoryItems(
-            @RequestParam(required = false) String status) {
-        List<InventoryItem> items = inventoryService.getAllInventoryItems();
-        
-        // Filter by status if provided
-        if (status != null) {
-            items = items.stream()
-                        .filter(item -> status.equals(item.getStatus()))
-                        .toList();
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<InventoryItem> page;
+        try {
+            page = inventoryService.getInventoryItems(status, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
         
-        return ResponseEntity.ok(items);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+    
+    @PostMapping("/items/{productId}/shards")
+    public ResponseEntity<InventoryItem> enableShardedCounters(
+            @PathVariable String productId,
+            @RequestParam int shardCount) {
+        InventoryItem item = inventoryService.enableShardedCounters(productId, shardCount);
+        return ResponseEntity.ok(item);
     }
     
     @PostMapping("/items/{productId}/reservations")
@@ -85,11 +128,17 @@ public class InventoryController {
     }
 
     @PostMapping("/reserve")
-    public ResponseEntity<InventoryReservation> reserveInventoryDirect(@Valid @RequestBody ReserveInventoryRequest request) {
-        InventoryReservation reservation = inventoryService.reserveInventory(request);
+    public ResponseEntity<ReservationGroupResponse> reserveInventoryDirect(@Valid @RequestBody ReserveInventoryRequest request) {
+        ReservationGroupResponse reservation = inventoryService.reserveInventoryItems(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
     }
 
+    @GetMapping("/orders/{orderId}/reservations")
+    public ResponseEntity<List<ReservationGroupResponse>> getOrderReservations(@PathVariable String orderId) {
+        List<ReservationGroupResponse> reservations = inventoryService.getReservationGroupsByOrder(orderId);
+        return ResponseEntity.ok(reservations);
+    }
+
     @PostMapping("/confirm/{reservationId}")
     public ResponseEntity<Void> confirmReservation(@PathVariable String reservationId) {
         inventoryService.confirmReservation(reservationId);
@@ -104,8 +153,25 @@ public class InventoryController {
 
     @GetMapping("/check")
     public ResponseEntity<InventoryCheckResponse> checkInventory(@RequestParam String productId,
-            @RequestParam int quantity) {
-        InventoryCheckResponse response = inventoryService.checkInventory(productId, quantity);
+            @RequestParam int quantity, @RequestParam(required = false) Long maxStalenessMs) {
+        InventoryCheckResponse response = inventoryService.checkInventory(productId, quantity, maxStalenessMs);
         return ResponseEntity.ok(response);
     }
+    
+    @PostMapping("/check/batch")
+    public ResponseEntity<List<InventoryCheckResponse>> checkInventoryBatch(
+            @Valid @RequestBody InventoryCheckBatchRequest request,
+            @RequestParam(required = false) Long maxStalenessMs) {
+        List<InventoryCheckResponse> responses = inventoryService.checkInventory(request.getItems(), maxStalenessMs);
+        return ResponseEntity.ok(responses);
+    }
+    
+    private void writeNdjson(OutputStream out, List<?> items) throws IOException {
+        for (Object item : items) {
+            out.write(objectMapper.writeValueAsBytes(item));
+            out.write('\n');
+        }
+        // Flushing per page hands each page to the client before the next one is read
+        out.flush();
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.example.inventory.controller;
 
+import com.example.common.scalardb.TransactionBatchExecutor;
+import com.example.inventory.dto.ReservationGroupResponse;
 import com.example.inventory.dto.ReserveInventoryRequest;
 import com.example.inventory.entity.InventoryReservation;
 import com.example.inventory.service.InventoryService;
@@ -22,12 +24,12 @@ public class InventoryProcessController {
     private InventoryService inventoryService;
 
     @PostMapping("/reserve-and-confirm")
-    public ResponseEntity<InventoryReservation> reserveAndConfirmInventory(@Valid @RequestBody ReserveInventoryRequest request) {
+    public ResponseEntity<ReservationGroupResponse> reserveAndConfirmInventory(@Valid @RequestBody ReserveInventoryRequest request) {
         logger.info("Received reserve and confirm inventory request for order: {}", request.getOrderId());
         
         try {
             // Reserve inventory
-            InventoryReservation reservation = inventoryService.reserveInventory(request);
+            ReservationGroupResponse reservation = inventoryService.reserveInventoryItems(request);
             
             // Immediately confirm the reservation
             inventoryService.confirmReservation(reservation.getReservationId());
@@ -53,10 +55,8 @@ public class InventoryProcessController {
             reserveRequest.setOrderId("QUICK-" + System.currentTimeMillis());
             reserveRequest.setCustomerId(request.getCustomerId());
             
-            ReserveInventoryRequest.InventoryItemRequest item = new ReserveInventoryRequest.InventoryItemRequest();
-            item.setProductId(request.getProductId());
-            item.setQuantity(request.getQuantity());
-            reserveRequest.setItems(java.util.List.of(item));
+            reserveRequest.setProductId(request.getProductId());
+            reserveRequest.setReservedQuantity(request.getQuantity());
             
             InventoryReservation reservation = inventoryService.reserveInventory(reserveRequest);
             
@@ -77,15 +77,18 @@ public class InventoryProcessController {
         
         BulkConfirmResponse response = new BulkConfirmResponse();
         
-        for (String reservationId : request.getReservationIds()) {
-            try {
-                inventoryService.confirmReservation(reservationId);
+        java.util.List<String> reservationIds = request.getReservationIds();
+        TransactionBatchExecutor.BatchResult<java.util.List<InventoryReservation>> result = 
+            inventoryService.confirmReservations(reservationIds);
+        
+        for (int i = 0; i < reservationIds.size(); i++) {
+            String reservationId = reservationIds.get(i);
+            if (result.isSuccess(i)) {
                 response.getSuccessfulConfirmations().add(reservationId);
                 logger.debug("Confirmed reservation: {}", reservationId);
-                
-            } catch (Exception e) {
-                logger.warn("Failed to confirm reservation: {}, error: {}", reservationId, e.getMessage());
-                response.getFailedConfirmations().put(reservationId, e.getMessage());
+            } else {
+                logger.warn("Failed to confirm reservation: {}, error: {}", reservationId, result.getError(i).getMessage());
+                response.getFailedConfirmations().put(reservationId, result.getError(i).getMessage());
             }
         }
         
@@ -0,0 +1,64 @@
+package com.example.inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class InventoryCheckBatchRequest {
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 200, message = "At most 200 items can be checked at once")
+    @Valid
+    private List<CheckItem> items;
+    
+    // Constructors
+    public InventoryCheckBatchRequest() {}
+    
+    public InventoryCheckBatchRequest(List<CheckItem> items) {
+        this.items = items;
+    }
+    
+    // Getters and Setters
+    public List<CheckItem> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<CheckItem> items) {
+        this.items = items;
+    }
+    
+    public static class CheckItem {
+        @NotBlank(message = "Product ID is required")
+        private String productId;
+        
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be positive")
+        private Integer quantity;
+        
+        public CheckItem() {}
+        
+        public CheckItem(String productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+        
+        public String getProductId() {
+            return productId;
+        }
+        
+        public void setProductId(String productId) {
+            this.productId = productId;
+        }
+        
+        public Integer getQuantity() {
+            return quantity;
+        }
+        
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.example.inventory.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReservationGroupResponse {
+    private String reservationId;
+    private String orderId;
+    private String customerId;
+    private String status;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+    private List<ReservedItem> items = new ArrayList<>();
+
+    public ReservationGroupResponse() {}
+
+    public ReservationGroupResponse(String reservationId, String orderId, String customerId, LocalDateTime expiresAt) {
+        this.reservationId = reservationId;
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.status = "RESERVED";
+        this.expiresAt = expiresAt;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public void addItem(ReservedItem item) {
+        items.add(item);
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public List<ReservedItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReservedItem> items) {
+        this.items = items;
+    }
+
+    public static class ReservedItem {
+        private String productId;
+        private String productName;
+        private int reservedQuantity;
+        private Long unitPrice;
+
+        public ReservedItem() {}
+
+        public ReservedItem(String productId, String productName, int reservedQuantity, Long unitPrice) {
+            this.productId = productId;
+            this.productName = productName;
+            this.reservedQuantity = reservedQuantity;
+            this.unitPrice = unitPrice;
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public void setProductId(String productId) {
+            this.productId = productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public void setProductName(String productName) {
+            this.productName = productName;
+        }
+
+        public int getReservedQuantity() {
+            return reservedQuantity;
+        }
+
+        public void setReservedQuantity(int reservedQuantity) {
+            this.reservedQuantity = reservedQuantity;
+        }
+
+        public Long getUnitPrice() {
+            return unitPrice;
+        }
+
+        public void setUnitPrice(Long unitPrice) {
+            this.unitPrice = unitPrice;
+        }
+    }
+}
\ No newline at end of file
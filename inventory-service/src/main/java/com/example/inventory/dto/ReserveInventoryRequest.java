@@ -1,21 +1,27 @@
 package com.example.inventory.dto;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class ReserveInventoryRequest {
-    @NotBlank(message = "Product ID is required")
+    private String orderId;
+    
     private String productId;
     
     @NotBlank(message = "Customer ID is required") 
     private String customerId;
     
-    @NotNull(message = "Reserved quantity is required")
     @Min(value = 1, message = "Reserved quantity must be positive")
     private Integer reservedQuantity;
     
+    @Valid
+    private List<InventoryItemRequest> items;
+    
     private LocalDateTime expiresAt;
     
     // Constructors
@@ -29,6 +35,14 @@ public class ReserveInventoryRequest {
     }
     
     // Getters and Setters
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+    
     public String getProductId() {
         return productId;
     }
@@ -60,4 +74,58 @@ public class ReserveInventoryRequest {
     public void setExpiresAt(LocalDateTime expiresAt) {
         this.expiresAt = expiresAt;
     }
+    
+    public List<InventoryItemRequest> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<InventoryItemRequest> items) {
+        this.items = items;
+    }
+    
+    // Single-product requests are treated as a one-line order
+    public List<InventoryItemRequest> getLineItems() {
+        if (items != null && !items.isEmpty()) {
+            return items;
+        }
+        return List.of(new InventoryItemRequest(productId, reservedQuantity));
+    }
+    
+    @AssertTrue(message = "Either productId and reservedQuantity or items is required")
+    public boolean isProductOrItemsPresent() {
+        return (items != null && !items.isEmpty()) 
+            || (productId != null && !productId.isBlank() && reservedQuantity != null);
+    }
+    
+    public static class InventoryItemRequest {
+        @NotBlank(message = "Product ID is required")
+        private String productId;
+        
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be positive")
+        private Integer quantity;
+        
+        public InventoryItemRequest() {}
+        
+        public InventoryItemRequest(String productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+        
+        public String getProductId() {
+            return productId;
+        }
+        
+        public void setProductId(String productId) {
+            this.productId = productId;
+        }
+        
+        public Integer getQuantity() {
+            return quantity;
+        }
+        
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+    }
 }
\ No newline at end of file
@@ -38,6 +38,9 @@ public class InventoryItem {
     @Column(name = "version")
     private Integer version;
     
+    @Column(name = "shard_count")
+    private Integer shardCount;
+    
     // Constructors
     public InventoryItem() {}
     
@@ -54,6 +57,7 @@ public class InventoryItem {
         this.createdAt = System.currentTimeMillis();
         this.updatedAt = System.currentTimeMillis();
         this.version = 1;
+        this.shardCount = 1;
     }
     
     // Getters and Setters
@@ -161,6 +165,18 @@ public class InventoryItem {
         this.version = version;
     }
     
+    public Integer getShardCount() {
+        return shardCount;
+    }
+    
+    public void setShardCount(Integer shardCount) {
+        this.shardCount = shardCount;
+    }
+    
+    public boolean isSharded() {
+        return shardCount != null && shardCount > 1;
+    }
+    
     public Key getPartitionKey() {
         return Key.ofText("product_id", productId);
     }
@@ -177,6 +193,7 @@ public class InventoryItem {
                 ", currency='" + currency + '\'' +
                 ", status='" + status + '\'' +
                 ", version=" + version +
+                ", shardCount=" + shardCount +
                 '}';
     }
 }
\ No newline at end of file
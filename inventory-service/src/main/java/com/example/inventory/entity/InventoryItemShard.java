@@ -0,0 +1,87 @@
+package com.example.inventory.entity;
+
+import com.scalar.db.io.Column;
+import com.scalar.db.io.Key;
+
+public class InventoryItemShard {
+    @Column(name = "product_id", isPrimaryKey = true)
+    private String productId;
+    
+    @Column(name = "shard_id", isClusteringKey = true)
+    private Integer shardId;
+    
+    @Column(name = "available_quantity")
+    private Integer availableQuantity;
+    
+    @Column(name = "reserved_quantity")
+    private Integer reservedQuantity;
+    
+    @Column(name = "updated_at")
+    private Long updatedAt;
+    
+    // Constructors
+    public InventoryItemShard() {}
+    
+    public InventoryItemShard(String productId, Integer shardId, Integer availableQuantity, Integer reservedQuantity) {
+        this.productId = productId;
+        this.shardId = shardId;
+        this.availableQuantity = availableQuantity;
+        this.reservedQuantity = reservedQuantity;
+        this.updatedAt = System.currentTimeMillis();
+    }
+    
+    // Getters and Setters
+    public String getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getShardId() {
+        return shardId;
+    }
+    
+    public void setShardId(Integer shardId) {
+        this.shardId = shardId;
+    }
+    
+    public Integer getAvailableQuantity() {
+        return availableQuantity;
+    }
+    
+    public void setAvailableQuantity(Integer availableQuantity) {
+        this.availableQuantity = availableQuantity;
+    }
+    
+    public Integer getReservedQuantity() {
+        return reservedQuantity;
+    }
+    
+    public void setReservedQuantity(Integer reservedQuantity) {
+        this.reservedQuantity = reservedQuantity;
+    }
+    
+    public Long getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(Long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public Key getPartitionKey() {
+        return Key.ofText("product_id", productId);
+    }
+    
+    @Override
+    public String toString() {
+        return "InventoryItemShard{" +
+                "productId='" + productId + '\'' +
+                ", shardId=" + shardId +
+                ", availableQuantity=" + availableQuantity +
+                ", reservedQuantity=" + reservedQuantity +
+                '}';
+    }
+}
\ No newline at end of file
@@ -3,6 +3,8 @@ package com.example.inventory.entity;
 import com.scalar.db.io.Column;
 import com.scalar.db.io.Key;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class InventoryReservation {
     @Column(name = "reservation_id", isPrimaryKey = true)
@@ -29,6 +31,13 @@ public class InventoryReservation {
     @Column(name = "updated_at")
     private Long updatedAt;
     
+    @Column(name = "shard_id")
+    private Integer shardId;
+    
+    // Per-shard quantities as "shardId:quantity,..." when a reservation spans several shards
+    @Column(name = "shard_allocations")
+    private String shardAllocations;
+    
     // Constructors
     public InventoryReservation() {}
     
@@ -133,6 +142,60 @@ public class InventoryReservation {
         return LocalDateTime.ofEpochSecond(updatedAt / 1000, (int) (updatedAt % 1000) * 1000000);
     }
     
+    public Integer getShardId() {
+        return shardId;
+    }
+    
+    public void setShardId(Integer shardId) {
+        this.shardId = shardId;
+    }
+    
+    public String getShardAllocations() {
+        return shardAllocations;
+    }
+    
+    public void setShardAllocations(String shardAllocations) {
+        this.shardAllocations = shardAllocations;
+    }
+    
+    public boolean isSharded() {
+        return shardId != null;
+    }
+    
+    /**
+     * Quantity held on each shard. Reservations written before allocations were recorded hold
+     * their whole quantity on shard_id.
+     */
+    public Map<Integer, Integer> getShardAllocationMap() {
+        Map<Integer, Integer> allocations = new LinkedHashMap<>();
+        if (shardAllocations != null && !shardAllocations.isEmpty()) {
+            for (String entry : shardAllocations.split(",")) {
+                String[] parts = entry.split(":");
+                allocations.put(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+            }
+        } else if (shardId != null) {
+            allocations.put(shardId, reservedQuantity);
+        }
+        return allocations;
+    }
+    
+    public void setShardAllocationMap(Map<Integer, Integer> allocations) {
+        if (allocations == null || allocations.isEmpty()) {
+            this.shardId = null;
+            this.shardAllocations = null;
+            return;
+        }
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<Integer, Integer> allocation : allocations.entrySet()) {
+            if (encoded.length() > 0) {
+                encoded.append(',');
+            }
+            encoded.append(allocation.getKey()).append(':').append(allocation.getValue());
+        }
+        this.shardId = allocations.keySet().iterator().next();
+        this.shardAllocations = encoded.toString();
+    }
+    
     public Key getPartitionKey() {
         return Key.ofText("reservation_id", reservationId);
     }
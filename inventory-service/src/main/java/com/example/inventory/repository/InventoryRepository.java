@@ -1,14 +1,15 @@
 package com.example.inventory.repository;
 
+import com.example.inventory.dto.CursorPage;
 import com.example.inventory.entity.InventoryItem;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.api.Result;
 import com.scalar.db.api.Scan;
+import com.scalar.db.api.ScanBuilder;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.TextValue;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +20,25 @@ public class InventoryRepository {
     
     private static final String NAMESPACE = "inventory";
     private static final String TABLE_NAME = "inventory_items";
+    private static final String CATALOG_TABLE = "inventory_catalog";
+    private static final ResultMapper<InventoryItem> INVENTORY_ITEM_MAPPER = ResultMapper.of(InventoryItem::new)
+        .text("product_id", InventoryItem::setProductId)
+        .text("product_name", InventoryItem::setProductName)
+        .intValue("available_quantity", InventoryItem::setAvailableQuantity)
+        .intValue("reserved_quantity", InventoryItem::setReservedQuantity)
+        .intValue("total_quantity", InventoryItem::setTotalQuantity)
+        .bigIntValue("unit_price", InventoryItem::setUnitPrice)
+        .text("currency", InventoryItem::setCurrency)
+        .text("status", InventoryItem::setStatus)
+        .bigIntValue("created_at", InventoryItem::setCreatedAt)
+        .bigIntValue("updated_at", InventoryItem::setUpdatedAt)
+        .intValue("version", InventoryItem::setVersion)
+        .intValue("shard_count", InventoryItem::setShardCount)
+        .build();
+    
+    // Catalog entries are spread over a fixed set of partitions so paging never scans the whole table.
+    // Each entry carries a copy of the item columns, so a page is answered from the catalog scan alone.
+    private static final int CATALOG_BUCKETS = 8;
     
     public Optional<InventoryItem> findById(DistributedTransaction transaction, String productId) 
             throws TransactionException {
@@ -46,6 +66,52 @@ public class InventoryRepository {
         return items;
     }
     
+    /**
+     * Reads one page of inventory items by walking the catalog partitions in order,
+     * optionally keeping only items in the given status. At most maxExaminedRows catalog
+     * rows are read per call; when a sparse status runs into that cap the page comes back
+     * short, with a cursor to continue from. The cursor holds the catalog bucket and the
+     * last product_id examined (empty at a bucket start); a full final page may be followed
+     * by one empty page.
+     */
+    public CursorPage<InventoryItem> findPage(DistributedTransaction transaction, String status, 
+            String cursor, int limit, int maxExaminedRows) throws TransactionException {
+        int bucket = 0;
+        String lastProductId = null;
+        if (cursor != null) {
+            String[] position = CursorPage.decodeCursor(cursor, 2);
+            bucket = Integer.parseInt(position[0]);
+            lastProductId = position[1].isEmpty() ? null : position[1];
+        }
+        
+        List<InventoryItem> items = new ArrayList<>();
+        int examined = 0;
+        while (bucket < CATALOG_BUCKETS) {
+            if (examined >= maxExaminedRows) {
+                return new CursorPage<>(items, 
+                    CursorPage.encodeCursor(bucket, lastProductId != null ? lastProductId : ""));
+            }
+            int fetch = Math.min(limit, maxExaminedRows - examined);
+            List<Result> entries = transaction.scan(catalogScan(bucket, lastProductId, fetch));
+            for (Result entry : entries) {
+                examined++;
+                InventoryItem item = mapResultToInventoryItem(entry);
+                lastProductId = item.getProductId();
+                if (status == null || status.equals(item.getStatus())) {
+                    items.add(item);
+                    if (items.size() == limit) {
+                        return new CursorPage<>(items, CursorPage.encodeCursor(bucket, lastProductId));
+                    }
+                }
+            }
+            if (entries.size() < fetch) {
+                bucket++;
+                lastProductId = null;
+            }
+        }
+        return new CursorPage<>(items, null);
+    }
+    
     public List<InventoryItem> findByStatus(DistributedTransaction transaction, String status) 
             throws TransactionException {
         Scan scan = Scan.newBuilder()
@@ -79,9 +145,65 @@ public class InventoryRepository {
             .bigIntValue("created_at", item.getCreatedAt())
             .bigIntValue("updated_at", item.getUpdatedAt())
             .intValue("version", item.getVersion())
+            .intValue("shard_count", item.getShardCount())
             .build();
         
         transaction.put(put);
+        saveCatalogEntry(transaction, item);
+    }
+    
+    // Written with every item change, in the same transaction, so listing never reads stale catalog columns
+    public void saveCatalogEntry(DistributedTransaction transaction, InventoryItem item) throws TransactionException {
+        Put put = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(CATALOG_TABLE)
+            .partitionKey(Key.ofInt("catalog_bucket", catalogBucketOf(item.getProductId())))
+            .clusteringKey(Key.ofText("product_id", item.getProductId()))
+            .textValue("product_name", item.getProductName())
+            .intValue("available_quantity", item.getAvailableQuantity())
+            .intValue("reserved_quantity", item.getReservedQuantity())
+            .intValue("total_quantity", item.getTotalQuantity())
+            .bigIntValue("unit_price", item.getUnitPrice())
+            .textValue("currency", item.getCurrency())
+            .textValue("status", item.getStatus())
+            .bigIntValue("created_at", item.getCreatedAt())
+            .bigIntValue("updated_at", item.getUpdatedAt())
+            .intValue("version", item.getVersion())
+            .intValue("shard_count", item.getShardCount())
+            .build();
+        
+        transaction.put(put);
+    }
+    
+    public List<String> findAllProductIds(DistributedTransaction transaction) throws TransactionException {
+        Scan scan = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .all()
+            .projections("product_id")
+            .build();
+        
+        List<String> productIds = new ArrayList<>();
+        for (Result result : transaction.scan(scan)) {
+            productIds.add(result.getText("product_id"));
+        }
+        return productIds;
+    }
+    
+    private Scan catalogScan(int bucket, String afterProductId, int limit) {
+        ScanBuilder.BuildableScan scanBuilder = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(CATALOG_TABLE)
+            .partitionKey(Key.ofInt("catalog_bucket", bucket))
+            .limit(limit);
+        if (afterProductId != null) {
+            scanBuilder.start(Key.ofText("product_id", afterProductId), false);
+        }
+        return scanBuilder.build();
+    }
+    
+    private static int catalogBucketOf(String productId) {
+        return Math.floorMod(productId.hashCode(), CATALOG_BUCKETS);
     }
     
     public boolean existsById(DistributedTransaction transaction, String productId) 
@@ -111,20 +233,6 @@ public class InventoryRepository {
     }
     
     private InventoryItem mapResultToInventoryItem(Result result) {
-        InventoryItem item = new InventoryItem();
-        
-        result.getValue("product_id").ifPresent(v -> item.setProductId(((TextValue) v).get()));
-        result.getValue("product_name").ifPresent(v -> item.setProductName(((TextValue) v).get()));
-        result.getValue("available_quantity").ifPresent(v -> item.setAvailableQuantity(v.getAsInt()));
-        result.getValue("reserved_quantity").ifPresent(v -> item.setReservedQuantity(v.getAsInt()));
-        result.getValue("total_quantity").ifPresent(v -> item.setTotalQuantity(v.getAsInt()));
-        result.getValue("unit_price").ifPresent(v -> item.setUnitPrice(v.getAsLong()));
-        result.getValue("currency").ifPresent(v -> item.setCurrency(((TextValue) v).get()));
-        result.getValue("status").ifPresent(v -> item.setStatus(((TextValue) v).get()));
-        result.getValue("created_at").ifPresent(v -> item.setCreatedAt(v.getAsLong()));
-        result.getValue("updated_at").ifPresent(v -> item.setUpdatedAt(v.getAsLong()));
-        result.getValue("version").ifPresent(v -> item.setVersion(v.getAsInt()));
-        
-        return item;
+        return INVENTORY_ITEM_MAPPER.map(result);
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.entity.InventoryItemShard;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.exception.transaction.TransactionException;
+import com.scalar.db.io.Key;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class InventoryShardRepository {
+    
+    private static final String NAMESPACE = "inventory";
+    private static final String TABLE_NAME = "inventory_item_shards";
+    private static final ResultMapper<InventoryItemShard> SHARD_MAPPER = ResultMapper.of(InventoryItemShard::new)
+        .text("product_id", InventoryItemShard::setProductId)
+        .intValue("shard_id", InventoryItemShard::setShardId)
+        .intValue("available_quantity", InventoryItemShard::setAvailableQuantity)
+        .intValue("reserved_quantity", InventoryItemShard::setReservedQuantity)
+        .bigIntValue("updated_at", InventoryItemShard::setUpdatedAt)
+        .build();
+    
+    public Optional<InventoryItemShard> findById(DistributedTransaction transaction, String productId, int shardId) 
+            throws TransactionException {
+        Get get = Get.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .partitionKey(Key.ofText("product_id", productId))
+            .clusteringKey(Key.ofInt("shard_id", shardId))
+            .build();
+        
+        Optional<Result> result = transaction.get(get);
+        return result.map(this::mapResultToShard);
+    }
+    
+    public List<InventoryItemShard> findByProductId(DistributedTransaction transaction, String productId) 
+            throws TransactionException {
+        Scan scan = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .partitionKey(Key.ofText("product_id", productId))
+            .build();
+        
+        List<Result> results = transaction.scan(scan);
+        List<InventoryItemShard> shards = new ArrayList<>();
+        for (Result result : results) {
+            shards.add(mapResultToShard(result));
+        }
+        return shards;
+    }
+    
+    public void save(DistributedTransaction transaction, InventoryItemShard shard) throws TransactionException {
+        Put put = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .partitionKey(Key.ofText("product_id", shard.getProductId()))
+            .clusteringKey(Key.ofInt("shard_id", shard.getShardId()))
+            .intValue("available_quantity", shard.getAvailableQuantity())
+            .intValue("reserved_quantity", shard.getReservedQuantity())
+            .bigIntValue("updated_at", shard.getUpdatedAt())
+            .build();
+        
+        transaction.put(put);
+    }
+    
+    private InventoryItemShard mapResultToShard(Result result) {
+        return SHARD_MAPPER.map(result);
+    }
+}
\ No newline at end of file
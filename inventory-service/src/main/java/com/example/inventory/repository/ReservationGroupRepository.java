@@ -0,0 +1,52 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.entity.InventoryReservation;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.exception.transaction.TransactionException;
+import com.scalar.db.io.Key;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class ReservationGroupRepository {
+    
+    private static final String NAMESPACE = "inventory";
+    private static final String TABLE_NAME = "reservation_groups";
+    
+    public void save(DistributedTransaction transaction, String groupId, String orderId, 
+                     InventoryReservation reservation) throws TransactionException {
+        Put put = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .partitionKey(Key.ofText("group_id", groupId))
+            .clusteringKey(Key.ofText("reservation_id", reservation.getReservationId()))
+            .textValue("order_id", orderId)
+            .textValue("customer_id", reservation.getCustomerId())
+            .textValue("product_id", reservation.getProductId())
+            .intValue("reserved_quantity", reservation.getReservedQuantity())
+            .bigIntValue("created_at", reservation.getCreatedAt())
+            .build();
+        
+        transaction.put(put);
+    }
+    
+    public List<String> findReservationIds(DistributedTransaction transaction, String groupId) 
+            throws TransactionException {
+        Scan scan = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .partitionKey(Key.ofText("group_id", groupId))
+            .projections("reservation_id")
+            .build();
+        
+        List<String> reservationIds = new ArrayList<>();
+        for (Result result : transaction.scan(scan)) {
+            reservationIds.add(result.getText("reservation_id"));
+        }
+        return reservationIds;
+    }
+}
\ No newline at end of file
@@ -1,24 +1,50 @@
 package com.example.inventory.repository;
 
 import com.example.inventory.entity.InventoryReservation;
+import com.scalar.db.api.Delete;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.api.Result;
 import com.scalar.db.api.Scan;
+import com.scalar.db.api.ScanBuilder;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.TextValue;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Repository
 public class ReservationRepository {
     
     private static final String NAMESPACE = "inventory";
     private static final String TABLE_NAME = "inventory_reservations";
+    private static final String BY_CUSTOMER_TABLE = "reservations_by_customer";
+    private static final String BY_PRODUCT_TABLE = "reservations_by_product";
+    private static final String BY_EXPIRY_TABLE = "reservations_by_expiry";
+    private static final ResultMapper<InventoryReservation> RESERVATION_MAPPER = ResultMapper.of(InventoryReservation::new)
+        .text("reservation_id", InventoryReservation::setReservationId)
+        .text("product_id", InventoryReservation::setProductId)
+        .text("customer_id", InventoryReservation::setCustomerId)
+        .intValue("reserved_quantity", InventoryReservation::setReservedQuantity)
+        .text("reservation_status", InventoryReservation::setReservationStatus)
+        .bigIntValue("expires_at", InventoryReservation::setExpiresAt)
+        .bigIntValue("created_at", InventoryReservation::setCreatedAt)
+        .bigIntValue("updated_at", InventoryReservation::setUpdatedAt)
+        .intValue("shard_id", InventoryReservation::setShardId)
+        .text("shard_allocations", InventoryReservation::setShardAllocations)
+        .build();
+    
+    // Width of a reservations_by_expiry partition
+    public static final long EXPIRY_BUCKET_MILLIS = 60 * 60 * 1000L;
+    
+    // Same window the expiry sweeper rebuilds from; older ACTIVE reservations are not found
+    @Value("${inventory.reservation.sweeper.lookback-hours:168}")
+    private long expiryLookbackHours;
     
     public Optional<InventoryReservation> findById(DistributedTransaction transaction, String reservationId) 
             throws TransactionException {
@@ -36,60 +62,76 @@ public class ReservationRepository {
             throws TransactionException {
         Scan scan = Scan.newBuilder()
             .namespace(NAMESPACE)
-            .table(TABLE_NAME)
+            .table(BY_PRODUCT_TABLE)
+            .partitionKey(Key.ofText("product_id", productId))
             .build();
         
-        List<Result> results = transaction.scan(scan);
-        List<InventoryReservation> reservations = new ArrayList<>();
-        for (Result result : results) {
-            InventoryReservation reservation = mapResultToReservation(result);
-            if (productId.equals(reservation.getProductId())) {
-                reservations.add(reservation);
-            }
-        }
-        return reservations;
+        return mapResults(transaction.scan(scan));
     }
     
     public List<InventoryReservation> findByCustomerId(DistributedTransaction transaction, String customerId) 
             throws TransactionException {
         Scan scan = Scan.newBuilder()
             .namespace(NAMESPACE)
-            .table(TABLE_NAME)
+            .table(BY_CUSTOMER_TABLE)
+            .partitionKey(Key.ofText("customer_id", customerId))
             .build();
         
-        List<Result> results = transaction.scan(scan);
-        List<InventoryReservation> reservations = new ArrayList<>();
-        for (Result result : results) {
-            InventoryReservation reservation = mapResultToReservation(result);
-            if (customerId.equals(reservation.getCustomerId())) {
-                reservations.add(reservation);
-            }
-        }
-        return reservations;
+        return mapResults(transaction.scan(scan));
     }
     
     public List<InventoryReservation> findExpiredReservations(DistributedTransaction transaction) 
             throws TransactionException {
         long currentTime = System.currentTimeMillis();
+        long fromBucket = expiryBucketOf(currentTime - TimeUnit.HOURS.toMillis(expiryLookbackHours));
+        return findExpiredReservations(transaction, fromBucket, currentTime);
+    }
+    
+    public List<InventoryReservation> findExpiredReservations(DistributedTransaction transaction, 
+                                                              long fromBucket, long currentTime) 
+            throws TransactionException {
+        List<InventoryReservation> expiredReservations = new ArrayList<>();
+        for (long bucket = fromBucket; bucket <= expiryBucketOf(currentTime); bucket++) {
+            expiredReservations.addAll(findByStatusAndExpiryBucket(transaction, "ACTIVE", bucket, currentTime));
+        }
+        return expiredReservations;
+    }
+    
+    public List<InventoryReservation> findByStatusAndExpiryBucket(DistributedTransaction transaction, String status, 
+                                                                  long bucket, Long expiresBefore) 
+            throws TransactionException {
+        ScanBuilder.BuildableScan builder = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_EXPIRY_TABLE)
+            .partitionKey(expiryPartitionKey(status, bucket))
+            .ordering(Scan.Ordering.asc("expires_at"));
+        if (expiresBefore != null) {
+            builder.end(Key.ofBigInt("expires_at", expiresBefore), false);
+        }
+        
+        return mapResults(transaction.scan(builder.build()));
+    }
+    
+    public List<String> findAllReservationIds(DistributedTransaction transaction) 
+            throws TransactionException {
         Scan scan = Scan.newBuilder()
             .namespace(NAMESPACE)
             .table(TABLE_NAME)
+            .all()
+            .projections("reservation_id")
             .build();
         
-        List<Result> results = transaction.scan(scan);
-        List<InventoryReservation> expiredReservations = new ArrayList<>();
-        for (Result result : results) {
-            InventoryReservation reservation = mapResultToReservation(result);
-            if (reservation.getExpiresAt() < currentTime && 
-                "ACTIVE".equals(reservation.getReservationStatus())) {
-                expiredReservations.add(reservation);
-            }
+        List<String> reservationIds = new ArrayList<>();
+        for (Result result : transaction.scan(scan)) {
+            reservationIds.add(result.getText("reservation_id"));
         }
-        return expiredReservations;
+        return reservationIds;
     }
     
     public void save(DistributedTransaction transaction, InventoryReservation reservation) 
             throws TransactionException {
+        Optional<InventoryReservation> existing = findById(transaction, reservation.getReservationId());
+        
         Put put = Put.newBuilder()
             .namespace(NAMESPACE)
             .table(TABLE_NAME)
@@ -101,9 +143,110 @@ public class ReservationRepository {
             .bigIntValue("expires_at", reservation.getExpiresAt())
             .bigIntValue("created_at", reservation.getCreatedAt())
             .bigIntValue("updated_at", reservation.getUpdatedAt())
+            .intValue("shard_id", reservation.getShardId())
+            .textValue("shard_allocations", reservation.getShardAllocations())
             .build();
         
         transaction.put(put);
+        
+        if (existing.isPresent()) {
+            deleteStaleIndexes(transaction, existing.get(), reservation);
+        }
+        saveIndexes(transaction, reservation);
+    }
+    
+    public void saveIndexes(DistributedTransaction transaction, InventoryReservation reservation) 
+            throws TransactionException {
+        Put byCustomer = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_CUSTOMER_TABLE)
+            .partitionKey(Key.ofText("customer_id", reservation.getCustomerId()))
+            .clusteringKey(Key.ofText("reservation_id", reservation.getReservationId()))
+            .textValue("product_id", reservation.getProductId())
+            .intValue("reserved_quantity", reservation.getReservedQuantity())
+            .textValue("reservation_status", reservation.getReservationStatus())
+            .bigIntValue("expires_at", reservation.getExpiresAt())
+            .bigIntValue("created_at", reservation.getCreatedAt())
+            .bigIntValue("updated_at", reservation.getUpdatedAt())
+            .build();
+        
+        Put byProduct = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_PRODUCT_TABLE)
+            .partitionKey(Key.ofText("product_id", reservation.getProductId()))
+            .clusteringKey(Key.ofText("reservation_id", reservation.getReservationId()))
+            .textValue("customer_id", reservation.getCustomerId())
+            .intValue("reserved_quantity", reservation.getReservedQuantity())
+            .textValue("reservation_status", reservation.getReservationStatus())
+            .bigIntValue("expires_at", reservation.getExpiresAt())
+            .bigIntValue("created_at", reservation.getCreatedAt())
+            .bigIntValue("updated_at", reservation.getUpdatedAt())
+            .build();
+        
+        Put byExpiry = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_EXPIRY_TABLE)
+            .partitionKey(expiryPartitionKey(reservation.getReservationStatus(), 
+                                             expiryBucketOf(reservation.getExpiresAt())))
+            .clusteringKey(expiryClusteringKey(reservation))
+            .textValue("product_id", reservation.getProductId())
+            .textValue("customer_id", reservation.getCustomerId())
+            .intValue("reserved_quantity", reservation.getReservedQuantity())
+            .bigIntValue("created_at", reservation.getCreatedAt())
+            .bigIntValue("updated_at", reservation.getUpdatedAt())
+            .build();
+        
+        transaction.put(byCustomer);
+        transaction.put(byProduct);
+        transaction.put(byExpiry);
+    }
+    
+    private void deleteStaleIndexes(DistributedTransaction transaction, InventoryReservation previous, 
+                                    InventoryReservation current) throws TransactionException {
+        if (!previous.getCustomerId().equals(current.getCustomerId())) {
+            transaction.delete(Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_CUSTOMER_TABLE)
+                .partitionKey(Key.ofText("customer_id", previous.getCustomerId()))
+                .clusteringKey(Key.ofText("reservation_id", previous.getReservationId()))
+                .build());
+        }
+        if (!previous.getProductId().equals(current.getProductId())) {
+            transaction.delete(Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_PRODUCT_TABLE)
+                .partitionKey(Key.ofText("product_id", previous.getProductId()))
+                .clusteringKey(Key.ofText("reservation_id", previous.getReservationId()))
+                .build());
+        }
+        if (!previous.getReservationStatus().equals(current.getReservationStatus()) 
+                || !Objects.equals(previous.getExpiresAt(), current.getExpiresAt())) {
+            transaction.delete(Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_EXPIRY_TABLE)
+                .partitionKey(expiryPartitionKey(previous.getReservationStatus(), 
+                                                 expiryBucketOf(previous.getExpiresAt())))
+                .clusteringKey(expiryClusteringKey(previous))
+                .build());
+        }
+    }
+    
+    public static long expiryBucketOf(long expiresAt) {
+        return expiresAt / EXPIRY_BUCKET_MILLIS;
+    }
+    
+    private Key expiryPartitionKey(String status, long bucket) {
+        return Key.newBuilder()
+            .addText("reservation_status", status)
+            .addBigInt("expiry_bucket", bucket)
+            .build();
+    }
+    
+    private Key expiryClusteringKey(InventoryReservation reservation) {
+        return Key.newBuilder()
+            .addBigInt("expires_at", reservation.getExpiresAt())
+            .addText("reservation_id", reservation.getReservationId())
+            .build();
     }
     
     public boolean existsById(DistributedTransaction transaction, String reservationId) 
@@ -111,18 +254,15 @@ public class ReservationRepository {
         return findById(transaction, reservationId).isPresent();
     }
     
+    private List<InventoryReservation> mapResults(List<Result> results) {
+        List<InventoryReservation> reservations = new ArrayList<>();
+        for (Result result : results) {
+            reservations.add(mapResultToReservation(result));
+        }
+        return reservations;
+    }
+    
     private InventoryReservation mapResultToReservation(Result result) {
-        InventoryReservation reservation = new InventoryReservation();
-        
-        result.getValue("reservation_id").ifPresent(v -> reservation.setReservationId(((TextValue) v).get()));
-        result.getValue("product_id").ifPresent(v -> reservation.setProductId(((TextValue) v).get()));
-        result.getValue("customer_id").ifPresent(v -> reservation.setCustomerId(((TextValue) v).get()));
-        result.getValue("reserved_quantity").ifPresent(v -> reservation.setReservedQuantity(v.getAsInt()));
-        result.getValue("reservation_status").ifPresent(v -> reservation.setReservationStatus(((TextValue) v).get()));
-        result.getValue("expires_at").ifPresent(v -> reservation.setExpiresAt(v.getAsLong()));
-        result.getValue("created_at").ifPresent(v -> reservation.setCreatedAt(v.getAsLong()));
-        result.getValue("updated_at").ifPresent(v -> reservation.setUpdatedAt(v.getAsLong()));
-        
-        return reservation;
+        return RESERVATION_MAPPER.map(result);
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.example.inventory.service;
+
+import com.example.inventory.config.MetricsConfig.InventoryMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cache of availability snapshots keyed by product id.
+ * Caffeine bounds the cache by size (W-TinyLFU admission) and drops entries once they are older than maxStalenessMillis.
+ * Stock changes invalidate entries after commit; a load that started before an invalidation of the same
+ * product is not cached. Versions are tracked per product, so invalidations of one product never drop loads
+ * of another.
+ */
+public class AvailabilityNearCache {
+    
+    private final Cache<String, Snapshot> cache;
+    private final Ticker ticker;
+    private final long maxStalenessMillis;
+    private final InventoryMetrics metrics;
+    // Per-product invalidation count; only products invalidated at least once have an entry
+    private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+    
+    public AvailabilityNearCache(long maxSize, long maxStalenessMillis, Ticker ticker, InventoryMetrics metrics) {
+        if (maxSize <= 0 || maxStalenessMillis <= 0) {
+            throw new IllegalArgumentException("maxSize and maxStalenessMillis must be positive");
+        }
+        this.ticker = ticker;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.metrics = metrics;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMillis(maxStalenessMillis))
+            .ticker(ticker)
+            .executor(Runnable::run)
+            .removalListener((String productId, Snapshot snapshot, RemovalCause cause) -> {
+                if (cause.wasEvicted()) {
+                    metrics.incrementAvailabilityCacheEviction();
+                }
+            })
+            .build();
+    }
+    
+    /**
+     * Returns the cached snapshot when it is no older than maxStalenessMs.
+     * A null bound accepts any live entry; a bound of zero or less always misses.
+     */
+    public Optional<Snapshot> get(String productId, Long maxStalenessMs) {
+        Snapshot snapshot = maxStalenessMs == null || maxStalenessMs > 0 ? cache.getIfPresent(productId) : null;
+        if (snapshot != null && maxStalenessMs != null && maxStalenessMs < maxStalenessMillis
+                && ageMillis(snapshot) > maxStalenessMs) {
+            snapshot = null;
+        }
+        if (snapshot == null) {
+            metrics.incrementAvailabilityCacheMiss();
+            return Optional.empty();
+        }
+        metrics.incrementAvailabilityCacheHit();
+        return Optional.of(snapshot);
+    }
+    
+    /**
+     * Token to capture for a product before reading it from storage and pass to put.
+     */
+    public long generation(String productId) {
+        return versions.getOrDefault(productId, 0L);
+    }
+    
+    /**
+     * Caches a snapshot read from storage unless the product was invalidated since the generation was captured.
+     */
+    public void put(String productId, boolean found, int availableQuantity, long loadGeneration) {
+        // compute holds the product's map entry, so an invalidation cannot land between the check and the put
+        versions.compute(productId, (id, version) -> {
+            if ((version != null ? version : 0L) == loadGeneration) {
+                cache.put(id, new Snapshot(found, availableQuantity, ticker.read()));
+            }
+            return version;
+        });
+    }
+    
+    public void invalidate(String productId) {
+        versions.compute(productId, (id, version) -> {
+            cache.invalidate(id);
+            return version != null ? version + 1 : 1L;
+        });
+    }
+    
+    public void invalidateAll(Collection<String> productIds) {
+        productIds.forEach(this::invalidate);
+    }
+    
+    public long size() {
+        return cache.estimatedSize();
+    }
+    
+    private long ageMillis(Snapshot snapshot) {
+        return TimeUnit.NANOSECONDS.toMillis(ticker.read() - snapshot.loadedAtNanos);
+    }
+    
+    public static final class Snapshot {
+        
+        private final boolean found;
+        private final int availableQuantity;
+        private final long loadedAtNanos;
+        
+        private Snapshot(boolean found, int availableQuantity, long loadedAtNanos) {
+            this.found = found;
+            this.availableQuantity = availableQuantity;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+        
+        public boolean isFound() {
+            return found;
+        }
+        
+        public int getAvailableQuantity() {
+            return availableQuantity;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.inventory.service;
+
+import com.example.common.scalardb.ChunkedBackfill;
+import com.example.inventory.entity.InventoryItem;
+import com.example.inventory.repository.InventoryRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Optional;
+
+// Populates inventory_catalog for items created before paged listing was introduced, and rewrites
+// older entries that predate the copied item columns
+@Component
+@ConditionalOnProperty(name = "inventory.catalog-backfill.enabled", havingValue = "true")
+public class InventoryCatalogBackfill extends ChunkedBackfill {
+    
+    private final InventoryRepository inventoryRepository;
+    
+    public InventoryCatalogBackfill(DistributedTransactionManager transactionManager,
+                                    InventoryRepository inventoryRepository,
+                                    @Value("${inventory.catalog-backfill.batch-size:100}") int batchSize) {
+        super(transactionManager, "inventory catalog", batchSize);
+        this.inventoryRepository = inventoryRepository;
+    }
+    
+    @Override
+    protected List<String> loadIds(DistributedTransaction transaction) throws Exception {
+        return inventoryRepository.findAllProductIds(transaction);
+    }
+    
+    @Override
+    protected boolean backfill(String productId, DistributedTransaction transaction) throws Exception {
+        Optional<InventoryItem> item = inventoryRepository.findById(transaction, productId);
+        if (item.isEmpty()) {
+            return false;
+        }
+        inventoryRepository.saveCatalogEntry(transaction, item.get());
+        return true;
+    }
+}
\ No newline at end of file
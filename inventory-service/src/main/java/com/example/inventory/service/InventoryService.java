@@ -1,9 +1,17 @@
 package com.example.inventory.service;
 
+import com.example.common.outbox.OutboxEvent;
+import com.example.common.outbox.OutboxRepository;
+import com.example.common.scalardb.ReadOnlyTransactionManager;
+import com.example.common.scalardb.TransactionBatchExecutor;
 import com.example.inventory.dto.CreateInventoryItemRequest;
+import com.example.inventory.dto.CursorPage;
 import com.example.inventory.dto.ReserveInventoryRequest;
+import com.example.inventory.dto.InventoryCheckBatchRequest;
 import com.example.inventory.dto.InventoryCheckResponse;
+import com.example.inventory.dto.ReservationGroupResponse;
 import com.example.inventory.entity.InventoryItem;
+import com.example.inventory.entity.InventoryItemShard;
 import com.example.inventory.entity.InventoryReservation;
 import com.example.inventory.entity.InventoryStatus;
 import com.example.inventory.entity.ReservationStatus;
@@ -12,6 +20,8 @@ import com.example.inventory.exception.InsufficientInventoryException;
 import com.example.inventory.exception.ReservationNotFoundException;
 import com.example.inventory.exception.InvalidReservationStatusException;
 import com.example.inventory.repository.InventoryRepository;
+import com.example.inventory.repository.InventoryShardRepository;
+import com.example.inventory.repository.ReservationGroupRepository;
 import com.example.inventory.repository.ReservationRepository;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
@@ -19,25 +29,85 @@ import com.scalar.db.exception.transaction.TransactionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Service
 public class InventoryService {
     
     private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
     
+    public static final String RESERVATION_AGGREGATE = "InventoryReservation";
+    
+    // Reservations still holding their stock; confirming does not take it out of reserved
+    private static final Set<ReservationStatus> HELD_STATUSES = 
+        EnumSet.of(ReservationStatus.ACTIVE, ReservationStatus.CONFIRMED);
+    
     @Autowired
     private DistributedTransactionManager transactionManager;
     
+    @Autowired
+    private ReadOnlyTransactionManager readOnlyTransactionManager;
+    
     @Autowired
     private InventoryRepository inventoryRepository;
     
     @Autowired
     private ReservationRepository reservationRepository;
     
+    @Autowired
+    private InventoryShardRepository shardRepository;
+    
+    @Autowired
+    private ReservationGroupRepository reservationGroupRepository;
+    
+    @Autowired
+    private OutboxRepository outboxRepository;
+    
+    @Autowired
+    private TransactionBatchExecutor batchExecutor;
+    
+    @Autowired(required = false)
+    private ReservationTimingWheel expiryWheel;
+    
+    @Autowired(required = false)
+    private AvailabilityNearCache availabilityCache;
+    
+    @Autowired(required = false)
+    private ExecutorService availabilityReadExecutor;
+    
+    @Value("${inventory.reservation.default-expiry-hours:24}")
+    private long defaultExpiryHours;
+    
+    @Value("${inventory.pagination.default-page-size:20}")
+    private int defaultPageSize = 20;
+    
+    @Value("${inventory.pagination.max-page-size:100}")
+    private int maxPageSize = 100;
+    
+    @Value("${inventory.export.page-size:500}")
+    private int exportPageSize = 500;
+    
+    // Catalog rows read per page request, however few of them match the status filter
+    @Value("${inventory.pagination.max-examined-rows:1000}")
+    private int maxExaminedRows = 1000;
+    
     public InventoryItem createInventoryItem(CreateInventoryItemRequest request) {
         DistributedTransaction transaction = transactionManager.start();
         try {
@@ -57,6 +127,7 @@ public class InventoryService {
             
             inventoryRepository.save(transaction, item);
             transaction.commit();
+            invalidateAvailability(item.getProductId());
             
             log.info("Created inventory item: {}", item.getProductId());
             return item;
@@ -68,9 +139,12 @@ public class InventoryService {
     }
     
     public Optional<InventoryItem> getInventoryItem(String productId) {
-        DistributedTransaction transaction = transactionManager.start();
+        DistributedTransaction transaction = readOnlyTransactionManager.start();
         try {
             Optional<InventoryItem> item = inventoryRepository.findById(transaction, productId);
+            if (item.isPresent()) {
+                applyShardTotals(transaction, item.get());
+            }
             transaction.commit();
             return item;
         } catch (Exception e) {
@@ -84,6 +158,9 @@ public class InventoryService {
         DistributedTransaction transaction = transactionManager.start();
         try {
             List<InventoryItem> items = inventoryRepository.findAll(transaction);
+            for (InventoryItem item : items) {
+                applyShardTotals(transaction, item);
+            }
             transaction.commit();
             return items;
         } catch (Exception e) {
@@ -93,6 +170,43 @@ public class InventoryService {
         }
     }
     
+    /**
+     * Returns one page of inventory items, optionally filtered by status. The requested
+     * limit is clamped to the configured maximum.
+     */
+    public CursorPage<InventoryItem> getInventoryItems(String status, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+        return readInventoryPage(status, cursor, pageSize);
+    }
+    
+    /**
+     * Returns one export page of inventory items. Export pages are larger than API pages
+     * and each is read in its own transaction.
+     */
+    public CursorPage<InventoryItem> getInventoryExportPage(String status, String cursor) {
+        return readInventoryPage(status, cursor, exportPageSize);
+    }
+    
+    private CursorPage<InventoryItem> readInventoryPage(String status, String cursor, int pageSize) {
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            CursorPage<InventoryItem> page = inventoryRepository.findPage(
+                transaction, status, cursor, pageSize, Math.max(maxExaminedRows, pageSize));
+            for (InventoryItem item : page.getItems()) {
+                applyShardTotals(transaction, item);
+            }
+            transaction.commit();
+            return page;
+        } catch (IllegalArgumentException e) {
+            transaction.abort();
+            throw e;
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to get inventory items page", e);
+            throw new RuntimeException("Failed to get inventory items", e);
+        }
+    }
+    
     public InventoryReservation reserveInventory(ReserveInventoryRequest request) {
         DistributedTransaction transaction = transactionManager.start();
         try {
@@ -102,44 +216,83 @@ public class InventoryService {
                 throw new InventoryNotFoundException("Product not found: " + request.getProductId());
             }
             
-            InventoryItem item = itemOpt.get();
+            InventoryReservation reservation = reserveLine(transaction, itemOpt.get(), request.getCustomerId(), 
+                request.getReservedQuantity(), expiresAtOrDefault(request));
             
-            // Check if sufficient inventory is available
-            if (item.getAvailableQuantity() < request.getReservedQuantity()) {
-                throw new InsufficientInventoryException(
-                    String.format("Insufficient inventory. Available: %d, Requested: %d", 
-                        item.getAvailableQuantity(), request.getReservedQuantity()));
-            }
+            transaction.commit();
+            invalidateAvailability(request.getProductId());
+            scheduleExpiry(reservation);
             
-            // Create reservation
-            String reservationId = UUID.randomUUID().toString();
-            InventoryReservation reservation = new InventoryReservation(
-                reservationId,
-                request.getProductId(),
-                request.getCustomerId(),
-                request.getReservedQuantity(),
-                request.getExpiresAt()
-            );
+            log.info("Reserved inventory: productId={}, quantity={}, reservationId={}", 
+                request.getProductId(), request.getReservedQuantity(), reservation.getReservationId());
             
-            reservationRepository.save(transaction, reservation);
+            return reservation;
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to reserve inventory: {}", request.getProductId(), e);
+            throw new RuntimeException("Failed to reserve inventory", e);
+        }
+    }
+    
+    public ReservationGroupResponse reserveInventoryItems(ReserveInventoryRequest request) {
+        // Merge duplicate lines and visit products in key order so concurrent multi-item orders
+        // touch the same rows in the same sequence
+        Map<String, Integer> quantities = new TreeMap<>();
+        for (ReserveInventoryRequest.InventoryItemRequest line : request.getLineItems()) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        
+        LocalDateTime expiresAt = expiresAtOrDefault(request);
+        
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            // The order id keys the group, so a repeated request for the same order returns the
+            // existing group instead of reserving again, and the order can be looked up after a crash
+            String groupId = request.getOrderId() != null ? request.getOrderId() : UUID.randomUUID().toString();
+            List<InventoryReservation> existing = findGroup(transaction, groupId);
+            if (!existing.isEmpty()) {
+                for (InventoryReservation reservation : existing) {
+                    if (!HELD_STATUSES.contains(reservation.getReservationStatusEnum())) {
+                        throw new InvalidReservationStatusException("Reservation for order " + request.getOrderId() 
+                            + " was already released, status: " + reservation.getReservationStatus());
+                    }
+                }
+                transaction.commit();
+                log.info("Inventory already reserved for order: {}", request.getOrderId());
+                return groupResponse(groupId, request.getOrderId(), existing);
+            }
             
-            // Update inventory quantities
-            item.setAvailableQuantity(item.getAvailableQuantity() - request.getReservedQuantity());
-            item.setReservedQuantity(item.getReservedQuantity() + request.getReservedQuantity());
-            item.setUpdatedAt(System.currentTimeMillis());
-            item.setVersion(item.getVersion() + 1);
+            ReservationGroupResponse response = new ReservationGroupResponse(
+                groupId, request.getOrderId(), request.getCustomerId(), expiresAt);
+            List<InventoryReservation> reservations = new ArrayList<>();
             
-            inventoryRepository.save(transaction, item);
+            for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+                Optional<InventoryItem> itemOpt = inventoryRepository.findById(transaction, line.getKey());
+                if (itemOpt.isEmpty()) {
+                    throw new InventoryNotFoundException("Product not found: " + line.getKey());
+                }
+                
+                InventoryItem item = itemOpt.get();
+                InventoryReservation reservation = reserveLine(transaction, item, request.getCustomerId(), 
+                    line.getValue(), expiresAt);
+                reservationGroupRepository.save(transaction, groupId, request.getOrderId(), reservation);
+                
+                reservations.add(reservation);
+                response.addItem(new ReservationGroupResponse.ReservedItem(
+                    item.getProductId(), item.getProductName(), line.getValue(), item.getUnitPrice()));
+            }
             
             transaction.commit();
+            invalidateAvailability(quantities.keySet());
+            reservations.forEach(this::scheduleExpiry);
             
-            log.info("Reserved inventory: productId={}, quantity={}, reservationId={}", 
-                request.getProductId(), request.getReservedQuantity(), reservationId);
+            log.info("Reserved inventory group: groupId={}, orderId={}, products={}", 
+                groupId, request.getOrderId(), quantities.keySet());
             
-            return reservation;
+            return response;
         } catch (Exception e) {
             transaction.abort();
-            log.error("Failed to reserve inventory: {}", request.getProductId(), e);
+            log.error("Failed to reserve inventory for order: {}", request.getOrderId(), e);
             throw new RuntimeException("Failed to reserve inventory", e);
         }
     }
@@ -158,25 +311,38 @@ public class InventoryService {
                 throw new InvalidReservationStatusException("Reservation is not active: " + reservationId);
             }
             
-            // Get inventory item
-            Optional<InventoryItem> itemOpt = inventoryRepository.findById(transaction, reservation.getProductId());
-            InventoryItem item = itemOpt.orElseThrow();
-            
-            // Update inventory quantities
-            item.setReservedQuantity(item.getReservedQuantity() - reservation.getReservedQuantity());
-            item.setTotalQuantity(item.getTotalQuantity() - reservation.getReservedQuantity());
-            item.setUpdatedAt(System.currentTimeMillis());
-            item.setVersion(item.getVersion() + 1);
-            
-            inventoryRepository.save(transaction, item);
+            if (reservation.isSharded()) {
+                for (Map.Entry<Integer, Integer> allocation : reservation.getShardAllocationMap().entrySet()) {
+                    InventoryItemShard shard = shardRepository.findById(
+                        transaction, reservation.getProductId(), allocation.getKey()).orElseThrow();
+                    shard.setReservedQuantity(shard.getReservedQuantity() - allocation.getValue());
+                    shard.setUpdatedAt(System.currentTimeMillis());
+                    shardRepository.save(transaction, shard);
+                }
+            } else {
+                // Get inventory item
+                Optional<InventoryItem> itemOpt = inventoryRepository.findById(transaction, reservation.getProductId());
+                InventoryItem item = itemOpt.orElseThrow();
+                
+                // Update inventory quantities
+                item.setReservedQuantity(item.getReservedQuantity() - reservation.getReservedQuantity());
+                item.setTotalQuantity(item.getTotalQuantity() - reservation.getReservedQuantity());
+                item.setUpdatedAt(System.currentTimeMillis());
+                item.setVersion(item.getVersion() + 1);
+                
+                inventoryRepository.save(transaction, item);
+            }
             
             // Update reservation status
             reservation.setReservationStatusEnum(ReservationStatus.CONSUMED);
             reservation.setUpdatedAt(System.currentTimeMillis());
             
             reservationRepository.save(transaction, reservation);
+            appendReservationEvent(transaction, "ReservationConsumed", reservation);
             
             transaction.commit();
+            invalidateAvailability(reservation.getProductId());
+            unscheduleExpiry(reservationId);
             
             log.info("Consumed reservation: reservationId={}, productId={}, quantity={}", 
                 reservationId, reservation.getProductId(), reservation.getReservedQuantity());
@@ -188,41 +354,58 @@ public class InventoryService {
     }
     
     public void releaseReservation(String reservationId) {
+        releaseReservation(reservationId, EnumSet.of(ReservationStatus.ACTIVE));
+    }
+    
+    private void releaseReservation(String reservationId, Set<ReservationStatus> releasable) {
         DistributedTransaction transaction = transactionManager.start();
         try {
-            // Get reservation
-            Optional<InventoryReservation> reservationOpt = reservationRepository.findById(transaction, reservationId);
-            if (reservationOpt.isEmpty()) {
-                throw new ReservationNotFoundException("Reservation not found: " + reservationId);
-            }
+            // Get reservation, or every reservation of a group
+            List<InventoryReservation> reservations = resolveReservations(transaction, reservationId);
             
-            InventoryReservation reservation = reservationOpt.get();
-            if (!ReservationStatus.ACTIVE.name().equals(reservation.getReservationStatus())) {
-                throw new InvalidReservationStatusException("Reservation is not active: " + reservationId);
+            for (InventoryReservation reservation : reservations) {
+                if (!releasable.contains(reservation.getReservationStatusEnum())) {
+                    throw new InvalidReservationStatusException("Reservation cannot be released in status " 
+                        + reservation.getReservationStatus() + ": " + reservation.getReservationId());
+                }
+                
+                if (reservation.isSharded()) {
+                    for (Map.Entry<Integer, Integer> allocation : reservation.getShardAllocationMap().entrySet()) {
+                        InventoryItemShard shard = shardRepository.findById(
+                            transaction, reservation.getProductId(), allocation.getKey()).orElseThrow();
+                        releaseToShard(shard, allocation.getValue());
+                        shardRepository.save(transaction, shard);
+                    }
+                } else {
+                    // Get inventory item
+                    Optional<InventoryItem> itemOpt = inventoryRepository.findById(transaction, reservation.getProductId());
+                    InventoryItem item = itemOpt.orElseThrow();
+                    
+                    // Release reserved quantity back to available
+                    item.setAvailableQuantity(item.getAvailableQuantity() + reservation.getReservedQuantity());
+                    item.setReservedQuantity(item.getReservedQuantity() - reservation.getReservedQuantity());
+                    item.setUpdatedAt(System.currentTimeMillis());
+                    item.setVersion(item.getVersion() + 1);
+                    
+                    inventoryRepository.save(transaction, item);
+                }
+                
+                // Update reservation status
+                reservation.setReservationStatusEnum(ReservationStatus.CANCELLED);
+                reservation.setUpdatedAt(System.currentTimeMillis());
+                
+                reservationRepository.save(transaction, reservation);
+                appendReservationEvent(transaction, "ReservationReleased", reservation);
             }
             
-            // Get inventory item
-            Optional<InventoryItem> itemOpt = inventoryRepository.findById(transaction, reservation.getProductId());
-            InventoryItem item = itemOpt.orElseThrow();
-            
-            // Release reserved quantity back to available
-            item.setAvailableQuantity(item.getAvailableQuantity() + reservation.getReservedQuantity());
-            item.setReservedQuantity(item.getReservedQuantity() - reservation.getReservedQuantity());
-            item.setUpdatedAt(System.currentTimeMillis());
-            item.setVersion(item.getVersion() + 1);
-            
-            inventoryRepository.save(transaction, item);
-            
-            // Update reservation status
-            reservation.setReservationStatusEnum(ReservationStatus.CANCELLED);
-            reservation.setUpdatedAt(System.currentTimeMillis());
-            
-            reservationRepository.save(transaction, reservation);
-            
             transaction.commit();
             
-            log.info("Released reservation: reservationId={}, productId={}, quantity={}", 
-                reservationId, reservation.getProductId(), reservation.getReservedQuantity());
+            for (InventoryReservation reservation : reservations) {
+                invalidateAvailability(reservation.getProductId());
+                unscheduleExpiry(reservation.getReservationId());
+                log.info("Released reservation: reservationId={}, productId={}, quantity={}", 
+                    reservation.getReservationId(), reservation.getProductId(), reservation.getReservedQuantity());
+            }
         } catch (Exception e) {
             transaction.abort();
             log.error("Failed to release reservation: {}", reservationId, e);
@@ -243,6 +426,22 @@ public class InventoryService {
         }
     }
     
+    /**
+     * The reservation group made for an order, if any; at most one, since the order id keys it
+     */
+    public List<ReservationGroupResponse> getReservationGroupsByOrder(String orderId) {
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            List<InventoryReservation> reservations = findGroup(transaction, orderId);
+            transaction.commit();
+            return reservations.isEmpty() ? List.of() : List.of(groupResponse(orderId, orderId, reservations));
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to get reservations for order: {}", orderId, e);
+            throw new RuntimeException("Failed to get reservations for order", e);
+        }
+    }
+    
     public List<InventoryReservation> getReservationsByCustomer(String customerId) {
         DistributedTransaction transaction = transactionManager.start();
         try {
@@ -259,21 +458,10 @@ public class InventoryService {
     public void confirmReservation(String reservationId) {
         DistributedTransaction transaction = transactionManager.start();
         try {
-            Optional<InventoryReservation> reservationOpt = reservationRepository.findById(transaction, reservationId);
-            if (reservationOpt.isEmpty()) {
-                throw new ReservationNotFoundException("Reservation not found: " + reservationId);
-            }
-
-            InventoryReservation reservation = reservationOpt.get();
-            if (!ReservationStatus.ACTIVE.name().equals(reservation.getReservationStatus())) {
-                throw new InvalidReservationStatusException("Reservation is not active: " + reservationId);
-            }
-
-            reservation.setReservationStatusEnum(ReservationStatus.CONFIRMED);
-            reservation.setUpdatedAt(System.currentTimeMillis());
-            reservationRepository.save(transaction, reservation);
+            List<InventoryReservation> reservations = confirmReservation(transaction, reservationId);
 
             transaction.commit();
+            reservations.forEach(reservation -> unscheduleExpiry(reservation.getReservationId()));
 
             log.info("Confirmed reservation: {}", reservationId);
         } catch (Exception e) {
@@ -283,31 +471,492 @@ public class InventoryService {
         }
     }
 
+    public TransactionBatchExecutor.BatchResult<List<InventoryReservation>> confirmReservations(
+            List<String> reservationIds) {
+        TransactionBatchExecutor.BatchResult<List<InventoryReservation>> result = 
+            batchExecutor.execute(reservationIds, reservationId -> reservationId, this::confirmReservation);
+        for (int i = 0; i < reservationIds.size(); i++) {
+            if (result.isSuccess(i)) {
+                result.getValue(i).forEach(reservation -> unscheduleExpiry(reservation.getReservationId()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Undo a reservation for a failed or cancelled order. A confirmed reservation is returned to
+     * available stock just like an active one.
+     */
     public void cancelReservation(String reservationId) {
-        releaseReservation(reservationId);
+        releaseReservation(reservationId, HELD_STATUSES);
     }
 
-    public InventoryCheckResponse checkInventory(String productId, int quantity) {
+    public int expireReservations(List<String> reservationIds) {
         DistributedTransaction transaction = transactionManager.start();
         try {
-            Optional<InventoryItem> itemOpt = inventoryRepository.findById(transaction, productId);
+            long now = System.currentTimeMillis();
+            Map<String, InventoryItem> items = new HashMap<>();
+            Map<String, InventoryItemShard> shards = new HashMap<>();
+            int expired = 0;
+            for (String reservationId : reservationIds) {
+                Optional<InventoryReservation> reservationOpt = reservationRepository.findById(transaction, reservationId);
+                if (reservationOpt.isEmpty()) {
+                    continue;
+                }
+
+                // Skip reservations that were confirmed, released or extended since they were scheduled
+                InventoryReservation reservation = reservationOpt.get();
+                if (!ReservationStatus.ACTIVE.name().equals(reservation.getReservationStatus())
+                        || reservation.getExpiresAt() > now) {
+                    continue;
+                }
+
+                if (reservation.isSharded()) {
+                    for (Map.Entry<Integer, Integer> allocation : reservation.getShardAllocationMap().entrySet()) {
+                        String shardKey = reservation.getProductId() + "#" + allocation.getKey();
+                        InventoryItemShard shard = shards.get(shardKey);
+                        if (shard == null) {
+                            shard = shardRepository.findById(
+                                transaction, reservation.getProductId(), allocation.getKey()).orElseThrow();
+                            shards.put(shardKey, shard);
+                        }
+                        releaseToShard(shard, allocation.getValue());
+                    }
+                } else {
+                    InventoryItem item = items.get(reservation.getProductId());
+                    if (item == null) {
+                        item = inventoryRepository.findById(transaction, reservation.getProductId()).orElseThrow();
+                        items.put(item.getProductId(), item);
+                    }
+
+                    // Release reserved quantity back to available
+                    item.setAvailableQuantity(item.getAvailableQuantity() + reservation.getReservedQuantity());
+                    item.setReservedQuantity(item.getReservedQuantity() - reservation.getReservedQuantity());
+                }
+
+                reservation.setReservationStatusEnum(ReservationStatus.EXPIRED);
+                reservation.setUpdatedAt(now);
+                reservationRepository.save(transaction, reservation);
+                appendReservationEvent(transaction, "ReservationExpired", reservation);
+                expired++;
+            }
+
+            for (InventoryItem item : items.values()) {
+                item.setUpdatedAt(now);
+                item.setVersion(item.getVersion() + 1);
+                inventoryRepository.save(transaction, item);
+            }
+            for (InventoryItemShard shard : shards.values()) {
+                shardRepository.save(transaction, shard);
+            }
+
             transaction.commit();
+            invalidateAvailability(items.keySet());
+            shards.values().forEach(shard -> invalidateAvailability(shard.getProductId()));
 
-            InventoryCheckResponse response = new InventoryCheckResponse();
-            response.setProductId(productId);
-            if (itemOpt.isPresent()) {
-                InventoryItem item = itemOpt.get();
-                response.setAvailableQuantity(item.getAvailableQuantity());
-                response.setAvailable(item.getAvailableQuantity() >= quantity);
-            } else {
-                response.setAvailableQuantity(0);
-                response.setAvailable(false);
+            log.info("Expired {} of {} reservations", expired, reservationIds.size());
+            return expired;
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to expire reservations: {}", reservationIds, e);
+            throw new RuntimeException("Failed to expire reservations", e);
+        }
+    }
+
+    public InventoryCheckResponse checkInventory(String productId, int quantity) {
+        return checkInventory(productId, quantity, null);
+    }
+
+    /**
+     * Checks availability, answering from the near-cache when its snapshot is at most maxStalenessMs old.
+     * A null bound uses the configured staleness; 0 forces an authoritative read, which also refreshes the cache.
+     */
+    public InventoryCheckResponse checkInventory(String productId, int quantity, Long maxStalenessMs) {
+        if (availabilityCache != null) {
+            Optional<AvailabilityNearCache.Snapshot> cached = availabilityCache.get(productId, maxStalenessMs);
+            if (cached.isPresent()) {
+                return checkResponse(productId, cached.get().isFound(), cached.get().getAvailableQuantity(), quantity);
             }
-            return response;
+        }
+
+        long generation = availabilityCache != null ? availabilityCache.generation(productId) : 0;
+        DistributedTransaction transaction = readOnlyTransactionManager.start();
+        try {
+            Optional<InventoryItem> itemOpt = readAvailability(transaction, productId);
+            transaction.commit();
+
+            int availableQuantity = itemOpt.map(InventoryItem::getAvailableQuantity).orElse(0);
+            if (availabilityCache != null) {
+                availabilityCache.put(productId, itemOpt.isPresent(), availableQuantity, generation);
+            }
+            return checkResponse(productId, itemOpt.isPresent(), availableQuantity, quantity);
         } catch (Exception e) {
             transaction.abort();
             log.error("Failed to check inventory for product: {}", productId, e);
             throw new RuntimeException("Failed to check inventory", e);
         }
     }
+
+    /**
+     * Checks availability for every line of a cart and returns one result per line, in request order.
+     * Products not answered by the near-cache are read in one read-only transaction with concurrent point gets.
+     */
+    public List<InventoryCheckResponse> checkInventory(List<InventoryCheckBatchRequest.CheckItem> items, 
+                                                       Long maxStalenessMs) {
+        // Empty means the product does not exist
+        Map<String, Optional<Integer>> availability = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (InventoryCheckBatchRequest.CheckItem line : items) {
+            String productId = line.getProductId();
+            if (availability.containsKey(productId) || misses.contains(productId)) {
+                continue;
+            }
+            Optional<AvailabilityNearCache.Snapshot> cached = availabilityCache != null 
+                ? availabilityCache.get(productId, maxStalenessMs) : Optional.empty();
+            if (cached.isPresent()) {
+                availability.put(productId, cached.get().isFound() 
+                    ? Optional.of(cached.get().getAvailableQuantity()) : Optional.empty());
+            } else {
+                misses.add(productId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            Map<String, Long> generations = new HashMap<>();
+            if (availabilityCache != null) {
+                misses.forEach(productId -> generations.put(productId, availabilityCache.generation(productId)));
+            }
+            DistributedTransaction transaction = readOnlyTransactionManager.start();
+            try {
+                Map<String, Optional<InventoryItem>> loaded = readAvailability(transaction, misses);
+                transaction.commit();
+
+                for (Map.Entry<String, Optional<InventoryItem>> entry : loaded.entrySet()) {
+                    Optional<Integer> availableQuantity = entry.getValue().map(InventoryItem::getAvailableQuantity);
+                    if (availabilityCache != null) {
+                        availabilityCache.put(entry.getKey(), availableQuantity.isPresent(), 
+                            availableQuantity.orElse(0), generations.get(entry.getKey()));
+                    }
+                    availability.put(entry.getKey(), availableQuantity);
+                }
+            } catch (Exception e) {
+                transaction.abort();
+                log.error("Failed to check inventory for products: {}", misses, e);
+                throw new RuntimeException("Failed to check inventory", e);
+            }
+        }
+
+        List<InventoryCheckResponse> responses = new ArrayList<>(items.size());
+        for (InventoryCheckBatchRequest.CheckItem line : items) {
+            Optional<Integer> availableQuantity = availability.get(line.getProductId());
+            responses.add(checkResponse(line.getProductId(), availableQuantity.isPresent(), 
+                availableQuantity.orElse(0), line.getQuantity()));
+        }
+        return responses;
+    }
+
+    public InventoryItem enableShardedCounters(String productId, int shardCount) {
+        if (shardCount < 2) {
+            throw new IllegalArgumentException("shardCount must be at least 2");
+        }
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            Optional<InventoryItem> itemOpt = inventoryRepository.findById(transaction, productId);
+            if (itemOpt.isEmpty()) {
+                throw new InventoryNotFoundException("Product not found: " + productId);
+            }
+
+            InventoryItem item = itemOpt.get();
+            if (item.isSharded()) {
+                throw new IllegalArgumentException("Product is already sharded: " + productId);
+            }
+
+            // Outstanding reservations go to the shard their id hashes to, as new reservations start there
+            int[] shardReserved = new int[shardCount];
+            int assigned = 0;
+            for (InventoryReservation reservation : reservationRepository.findByProductId(transaction, productId)) {
+                if (ReservationStatus.ACTIVE.name().equals(reservation.getReservationStatus())
+                        || ReservationStatus.CONFIRMED.name().equals(reservation.getReservationStatus())) {
+                    int shardId = Math.floorMod(reservation.getReservationId().hashCode(), shardCount);
+                    shardReserved[shardId] += reservation.getReservedQuantity();
+                    assigned += reservation.getReservedQuantity();
+                    reservation.setShardAllocationMap(Map.of(shardId, reservation.getReservedQuantity()));
+                    reservationRepository.save(transaction, reservation);
+                }
+            }
+
+            // Spread available stock, and any reserved quantity no reservation accounts for, evenly
+            int available = item.getAvailableQuantity();
+            int unassigned = Math.max(0, item.getReservedQuantity() - assigned);
+            for (int shardId = 0; shardId < shardCount; shardId++) {
+                int shardAvailable = evenShare(available, shardCount, shardId);
+                int reserved = shardReserved[shardId] + evenShare(unassigned, shardCount, shardId);
+                shardRepository.save(transaction, new InventoryItemShard(productId, shardId, shardAvailable, reserved));
+            }
+
+            item.setShardCount(shardCount);
+            item.setUpdatedAt(System.currentTimeMillis());
+            item.setVersion(item.getVersion() + 1);
+            inventoryRepository.save(transaction, item);
+
+            transaction.commit();
+            invalidateAvailability(productId);
+
+            log.info("Enabled sharded counters: productId={}, shardCount={}", productId, shardCount);
+            return item;
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to enable sharded counters: {}", productId, e);
+            throw new RuntimeException("Failed to enable sharded counters", e);
+        }
+    }
+
+    private InventoryReservation reserveLine(DistributedTransaction transaction, InventoryItem item, String customerId, 
+                                             int quantity, LocalDateTime expiresAt) throws TransactionException {
+        String reservationId = UUID.randomUUID().toString();
+        
+        // Sharded products take stock from their shards and leave the item row untouched
+        Map<Integer, Integer> shardAllocations = null;
+        if (item.isSharded()) {
+            shardAllocations = reserveFromShards(transaction, item, reservationId, quantity);
+        } else if (item.getAvailableQuantity() < quantity) {
+            // Check if sufficient inventory is available
+            throw new InsufficientInventoryException(
+                String.format("Insufficient inventory. Available: %d, Requested: %d", 
+                    item.getAvailableQuantity(), quantity));
+        }
+        
+        // Create reservation
+        InventoryReservation reservation = new InventoryReservation(
+            reservationId,
+            item.getProductId(),
+            customerId,
+            quantity,
+            expiresAt
+        );
+        reservation.setShardAllocationMap(shardAllocations);
+        
+        reservationRepository.save(transaction, reservation);
+        
+        if (shardAllocations == null) {
+            // Update inventory quantities
+            item.setAvailableQuantity(item.getAvailableQuantity() - quantity);
+            item.setReservedQuantity(item.getReservedQuantity() + quantity);
+            item.setUpdatedAt(System.currentTimeMillis());
+            item.setVersion(item.getVersion() + 1);
+            
+            inventoryRepository.save(transaction, item);
+        }
+        appendReservationEvent(transaction, "ReservationCreated", reservation);
+        return reservation;
+    }
+
+    private List<InventoryReservation> confirmReservation(DistributedTransaction transaction, String reservationId) 
+            throws TransactionException {
+        List<InventoryReservation> reservations = resolveReservations(transaction, reservationId);
+        for (InventoryReservation reservation : reservations) {
+            if (!ReservationStatus.ACTIVE.name().equals(reservation.getReservationStatus())) {
+                throw new InvalidReservationStatusException(
+                    "Reservation is not active: " + reservation.getReservationId());
+            }
+
+            reservation.setReservationStatusEnum(ReservationStatus.CONFIRMED);
+            reservation.setUpdatedAt(System.currentTimeMillis());
+            reservationRepository.save(transaction, reservation);
+            appendReservationEvent(transaction, "ReservationConfirmed", reservation);
+        }
+        return reservations;
+    }
+
+    // Recorded in the same transaction as the reservation change, so the event exists exactly when the change commits
+    private void appendReservationEvent(DistributedTransaction transaction, String eventType, 
+                                        InventoryReservation reservation) throws TransactionException {
+        outboxRepository.append(RESERVATION_AGGREGATE, reservation.getReservationId(), eventType, 
+            OutboxEvent.payload(
+                "productId", reservation.getProductId(),
+                "customerId", reservation.getCustomerId(),
+                "quantity", reservation.getReservedQuantity(),
+                "status", reservation.getReservationStatus(),
+                "expiresAt", reservation.getExpiresAt()), transaction);
+    }
+
+    private LocalDateTime expiresAtOrDefault(ReserveInventoryRequest request) {
+        if (request.getExpiresAt() != null) {
+            return request.getExpiresAt();
+        }
+        // InventoryReservation interprets expires_at as UTC
+        return LocalDateTime.now(ZoneOffset.UTC).plusHours(defaultExpiryHours);
+    }
+
+    private List<InventoryReservation> resolveReservations(DistributedTransaction transaction, String reservationId) 
+            throws TransactionException {
+        Optional<InventoryReservation> reservationOpt = reservationRepository.findById(transaction, reservationId);
+        if (reservationOpt.isPresent()) {
+            return List.of(reservationOpt.get());
+        }
+
+        List<InventoryReservation> reservations = findGroup(transaction, reservationId);
+        if (reservations.isEmpty()) {
+            throw new ReservationNotFoundException("Reservation not found: " + reservationId);
+        }
+        return reservations;
+    }
+
+    private List<InventoryReservation> findGroup(DistributedTransaction transaction, String groupId) 
+            throws TransactionException {
+        List<InventoryReservation> reservations = new ArrayList<>();
+        for (String memberId : reservationGroupRepository.findReservationIds(transaction, groupId)) {
+            reservationRepository.findById(transaction, memberId).ifPresent(reservations::add);
+        }
+        reservations.sort(Comparator.comparing(InventoryReservation::getProductId));
+        return reservations;
+    }
+
+    private static ReservationGroupResponse groupResponse(String groupId, String orderId, 
+                                                          List<InventoryReservation> reservations) {
+        InventoryReservation first = reservations.get(0);
+        ReservationGroupResponse response = new ReservationGroupResponse(
+            groupId, orderId, first.getCustomerId(), first.getExpiresAtAsDateTime());
+        // Members are confirmed, cancelled and expired together
+        response.setStatus(first.getReservationStatus());
+        for (InventoryReservation reservation : reservations) {
+            response.addItem(new ReservationGroupResponse.ReservedItem(
+                reservation.getProductId(), null, reservation.getReservedQuantity(), null));
+        }
+        return response;
+    }
+
+    private Map<Integer, Integer> reserveFromShards(DistributedTransaction transaction, InventoryItem item, 
+                                                    String reservationId, int quantity) throws TransactionException {
+        // Start at the hashed shard and take what is left from its neighbours, so only the shards
+        // needed to cover the quantity are read and written
+        int shardCount = item.getShardCount();
+        int start = Math.floorMod(reservationId.hashCode(), shardCount);
+        Map<Integer, Integer> allocations = new LinkedHashMap<>();
+        List<InventoryItemShard> taken = new ArrayList<>();
+        int remaining = quantity;
+        for (int i = 0; i < shardCount && remaining > 0; i++) {
+            Optional<InventoryItemShard> shardOpt = 
+                shardRepository.findById(transaction, item.getProductId(), (start + i) % shardCount);
+            if (shardOpt.isEmpty() || shardOpt.get().getAvailableQuantity() <= 0) {
+                continue;
+            }
+            InventoryItemShard shard = shardOpt.get();
+            int take = Math.min(shard.getAvailableQuantity(), remaining);
+            shard.setAvailableQuantity(shard.getAvailableQuantity() - take);
+            shard.setReservedQuantity(shard.getReservedQuantity() + take);
+            shard.setUpdatedAt(System.currentTimeMillis());
+            allocations.put(shard.getShardId(), take);
+            taken.add(shard);
+            remaining -= take;
+        }
+        if (remaining > 0) {
+            throw new InsufficientInventoryException(
+                String.format("Insufficient inventory. Available: %d, Requested: %d", 
+                    quantity - remaining, quantity));
+        }
+        for (InventoryItemShard shard : taken) {
+            shardRepository.save(transaction, shard);
+        }
+        return allocations;
+    }
+
+    private static int evenShare(int quantity, int shardCount, int shardId) {
+        return quantity / shardCount + (shardId < quantity % shardCount ? 1 : 0);
+    }
+
+    private void releaseToShard(InventoryItemShard shard, int quantity) {
+        shard.setAvailableQuantity(shard.getAvailableQuantity() + quantity);
+        shard.setReservedQuantity(shard.getReservedQuantity() - quantity);
+        shard.setUpdatedAt(System.currentTimeMillis());
+    }
+
+    private void applyShardTotals(DistributedTransaction transaction, InventoryItem item) throws TransactionException {
+        if (!item.isSharded()) {
+            return;
+        }
+        int available = 0;
+        int reserved = 0;
+        for (InventoryItemShard shard : shardRepository.findByProductId(transaction, item.getProductId())) {
+            available += shard.getAvailableQuantity();
+            reserved += shard.getReservedQuantity();
+        }
+        item.setAvailableQuantity(available);
+        item.setReservedQuantity(reserved);
+        item.setTotalQuantity(available + reserved);
+    }
+
+    private Optional<InventoryItem> readAvailability(DistributedTransaction transaction, String productId) 
+            throws TransactionException {
+        Optional<InventoryItem> itemOpt = inventoryRepository.findById(transaction, productId);
+        if (itemOpt.isPresent()) {
+            applyShardTotals(transaction, itemOpt.get());
+        }
+        return itemOpt;
+    }
+
+    private Map<String, Optional<InventoryItem>> readAvailability(DistributedTransaction transaction, 
+                                                                  List<String> productIds) throws Exception {
+        Map<String, Optional<InventoryItem>> items = new LinkedHashMap<>();
+        // Only read-only transactions hold no per-transaction state and can serve concurrent gets
+        if (availabilityReadExecutor == null || productIds.size() < 2 || !readOnlyTransactionManager.isEnabled()) {
+            for (String productId : productIds) {
+                items.put(productId, readAvailability(transaction, productId));
+            }
+            return items;
+        }
+
+        List<Future<Optional<InventoryItem>>> futures = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            futures.add(availabilityReadExecutor.submit(() -> readAvailability(transaction, productId)));
+        }
+        try {
+            for (int i = 0; i < productIds.size(); i++) {
+                items.put(productIds.get(i), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        } catch (java.util.concurrent.ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        return items;
+    }
+
+    private InventoryCheckResponse checkResponse(String productId, boolean found, int availableQuantity, int quantity) {
+        InventoryCheckResponse response = new InventoryCheckResponse();
+        response.setProductId(productId);
+        response.setAvailableQuantity(availableQuantity);
+        response.setAvailable(found && availableQuantity >= quantity);
+        return response;
+    }
+
+    private void invalidateAvailability(String productId) {
+        if (availabilityCache != null) {
+            availabilityCache.invalidate(productId);
+        }
+    }
+
+    private void invalidateAvailability(Collection<String> productIds) {
+        if (availabilityCache != null && !productIds.isEmpty()) {
+            availabilityCache.invalidateAll(productIds);
+        }
+    }
+
+    private void scheduleExpiry(InventoryReservation reservation) {
+        if (expiryWheel != null && reservation.getExpiresAt() != null) {
+            expiryWheel.schedule(reservation.getReservationId(), reservation.getExpiresAt());
+        }
+    }
+
+    private void unscheduleExpiry(String reservationId) {
+        if (expiryWheel != null) {
+            expiryWheel.cancel(reservationId);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.example.inventory.service;
+
+import com.example.inventory.config.MetricsConfig.InventoryMetrics;
+import com.example.inventory.entity.InventoryReservation;
+import com.example.inventory.entity.ReservationStatus;
+import com.example.inventory.repository.ReservationRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "inventory.reservation.auto-cleanup", havingValue = "true", matchIfMissing = true)
+public class ReservationExpirySweeper {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReservationExpirySweeper.class);
+    
+    @Autowired
+    private DistributedTransactionManager transactionManager;
+    
+    @Autowired
+    private ReservationRepository reservationRepository;
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Autowired
+    private ReservationTimingWheel expiryWheel;
+    
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+    
+    @Value("${inventory.reservation.sweeper.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${inventory.reservation.sweeper.lookback-hours:168}")
+    private long lookbackHours;
+    
+    @Value("${inventory.reservation.default-expiry-hours:24}")
+    private long defaultExpiryHours;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+    
+    // Periodic resync picks up reservations created by other instances and ones beyond the initial horizon
+    @Scheduled(initialDelayString = "${inventory.reservation.cleanup-interval-minutes:60}",
+               fixedDelayString = "${inventory.reservation.cleanup-interval-minutes:60}",
+               timeUnit = TimeUnit.MINUTES)
+    public void rebuild() {
+        long now = System.currentTimeMillis();
+        long fromBucket = ReservationRepository.expiryBucketOf(now - TimeUnit.HOURS.toMillis(lookbackHours));
+        long toBucket = ReservationRepository.expiryBucketOf(now + TimeUnit.HOURS.toMillis(defaultExpiryHours + 1));
+        
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            int scheduled = 0;
+            for (long bucket = fromBucket; bucket <= toBucket; bucket++) {
+                List<InventoryReservation> reservations = reservationRepository.findByStatusAndExpiryBucket(
+                    transaction, ReservationStatus.ACTIVE.name(), bucket, null);
+                for (InventoryReservation reservation : reservations) {
+                    expiryWheel.schedule(reservation.getReservationId(), reservation.getExpiresAt());
+                    scheduled++;
+                }
+            }
+            transaction.commit();
+            
+            inventoryMetrics.setScheduledExpirations(expiryWheel.size());
+            log.info("Rebuilt reservation expiry wheel: {} active reservations in buckets {}-{}", 
+                scheduled, fromBucket, toBucket);
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to rebuild reservation expiry wheel", e);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweeper.tick-millis:1000}")
+    public void tick() {
+        Map<String, Long> due = expiryWheel.advance(System.currentTimeMillis());
+        int released = 0;
+        
+        List<String> reservationIds = new ArrayList<>(due.keySet());
+        for (int from = 0; from < reservationIds.size(); from += batchSize) {
+            List<String> batch = reservationIds.subList(from, Math.min(from + batchSize, reservationIds.size()));
+            try {
+                released += inventoryService.expireReservations(batch);
+                long releasedAt = System.currentTimeMillis();
+                for (String reservationId : batch) {
+                    inventoryMetrics.recordSweepLag(releasedAt - due.get(reservationId));
+                }
+            } catch (RuntimeException e) {
+                // Past expirations land in the current slot, so the batch is retried on the next tick
+                log.warn("Failed to expire {} reservations, retrying on next tick", batch.size(), e);
+                for (String reservationId : batch) {
+                    expiryWheel.schedule(reservationId, due.get(reservationId));
+                }
+            }
+        }
+        
+        inventoryMetrics.recordSweepTick(released);
+        inventoryMetrics.setScheduledExpirations(expiryWheel.size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.example.inventory.service;
+
+import com.example.common.scalardb.ChunkedBackfill;
+import com.example.inventory.entity.InventoryReservation;
+import com.example.inventory.repository.ReservationRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Optional;
+
+// Populates reservations_by_customer/product/expiry for rows written before the index tables existed
+@Component
+@ConditionalOnProperty(name = "inventory.reservation.index-backfill.enabled", havingValue = "true")
+public class ReservationIndexBackfill extends ChunkedBackfill {
+    
+    private final ReservationRepository reservationRepository;
+    
+    public ReservationIndexBackfill(DistributedTransactionManager transactionManager,
+                                    ReservationRepository reservationRepository,
+                                    @Value("${inventory.reservation.index-backfill.batch-size:100}") int batchSize) {
+        super(transactionManager, "reservation index", batchSize);
+        this.reservationRepository = reservationRepository;
+    }
+    
+    @Override
+    protected List<String> loadIds(DistributedTransaction transaction) throws Exception {
+        return reservationRepository.findAllReservationIds(transaction);
+    }
+    
+    @Override
+    protected boolean backfill(String reservationId, DistributedTransaction transaction) throws Exception {
+        Optional<InventoryReservation> reservation = reservationRepository.findById(transaction, reservationId);
+        if (reservation.isEmpty()) {
+            return false;
+        }
+        reservationRepository.saveIndexes(transaction, reservation.get());
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.example.inventory.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by reservation id.
+ * Each level covers tickMillis * wheelSize of the level below; overflow levels are created on demand.
+ * Expirations are resolved with a granularity of one tick.
+ */
+public class ReservationTimingWheel {
+    
+    private final Level root;
+    private final Map<String, Bucket> locations = new HashMap<>();
+    
+    public ReservationTimingWheel(long tickMillis, int wheelSize, long startTime) {
+        if (tickMillis <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMillis must be positive and wheelSize greater than 1");
+        }
+        this.root = new Level(tickMillis, wheelSize, startTime);
+    }
+    
+    public synchronized void schedule(String reservationId, long expiresAt) {
+        cancel(reservationId);
+        place(reservationId, expiresAt);
+    }
+    
+    public synchronized boolean cancel(String reservationId) {
+        Bucket bucket = locations.remove(reservationId);
+        if (bucket == null) {
+            return false;
+        }
+        bucket.entries.remove(reservationId);
+        return true;
+    }
+    
+    /**
+     * Advances the wheel to the given time and returns the entries (reservation id to expires_at)
+     * that are due, removing them from the wheel.
+     */
+    public synchronized Map<String, Long> advance(long now) {
+        List<Bucket> ready = new ArrayList<>();
+        for (Level level = root; level != null; level = level.overflow) {
+            for (Bucket bucket : level.buckets) {
+                if (!bucket.entries.isEmpty() && bucket.expiration <= now) {
+                    ready.add(bucket);
+                }
+            }
+            level.advanceClock(now);
+        }
+        
+        Map<String, Long> due = new LinkedHashMap<>();
+        for (Bucket bucket : ready) {
+            Map<String, Long> entries = new HashMap<>(bucket.entries);
+            bucket.entries.clear();
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                locations.remove(entry.getKey());
+                if (entry.getValue() <= now) {
+                    due.put(entry.getKey(), entry.getValue());
+                } else {
+                    place(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return due;
+    }
+    
+    public synchronized int size() {
+        return locations.size();
+    }
+    
+    public synchronized boolean contains(String reservationId) {
+        return locations.containsKey(reservationId);
+    }
+    
+    private void place(String reservationId, long expiresAt) {
+        Level level = root;
+        // Past expirations are placed in the current slot so they fire on the next advance
+        long slotTime = Math.max(expiresAt, root.currentTime);
+        while (slotTime >= level.currentTime + level.interval) {
+            level = level.overflow();
+        }
+        
+        long virtualId = slotTime / level.tickMillis;
+        Bucket bucket = level.buckets[(int) (virtualId % level.buckets.length)];
+        bucket.expiration = virtualId * level.tickMillis;
+        bucket.entries.put(reservationId, expiresAt);
+        locations.put(reservationId, bucket);
+    }
+    
+    private static class Level {
+        private final long tickMillis;
+        private final long interval;
+        private final Bucket[] buckets;
+        private long currentTime;
+        private Level overflow;
+        
+        Level(long tickMillis, int wheelSize, long startTime) {
+            this.tickMillis = tickMillis;
+            this.interval = tickMillis * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.currentTime = startTime - (startTime % tickMillis);
+        }
+        
+        Level overflow() {
+            if (overflow == null) {
+                overflow = new Level(interval, buckets.length, currentTime);
+            }
+            return overflow;
+        }
+        
+        void advanceClock(long now) {
+            if (now >= currentTime + tickMillis) {
+                currentTime = now - (now % tickMillis);
+            }
+        }
+    }
+    
+    private static class Bucket {
+        private long expiration = Long.MAX_VALUE;
+        private final Map<String, Long> entries = new HashMap<>();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.example.inventory.integration;
+
+import com.example.inventory.dto.CreateInventoryItemRequest;
+import com.example.inventory.dto.ReserveInventoryRequest;
+import com.example.inventory.entity.InventoryItem;
+import com.example.inventory.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Reservation throughput for a single hot SKU by shard count
+ * 
+ * Run with: mvn test -Dtest.performance=true -Dtest=InventoryShardingPerformanceTest
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "test.performance", matches = "true")
+class InventoryShardingPerformanceTest {
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    private static final int[] SHARD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int THREADS = 16;
+    private static final int RESERVATIONS_PER_THREAD = 50;
+    private static final int STOCK = 1_000_000;
+    
+    @Test
+    void hotSkuReservation_ThroughputByShardCount() throws Exception {
+        System.out.println("shards | committed | aborted | reservations/s");
+        for (int shardCount : SHARD_COUNTS) {
+            String productId = "HOT-SKU-" + shardCount + "-" + UUID.randomUUID();
+            inventoryService.createInventoryItem(
+                new CreateInventoryItemRequest(productId, "Hot SKU", STOCK, 1000L, "JPY"));
+            if (shardCount > 1) {
+                inventoryService.enableShardedCounters(productId, shardCount);
+            }
+            
+            AtomicInteger committed = new AtomicInteger();
+            AtomicInteger aborted = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            
+            long startTime = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                final int threadId = t;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < RESERVATIONS_PER_THREAD; i++) {
+                        try {
+                            inventoryService.reserveInventory(
+                                new ReserveInventoryRequest(productId, "CUST-" + threadId + "-" + i, 1));
+                            committed.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            aborted.incrementAndGet();
+                        }
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+            double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            executor.shutdown();
+            
+            System.out.printf("%6d | %9d | %7d | %.1f%n",
+                shardCount, committed.get(), aborted.get(), committed.get() / seconds);
+            
+            // Aggregated counters must account for every committed reservation
+            InventoryItem item = inventoryService.getInventoryItem(productId).orElseThrow();
+            assertThat(item.getReservedQuantity()).isEqualTo(committed.get());
+            assertThat(item.getAvailableQuantity()).isEqualTo(STOCK - committed.get());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.entity.InventoryReservation;
+import com.scalar.db.api.Delete;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.io.Key;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationRepositoryTest {
+    
+    private static final long EXPIRES_AT = 1_700_000_000_000L;
+    
+    @Mock
+    private DistributedTransaction transaction;
+    
+    private final ReservationRepository reservationRepository = new ReservationRepository();
+    
+    @Test
+    void save_StatusChanged_MovesExpiryIndexRow() throws Exception {
+        // Given
+        InventoryReservation stored = reservation("ACTIVE");
+        when(transaction.get(any(Get.class))).thenReturn(Optional.of(storedRow(stored)));
+        
+        // When
+        reservationRepository.save(transaction, reservation("CANCELLED"));
+        
+        // Then
+        ArgumentCaptor<Delete> deletes = ArgumentCaptor.forClass(Delete.class);
+        verify(transaction).delete(deletes.capture());
+        assertThat(deletes.getValue().forTable()).contains("reservations_by_expiry");
+        assertThat(deletes.getValue().getPartitionKey()).isEqualTo(expiryPartition("ACTIVE"));
+        
+        assertThat(putsTo("reservations_by_expiry"))
+            .extracting(Put::getPartitionKey)
+            .containsExactly(expiryPartition("CANCELLED"));
+    }
+    
+    @Test
+    void save_StatusUnchanged_KeepsIndexRows() throws Exception {
+        // Given
+        InventoryReservation stored = reservation("ACTIVE");
+        when(transaction.get(any(Get.class))).thenReturn(Optional.of(storedRow(stored)));
+        
+        // When
+        reservationRepository.save(transaction, reservation("ACTIVE"));
+        
+        // Then
+        verify(transaction, never()).delete(any(Delete.class));
+        assertThat(putsTo("reservations_by_expiry"))
+            .extracting(Put::getPartitionKey)
+            .containsExactly(expiryPartition("ACTIVE"));
+    }
+    
+    @Test
+    void save_NewReservation_WritesIndexesWithoutDeletes() throws Exception {
+        // Given
+        when(transaction.get(any(Get.class))).thenReturn(Optional.empty());
+        
+        // When
+        reservationRepository.save(transaction, reservation("ACTIVE"));
+        
+        // Then
+        verify(transaction, never()).delete(any(Delete.class));
+        assertThat(putsTo("reservations_by_customer")).hasSize(1);
+        assertThat(putsTo("reservations_by_product")).hasSize(1);
+        assertThat(putsTo("reservations_by_expiry")).hasSize(1);
+    }
+    
+    @Test
+    void findExpiredReservations_ScansConfiguredLookback() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(reservationRepository, "expiryLookbackHours", 2L);
+        
+        // When
+        reservationRepository.findExpiredReservations(transaction);
+        
+        // Then
+        ArgumentCaptor<Scan> scans = ArgumentCaptor.forClass(Scan.class);
+        verify(transaction, times(3)).scan(scans.capture());
+        assertThat(scans.getAllValues())
+            .allSatisfy(scan -> assertThat(scan.forTable()).contains("reservations_by_expiry"));
+    }
+    
+    private List<Put> putsTo(String table) throws Exception {
+        ArgumentCaptor<Put> puts = ArgumentCaptor.forClass(Put.class);
+        verify(transaction, atLeastOnce()).put(puts.capture());
+        return puts.getAllValues().stream()
+            .filter(put -> put.forTable().filter(table::equals).isPresent())
+            .collect(Collectors.toList());
+    }
+    
+    private static Key expiryPartition(String status) {
+        return Key.newBuilder()
+            .addText("reservation_status", status)
+            .addBigInt("expiry_bucket", ReservationRepository.expiryBucketOf(EXPIRES_AT))
+            .build();
+    }
+    
+    private static InventoryReservation reservation(String status) {
+        InventoryReservation reservation = new InventoryReservation();
+        reservation.setReservationId("RES-001");
+        reservation.setProductId("PROD-001");
+        reservation.setCustomerId("CUST-001");
+        reservation.setReservedQuantity(2);
+        reservation.setReservationStatus(status);
+        reservation.setExpiresAt(EXPIRES_AT);
+        reservation.setCreatedAt(EXPIRES_AT - 900_000L);
+        reservation.setUpdatedAt(EXPIRES_AT - 900_000L);
+        return reservation;
+    }
+    
+    // Result whose typed getters read the stored reservation's columns
+    private static Result storedRow(InventoryReservation reservation) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("reservation_id", reservation.getReservationId());
+        columns.put("product_id", reservation.getProductId());
+        columns.put("customer_id", reservation.getCustomerId());
+        columns.put("reserved_quantity", reservation.getReservedQuantity());
+        columns.put("reservation_status", reservation.getReservationStatus());
+        columns.put("expires_at", reservation.getExpiresAt());
+        columns.put("created_at", reservation.getCreatedAt());
+        columns.put("updated_at", reservation.getUpdatedAt());
+        return mock(Result.class, invocation -> {
+            Object column = columns.get(invocation.<String>getArgument(0));
+            switch (invocation.getMethod().getName()) {
+                case "contains":
+                    return columns.containsKey(invocation.<String>getArgument(0));
+                case "isNull":
+                    return column == null;
+                default:
+                    return column;
+            }
+        });
+    }
+}
\ No newline at end of file
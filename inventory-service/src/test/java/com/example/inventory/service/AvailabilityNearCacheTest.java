@@ -0,0 +1,105 @@
+package com.example.inventory.service;
+
+import com.example.inventory.config.MetricsConfig.InventoryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AvailabilityNearCacheTest {
+    
+    private final AtomicLong nanos = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private AvailabilityNearCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AvailabilityNearCache(100, 2_000, nanos::get, new InventoryMetrics(meterRegistry));
+    }
+    
+    @Test
+    void get_WithinStalenessBound_ReturnsSnapshot() {
+        // Given
+        cache.put("PROD-001", true, 25, cache.generation("PROD-001"));
+        advanceMillis(500);
+        
+        // When / Then
+        assertThat(cache.get("PROD-001", null)).hasValueSatisfying(snapshot -> {
+            assertThat(snapshot.isFound()).isTrue();
+            assertThat(snapshot.getAvailableQuantity()).isEqualTo(25);
+        });
+        assertThat(cache.get("PROD-001", 100L)).isEmpty();
+        assertThat(cache.get("PROD-001", 0L)).isEmpty();
+        assertThat(cacheCount("hit")).isEqualTo(1);
+        assertThat(cacheCount("miss")).isEqualTo(2);
+    }
+    
+    @Test
+    void get_AfterConfiguredStaleness_Misses() {
+        // Given
+        cache.put("PROD-001", true, 25, cache.generation("PROD-001"));
+        
+        // When
+        advanceMillis(2_001);
+        
+        // Then
+        assertThat(cache.get("PROD-001", null)).isEmpty();
+        assertThat(cacheCount("miss")).isEqualTo(1);
+    }
+    
+    @Test
+    void put_AfterInvalidation_DropsStaleLoad() {
+        // Given
+        long generation = cache.generation("PROD-001");
+        cache.invalidateAll(List.of("PROD-001", "PROD-002"));
+        
+        // When
+        cache.put("PROD-001", true, 25, generation);
+        
+        // Then
+        assertThat(cache.get("PROD-001", null)).isEmpty();
+        cache.put("PROD-001", true, 20, cache.generation("PROD-001"));
+        assertThat(cache.get("PROD-001", null)).hasValueSatisfying(
+            snapshot -> assertThat(snapshot.getAvailableQuantity()).isEqualTo(20));
+    }
+    
+    @Test
+    void invalidate_RemovesEntry() {
+        // Given
+        cache.put("PROD-001", true, 25, cache.generation("PROD-001"));
+        
+        // When
+        cache.invalidate("PROD-001");
+        
+        // Then
+        assertThat(cache.get("PROD-001", null)).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+    
+    @Test
+    void put_AfterInvalidationOfOtherProduct_KeepsLoad() {
+        // Given
+        long generation = cache.generation("PROD-001");
+        cache.invalidate("PROD-002");
+        
+        // When
+        cache.put("PROD-001", true, 25, generation);
+        
+        // Then
+        assertThat(cache.get("PROD-001", null)).hasValueSatisfying(
+            snapshot -> assertThat(snapshot.getAvailableQuantity()).isEqualTo(25));
+    }
+    
+    private void advanceMillis(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+    
+    private double cacheCount(String result) {
+        return meterRegistry.get("inventory_availability_cache_total").tag("result", result).counter().count();
+    }
+}
\ No newline at end of file
@@ -1,21 +1,32 @@
 package com.example.inventory.service;
 
+import com.example.common.outbox.OutboxRepository;
+import com.example.common.scalardb.ReadOnlyTransactionManager;
 import com.example.inventory.dto.CreateInventoryItemRequest;
+import com.example.inventory.dto.InventoryCheckBatchRequest;
+import com.example.inventory.dto.InventoryCheckResponse;
+import com.example.inventory.dto.ReservationGroupResponse;
 import com.example.inventory.dto.ReserveInventoryRequest;
 import com.example.inventory.entity.InventoryItem;
+import com.example.inventory.entity.InventoryItemShard;
 import com.example.inventory.entity.InventoryReservation;
+import com.example.inventory.entity.ReservationStatus;
 import com.example.inventory.exception.InsufficientInventoryException;
 import com.example.inventory.repository.InventoryRepository;
+import com.example.inventory.repository.InventoryShardRepository;
+import com.example.inventory.repository.ReservationGroupRepository;
 import com.example.inventory.repository.ReservationRepository;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -34,6 +45,18 @@ class InventoryServiceTest {
     @Mock
     private ReservationRepository reservationRepository;
     
+    @Mock
+    private InventoryShardRepository shardRepository;
+    
+    @Mock
+    private ReservationGroupRepository reservationGroupRepository;
+    
+    @Mock
+    private OutboxRepository outboxRepository;
+    
+    @Mock
+    private ReadOnlyTransactionManager readOnlyTransactionManager;
+    
     @Mock
     private DistributedTransaction transaction;
     
@@ -43,6 +66,7 @@ class InventoryServiceTest {
     @BeforeEach
     void setUp() {
         when(transactionManager.start()).thenReturn(transaction);
+        lenient().when(readOnlyTransactionManager.start()).thenReturn(transaction);
     }
     
     @Test
@@ -106,6 +130,8 @@ class InventoryServiceTest {
         
         verify(reservationRepository).save(transaction, any(InventoryReservation.class));
         verify(inventoryRepository).save(transaction, any(InventoryItem.class));
+        verify(outboxRepository).append(eq(InventoryService.RESERVATION_AGGREGATE), 
+            eq(result.getReservationId()), eq("ReservationCreated"), anyMap(), eq(transaction));
         verify(transaction).commit();
     }
     
@@ -127,6 +153,202 @@ class InventoryServiceTest {
         verify(transaction).abort();
     }
     
+    @Test
+    void reserveInventory_ShardedProduct_SplitsQuantityAcrossShards() throws Exception {
+        // Given
+        ReserveInventoryRequest request = new ReserveInventoryRequest(
+            "PROD-001", "CUST-001", 11);
+        request.setExpiresAt(LocalDateTime.now().plusHours(24));
+        
+        InventoryItem item = new InventoryItem("PROD-001", "Test Product", 80, 1500L, "JPY");
+        item.setShardCount(8);
+        
+        when(inventoryRepository.findById(transaction, "PROD-001")).thenReturn(Optional.of(item));
+        when(shardRepository.findById(eq(transaction), eq("PROD-001"), anyInt())).thenAnswer(invocation -> 
+            Optional.of(new InventoryItemShard("PROD-001", invocation.getArgument(2), 10, 0)));
+        
+        // When
+        InventoryReservation result = inventoryService.reserveInventory(request);
+        
+        // Then
+        assertThat(result.getShardAllocationMap()).hasSize(2);
+        assertThat(result.getShardAllocationMap().values()).containsExactly(10, 1);
+        assertThat(result.getShardId()).isEqualTo(result.getShardAllocationMap().keySet().iterator().next());
+        
+        verify(shardRepository, times(2)).findById(eq(transaction), eq("PROD-001"), anyInt());
+        verify(shardRepository, times(2)).save(eq(transaction), any(InventoryItemShard.class));
+        verify(inventoryRepository, never()).save(any(), any(InventoryItem.class));
+        verify(transaction).commit();
+    }
+    
+    @Test
+    void reserveInventory_ShardedProductInsufficientAcrossShards_WritesNothing() throws Exception {
+        // Given
+        ReserveInventoryRequest request = new ReserveInventoryRequest(
+            "PROD-001", "CUST-001", 81);
+        
+        InventoryItem item = new InventoryItem("PROD-001", "Test Product", 80, 1500L, "JPY");
+        item.setShardCount(8);
+        
+        when(inventoryRepository.findById(transaction, "PROD-001")).thenReturn(Optional.of(item));
+        when(shardRepository.findById(eq(transaction), eq("PROD-001"), anyInt())).thenAnswer(invocation -> 
+            Optional.of(new InventoryItemShard("PROD-001", invocation.getArgument(2), 10, 0)));
+        
+        // When & Then
+        assertThatThrownBy(() -> inventoryService.reserveInventory(request))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("Failed to reserve inventory");
+        
+        verify(shardRepository, never()).save(any(), any(InventoryItemShard.class));
+        verify(transaction).abort();
+    }
+    
+    @Test
+    void reserveInventoryItems_MultipleProducts_ReservesInKeyOrderInOneTransaction() throws Exception {
+        // Given
+        ReserveInventoryRequest request = new ReserveInventoryRequest();
+        request.setOrderId("ORD-001");
+        request.setCustomerId("CUST-001");
+        request.setItems(List.of(
+            new ReserveInventoryRequest.InventoryItemRequest("PROD-002", 2),
+            new ReserveInventoryRequest.InventoryItemRequest("PROD-001", 1),
+            new ReserveInventoryRequest.InventoryItemRequest("PROD-002", 3)));
+        
+        InventoryItem first = new InventoryItem("PROD-001", "First Product", 100, 1500L, "JPY");
+        InventoryItem second = new InventoryItem("PROD-002", "Second Product", 100, 2500L, "JPY");
+        when(inventoryRepository.findById(transaction, "PROD-001")).thenReturn(Optional.of(first));
+        when(inventoryRepository.findById(transaction, "PROD-002")).thenReturn(Optional.of(second));
+        
+        // When
+        ReservationGroupResponse result = inventoryService.reserveInventoryItems(request);
+        
+        // Then
+        assertThat(result.getReservationId()).isEqualTo("ORD-001");
+        assertThat(result.getOrderId()).isEqualTo("ORD-001");
+        assertThat(result.getItems()).extracting(ReservationGroupResponse.ReservedItem::getProductId)
+            .containsExactly("PROD-001", "PROD-002");
+        assertThat(result.getItems()).extracting(ReservationGroupResponse.ReservedItem::getReservedQuantity)
+            .containsExactly(1, 5);
+        assertThat(second.getAvailableQuantity()).isEqualTo(95);
+        
+        InOrder inOrder = inOrder(inventoryRepository);
+        inOrder.verify(inventoryRepository).findById(transaction, "PROD-001");
+        inOrder.verify(inventoryRepository).findById(transaction, "PROD-002");
+        verify(reservationGroupRepository, times(2))
+            .save(eq(transaction), eq(result.getReservationId()), eq("ORD-001"), any(InventoryReservation.class));
+        verify(transactionManager, times(1)).start();
+        verify(transaction).commit();
+    }
+    
+    @Test
+    void reserveInventoryItems_OneProductInsufficient_AbortsWholeGroup() throws Exception {
+        // Given
+        ReserveInventoryRequest request = new ReserveInventoryRequest();
+        request.setCustomerId("CUST-001");
+        request.setItems(List.of(
+            new ReserveInventoryRequest.InventoryItemRequest("PROD-001", 1),
+            new ReserveInventoryRequest.InventoryItemRequest("PROD-002", 500)));
+        
+        when(inventoryRepository.findById(transaction, "PROD-001"))
+            .thenReturn(Optional.of(new InventoryItem("PROD-001", "First Product", 100, 1500L, "JPY")));
+        when(inventoryRepository.findById(transaction, "PROD-002"))
+            .thenReturn(Optional.of(new InventoryItem("PROD-002", "Second Product", 100, 2500L, "JPY")));
+        
+        // When & Then
+        assertThatThrownBy(() -> inventoryService.reserveInventoryItems(request))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("Failed to reserve inventory");
+        
+        verify(transaction).abort();
+        verify(transaction, never()).commit();
+    }
+    
+    @Test
+    void reserveInventoryItems_OrderAlreadyReserved_ReturnsExistingGroup() throws Exception {
+        // Given
+        ReserveInventoryRequest request = new ReserveInventoryRequest();
+        request.setOrderId("ORD-001");
+        request.setCustomerId("CUST-001");
+        request.setItems(List.of(new ReserveInventoryRequest.InventoryItemRequest("PROD-001", 2)));
+        
+        InventoryReservation reserved = new InventoryReservation("RES-001", "PROD-001", "CUST-001", 2, 
+            LocalDateTime.now().plusHours(1));
+        when(reservationGroupRepository.findReservationIds(transaction, "ORD-001")).thenReturn(List.of("RES-001"));
+        when(reservationRepository.findById(transaction, "RES-001")).thenReturn(Optional.of(reserved));
+        
+        // When
+        ReservationGroupResponse result = inventoryService.reserveInventoryItems(request);
+        
+        // Then
+        assertThat(result.getReservationId()).isEqualTo("ORD-001");
+        assertThat(result.getItems()).extracting(ReservationGroupResponse.ReservedItem::getReservedQuantity)
+            .containsExactly(2);
+        verify(inventoryRepository, never()).findById(any(), anyString());
+        verify(reservationRepository, never()).save(any(), any());
+        verify(transaction).commit();
+    }
+    
+    @Test
+    void reserveInventoryItems_OrderReservationReleased_IsRejected() throws Exception {
+        // Given
+        ReserveInventoryRequest request = new ReserveInventoryRequest();
+        request.setOrderId("ORD-001");
+        request.setCustomerId("CUST-001");
+        request.setItems(List.of(new ReserveInventoryRequest.InventoryItemRequest("PROD-001", 2)));
+        
+        InventoryReservation cancelled = new InventoryReservation("RES-001", "PROD-001", "CUST-001", 2, 
+            LocalDateTime.now().plusHours(1));
+        cancelled.setReservationStatusEnum(ReservationStatus.CANCELLED);
+        when(reservationGroupRepository.findReservationIds(transaction, "ORD-001")).thenReturn(List.of("RES-001"));
+        when(reservationRepository.findById(transaction, "RES-001")).thenReturn(Optional.of(cancelled));
+        
+        // When & Then
+        assertThatThrownBy(() -> inventoryService.reserveInventoryItems(request))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("Failed to reserve inventory");
+        verify(inventoryRepository, never()).findById(any(), anyString());
+        verify(transaction).abort();
+        verify(transaction, never()).commit();
+    }
+    
+    @Test
+    void cancelReservation_Confirmed_ReturnsStockToAvailable() throws Exception {
+        // Given
+        InventoryItem item = new InventoryItem("PROD-001", "Test Product", 100, 1500L, "JPY");
+        item.setAvailableQuantity(95);
+        item.setReservedQuantity(5);
+        InventoryReservation reservation = new InventoryReservation("RES-001", "PROD-001", "CUST-001", 5, 
+            LocalDateTime.now().plusHours(1));
+        reservation.setReservationStatusEnum(ReservationStatus.CONFIRMED);
+        when(reservationRepository.findById(transaction, "RES-001")).thenReturn(Optional.of(reservation));
+        when(inventoryRepository.findById(transaction, "PROD-001")).thenReturn(Optional.of(item));
+        
+        // When
+        inventoryService.cancelReservation("RES-001");
+        
+        // Then
+        assertThat(item.getAvailableQuantity()).isEqualTo(100);
+        assertThat(item.getReservedQuantity()).isZero();
+        assertThat(reservation.getReservationStatusEnum()).isEqualTo(ReservationStatus.CANCELLED);
+        verify(transaction).commit();
+    }
+    
+    @Test
+    void releaseReservation_Confirmed_IsRejected() throws Exception {
+        // Given
+        InventoryReservation reservation = new InventoryReservation("RES-001", "PROD-001", "CUST-001", 5, 
+            LocalDateTime.now().plusHours(1));
+        reservation.setReservationStatusEnum(ReservationStatus.CONFIRMED);
+        when(reservationRepository.findById(transaction, "RES-001")).thenReturn(Optional.of(reservation));
+        
+        // When & Then
+        assertThatThrownBy(() -> inventoryService.releaseReservation("RES-001"))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("Failed to release reservation");
+        verify(inventoryRepository, never()).save(any(), any(InventoryItem.class));
+        verify(transaction).abort();
+    }
+    
     @Test
     void getInventoryItem_Success() throws Exception {
         // Given
@@ -156,4 +378,29 @@ class InventoryServiceTest {
         
         verify(transaction).commit();
     }
+    
+    @Test
+    void checkInventoryBatch_ReturnsOneResultPerLineFromOneRead() throws Exception {
+        // Given
+        InventoryItem item = new InventoryItem("PROD-001", "Test Product", 10, 1500L, "JPY");
+        when(inventoryRepository.findById(transaction, "PROD-001")).thenReturn(Optional.of(item));
+        when(inventoryRepository.findById(transaction, "PROD-999")).thenReturn(Optional.empty());
+        
+        // When
+        List<InventoryCheckResponse> result = inventoryService.checkInventory(List.of(
+            new InventoryCheckBatchRequest.CheckItem("PROD-001", 5),
+            new InventoryCheckBatchRequest.CheckItem("PROD-999", 1),
+            new InventoryCheckBatchRequest.CheckItem("PROD-001", 20)), null);
+        
+        // Then
+        assertThat(result).extracting(InventoryCheckResponse::getProductId)
+            .containsExactly("PROD-001", "PROD-999", "PROD-001");
+        assertThat(result).extracting(InventoryCheckResponse::isAvailable)
+            .containsExactly(true, false, false);
+        assertThat(result.get(0).getAvailableQuantity()).isEqualTo(10);
+        
+        verify(readOnlyTransactionManager, times(1)).start();
+        verify(inventoryRepository, times(1)).findById(transaction, "PROD-001");
+        verify(transaction).commit();
+    }
 }
\ No newline at end of file
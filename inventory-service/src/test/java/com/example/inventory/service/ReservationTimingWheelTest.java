@@ -0,0 +1,88 @@
+package com.example.inventory.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ReservationTimingWheelTest {
+    
+    private static final long START = 1_700_000_000_000L;
+    
+    @Test
+    void advance_ReturnsOnlyDueReservations() {
+        // Given
+        ReservationTimingWheel wheel = new ReservationTimingWheel(1000, 60, START);
+        wheel.schedule("RES-001", START + 5_000);
+        wheel.schedule("RES-002", START + 30_000);
+        
+        // When
+        Map<String, Long> due = wheel.advance(START + 5_000);
+        
+        // Then
+        assertThat(due).containsOnlyKeys("RES-001");
+        assertThat(due.get("RES-001")).isEqualTo(START + 5_000);
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.contains("RES-002")).isTrue();
+    }
+    
+    @Test
+    void advance_CascadesFromOverflowLevels() {
+        // Given
+        ReservationTimingWheel wheel = new ReservationTimingWheel(1000, 60, START);
+        long twoHoursLater = START + 2 * 60 * 60 * 1000L + 1_500;
+        wheel.schedule("RES-001", twoHoursLater);
+        
+        // When
+        Map<String, Long> early = wheel.advance(twoHoursLater - 1_000);
+        Map<String, Long> due = wheel.advance(twoHoursLater + 1_000);
+        
+        // Then
+        assertThat(early).isEmpty();
+        assertThat(due).containsOnlyKeys("RES-001");
+        assertThat(wheel.size()).isZero();
+    }
+    
+    @Test
+    void schedule_PastExpiration_FiresOnNextAdvance() {
+        // Given
+        ReservationTimingWheel wheel = new ReservationTimingWheel(1000, 60, START);
+        wheel.schedule("RES-001", START - 60_000);
+        
+        // When
+        Map<String, Long> due = wheel.advance(START);
+        
+        // Then
+        assertThat(due).containsOnlyKeys("RES-001");
+    }
+    
+    @Test
+    void cancel_RemovesScheduledReservation() {
+        // Given
+        ReservationTimingWheel wheel = new ReservationTimingWheel(1000, 60, START);
+        wheel.schedule("RES-001", START + 5_000);
+        
+        // When
+        boolean cancelled = wheel.cancel("RES-001");
+        Map<String, Long> due = wheel.advance(START + 10_000);
+        
+        // Then
+        assertThat(cancelled).isTrue();
+        assertThat(due).isEmpty();
+        assertThat(wheel.cancel("RES-001")).isFalse();
+    }
+    
+    @Test
+    void schedule_Reschedule_ReplacesPreviousExpiration() {
+        // Given
+        ReservationTimingWheel wheel = new ReservationTimingWheel(1000, 60, START);
+        wheel.schedule("RES-001", START + 5_000);
+        
+        // When
+        wheel.schedule("RES-001", START + 20_000);
+        
+        // Then
+        assertThat(wheel.advance(START + 10_000)).isEmpty();
+        assertThat(wheel.advance(START + 20_000)).containsOnlyKeys("RES-001");
+    }
+}
\ No newline at end of file
@@ -21,16 +21,20 @@ CREATE TABLE IF NOT EXISTS order_service_orders (
     order_id TEXT PRIMARY KEY,
     customer_id TEXT NOT NULL,
     status TEXT NOT NULL,
-    total_amount TEXT NOT NULL,
+    total_amount TEXT,
+    total_amount_minor BIGINT,
     currency TEXT DEFAULT 'JPY',
     payment_method TEXT,
     shipping_address TEXT,
     notes TEXT,
-    created_at TEXT NOT NULL,
-    updated_at TEXT NOT NULL,
+    created_at TEXT,
+    updated_at TEXT,
+    created_at_ms BIGINT,
+    updated_at_ms BIGINT,
     inventory_reservation_id TEXT,
     payment_id TEXT,
     shipment_id TEXT,
+    item_count INTEGER,
     tx_id TEXT,
     tx_state TEXT,
     tx_version INTEGER DEFAULT 1,
@@ -40,15 +44,19 @@ CREATE TABLE IF NOT EXISTS order_service_orders (
     before_customer_id TEXT,
     before_status TEXT,
     before_total_amount TEXT,
+    before_total_amount_minor BIGINT,
     before_currency TEXT,
     before_payment_method TEXT,
     before_shipping_address TEXT,
     before_notes TEXT,
     before_created_at TEXT,
     before_updated_at TEXT,
+    before_created_at_ms BIGINT,
+    before_updated_at_ms BIGINT,
     before_inventory_reservation_id TEXT,
     before_payment_id TEXT,
     before_shipment_id TEXT,
+    before_item_count INTEGER,
     before_tx_id TEXT,
     before_tx_state TEXT,
     before_tx_version INTEGER,
@@ -63,6 +71,12 @@ CREATE TABLE IF NOT EXISTS order_service_orders_by_customer (
     order_id TEXT,
     status TEXT,
     total_amount TEXT,
+    total_amount_minor BIGINT,
+    currency TEXT,
+    updated_at TEXT,
+    created_at_ms BIGINT,
+    updated_at_ms BIGINT,
+    item_count INTEGER,
     tx_id TEXT,
     tx_state TEXT,
     tx_version INTEGER DEFAULT 1,
@@ -73,12 +87,18 @@ CREATE TABLE IF NOT EXISTS order_service_orders_by_customer (
     before_order_id TEXT,
     before_status TEXT,
     before_total_amount TEXT,
+    before_total_amount_minor BIGINT,
+    before_currency TEXT,
+    before_updated_at TEXT,
+    before_created_at_ms BIGINT,
+    before_updated_at_ms BIGINT,
+    before_item_count INTEGER,
     before_tx_id TEXT,
     before_tx_state TEXT,
     before_tx_version INTEGER,
     before_tx_prepared_at BIGINT,
     before_tx_committed_at BIGINT,
-    PRIMARY KEY (customer_id, created_at)
+    PRIMARY KEY (customer_id, created_at, order_id)
 );
 
 -- Create order_items table
@@ -89,9 +109,12 @@ CREATE TABLE IF NOT EXISTS order_service_order_items (
     quantity INTEGER,
     unit_price TEXT,
     total_price TEXT,
+    unit_price_minor BIGINT,
+    total_price_minor BIGINT,
     sku TEXT,
     notes TEXT,
     created_at TEXT,
+    created_at_ms BIGINT,
     tx_id TEXT,
     tx_state TEXT,
     tx_version INTEGER DEFAULT 1,
@@ -103,9 +126,12 @@ CREATE TABLE IF NOT EXISTS order_service_order_items (
     before_quantity INTEGER,
     before_unit_price TEXT,
     before_total_price TEXT,
+    before_unit_price_minor BIGINT,
+    before_total_price_minor BIGINT,
     before_sku TEXT,
     before_notes TEXT,
     before_created_at TEXT,
+    before_created_at_ms BIGINT,
     before_tx_id TEXT,
     before_tx_state TEXT,
     before_tx_version INTEGER,
@@ -114,6 +140,115 @@ CREATE TABLE IF NOT EXISTS order_service_order_items (
     PRIMARY KEY (order_id, product_id)
 );
 
+-- Create compensation_tasks table (durable retry queue for failed compensation steps)
+CREATE TABLE IF NOT EXISTS order_service_compensation_tasks (
+    bucket INTEGER,
+    task_id TEXT,
+    order_id TEXT,
+    step TEXT,
+    target_id TEXT,
+    amount_minor BIGINT,
+    status TEXT,
+    attempts INTEGER,
+    next_run_at_ms BIGINT,
+    lease_owner TEXT,
+    last_error TEXT,
+    created_at_ms BIGINT,
+    updated_at_ms BIGINT,
+    tx_id TEXT,
+    tx_state TEXT,
+    tx_version INTEGER DEFAULT 1,
+    tx_prepared_at BIGINT,
+    tx_committed_at BIGINT,
+    before_bucket INTEGER,
+    before_task_id TEXT,
+    before_order_id TEXT,
+    before_step TEXT,
+    before_target_id TEXT,
+    before_amount_minor BIGINT,
+    before_status TEXT,
+    before_attempts INTEGER,
+    before_next_run_at_ms BIGINT,
+    before_lease_owner TEXT,
+    before_last_error TEXT,
+    before_created_at_ms BIGINT,
+    before_updated_at_ms BIGINT,
+    before_tx_id TEXT,
+    before_tx_state TEXT,
+    before_tx_version INTEGER,
+    before_tx_prepared_at BIGINT,
+    before_tx_committed_at BIGINT,
+    PRIMARY KEY (bucket, task_id)
+);
+
+-- Create order_sagas table (in-flight create-order sagas, resumed after a restart)
+CREATE TABLE IF NOT EXISTS order_service_order_sagas (
+    bucket INTEGER,
+    order_id TEXT,
+    status TEXT,
+    step TEXT,
+    request TEXT,
+    attempts INTEGER,
+    lease_owner TEXT,
+    lease_expires_at_ms BIGINT,
+    last_error TEXT,
+    created_at_ms BIGINT,
+    updated_at_ms BIGINT,
+    tx_id TEXT,
+    tx_state TEXT,
+    tx_version INTEGER DEFAULT 1,
+    tx_prepared_at BIGINT,
+    tx_committed_at BIGINT,
+    before_bucket INTEGER,
+    before_order_id TEXT,
+    before_status TEXT,
+    before_step TEXT,
+    before_request TEXT,
+    before_attempts INTEGER,
+    before_lease_owner TEXT,
+    before_lease_expires_at_ms BIGINT,
+    before_last_error TEXT,
+    before_created_at_ms BIGINT,
+    before_updated_at_ms BIGINT,
+    before_tx_id TEXT,
+    before_tx_state TEXT,
+    before_tx_version INTEGER,
+    before_tx_prepared_at BIGINT,
+    before_tx_committed_at BIGINT,
+    PRIMARY KEY (bucket, order_id)
+);
+
+-- Create outbox table (events relayed after the business change commits)
+CREATE TABLE IF NOT EXISTS order_service_outbox (
+    bucket INTEGER,
+    event_seq BIGINT,
+    event_id TEXT,
+    aggregate_type TEXT,
+    aggregate_id TEXT,
+    event_type TEXT,
+    payload TEXT,
+    created_at_ms BIGINT,
+    tx_id TEXT,
+    tx_state TEXT,
+    tx_version INTEGER DEFAULT 1,
+    tx_prepared_at BIGINT,
+    tx_committed_at BIGINT,
+    before_bucket INTEGER,
+    before_event_seq BIGINT,
+    before_event_id TEXT,
+    before_aggregate_type TEXT,
+    before_aggregate_id TEXT,
+    before_event_type TEXT,
+    before_payload TEXT,
+    before_created_at_ms BIGINT,
+    before_tx_id TEXT,
+    before_tx_state TEXT,
+    before_tx_version INTEGER,
+    before_tx_prepared_at BIGINT,
+    before_tx_committed_at BIGINT,
+    PRIMARY KEY (bucket, event_seq, event_id)
+);
+
 .quit
 EOF
 
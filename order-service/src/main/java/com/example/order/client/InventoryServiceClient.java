@@ -22,9 +22,15 @@ public interface InventoryServiceClient {
     @PostMapping("/api/v1/inventory/cancel/{reservationId}")
     void cancelReservation(@PathVariable String reservationId);
 
+    @GetMapping("/api/v1/inventory/orders/{orderId}/reservations")
+    List<InventoryReservationResponse> getReservationsByOrder(@PathVariable String orderId);
+
     @GetMapping("/api/v1/inventory/check")
     InventoryCheckResponse checkInventory(@RequestParam String productId, @RequestParam int quantity);
 
+    @PostMapping("/api/v1/inventory/check/batch")
+    List<InventoryCheckResponse> checkInventoryBatch(@RequestBody InventoryCheckBatchRequest request);
+
     // DTOs
     class ReserveInventoryRequest {
         private String orderId;
@@ -56,6 +62,19 @@ public interface InventoryServiceClient {
         public void setQuantity(int quantity) { this.quantity = quantity; }
     }
 
+    class InventoryCheckBatchRequest {
+        private List<InventoryItemRequest> items;
+
+        public InventoryCheckBatchRequest() {}
+
+        public InventoryCheckBatchRequest(List<InventoryItemRequest> items) {
+            this.items = items;
+        }
+
+        public List<InventoryItemRequest> getItems() { return items; }
+        public void setItems(List<InventoryItemRequest> items) { this.items = items; }
+    }
+
     class InventoryReservationResponse {
         private String reservationId;
         private String orderId;
@@ -2,6 +2,8 @@ package com.example.order.client;
 
 import org.springframework.stereotype.Component;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Component
 public class InventoryServiceClientFallback implements InventoryServiceClient {
@@ -18,8 +20,14 @@ public class InventoryServiceClientFallback implements InventoryServiceClient {
 
     @Override
     public void cancelReservation(String reservationId) {
-        // Fallback for cancellation - log but don't fail
-        System.err.println("Failed to cancel inventory reservation: " + reservationId + " - Inventory service unavailable");
+        // Fail so the compensation step is queued for retry instead of being dropped
+        throw new RuntimeException("Inventory service is currently unavailable");
+    }
+
+    @Override
+    public List<InventoryReservationResponse> getReservationsByOrder(String orderId) {
+        // Fail rather than report no reservation, which would leave one in place
+        throw new RuntimeException("Inventory service is currently unavailable");
     }
 
     @Override
@@ -30,4 +38,11 @@ public class InventoryServiceClientFallback implements InventoryServiceClient {
         response.setAvailable(false);
         return response;
     }
+
+    @Override
+    public List<InventoryCheckResponse> checkInventoryBatch(InventoryCheckBatchRequest request) {
+        return request.getItems().stream()
+            .map(item -> checkInventory(item.getProductId(), item.getQuantity()))
+            .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
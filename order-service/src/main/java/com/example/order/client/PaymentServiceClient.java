@@ -4,6 +4,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @FeignClient(
     name = "payment-service",
@@ -21,6 +22,9 @@ public interface PaymentServiceClient {
     @GetMapping("/api/v1/payments/{paymentId}")
     PaymentResponse getPayment(@PathVariable String paymentId);
 
+    @GetMapping("/api/v1/payments")
+    List<PaymentResponse> getPaymentsByOrder(@RequestParam String orderId);
+
     // DTOs
     class ProcessPaymentRequest {
         private String orderId;
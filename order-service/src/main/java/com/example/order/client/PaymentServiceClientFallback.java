@@ -1,6 +1,7 @@
 package com.example.order.client;
 
 import org.springframework.stereotype.Component;
+import java.util.List;
 
 @Component
 public class PaymentServiceClientFallback implements PaymentServiceClient {
@@ -19,4 +20,9 @@ public class PaymentServiceClientFallback implements PaymentServiceClient {
     public PaymentResponse getPayment(String paymentId) {
         throw new RuntimeException("Payment service is currently unavailable");
     }
+
+    @Override
+    public List<PaymentResponse> getPaymentsByOrder(String orderId) {
+        throw new RuntimeException("Payment service is currently unavailable");
+    }
 }
\ No newline at end of file
@@ -12,8 +12,8 @@ public class ShippingServiceClientFallback implements ShippingServiceClient {
 
     @Override
     public void cancelShipment(String shipmentId) {
-        // Fallback for cancellation - log but don't fail
-        System.err.println("Failed to cancel shipment: " + shipmentId + " - Shipping service unavailable");
+        // Fail so the compensation step is queued for retry instead of being dropped
+        throw new RuntimeException("Shipping service is currently unavailable");
     }
 
     @Override
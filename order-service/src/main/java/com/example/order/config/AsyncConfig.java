@@ -0,0 +1,82 @@
+package com.example.order.config;
+
+import com.example.common.concurrent.ThreadPools;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors for work that runs off the request thread.
+ * Compensation and saga steps run on their own bounded pools so a slow downstream cannot exhaust the shared one.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    public static final String COMPENSATION_EXECUTOR = "compensationExecutor";
+    public static final String COMPENSATION_STEP_EXECUTOR = "compensationStepExecutor";
+    public static final String SAGA_STEP_EXECUTOR = "sagaStepExecutor";
+
+    /**
+     * Boot only creates its default executor when no other Executor bean exists; declare it
+     * explicitly so MVC async requests (streaming exports) keep using it.
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Runs compensateOrderAsync. A full queue rejects the submission so the caller can hand the
+     * order to the durable compensation queue instead of blocking the request thread.
+     */
+    @Bean(name = COMPENSATION_EXECUTOR)
+    public ExecutorService compensationExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${order.process.compensation.executor.core-size:4}") int coreSize,
+            @Value("${order.process.compensation.executor.max-size:8}") int maxSize,
+            @Value("${order.process.compensation.executor.queue-capacity:200}") int queueCapacity) {
+        return ThreadPools.bounded("compensation", coreSize, maxSize, queueCapacity,
+                new ThreadPoolExecutor.AbortPolicy(), meterRegistry);
+    }
+
+    /**
+     * Runs the independent remote calls of one compensation concurrently. Callers are compensation
+     * threads, so a full queue runs the step on the caller rather than failing it.
+     */
+    @Bean(name = COMPENSATION_STEP_EXECUTOR)
+    public ExecutorService compensationStepExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${order.process.compensation.step-executor.core-size:12}") int coreSize,
+            @Value("${order.process.compensation.step-executor.max-size:24}") int maxSize,
+            @Value("${order.process.compensation.step-executor.queue-capacity:100}") int queueCapacity) {
+        return ThreadPools.bounded("compensation-step", coreSize, maxSize, queueCapacity,
+                new ThreadPoolExecutor.CallerRunsPolicy(), meterRegistry);
+    }
+
+    /**
+     * Runs the concurrent remote calls of order sagas (inventory reservation and payment). When the
+     * pool is saturated the request thread makes the call itself, so sagas slow down instead of failing.
+     */
+    @Bean(name = SAGA_STEP_EXECUTOR)
+    public ExecutorService sagaStepExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${order.saga.step-executor.core-size:16}") int coreSize,
+            @Value("${order.saga.step-executor.max-size:32}") int maxSize,
+            @Value("${order.saga.step-executor.queue-capacity:200}") int queueCapacity) {
+        return ThreadPools.bounded("saga-step", coreSize, maxSize, queueCapacity,
+                new ThreadPoolExecutor.CallerRunsPolicy(), meterRegistry);
+    }
+}
\ No newline at end of file
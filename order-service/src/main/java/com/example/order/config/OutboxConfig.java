@@ -0,0 +1,49 @@
+package com.example.order.config;
+
+import com.example.common.outbox.OutboxDispatcher;
+import com.example.common.outbox.OutboxRelay;
+import com.example.common.outbox.OutboxRepository;
+import com.scalar.db.api.DistributedTransactionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Transactional outbox of the order_service namespace, see OutboxRelay.
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    public OutboxRepository outboxRepository() {
+        return new OutboxRepository("order_service");
+    }
+
+    @Bean
+    public OutboxDispatcher outboxDispatcher(ApplicationEventPublisher eventPublisher,
+            RestTemplateBuilder restTemplateBuilder,
+            @Value("${order.outbox.webhook.urls:}") List<String> webhookUrls,
+            @Value("${order.outbox.webhook.timeout:5s}") Duration webhookTimeout) {
+        return new OutboxDispatcher(eventPublisher, restTemplateBuilder, webhookUrls, webhookTimeout);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "order.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+    public OutboxRelay outboxRelay(DistributedTransactionManager transactionManager,
+            OutboxRepository outboxRepository,
+            OutboxDispatcher outboxDispatcher,
+            MeterRegistry meterRegistry,
+            @Value("${order.outbox.relay.batch-size:100}") int batchSize,
+            @Value("${order.outbox.relay.max-attempts:10}") int maxAttempts,
+            @Value("${order.outbox.relay.interval-millis:500}") long intervalMillis) {
+        return new OutboxRelay(transactionManager, outboxRepository, outboxDispatcher, meterRegistry,
+                batchSize, maxAttempts, Duration.ofMillis(intervalMillis));
+    }
+}
\ No newline at end of file
@@ -5,6 +5,8 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -14,6 +16,9 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -55,7 +60,39 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${cache.local.enabled:true}") boolean localEnabled,
+                                     @Value("${cache.local.max-size:10000}") long localMaxSize,
+                                     @Value("${cache.local.ttl:30s}") Duration localTtl,
+                                     @Value("${cache.invalidation.channel:order-cache-invalidation}") String invalidationChannel,
+                                     @Value("${cache.ttl.orders:5m}") Duration orderTtl,
+                                     @Value("${cache.ttl.customers:15m}") Duration customerOrdersTtl) {
+        RedisCacheManager redisCacheManager = redisCacheManager(redisConnectionFactory, orderTtl, customerOrdersTtl);
+        if (!localEnabled) {
+            return redisCacheManager;
+        }
+        return new TwoLevelCacheManager(redisCacheManager, new StringRedisTemplate(redisConnectionFactory),
+                invalidationChannel, meterRegistry, localMaxSize, localTtl);
+    }
+
+    /**
+     * Delivers invalidations published by other instances to the local cache tier
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.local.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            CacheManager cacheManager,
+            @Value("${cache.invalidation.channel:order-cache-invalidation}") String invalidationChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener((TwoLevelCacheManager) cacheManager, new ChannelTopic(invalidationChannel));
+        return container;
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory,
+                                                Duration orderTtl, Duration customerOrdersTtl) {
         // JSON serializer for cache values
         Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
         ObjectMapper objectMapper = new ObjectMapper();
@@ -72,11 +109,13 @@ public class RedisConfig {
                 .disableCachingNullValues();
 
         // Cache-specific configurations
-        return RedisCacheManager.builder(redisConnectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(cacheConfig)
-                .withCacheConfiguration("orders", cacheConfig.entryTtl(Duration.ofMinutes(5)))
-                .withCacheConfiguration("customers", cacheConfig.entryTtl(Duration.ofMinutes(15)))
+                .withCacheConfiguration("orders", cacheConfig.entryTtl(orderTtl))
+                .withCacheConfiguration("customers", cacheConfig.entryTtl(customerOrdersTtl))
                 .withCacheConfiguration("order-items", cacheConfig.entryTtl(Duration.ofMinutes(5)))
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
     }
 }
\ No newline at end of file
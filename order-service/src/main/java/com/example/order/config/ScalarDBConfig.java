@@ -1,5 +1,6 @@
 package com.example.order.config;
 
+import com.example.common.scalardb.ReadOnlyTransactionManager;
 import com.scalar.db.api.DistributedStorage;
 import com.scalar.db.api.DistributedTransactionManager;
 import com.scalar.db.service.StorageFactory;
@@ -39,4 +40,11 @@ public class ScalarDBConfig {
         TransactionFactory factory = TransactionFactory.create(scalarDbProperties());
         return factory.getTransactionManager();
     }
+
+    @Bean
+    public ReadOnlyTransactionManager readOnlyTransactionManager(DistributedStorage distributedStorage,
+            DistributedTransactionManager transactionManager,
+            @Value("${order.read-only-queries.enabled:true}") boolean enabled) {
+        return new ReadOnlyTransactionManager(distributedStorage, transactionManager, enabled);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.example.order.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache manager with a per-JVM Caffeine cache (L1) in front of the Redis cache manager (L2).
+ * Reads try L1, then L2, and copy L2 hits into L1. Writes and evictions go to both tiers and are
+ * published on a Redis channel so other instances drop their L1 copy. L1 entries also expire after
+ * a short TTL, which bounds staleness when an invalidation message is lost.
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    // Message format: <instance id> <cache name> [<key>]; no key means the whole cache was cleared
+    private static final String SEPARATOR = "\n";
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final String invalidationChannel;
+    private final MeterRegistry meterRegistry;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                String invalidationChannel, MeterRegistry meterRegistry,
+                                long localMaxSize, Duration localTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.invalidationChannel = invalidationChannel;
+        this.meterRegistry = meterRegistry;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = remoteCacheManager.getCache(cacheName);
+            return remote != null ? new TwoLevelCache(cacheName, remote) : null;
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * Applies an invalidation published by another instance to the local tier only.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts.length == 3) {
+            cache.local.invalidate(parts[2]);
+        } else {
+            cache.local.invalidateAll();
+        }
+    }
+
+    private void publishInvalidation(String cacheName, Object key) {
+        String message = instanceId + SEPARATOR + cacheName + (key != null ? SEPARATOR + key : "");
+        try {
+            redisTemplate.convertAndSend(invalidationChannel, message);
+        } catch (Exception e) {
+            // Other instances fall back to the L1 TTL
+            logger.warn("Failed to publish cache invalidation for {}:{}", cacheName, key, e);
+        }
+    }
+
+    private final class TwoLevelCache implements Cache {
+
+        private final String name;
+        private final Cache remote;
+        private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+        private final Counter localHits;
+        private final Counter localMisses;
+        private final Counter remoteHits;
+        private final Counter remoteMisses;
+
+        private TwoLevelCache(String name, Cache remote) {
+            this.name = name;
+            this.remote = remote;
+            this.local = Caffeine.newBuilder()
+                    .maximumSize(localMaxSize)
+                    .expireAfterWrite(localTtl)
+                    .build();
+            this.localHits = requestCounter("l1", "hit");
+            this.localMisses = requestCounter("l1", "miss");
+            this.remoteHits = requestCounter("l2", "hit");
+            this.remoteMisses = requestCounter("l2", "miss");
+            hitRatioGauge("l1", localHits, localMisses);
+            hitRatioGauge("l2", remoteHits, remoteMisses);
+            Gauge.builder("orders.cache.l1.size", local, c -> c.estimatedSize())
+                    .description("Entries held in the local cache tier")
+                    .tag("cache", name)
+                    .register(meterRegistry);
+        }
+
+        private Counter requestCounter(String tier, String result) {
+            return Counter.builder("orders.cache.requests")
+                    .description("Cache lookups by tier and result")
+                    .tag("cache", name)
+                    .tag("tier", tier)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        private void hitRatioGauge(String tier, Counter hits, Counter misses) {
+            Gauge.builder("orders.cache.hit.ratio", () -> {
+                        double total = hits.count() + misses.count();
+                        return total == 0 ? 0 : hits.count() / total;
+                    })
+                    .description("Fraction of lookups answered by the cache tier")
+                    .tag("cache", name)
+                    .tag("tier", tier)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return this;
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            Object value = local.getIfPresent(key);
+            if (value != null) {
+                localHits.increment();
+                return new SimpleValueWrapper(value);
+            }
+            localMisses.increment();
+
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper == null) {
+                remoteMisses.increment();
+                return null;
+            }
+            remoteHits.increment();
+            if (wrapper.get() != null) {
+                local.put(key, wrapper.get());
+            }
+            return wrapper;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            ValueWrapper wrapper = get(key);
+            Object value = wrapper != null ? wrapper.get() : null;
+            if (value != null && type != null && !type.isInstance(value)) {
+                throw new IllegalStateException(
+                        "Cached value is not of required type [" + type.getName() + "]: " + value);
+            }
+            return (T) value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper wrapper = get(key);
+            if (wrapper != null) {
+                return (T) wrapper.get();
+            }
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            put(key, value);
+            return value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            remote.put(key, value);
+            if (value != null) {
+                local.put(key, value);
+            } else {
+                local.invalidate(key);
+            }
+            publishInvalidation(name, key);
+        }
+
+        @Override
+        public void evict(Object key) {
+            remote.evict(key);
+            local.invalidate(key);
+            publishInvalidation(name, key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean present = remote.evictIfPresent(key);
+            local.invalidate(key);
+            publishInvalidation(name, key);
+            return present;
+        }
+
+        @Override
+        public void clear() {
+            remote.clear();
+            local.invalidateAll();
+            publishInvalidation(name, null);
+        }
+    }
+}
\ No newline at end of file
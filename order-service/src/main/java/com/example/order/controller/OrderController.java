@@ -1,21 +1,31 @@
 package com.example.order.controller;
 
 import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.CursorPage;
 import com.example.order.dto.OrderResponse;
 import com.example.order.exception.OrderProcessingException;
+import com.example.order.service.OrderIntakeService;
 import com.example.order.service.OrderProcessService;
 import com.scalar.db.exception.storage.ExecutionException;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.db.exception.transaction.AbortException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,19 +36,47 @@ public class OrderController {
     
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    // RFC 7240; a client sends "Prefer: respond-async" to get 202 instead of waiting for the order flow
+    private static final String PREFER_HEADER = "Prefer";
+    private static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+    
     private final OrderProcessService orderProcessService;
+    private final OrderIntakeService orderIntakeService;
+    private final ObjectMapper objectMapper;
+    private final boolean asyncIntakeByDefault;
     
-    public OrderController(OrderProcessService orderProcessService) {
+    public OrderController(OrderProcessService orderProcessService, OrderIntakeService orderIntakeService,
+            ObjectMapper objectMapper, @Value("${order.intake.async-by-default:false}") boolean asyncIntakeByDefault) {
         this.orderProcessService = orderProcessService;
+        this.orderIntakeService = orderIntakeService;
+        this.objectMapper = objectMapper;
+        this.asyncIntakeByDefault = asyncIntakeByDefault;
     }
 
     @PostMapping
     @PreAuthorize("#request.customerId == authentication.principal")
     public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody CreateOrderRequest request, 
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer,
             Authentication authentication) throws OrderProcessingException, ExecutionException, TransactionException, AbortException {
         logger.info("Received order creation request for customer: {} by authenticated user: {}", 
             request.getCustomerId(), authentication.getPrincipal());
         
+        if (asyncIntakeByDefault || prefersAsync(prefer)) {
+            // 202 with the order's status URL; 429 with Retry-After when intake is at capacity
+            OrderResponse accepted = orderIntakeService.submit(request);
+            URI statusUri = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{orderId}")
+                .buildAndExpand(accepted.getOrderId())
+                .toUri();
+            logger.info("Order accepted for processing: {}", accepted.getOrderId());
+            return ResponseEntity.accepted()
+                .location(statusUri)
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+                .body(accepted);
+        }
+        
         OrderResponse response = orderProcessService.createOrder(request);
         logger.info("Order created successfully: {}", response.getOrderId());
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -69,12 +107,55 @@ public class OrderController {
     @GetMapping
     @PreAuthorize("#customerId == authentication.principal")
     public ResponseEntity<List<OrderResponse>> getOrdersByCustomer(@RequestParam String customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeItems,
             Authentication authentication) throws OrderProcessingException, ExecutionException, TransactionException, AbortException {
         logger.info("Received get orders request for customer: {} by authenticated user: {}", 
             customerId, authentication.getPrincipal());
         
-        List<OrderResponse> orders = orderProcessService.getOrdersByCustomer(customerId);
-        return ResponseEntity.ok(orders);
+        CursorPage<OrderResponse> page = orderProcessService.getOrdersByCustomer(customerId, cursor, limit, includeItems);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Streams a customer's orders as newline-delimited JSON, one page at a time,
+     * so a full export never has to be held in memory.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("#customerId == authentication.principal")
+    public ResponseEntity<StreamingResponseBody> exportOrdersByCustomer(@RequestParam String customerId,
+            Authentication authentication) {
+        logger.info("Received order export request for customer: {} by authenticated user: {}", 
+            customerId, authentication.getPrincipal());
+        
+        StreamingResponseBody body = out -> {
+            String cursor = null;
+            do {
+                CursorPage<OrderResponse> page;
+                try {
+                    page = orderProcessService.getOrderExportPage(customerId, cursor);
+                } catch (OrderProcessingException | ExecutionException | TransactionException e) {
+                    throw new IOException("Failed to read order export page", e);
+                }
+                writeNdjson(out, page.getItems());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    private void writeNdjson(OutputStream out, List<?> items) throws IOException {
+        for (Object item : items) {
+            out.write(objectMapper.writeValueAsBytes(item));
+            out.write('\n');
+        }
+        // Flushing per page hands each page to the client before the next one is read
+        out.flush();
     }
 
     @PostMapping("/{orderId}/cancel")
@@ -99,6 +180,18 @@ public class OrderController {
         return ResponseEntity.ok().build();
     }
 
+    private static boolean prefersAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.trim().equalsIgnoreCase(RESPOND_ASYNC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private boolean isOrderAccessAllowed(OrderResponse order, Authentication authentication) {
         return order.getCustomerId().equals(authentication.getPrincipal());
     }
@@ -22,6 +22,7 @@ public class OrderResponse {
     private String inventoryReservationId;
     private String paymentId;
     private String shipmentId;
+    private Integer itemCount;
     private List<OrderItemResponse> items;
 
     public OrderResponse() {}
@@ -40,6 +41,7 @@ public class OrderResponse {
         this.inventoryReservationId = order.getInventoryReservationId();
         this.paymentId = order.getPaymentId();
         this.shipmentId = order.getShipmentId();
+        this.itemCount = order.getItemCount() != null ? order.getItemCount() : items.size();
         this.items = items.stream()
             .map(OrderItemResponse::new)
             .collect(Collectors.toList());
@@ -150,6 +152,14 @@ public class OrderResponse {
         this.shipmentId = shipmentId;
     }
 
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+
     public List<OrderItemResponse> getItems() {
         return items;
     }
@@ -0,0 +1,158 @@
+package com.example.order.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * One pending compensation step for an order. The task id is derived from the order and step,
+ * so enqueueing the same step twice updates the existing task instead of adding another.
+ */
+public class CompensationTask {
+
+    public enum Step {
+        // Resolve the order and run every step it needs
+        ORDER,
+        SHIPMENT_CANCEL,
+        PAYMENT_REFUND,
+        RESERVATION_CANCEL
+    }
+
+    public enum Status {
+        PENDING,
+        // Gave up after the maximum number of attempts
+        FAILED
+    }
+
+    private String taskId;
+    private String orderId;
+    private String step;
+    private String targetId;
+    private BigDecimal amount;
+    private String status;
+    private int attempts;
+    private long nextRunAt;
+    private String leaseOwner;
+    private String lastError;
+    private long createdAt;
+    private long updatedAt;
+
+    public CompensationTask() {}
+
+    public CompensationTask(String orderId, Step step, String targetId) {
+        this.taskId = taskId(orderId, step);
+        this.orderId = orderId;
+        this.step = step.name();
+        this.targetId = targetId;
+        this.status = Status.PENDING.name();
+        this.createdAt = System.currentTimeMillis();
+        this.updatedAt = this.createdAt;
+        this.nextRunAt = this.createdAt;
+    }
+
+    public static String taskId(String orderId, Step step) {
+        return orderId + ":" + step.name();
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public void setStep(String step) {
+        this.step = step;
+    }
+
+    public Step getStepEnum() {
+        return Step.valueOf(step);
+    }
+
+    public String getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(String targetId) {
+        this.targetId = targetId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public boolean isPending() {
+        return Status.PENDING.name().equals(status);
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public long getNextRunAt() {
+        return nextRunAt;
+    }
+
+    public void setNextRunAt(long nextRunAt) {
+        this.nextRunAt = nextRunAt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
\ No newline at end of file
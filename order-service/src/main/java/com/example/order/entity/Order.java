@@ -17,6 +17,7 @@ public class Order {
     private String inventoryReservationId;
     private String paymentId;
     private String shipmentId;
+    private Integer itemCount;
 
     public Order() {}
 
@@ -143,6 +144,14 @@ public class Order {
         this.shipmentId = shipmentId;
     }
 
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+
     @Override
     public String toString() {
         return "Order{" +
@@ -0,0 +1,134 @@
+package com.example.order.entity;
+
+/**
+ * Progress of the create-order saga for one order. The row exists while the saga is in flight and is
+ * deleted once the order has shipped or been compensated. The step is written before its remote calls
+ * are made, so after a crash the recorded step tells whether those calls may already have happened.
+ */
+public class OrderSaga {
+
+    public enum Step {
+        // Order written, no remote call made yet
+        START,
+        // Inventory reservation and payment, run concurrently
+        RESERVE_AND_PAY,
+        // Reservation confirmation and shipment creation
+        SHIP
+    }
+
+    public enum Status {
+        RUNNING,
+        COMPENSATING
+    }
+
+    private String orderId;
+    private String status;
+    private String step;
+    // CreateOrderRequest as JSON; payment and shipping details that the order row does not keep
+    private String request;
+    private int attempts;
+    private String leaseOwner;
+    private long leaseExpiresAt;
+    private String lastError;
+    private long createdAt;
+    private long updatedAt;
+
+    public OrderSaga() {}
+
+    public OrderSaga(String orderId, String request) {
+        this.orderId = orderId;
+        this.request = request;
+        this.status = Status.RUNNING.name();
+        this.step = Step.START.name();
+        this.createdAt = System.currentTimeMillis();
+        this.updatedAt = this.createdAt;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Status getStatusEnum() {
+        return Status.valueOf(status);
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public void setStep(String step) {
+        this.step = step;
+    }
+
+    public Step getStepEnum() {
+        return Step.valueOf(step);
+    }
+
+    public String getRequest() {
+        return request;
+    }
+
+    public void setRequest(String request) {
+        this.request = request;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public long getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(long leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
\ No newline at end of file
@@ -7,6 +7,7 @@ import com.scalar.db.exception.transaction.TransactionException;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -44,6 +45,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(error);
     }
     
+    @ExceptionHandler(OrderIntakeRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleOrderIntakeRejectedException(OrderIntakeRejectedException e) {
+        logger.warn("Order intake rejected: {}", e.getMessage());
+        
+        ErrorResponse error = new ErrorResponse(e.getErrorCode().name(), e.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+            .body(error);
+    }
+    
     @ExceptionHandler(AbortException.class)
     public ResponseEntity<ErrorResponse> handleAbortException(AbortException e) {
         logger.error("Transaction conflict occurred", e);
@@ -143,8 +155,9 @@ public class GlobalExceptionHandler {
             case INVALID_REQUEST, VALIDATION_FAILED -> HttpStatus.BAD_REQUEST;
             case ORDER_NOT_FOUND -> HttpStatus.NOT_FOUND;
             case UNAUTHORIZED -> HttpStatus.UNAUTHORIZED;
-            case TRANSACTION_CONFLICT -> HttpStatus.CONFLICT;
+            case TRANSACTION_CONFLICT, ORDER_IN_PROGRESS -> HttpStatus.CONFLICT;
             case SYSTEM_ERROR -> HttpStatus.INTERNAL_SERVER_ERROR;
+            case INTAKE_AT_CAPACITY -> HttpStatus.TOO_MANY_REQUESTS;
         };
     }
 }
\ No newline at end of file
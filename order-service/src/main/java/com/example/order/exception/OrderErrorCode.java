@@ -10,9 +10,11 @@ public enum OrderErrorCode {
     INVALID_REQUEST("Invalid request data"),
     ORDER_NOT_FOUND("Order not found"),
     TRANSACTION_CONFLICT("Database transaction conflict"),
+    ORDER_IN_PROGRESS("Order is still being processed"),
     SYSTEM_ERROR("Internal system error"),
     UNAUTHORIZED("Unauthorized access"),
-    VALIDATION_FAILED("Request validation failed");
+    VALIDATION_FAILED("Request validation failed"),
+    INTAKE_AT_CAPACITY("Order intake is at capacity");
     
     private final String description;
     
@@ -0,0 +1,21 @@
+package com.example.order.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when asynchronous order intake is at capacity; carries how long the client should wait
+ * before retrying
+ */
+public class OrderIntakeRejectedException extends OrderProcessingException {
+    
+    private final Duration retryAfter;
+    
+    public OrderIntakeRejectedException(Duration retryAfter) {
+        super(OrderErrorCode.INTAKE_AT_CAPACITY, "UNKNOWN", "Order intake is at capacity, retry later");
+        this.retryAfter = retryAfter;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.example.order.repository;
+
+import com.example.order.entity.CompensationTask;
+import com.scalar.db.api.Delete;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.PutBuilder;
+import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.exception.transaction.CrudException;
+import com.scalar.db.io.Key;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compensation work queue. Tasks are spread over a fixed number of bucket partitions and
+ * clustered by task id, so a worker claims due tasks by scanning one bucket at a time and
+ * workers on different buckets do not conflict. Completed tasks are deleted, which keeps
+ * the buckets small.
+ */
+@Repository
+public class CompensationTaskRepository {
+
+    public static final int BUCKETS = 16;
+
+    private static final String NAMESPACE = "order_service";
+    private static final String TABLE_NAME = "compensation_tasks";
+    private static final ResultMapper<CompensationTask> TASK_MAPPER = ResultMapper.of(CompensationTask::new)
+            .text("task_id", CompensationTask::setTaskId)
+            .text("order_id", CompensationTask::setOrderId)
+            .text("step", CompensationTask::setStep)
+            .text("target_id", CompensationTask::setTargetId)
+            .text("status", CompensationTask::setStatus)
+            .intValue("attempts", CompensationTask::setAttempts)
+            .bigIntValue("next_run_at_ms", CompensationTask::setNextRunAt)
+            .text("lease_owner", CompensationTask::setLeaseOwner)
+            .text("last_error", CompensationTask::setLastError)
+            .bigIntValue("created_at_ms", CompensationTask::setCreatedAt)
+            .bigIntValue("updated_at_ms", CompensationTask::setUpdatedAt)
+            .build();
+
+    public static int bucketOf(String taskId) {
+        return Math.floorMod(taskId.hashCode(), BUCKETS);
+    }
+
+    public Optional<CompensationTask> findById(String taskId, DistributedTransaction transaction) throws CrudException {
+        Get get = Get.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", bucketOf(taskId)))
+                .clusteringKey(Key.ofText("task_id", taskId))
+                .build();
+
+        return transaction.get(get).map(this::mapResultToEntity);
+    }
+
+    public List<CompensationTask> findByBucket(int bucket, DistributedTransaction transaction) throws CrudException {
+        Scan scan = Scan.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", bucket))
+                .build();
+
+        List<CompensationTask> tasks = TASK_MAPPER.mapAll(transaction.scan(scan));
+        return tasks;
+    }
+
+    public void save(CompensationTask task, DistributedTransaction transaction) throws CrudException {
+        PutBuilder.Buildable put = Put.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", bucketOf(task.getTaskId())))
+                .clusteringKey(Key.ofText("task_id", task.getTaskId()))
+                .textValue("order_id", task.getOrderId())
+                .textValue("step", task.getStep())
+                .textValue("target_id", task.getTargetId())
+                .textValue("status", task.getStatus())
+                .intValue("attempts", task.getAttempts())
+                .bigIntValue("next_run_at_ms", task.getNextRunAt())
+                .textValue("lease_owner", task.getLeaseOwner())
+                .textValue("last_error", task.getLastError())
+                .bigIntValue("created_at_ms", task.getCreatedAt())
+                .bigIntValue("updated_at_ms", task.getUpdatedAt());
+        if (task.getAmount() != null) {
+            put.bigIntValue("amount_minor", OrderColumns.toMinorUnits(task.getAmount()));
+        } else {
+            put.bigIntValue("amount_minor", null);
+        }
+
+        transaction.put(put.build());
+    }
+
+    public void delete(CompensationTask task, DistributedTransaction transaction) throws CrudException {
+        Delete delete = Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", bucketOf(task.getTaskId())))
+                .clusteringKey(Key.ofText("task_id", task.getTaskId()))
+                .build();
+
+        transaction.delete(delete);
+    }
+
+    private CompensationTask mapResultToEntity(Result result) {
+        CompensationTask task = TASK_MAPPER.map(result);
+        if (OrderColumns.hasValue(result, "amount_minor")) {
+            task.setAmount(OrderColumns.fromMinorUnits(result.getBigInt("amount_minor")));
+        }
+        return task;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.order.repository;
+
+import com.scalar.db.api.Result;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversions between entity values and the typed order columns.
+ * Money is stored as BIGINT minor units at a fixed scale of 2 and timestamps as BIGINT
+ * epoch milliseconds (UTC). While legacy TEXT columns are still being migrated, the
+ * read helpers fall back to them when the typed column is absent or null.
+ */
+final class OrderColumns {
+
+    static final int MONEY_SCALE = 2;
+
+    private OrderColumns() {
+    }
+
+    /** Amounts with more than two decimals are rounded half-even instead of rejected. */
+    static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(MONEY_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, MONEY_SCALE);
+    }
+
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /** Legacy TEXT timestamps hold epoch seconds. */
+    static String toLegacyTimestamp(long epochMillis) {
+        return Long.toString(Math.floorDiv(epochMillis, 1000L));
+    }
+
+    static boolean hasValue(Result result, String column) {
+        return result.contains(column) && !result.isNull(column);
+    }
+
+    static BigDecimal readAmount(Result result, String minorUnitsColumn, String legacyColumn, boolean dualRead) {
+        if (hasValue(result, minorUnitsColumn)) {
+            return fromMinorUnits(result.getBigInt(minorUnitsColumn));
+        }
+        if (dualRead && hasValue(result, legacyColumn)) {
+            return new BigDecimal(result.getText(legacyColumn));
+        }
+        return null;
+    }
+
+    static LocalDateTime readTimestamp(Result result, String millisColumn, String legacyColumn, boolean dualRead) {
+        Long epochMillis = readEpochMillis(result, millisColumn, legacyColumn, dualRead);
+        return epochMillis != null ? fromEpochMillis(epochMillis) : null;
+    }
+
+    static Long readEpochMillis(Result result, String millisColumn, String legacyColumn, boolean dualRead) {
+        if (hasValue(result, millisColumn)) {
+            return result.getBigInt(millisColumn);
+        }
+        if (dualRead && hasValue(result, legacyColumn)) {
+            return Long.parseLong(result.getText(legacyColumn)) * 1000L;
+        }
+        return null;
+    }
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.example.order.repository;
 
+import com.example.common.concurrent.ThreadPools;
+import com.example.common.scalardb.ReadOnlyTransactionManager;
 import com.example.order.entity.OrderItem;
 import com.scalar.db.api.*;
 import com.scalar.db.exception.storage.ExecutionException;
@@ -8,17 +10,19 @@ import com.scalar.db.exception.transaction.AbortException;
 import com.scalar.db.exception.transaction.CrudConflictException;
 import com.scalar.db.exception.transaction.CrudException;
 import com.scalar.db.io.Key;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Repository
 public class OrderItemRepository {
@@ -26,28 +30,36 @@ public class OrderItemRepository {
     private static final String NAMESPACE = "order_service";
     private static final String TABLE_NAME = "order_items";
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-
-    private final DistributedTransactionManager transactionManager;
+    // Prices and created_at go through OrderColumns for the dual-read fallback
+    private static final ResultMapper<OrderItem> ORDER_ITEM_MAPPER = ResultMapper.of(OrderItem::new)
+            .text("order_id", OrderItem::setOrderId)
+            .text("product_id", OrderItem::setProductId)
+            .text("product_name", OrderItem::setProductName)
+            .intValue("quantity", OrderItem::setQuantity)
+            .text("sku", OrderItem::setSku)
+            .text("notes", OrderItem::setNotes)
+            .build();
+
+    private final ReadOnlyTransactionManager readOnlyTransactionManager;
+    private final ExecutorService readExecutor;
+    private final boolean dualRead;
+    private final boolean writeLegacyColumns;
     
-    public OrderItemRepository(DistributedTransactionManager transactionManager) {
-        this.transactionManager = transactionManager;
+    public OrderItemRepository(ReadOnlyTransactionManager readOnlyTransactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${order.item-read.parallelism:8}") int readParallelism,
+                               @Value("${order.storage.dual-read:true}") boolean dualRead,
+                               @Value("${order.storage.write-legacy-columns:true}") boolean writeLegacyColumns) {
+        this.readOnlyTransactionManager = readOnlyTransactionManager;
+        // Read-only transactions hold no per-transaction state, so only they can serve concurrent scans
+        this.readExecutor = readParallelism > 1 && readOnlyTransactionManager.isEnabled()
+                ? ThreadPools.fixed("order-item-read", readParallelism, meterRegistry) : null;
+        this.dualRead = dualRead;
+        this.writeLegacyColumns = writeLegacyColumns;
     }
 
     public OrderItem create(OrderItem orderItem, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
-        Put put = Put.newBuilder()
-                .namespace(NAMESPACE)
-                .table(TABLE_NAME)
-                .partitionKey(Key.ofText("order_id", orderItem.getOrderId()))
-                .clusteringKey(Key.ofText("product_id", orderItem.getProductId()))
-                .textValue("product_name", orderItem.getProductName())
-                .intValue("quantity", orderItem.getQuantity())
-                .textValue("unit_price", orderItem.getUnitPrice().toString())
-                .textValue("total_price", orderItem.getTotalPrice().toString())
-                .textValue("sku", orderItem.getSku() != null ? orderItem.getSku() : "")
-                .textValue("notes", orderItem.getNotes() != null ? orderItem.getNotes() : "")
-                .textValue("created_at", String.valueOf(orderItem.getCreatedAt().toEpochSecond(ZoneOffset.UTC)))
-                .build();
-        transaction.put(put);
+        transaction.put(orderItemPut(orderItem, OrderColumns.toEpochMillis(orderItem.getCreatedAt())));
         return orderItem;
     }
 
@@ -67,23 +79,73 @@ public class OrderItemRepository {
     }
 
     /**
-     * Batch fetch order items for multiple orders to avoid N+1 query problem
+     * Batch fetch order items for multiple orders. With more than one order, read parallelism
+     * and read-only queries enabled, this reads through findByOrderIdsConcurrently, outside the
+     * caller's transaction; otherwise the scans run serially in the caller's transaction.
+     * Callers that must see their own writes or need the items in their snapshot use
+     * findByOrderIdsSerially.
      */
     public Map<String, List<OrderItem>> findByOrderIds(List<String> orderIds, DistributedTransaction transaction) 
             throws ExecutionException, CrudConflictException, CrudException {
-        
-        Map<String, List<OrderItem>> orderItemsMap = orderIds.stream()
-                .collect(Collectors.toMap(orderId -> orderId, orderId -> new ArrayList<>()));
-        
-        // Batch fetch all order items for the given order IDs
+        if (readExecutor == null || orderIds.size() < 2) {
+            return findByOrderIdsSerially(orderIds, transaction);
+        }
+        return findByOrderIdsConcurrently(orderIds);
+    }
+
+    public Map<String, List<OrderItem>> findByOrderIdsSerially(List<String> orderIds, DistributedTransaction transaction) 
+            throws ExecutionException, CrudConflictException, CrudException {
+        Map<String, List<OrderItem>> orderItemsMap = new LinkedHashMap<>();
         for (String orderId : orderIds) {
-            List<OrderItem> items = findByOrderId(orderId, transaction);
-            orderItemsMap.put(orderId, items);
+            orderItemsMap.put(orderId, findByOrderId(orderId, transaction));
         }
-        
         return orderItemsMap;
     }
 
+    /**
+     * Scans the orders' item partitions concurrently on the read executor, all through one
+     * read-only transaction. Each partition is committed-consistent on its own, but the scans
+     * share no snapshot with each other or with any caller transaction.
+     */
+    public Map<String, List<OrderItem>> findByOrderIdsConcurrently(List<String> orderIds) 
+            throws ExecutionException, CrudConflictException, CrudException {
+        DistributedTransaction transaction;
+        try {
+            transaction = readOnlyTransactionManager.start();
+        } catch (TransactionException e) {
+            throw new ExecutionException("Failed to start order item read", e);
+        }
+        List<Future<List<OrderItem>>> futures = new ArrayList<>(orderIds.size());
+        for (String orderId : orderIds) {
+            futures.add(readExecutor.submit(() -> findByOrderId(orderId, transaction)));
+        }
+
+        Map<String, List<OrderItem>> orderItemsMap = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < orderIds.size(); i++) {
+                orderItemsMap.put(orderIds.get(i), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new ExecutionException("Interrupted while reading order items", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof CrudException) {
+                throw (CrudException) e.getCause();
+            }
+            throw new ExecutionException("Failed to read order items", e.getCause());
+        }
+        return orderItemsMap;
+    }
+
+    @PreDestroy
+    public void shutdownReadExecutor() {
+        if (readExecutor != null) {
+            readExecutor.shutdown();
+        }
+    }
+
     public Optional<OrderItem> findByOrderIdAndProductId(String orderId, String productId, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
         Get get = Get.newBuilder()
                 .namespace(NAMESPACE)
@@ -112,21 +174,47 @@ public class OrderItemRepository {
             throw new ExecutionException("Order item not found for update");
         }
 
+        long createdAt = OrderColumns.readEpochMillis(existing.get(), "created_at_ms", "created_at", true);
+        transaction.put(orderItemPut(orderItem, createdAt));
+        return orderItem;
+    }
+
+    /**
+     * Writes only the typed columns of an order item from values already read through the
+     * dual-read path. Used by the column migration job.
+     */
+    public void writeTypedColumns(OrderItem orderItem, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
         Put put = Put.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofText("order_id", orderItem.getOrderId()))
+                .clusteringKey(Key.ofText("product_id", orderItem.getProductId()))
+                .bigIntValue("unit_price_minor", OrderColumns.toMinorUnits(orderItem.getUnitPrice()))
+                .bigIntValue("total_price_minor", OrderColumns.toMinorUnits(orderItem.getTotalPrice()))
+                .bigIntValue("created_at_ms", OrderColumns.toEpochMillis(orderItem.getCreatedAt()))
+                .build();
+        transaction.put(put);
+    }
+
+    private Put orderItemPut(OrderItem orderItem, long createdAt) {
+        PutBuilder.Buildable put = Put.newBuilder()
                 .namespace(NAMESPACE)
                 .table(TABLE_NAME)
                 .partitionKey(Key.ofText("order_id", orderItem.getOrderId()))
                 .clusteringKey(Key.ofText("product_id", orderItem.getProductId()))
                 .textValue("product_name", orderItem.getProductName())
                 .intValue("quantity", orderItem.getQuantity())
-                .textValue("unit_price", orderItem.getUnitPrice().toString())
-                .textValue("total_price", orderItem.getTotalPrice().toString())
+                .bigIntValue("unit_price_minor", OrderColumns.toMinorUnits(orderItem.getUnitPrice()))
+                .bigIntValue("total_price_minor", OrderColumns.toMinorUnits(orderItem.getTotalPrice()))
                 .textValue("sku", orderItem.getSku() != null ? orderItem.getSku() : "")
                 .textValue("notes", orderItem.getNotes() != null ? orderItem.getNotes() : "")
-                .textValue("created_at", existing.get().getValue("created_at").get().getAsString().get())
-                .build();
-        transaction.put(put);
-        return orderItem;
+                .bigIntValue("created_at_ms", createdAt);
+        if (writeLegacyColumns) {
+            put.textValue("unit_price", orderItem.getUnitPrice().toPlainString())
+                    .textValue("total_price", orderItem.getTotalPrice().toPlainString())
+                    .textValue("created_at", OrderColumns.toLegacyTimestamp(createdAt));
+        }
+        return put.build();
     }
 
     public void deleteByOrderIdAndProductId(String orderId, String productId, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
@@ -141,21 +229,10 @@ public class OrderItemRepository {
     }
 
     private OrderItem mapResultToEntity(Result result) {
-        OrderItem orderItem = new OrderItem();
-        orderItem.setOrderId(result.getValue("order_id").get().getAsString().get());
-        orderItem.setProductId(result.getValue("product_id").get().getAsString().get());
-        orderItem.setProductName(result.getValue("product_name").get().getAsString().get());
-        orderItem.setQuantity(result.getValue("quantity").get().getAsInt());
-        orderItem.setUnitPrice(new BigDecimal(result.getValue("unit_price").get().getAsString().get()));
-        orderItem.setTotalPrice(new BigDecimal(result.getValue("total_price").get().getAsString().get()));
-        orderItem.setCreatedAt(LocalDateTime.ofEpochSecond(Long.parseLong(result.getValue("created_at").get().getAsString().get()), 0, ZoneOffset.UTC));
-
-        if (result.getValue("sku").isPresent()) {
-            orderItem.setSku(result.getValue("sku").get().getAsString().get());
-        }
-        if (result.getValue("notes").isPresent()) {
-            orderItem.setNotes(result.getValue("notes").get().getAsString().get());
-        }
+        OrderItem orderItem = ORDER_ITEM_MAPPER.map(result);
+        orderItem.setUnitPrice(OrderColumns.readAmount(result, "unit_price_minor", "unit_price", dualRead));
+        orderItem.setTotalPrice(OrderColumns.readAmount(result, "total_price_minor", "total_price", dualRead));
+        orderItem.setCreatedAt(OrderColumns.readTimestamp(result, "created_at_ms", "created_at", dualRead));
 
         return orderItem;
     }
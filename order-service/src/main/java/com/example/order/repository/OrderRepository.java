@@ -1,5 +1,6 @@
 package com.example.order.repository;
 
+import com.example.order.dto.CursorPage;
 import com.example.order.entity.Order;
 import com.scalar.db.api.*;
 import com.scalar.db.exception.storage.ExecutionException;
@@ -9,6 +10,7 @@ import com.scalar.db.exception.transaction.CrudConflictException;
 import com.scalar.db.exception.transaction.CrudException;
 import com.scalar.db.io.Key;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
@@ -24,37 +26,44 @@ public class OrderRepository {
 
     private static final String NAMESPACE = "order_service";
     private static final String TABLE_NAME = "orders";
+    private static final String CUSTOMER_INDEX_TABLE = "orders_by_customer";
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    // Amounts and timestamps go through OrderColumns for the dual-read fallback
+    private static final ResultMapper<Order> ORDER_MAPPER = ResultMapper.of(Order::new)
+            .text("order_id", Order::setOrderId)
+            .text("customer_id", Order::setCustomerId)
+            .text("status", Order::setStatus)
+            .text("currency", Order::setCurrency)
+            .text("payment_method", Order::setPaymentMethod)
+            .text("shipping_address", Order::setShippingAddress)
+            .text("notes", Order::setNotes)
+            .text("inventory_reservation_id", Order::setInventoryReservationId)
+            .text("payment_id", Order::setPaymentId)
+            .text("shipment_id", Order::setShipmentId)
+            .intValue("item_count", Order::setItemCount)
+            .build();
 
     private final DistributedTransactionManager transactionManager;
+    private final boolean dualRead;
+    private final boolean writeLegacyColumns;
     
-    public OrderRepository(DistributedTransactionManager transactionManager) {
+    public OrderRepository(DistributedTransactionManager transactionManager,
+                           @Value("${order.storage.dual-read:true}") boolean dualRead,
+                           @Value("${order.storage.write-legacy-columns:true}") boolean writeLegacyColumns) {
         this.transactionManager = transactionManager;
+        this.dualRead = dualRead;
+        this.writeLegacyColumns = writeLegacyColumns;
     }
 
     public Order create(Order order, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
+        long createdAt = OrderColumns.toEpochMillis(order.getCreatedAt());
+        long updatedAt = OrderColumns.toEpochMillis(order.getUpdatedAt());
+
         // Insert into main orders table
-        Put put = Put.newBuilder()
-                .namespace(NAMESPACE)
-                .table(TABLE_NAME)
-                .partitionKey(Key.ofText("order_id", order.getOrderId()))
-                .textValue("customer_id", order.getCustomerId())
-                .textValue("status", order.getStatus())
-                .textValue("currency", order.getCurrency())
-                .textValue("total_amount", order.getTotalAmount() != null ? order.getTotalAmount().toString() : "0")
-                .textValue("payment_method", order.getPaymentMethod() != null ? order.getPaymentMethod() : "")
-                .textValue("shipping_address", order.getShippingAddress() != null ? order.getShippingAddress() : "")
-                .textValue("notes", order.getNotes() != null ? order.getNotes() : "")
-                .textValue("inventory_reservation_id", order.getInventoryReservationId() != null ? order.getInventoryReservationId() : "")
-                .textValue("payment_id", order.getPaymentId() != null ? order.getPaymentId() : "")
-                .textValue("shipment_id", order.getShipmentId() != null ? order.getShipmentId() : "")
-                .textValue("created_at", String.valueOf(order.getCreatedAt().toEpochSecond(ZoneOffset.UTC)))
-                .textValue("updated_at", String.valueOf(order.getUpdatedAt().toEpochSecond(ZoneOffset.UTC)))
-                .build();
-        transaction.put(put);
+        transaction.put(orderPut(order, createdAt, updatedAt, order.getItemCount()));
         
         // Maintain secondary index for customer queries
-        createCustomerOrderIndex(order, transaction);
+        saveCustomerOrderIndex(order, createdAt, updatedAt, order.getItemCount(), transaction);
         
         return order;
     }
@@ -73,27 +82,42 @@ public class OrderRepository {
         return Optional.empty();
     }
 
-    public List<Order> findByCustomerId(String customerId, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
-        // Use efficient secondary index table for customer queries
-        Scan scan = Scan.newBuilder()
+    /**
+     * Reads one page of a customer's orders from the customer index. Each index row carries
+     * the order summary (status, total, currency, timestamps, item count), so a page costs a
+     * single partition scan; the returned orders have no payment, shipping or note details.
+     * Rows written before the summary columns existed fall back to a read of the order row.
+     */
+    public CursorPage<Order> findByCustomerId(String customerId, String cursor, int limit, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
+        ScanBuilder.BuildableScan scanBuilder = Scan.newBuilder()
                 .namespace(NAMESPACE)
-                .table("orders_by_customer")
+                .table(CUSTOMER_INDEX_TABLE)
                 .partitionKey(Key.ofText("customer_id", customerId))
-                .build();
+                .limit(limit + 1);
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = CursorPage.decodeCursor(cursor, 2);
+            scanBuilder.start(customerIndexClusteringKey(position[0], position[1]), false);
+        }
+
+        List<Result> indexResults = transaction.scan(scanBuilder.build());
+        boolean hasNext = indexResults.size() > limit;
+        List<Result> pageResults = hasNext ? indexResults.subList(0, limit) : indexResults;
 
-        List<Result> customerOrderResults = transaction.scan(scan);
         List<Order> orders = new ArrayList<>();
-        
-        // Fetch full order details for each order_id found in the index
-        for (Result result : customerOrderResults) {
-            String orderId = result.getValue("order_id").get().getAsString().get();
-            Optional<Order> orderOpt = findById(orderId, transaction);
-            if (orderOpt.isPresent()) {
-                orders.add(orderOpt.get());
+        for (Result result : pageResults) {
+            if (!OrderColumns.hasValue(result, "total_amount_minor") && !OrderColumns.hasValue(result, "total_amount")) {
+                findById(result.getText("order_id"), transaction).ifPresent(orders::add);
+            } else {
+                orders.add(mapSummaryToEntity(result));
             }
         }
-        
-        return orders;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Result last = pageResults.get(pageResults.size() - 1);
+            nextCursor = CursorPage.encodeCursor(last.getText("created_at"), last.getText("order_id"));
+        }
+        return new CursorPage<>(orders, nextCursor);
     }
 
     public Order update(Order order, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
@@ -108,24 +132,17 @@ public class OrderRepository {
             throw new ExecutionException("Order not found for update");
         }
 
-        Put put = Put.newBuilder()
-                .namespace(NAMESPACE)
-                .table(TABLE_NAME)
-                .partitionKey(Key.ofText("order_id", order.getOrderId()))
-                .textValue("customer_id", order.getCustomerId())
-                .textValue("status", order.getStatus())
-                .textValue("currency", order.getCurrency())
-                .textValue("total_amount", order.getTotalAmount() != null ? order.getTotalAmount().toString() : "0")
-                .textValue("payment_method", order.getPaymentMethod() != null ? order.getPaymentMethod() : "")
-                .textValue("shipping_address", order.getShippingAddress() != null ? order.getShippingAddress() : "")
-                .textValue("notes", order.getNotes() != null ? order.getNotes() : "")
-                .textValue("inventory_reservation_id", order.getInventoryReservationId() != null ? order.getInventoryReservationId() : "")
-                .textValue("payment_id", order.getPaymentId() != null ? order.getPaymentId() : "")
-                .textValue("shipment_id", order.getShipmentId() != null ? order.getShipmentId() : "")
-                .textValue("created_at", existing.get().getValue("created_at").get().getAsString().get())
-                .textValue("updated_at", String.valueOf(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC)))
-                .build();
-        transaction.put(put);
+        long createdAt = OrderColumns.readEpochMillis(existing.get(), "created_at_ms", "created_at", true);
+        long updatedAt = System.currentTimeMillis();
+        Integer itemCount = order.getItemCount();
+        if (itemCount == null && !existing.get().isNull("item_count")) {
+            itemCount = existing.get().getInt("item_count");
+        }
+
+        transaction.put(orderPut(order, createdAt, updatedAt, itemCount));
+
+        // Keep the customer summary row in step with the order
+        saveCustomerOrderIndex(order, createdAt, updatedAt, itemCount, transaction);
         return order;
     }
 
@@ -136,7 +153,8 @@ public class OrderRepository {
             Order order = orderOpt.get();
             
             // Delete from secondary index first
-            deleteCustomerOrderIndex(order.getCustomerId(), orderId, transaction);
+            deleteCustomerOrderIndex(order.getCustomerId(),
+                    OrderColumns.toEpochMillis(order.getCreatedAt()), orderId, transaction);
             
             // Delete from main table
             Delete delete = Delete.newBuilder()
@@ -148,58 +166,125 @@ public class OrderRepository {
         }
     }
 
-    private Order mapResultToEntity(Result result) {
-        Order order = new Order();
-        order.setOrderId(result.getValue("order_id").get().getAsString().get());
-        order.setCustomerId(result.getValue("customer_id").get().getAsString().get());
-        order.setStatus(result.getValue("status").get().getAsString().get());
-        order.setCurrency(result.getValue("currency").get().getAsString().get());
-        order.setCreatedAt(LocalDateTime.ofEpochSecond(Long.parseLong(result.getValue("created_at").get().getAsString().get()), 0, ZoneOffset.UTC));
-        order.setUpdatedAt(LocalDateTime.ofEpochSecond(Long.parseLong(result.getValue("updated_at").get().getAsString().get()), 0, ZoneOffset.UTC));
-
-        if (result.getValue("total_amount").isPresent()) {
-            order.setTotalAmount(new BigDecimal(result.getValue("total_amount").get().getAsString().get()));
-        }
-        if (result.getValue("payment_method").isPresent()) {
-            order.setPaymentMethod(result.getValue("payment_method").get().getAsString().get());
-        }
-        if (result.getValue("shipping_address").isPresent()) {
-            order.setShippingAddress(result.getValue("shipping_address").get().getAsString().get());
-        }
-        if (result.getValue("notes").isPresent()) {
-            order.setNotes(result.getValue("notes").get().getAsString().get());
-        }
-        if (result.getValue("inventory_reservation_id").isPresent()) {
-            order.setInventoryReservationId(result.getValue("inventory_reservation_id").get().getAsString().get());
-        }
-        if (result.getValue("payment_id").isPresent()) {
-            order.setPaymentId(result.getValue("payment_id").get().getAsString().get());
-        }
-        if (result.getValue("shipment_id").isPresent()) {
-            order.setShipmentId(result.getValue("shipment_id").get().getAsString().get());
+    /**
+     * Writes the typed columns of an order, and its customer summary row, from values
+     * already read through the dual-read path. Used by the column migration job.
+     */
+    public void writeTypedColumns(Order order, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
+        long createdAt = OrderColumns.toEpochMillis(order.getCreatedAt());
+        long updatedAt = OrderColumns.toEpochMillis(order.getUpdatedAt());
+        long totalAmount = OrderColumns.toMinorUnits(order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO);
+
+        transaction.put(Put.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofText("order_id", order.getOrderId()))
+                .bigIntValue("total_amount_minor", totalAmount)
+                .bigIntValue("created_at_ms", createdAt)
+                .bigIntValue("updated_at_ms", updatedAt)
+                .build());
+        // The summary row is rewritten whole so an index row missing from older data is not left partial
+        saveCustomerOrderIndex(order, createdAt, updatedAt, order.getItemCount(), transaction);
+    }
+
+    private Put orderPut(Order order, long createdAt, long updatedAt, Integer itemCount) {
+        BigDecimal totalAmount = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+        PutBuilder.Buildable put = Put.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofText("order_id", order.getOrderId()))
+                .textValue("customer_id", order.getCustomerId())
+                .textValue("status", order.getStatus())
+                .textValue("currency", order.getCurrency())
+                .bigIntValue("total_amount_minor", OrderColumns.toMinorUnits(totalAmount))
+                .textValue("payment_method", order.getPaymentMethod() != null ? order.getPaymentMethod() : "")
+                .textValue("shipping_address", order.getShippingAddress() != null ? order.getShippingAddress() : "")
+                .textValue("notes", order.getNotes() != null ? order.getNotes() : "")
+                .textValue("inventory_reservation_id", order.getInventoryReservationId() != null ? order.getInventoryReservationId() : "")
+                .textValue("payment_id", order.getPaymentId() != null ? order.getPaymentId() : "")
+                .textValue("shipment_id", order.getShipmentId() != null ? order.getShipmentId() : "")
+                .bigIntValue("created_at_ms", createdAt)
+                .bigIntValue("updated_at_ms", updatedAt)
+                .intValue("item_count", itemCount);
+        if (writeLegacyColumns) {
+            // Keeps instances that only read the TEXT columns working during rollout
+            put.textValue("total_amount", totalAmount.toPlainString())
+                    .textValue("created_at", OrderColumns.toLegacyTimestamp(createdAt))
+                    .textValue("updated_at", OrderColumns.toLegacyTimestamp(updatedAt));
         }
+        return put.build();
+    }
 
+    private Order mapResultToEntity(Result result) {
+        Order order = ORDER_MAPPER.map(result);
+        order.setTotalAmount(OrderColumns.readAmount(result, "total_amount_minor", "total_amount", dualRead));
+        order.setCreatedAt(OrderColumns.readTimestamp(result, "created_at_ms", "created_at", dualRead));
+        order.setUpdatedAt(OrderColumns.readTimestamp(result, "updated_at_ms", "updated_at", dualRead));
         return order;
     }
     
-    private void createCustomerOrderIndex(Order order, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
-        Put indexPut = Put.newBuilder()
+    private Order mapSummaryToEntity(Result result) {
+        // Summary rows carry a subset of the order columns; the rest stay unset
+        return mapResultToEntity(result);
+    }
+
+    /**
+     * Writes the customer index row with the order summary. Used on every order write and
+     * by the summary backfill, so it must stay idempotent.
+     */
+    public void saveCustomerOrderIndex(Order order, long createdAt, long updatedAt, Integer itemCount, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
+        BigDecimal totalAmount = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+        PutBuilder.Buildable indexPut = Put.newBuilder()
                 .namespace(NAMESPACE)
-                .table("orders_by_customer")
+                .table(CUSTOMER_INDEX_TABLE)
                 .partitionKey(Key.ofText("customer_id", order.getCustomerId()))
-                .clusteringKey(Key.ofText("order_id", order.getOrderId()))
+                .clusteringKey(customerIndexClusteringKey(createdAt, order.getOrderId()))
                 .textValue("status", order.getStatus())
-                .textValue("created_at", String.valueOf(order.getCreatedAt().toEpochSecond(ZoneOffset.UTC)))
+                .bigIntValue("total_amount_minor", OrderColumns.toMinorUnits(totalAmount))
+                .textValue("currency", order.getCurrency())
+                .bigIntValue("created_at_ms", createdAt)
+                .bigIntValue("updated_at_ms", updatedAt)
+                .intValue("item_count", itemCount);
+        if (writeLegacyColumns) {
+            indexPut.textValue("total_amount", totalAmount.toPlainString())
+                    .textValue("updated_at", OrderColumns.toLegacyTimestamp(updatedAt));
+        }
+        transaction.put(indexPut.build());
+    }
+
+    public List<String> findAllOrderIds(DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
+        Scan scan = Scan.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .all()
+                .projections("order_id")
                 .build();
-        transaction.put(indexPut);
+
+        List<String> orderIds = new ArrayList<>();
+        for (Result result : transaction.scan(scan)) {
+            orderIds.add(result.getText("order_id"));
+        }
+        return orderIds;
     }
-    
-    private void deleteCustomerOrderIndex(String customerId, String orderId, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
+
+    private Key customerIndexClusteringKey(long createdAt, String orderId) {
+        // The index stays clustered on the TEXT epoch-second key; fixed-width values sort chronologically
+        return customerIndexClusteringKey(OrderColumns.toLegacyTimestamp(createdAt), orderId);
+    }
+
+    private Key customerIndexClusteringKey(String createdAt, String orderId) {
+        return Key.newBuilder()
+                .addText("created_at", createdAt)
+                .addText("order_id", orderId)
+                .build();
+    }
+
+    private void deleteCustomerOrderIndex(String customerId, long createdAt, String orderId, DistributedTransaction transaction) throws ExecutionException, CrudConflictException, CrudException {
         Delete indexDelete = Delete.newBuilder()
                 .namespace(NAMESPACE)
-                .table("orders_by_customer")
+                .table(CUSTOMER_INDEX_TABLE)
                 .partitionKey(Key.ofText("customer_id", customerId))
-                .clusteringKey(Key.ofText("order_id", orderId))
+                .clusteringKey(customerIndexClusteringKey(createdAt, orderId))
                 .build();
         transaction.delete(indexDelete);
     }
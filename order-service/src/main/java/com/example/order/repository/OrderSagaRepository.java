@@ -0,0 +1,95 @@
+package com.example.order.repository;
+
+import com.example.order.entity.OrderSaga;
+import com.scalar.db.api.Delete;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Scan;
+import com.scalar.db.exception.transaction.CrudException;
+import com.scalar.db.io.Key;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-flight order sagas, spread over bucket partitions and clustered by order id like the
+ * compensation queue, so recovery finds stalled sagas by scanning one bucket at a time.
+ */
+@Repository
+public class OrderSagaRepository {
+
+    public static final int BUCKETS = 16;
+
+    private static final String NAMESPACE = "order_service";
+    private static final String TABLE_NAME = "order_sagas";
+    private static final ResultMapper<OrderSaga> SAGA_MAPPER = ResultMapper.of(OrderSaga::new)
+            .text("order_id", OrderSaga::setOrderId)
+            .text("status", OrderSaga::setStatus)
+            .text("step", OrderSaga::setStep)
+            .text("request", OrderSaga::setRequest)
+            .intValue("attempts", OrderSaga::setAttempts)
+            .text("lease_owner", OrderSaga::setLeaseOwner)
+            .bigIntValue("lease_expires_at_ms", OrderSaga::setLeaseExpiresAt)
+            .text("last_error", OrderSaga::setLastError)
+            .bigIntValue("created_at_ms", OrderSaga::setCreatedAt)
+            .bigIntValue("updated_at_ms", OrderSaga::setUpdatedAt)
+            .build();
+
+    public static int bucketOf(String orderId) {
+        return Math.floorMod(orderId.hashCode(), BUCKETS);
+    }
+
+    public Optional<OrderSaga> findById(String orderId, DistributedTransaction transaction) throws CrudException {
+        Get get = Get.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", bucketOf(orderId)))
+                .clusteringKey(Key.ofText("order_id", orderId))
+                .build();
+
+        return transaction.get(get).map(SAGA_MAPPER::map);
+    }
+
+    public List<OrderSaga> findByBucket(int bucket, DistributedTransaction transaction) throws CrudException {
+        Scan scan = Scan.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", bucket))
+                .build();
+
+        return SAGA_MAPPER.mapAll(transaction.scan(scan));
+    }
+
+    public void save(OrderSaga saga, DistributedTransaction transaction) throws CrudException {
+        Put put = Put.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", bucketOf(saga.getOrderId())))
+                .clusteringKey(Key.ofText("order_id", saga.getOrderId()))
+                .textValue("status", saga.getStatus())
+                .textValue("step", saga.getStep())
+                .textValue("request", saga.getRequest())
+                .intValue("attempts", saga.getAttempts())
+                .textValue("lease_owner", saga.getLeaseOwner())
+                .bigIntValue("lease_expires_at_ms", saga.getLeaseExpiresAt())
+                .textValue("last_error", saga.getLastError())
+                .bigIntValue("created_at_ms", saga.getCreatedAt())
+                .bigIntValue("updated_at_ms", saga.getUpdatedAt())
+                .build();
+
+        transaction.put(put);
+    }
+
+    public void delete(String orderId, DistributedTransaction transaction) throws CrudException {
+        Delete delete = Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", bucketOf(orderId)))
+                .clusteringKey(Key.ofText("order_id", orderId))
+                .build();
+
+        transaction.delete(delete);
+    }
+}
\ No newline at end of file
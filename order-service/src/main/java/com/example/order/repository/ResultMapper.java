@@ -0,0 +1,104 @@
+package com.example.order.repository;
+
+import com.scalar.db.api.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Maps ScalarDB results to entities through column bindings compiled once per table.
+ * Each binding reads its column with the typed Result getter, so mapping a row does not
+ * allocate the Optional and Value wrappers that Result.getValue creates per column.
+ * Columns that are absent from the result or null are left unset on the entity.
+ */
+final class ResultMapper<T> {
+    
+    private final Supplier<T> factory;
+    private final ColumnBinding<T>[] bindings;
+    
+    private ResultMapper(Supplier<T> factory, ColumnBinding<T>[] bindings) {
+        this.factory = factory;
+        this.bindings = bindings;
+    }
+    
+    static <T> Builder<T> of(Supplier<T> factory) {
+        return new Builder<>(factory);
+    }
+    
+    T map(Result result) {
+        T entity = factory.get();
+        for (ColumnBinding<T> binding : bindings) {
+            if (result.contains(binding.column) && !result.isNull(binding.column)) {
+                binding.reader.read(result, binding.column, entity);
+            }
+        }
+        return entity;
+    }
+    
+    List<T> mapAll(List<Result> results) {
+        List<T> entities = new ArrayList<>(results.size());
+        for (Result result : results) {
+            entities.add(map(result));
+        }
+        return entities;
+    }
+    
+    @FunctionalInterface
+    private interface ColumnReader<T> {
+        void read(Result result, String column, T entity);
+    }
+    
+    private static final class ColumnBinding<T> {
+        private final String column;
+        private final ColumnReader<T> reader;
+        
+        private ColumnBinding(String column, ColumnReader<T> reader) {
+            this.column = column;
+            this.reader = reader;
+        }
+    }
+    
+    static final class Builder<T> {
+        private final Supplier<T> factory;
+        private final List<ColumnBinding<T>> bindings = new ArrayList<>();
+        
+        private Builder(Supplier<T> factory) {
+            this.factory = factory;
+        }
+        
+        Builder<T> text(String column, BiConsumer<T, String> setter) {
+            return bind(column, (result, name, entity) -> setter.accept(entity, result.getText(name)));
+        }
+        
+        Builder<T> intValue(String column, ObjIntConsumer<T> setter) {
+            return bind(column, (result, name, entity) -> setter.accept(entity, result.getInt(name)));
+        }
+        
+        Builder<T> bigIntValue(String column, ObjLongConsumer<T> setter) {
+            return bind(column, (result, name, entity) -> setter.accept(entity, result.getBigInt(name)));
+        }
+        
+        Builder<T> doubleValue(String column, ObjDoubleConsumer<T> setter) {
+            return bind(column, (result, name, entity) -> setter.accept(entity, result.getDouble(name)));
+        }
+        
+        Builder<T> booleanValue(String column, BiConsumer<T, Boolean> setter) {
+            return bind(column, (result, name, entity) -> setter.accept(entity, result.getBoolean(name)));
+        }
+        
+        private Builder<T> bind(String column, ColumnReader<T> reader) {
+            bindings.add(new ColumnBinding<>(column, reader));
+            return this;
+        }
+        
+        @SuppressWarnings("unchecked")
+        ResultMapper<T> build() {
+            return new ResultMapper<>(factory, bindings.toArray(new ColumnBinding[0]));
+        }
+    }
+}
\ No newline at end of file
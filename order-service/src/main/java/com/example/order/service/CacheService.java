@@ -1,20 +1,31 @@
 package com.example.order.service;
 
+import com.example.order.dto.CursorPage;
 import com.example.order.dto.OrderResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
- * Cache service for improving performance with Redis
+ * Cache-aside access to the order caches. Misses for the same key are coalesced so that concurrent
+ * callers share one load, and entries are refreshed probabilistically before they expire (XFetch):
+ * the closer an entry is to its expiry and the longer it took to compute, the more likely a read
+ * recomputes it, so a hot key is refreshed by one caller instead of stampeding at expiry.
  */
 @Service
 @ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true", matchIfMissing = false)
@@ -22,67 +33,82 @@ public class CacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(CacheService.class);
     
+    public static final String ORDERS_CACHE = "orders";
+    public static final String CUSTOMERS_CACHE = "customers";
+    
     private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheManager cacheManager;
+    private final Duration orderTtl;
+    private final Duration customerOrdersTtl;
+    private final double earlyRefreshBeta;
+    private final Duration coalescedWait;
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
     
     // Cache key patterns
     private static final String ORDER_KEY_PREFIX = "order:";
     private static final String CUSTOMER_ORDERS_KEY_PREFIX = "customer_orders:";
     private static final String ORDER_ITEMS_KEY_PREFIX = "order_items:";
     
-    public CacheService(RedisTemplate<String, Object> redisTemplate) {
+    public CacheService(RedisTemplate<String, Object> redisTemplate,
+                        CacheManager cacheManager,
+                        @Value("${cache.ttl.orders:5m}") Duration orderTtl,
+                        @Value("${cache.ttl.customers:15m}") Duration customerOrdersTtl,
+                        @Value("${cache.early-refresh.beta:1.0}") double earlyRefreshBeta,
+                        @Value("${cache.coalesced-wait:2s}") Duration coalescedWait) {
         this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.orderTtl = orderTtl;
+        this.customerOrdersTtl = customerOrdersTtl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.coalescedWait = coalescedWait;
     }
 
     /**
-     * Cache order by ID
+     * Loads a cached value, or the result of the loader on a miss
      */
-    @Cacheable(value = "orders", key = "#orderId", unless = "#result == null")
-    public OrderResponse getOrderFromCache(String orderId) {
-        // This method is used for cache annotation only
-        return null;
+    @FunctionalInterface
+    public interface Loader<T, E extends Exception> {
+        T load() throws E;
     }
 
     /**
-     * Update order cache
+     * Get an order from cache, loading and caching it on a miss. A null result is not cached.
      */
-    @CachePut(value = "orders", key = "#orderResponse.orderId")
-    public OrderResponse putOrderToCache(OrderResponse orderResponse) {
-        logger.debug("Caching order: {}", orderResponse.getOrderId());
-        return orderResponse;
+    public <E extends Exception> OrderResponse getOrder(String orderId, Loader<OrderResponse, E> loader) throws E {
+        return getOrLoad(ORDERS_CACHE, orderId, orderTtl, loader);
     }
 
     /**
-     * Cache customer orders
+     * Get the first page of a customer's orders from cache, loading and caching it on a miss.
+     * Empty pages are not cached.
      */
-    @Cacheable(value = "customers", key = "#customerId", unless = "#result == null or #result.isEmpty()")
-    public List<OrderResponse> getCustomerOrdersFromCache(String customerId) {
-        // This method is used for cache annotation only
-        return null;
+    public <E extends Exception> CursorPage<OrderResponse> getCustomerOrders(String customerId, 
+            Loader<CursorPage<OrderResponse>, E> loader) throws E {
+        return getOrLoad(CUSTOMERS_CACHE, firstPageKey(customerId), customerOrdersTtl, loader);
     }
 
     /**
-     * Update customer orders cache
+     * Update order cache
      */
-    @CachePut(value = "customers", key = "#customerId")
-    public List<OrderResponse> putCustomerOrdersToCache(String customerId, List<OrderResponse> orders) {
-        logger.debug("Caching {} orders for customer: {}", orders.size(), customerId);
-        return orders;
+    public void putOrderToCache(OrderResponse orderResponse) {
+        logger.debug("Caching order: {}", orderResponse.getOrderId());
+        write(ORDERS_CACHE, orderResponse.getOrderId(), orderResponse, orderTtl, 0);
     }
 
     /**
      * Evict order from cache when updated or deleted
      */
-    @CacheEvict(value = "orders", key = "#orderId")
     public void evictOrderFromCache(String orderId) {
         logger.debug("Evicting order from cache: {}", orderId);
+        evict(ORDERS_CACHE, orderId);
     }
 
     /**
      * Evict customer orders from cache when orders change
      */
-    @CacheEvict(value = "customers", key = "#customerId")
     public void evictCustomerOrdersFromCache(String customerId) {
         logger.debug("Evicting customer orders from cache: {}", customerId);
+        evict(CUSTOMERS_CACHE, firstPageKey(customerId));
     }
 
     /**
@@ -93,6 +119,170 @@ public class CacheService {
         logger.debug("Evicted all customer caches for: {}", customerId);
     }
 
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> T getOrLoad(String cacheName, String key, Duration ttl, 
+            Loader<T, E> loader) throws E {
+        CachedValue entry = read(cacheName, key);
+        if (entry != null) {
+            // Serve the cached value while one caller refreshes it
+            if (!shouldRefreshEarly(entry, System.currentTimeMillis()) 
+                    || inFlight.containsKey(flightKey(cacheName, key))) {
+                return (T) entry.getValue();
+            }
+            logger.debug("Refreshing {}:{} ahead of expiry", cacheName, key);
+        }
+        return loadOnce(cacheName, key, ttl, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> T loadOnce(String cacheName, String key, Duration ttl, 
+            Loader<T, E> loader) throws E {
+        String flightKey = flightKey(cacheName, key);
+        Flight flight = new Flight();
+        Flight leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            try {
+                return (T) leader.<E>await(coalescedWait);
+            } catch (TimeoutException e) {
+                // A stuck leader must not hold every caller of a hot key; load without caching, the leader still writes
+                logger.warn("Load of {}:{} still in flight after {}, loading directly", cacheName, key, coalescedWait);
+                return loader.load();
+            }
+        }
+        
+        try {
+            long started = System.currentTimeMillis();
+            T value = loader.load();
+            // An eviction during the load means the value may predate the change
+            if (!flight.invalidated) {
+                write(cacheName, key, value, ttl, System.currentTimeMillis() - started);
+            }
+            flight.result.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Errors too, or waiters would block on a result that never comes
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private boolean shouldRefreshEarly(CachedValue entry, long now) {
+        double gap = entry.getComputeMillis() * earlyRefreshBeta * -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return now + gap >= entry.getExpiresAt();
+    }
+
+    private CachedValue read(String cacheName, String key) {
+        try {
+            Cache cache = cacheManager.getCache(cacheName);
+            Cache.ValueWrapper wrapper = cache != null ? cache.get(key) : null;
+            // Entries written before cache-aside was introduced hold the bare value; treat them as misses
+            return wrapper != null && wrapper.get() instanceof CachedValue ? (CachedValue) wrapper.get() : null;
+        } catch (Exception e) {
+            logger.warn("Failed to read {} from cache: {}", cacheName, key, e);
+            return null;
+        }
+    }
+
+    private void write(String cacheName, String key, Object value, Duration ttl, long computeMillis) {
+        if (value == null || (value instanceof Collection && ((Collection<?>) value).isEmpty())
+                || (value instanceof CursorPage && ((CursorPage<?>) value).getItems().isEmpty())) {
+            return;
+        }
+        try {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.put(key, new CachedValue(value, System.currentTimeMillis() + ttl.toMillis(), computeMillis));
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to write {} to cache: {}", cacheName, key, e);
+        }
+    }
+
+    private void evict(String cacheName, String key) {
+        Flight flight = inFlight.get(flightKey(cacheName, key));
+        if (flight != null) {
+            flight.invalidated = true;
+        }
+        try {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(key);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to evict {} from cache: {}", cacheName, key, e);
+        }
+    }
+
+    // Separate from the key the unpaged list was cached under, so leftover list entries are never read as pages
+    private static String firstPageKey(String customerId) {
+        return customerId + ":first-page";
+    }
+
+    private static String flightKey(String cacheName, String key) {
+        return cacheName + ":" + key;
+    }
+
+    /**
+     * A load in progress; callers that miss on the same key wait for its result
+     */
+    private static final class Flight {
+        
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile boolean invalidated;
+        
+        @SuppressWarnings("unchecked")
+        private <E extends Exception> Object await(Duration timeout) throws E, TimeoutException {
+            try {
+                return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for a coalesced cache load", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                // The leader ran the same loader, so its checked exception is of the caller's type
+                throw (E) e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Cached value with the metadata needed for early refresh
+     */
+    public static class CachedValue {
+        
+        private Object value;
+        private long expiresAt;
+        private long computeMillis;
+        
+        public CachedValue() {
+        }
+        
+        public CachedValue(Object value, long expiresAt, long computeMillis) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.computeMillis = computeMillis;
+        }
+        
+        public Object getValue() {
+            return value;
+        }
+        
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+        
+        public long getComputeMillis() {
+            return computeMillis;
+        }
+    }
+
     /**
      * Cache order creation metrics
      */
@@ -0,0 +1,50 @@
+package com.example.order.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Backoff schedule for queued compensation steps. The delay doubles per attempt up to the cap,
+ * and half of it is randomized (equal jitter) so steps that failed during the same outage do not
+ * all retry at the same moment.
+ */
+@Component
+public class CompensationRetryPolicy {
+
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int maxAttempts;
+
+    public CompensationRetryPolicy(
+            @Value("${order.process.compensation.retry-base-delay:5s}") Duration baseDelay,
+            @Value("${order.process.compensation.retry-max-delay:10m}") Duration maxDelay,
+            @Value("${order.process.compensation.max-retry:10}") int maxAttempts) {
+        this.baseDelayMillis = Math.max(1, baseDelay.toMillis());
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelay.toMillis());
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Delay before the next run of a step that has failed the given number of times.
+     */
+    public long nextDelayMillis(int attempts) {
+        int exponent = Math.min(Math.max(attempts, 1) - 1, 30);
+        long delay = Math.min(maxDelayMillis, baseDelayMillis << exponent);
+        if (delay <= 0) {
+            delay = maxDelayMillis;
+        }
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    public boolean isExhausted(int attempts) {
+        return attempts >= maxAttempts;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
\ No newline at end of file
@@ -1,21 +1,32 @@
 package com.example.order.service;
 
 import com.example.order.client.*;
+import com.example.order.config.AsyncConfig;
+import com.example.order.entity.CompensationTask;
 import com.example.order.entity.Order;
+import com.example.order.repository.CompensationTaskRepository;
 import com.example.order.repository.OrderRepository;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
 import com.scalar.db.exception.storage.ExecutionException;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.db.exception.transaction.AbortException;
+import com.scalar.db.exception.transaction.CrudException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
 
 /**
  * Service responsible for compensating failed order transactions
@@ -25,6 +36,13 @@ public class CompensationService {
     
     private static final Logger logger = LoggerFactory.getLogger(CompensationService.class);
     
+    // Held by different services, so they are released independently of each other
+    private static final List<CompensationTask.Step> ORDER_STEPS = List.of(
+        CompensationTask.Step.SHIPMENT_CANCEL, CompensationTask.Step.PAYMENT_REFUND, CompensationTask.Step.RESERVATION_CANCEL);
+    
+    // A reservation in one of these has given its stock back, whether cancelled here or expired meanwhile
+    private static final Set<String> RELEASED_RESERVATION_STATUSES = Set.of("CANCELLED", "EXPIRED");
+    
     @Autowired
     private DistributedTransactionManager transactionManager;
     
@@ -40,15 +58,34 @@ public class CompensationService {
     @Autowired
     private ShippingServiceClient shippingServiceClient;
     
+    @Autowired
+    private CompensationTaskRepository compensationTaskRepository;
+    
+    @Autowired
+    private CompensationRetryPolicy retryPolicy;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    // Runs the steps of one order concurrently; steps run on the calling thread when absent
+    @Autowired(required = false)
+    @Qualifier(AsyncConfig.COMPENSATION_STEP_EXECUTOR)
+    private Executor stepExecutor;
+    
     /**
-     * Compensate a failed order by rolling back external service operations
+     * Compensate a failed order by rolling back external service operations.
+     * The order is read in a transaction of its own, and no transaction is held open across the
+     * remote calls. Steps that fail are then queued in compensation_tasks and retried
+     * independently by CompensationWorker.
      */
     public void compensateOrder(String orderId) throws ExecutionException, TransactionException, AbortException {
         logger.info("Starting compensation for order: {}", orderId);
+        Timer.Sample sample = metricsService.startCompensationTimer();
         
-        DistributedTransaction transaction = transactionManager.start();
-        
+        Order order;
+        DistributedTransaction transaction = null;
         try {
+            transaction = transactionManager.start();
             Optional<Order> orderOpt = orderRepository.findById(orderId, transaction);
             transaction.commit();
             
@@ -56,28 +93,56 @@ public class CompensationService {
                 logger.warn("Order not found for compensation: {}", orderId);
                 return;
             }
-            
-            Order order = orderOpt.get();
-            
-            // Compensate in reverse order of operations
-            compensateShipment(order);
-            compensatePayment(order);
-            compensateInventoryReservation(order);
-            
+            order = orderOpt.get();
+        } catch (Exception e) {
+            abortQuietly(transaction);
+            failCompensation(sample, orderId, e);
+            return;
+        }
+        
+        List<CompletableFuture<CompensationTask>> running = new ArrayList<>();
+        for (CompensationTask.Step step : ORDER_STEPS) {
+            CompensationTask task = stepTask(order, step);
+            if (task != null) {
+                running.add(runStep(task));
+            }
+        }
+        List<CompensationTask> failedSteps = new ArrayList<>();
+        for (CompletableFuture<CompensationTask> step : running) {
+            CompensationTask failed = step.join();
+            if (failed != null) {
+                failedSteps.add(failed);
+            }
+        }
+        
+        if (failedSteps.isEmpty()) {
+            metricsService.recordCompensationTime(sample, orderId, "completed");
             logger.info("Compensation completed for order: {}", orderId);
-            
+            return;
+        }
+        
+        transaction = null;
+        try {
+            transaction = transactionManager.start();
+            for (CompensationTask task : failedSteps) {
+                enqueue(task, 1, retryPolicy.nextDelayMillis(1), transaction);
+            }
+            transaction.commit();
         } catch (Exception e) {
-            logger.error("Compensation failed for order: {}", orderId, e);
-            transaction.abort();
-            // Schedule retry for failed compensation
-            scheduleCompensationRetry(orderId);
+            // Re-running the steps that did succeed is harmless, see executeStep
+            abortQuietly(transaction);
+            failCompensation(sample, orderId, e);
+            return;
         }
+        metricsService.recordCompensationTime(sample, orderId, "partial");
+        logger.warn("Compensation for order: {} queued {} failed step(s) for retry", orderId, failedSteps.size());
     }
     
     /**
-     * Asynchronous compensation for better performance
+     * Asynchronous compensation on the bounded compensation executor. When its queue is full the
+     * submission fails with TaskRejectedException and the caller should use queueCompensation.
      */
-    @Async
+    @Async(AsyncConfig.COMPENSATION_EXECUTOR)
     public CompletableFuture<Void> compensateOrderAsync(String orderId) {
         try {
             compensateOrder(orderId);
@@ -88,50 +153,229 @@ public class CompensationService {
         }
     }
     
-    private void compensateShipment(Order order) {
-        if (order.getShipmentId() != null) {
-            try {
-                shippingServiceClient.cancelShipment(order.getShipmentId());
-                logger.info("Cancelled shipment: {} for order: {}", order.getShipmentId(), order.getOrderId());
-            } catch (Exception e) {
-                logger.warn("Failed to cancel shipment: {} for order: {}, error: {}", 
-                    order.getShipmentId(), order.getOrderId(), e.getMessage());
+    /**
+     * Run one queued compensation step. Throws when the step has to be retried. A step runs again
+     * when its completion was not recorded or its order was queued again as a whole, so an undo
+     * call that fails because its target is already cancelled or refunded counts as done.
+     */
+    public void executeStep(CompensationTask task) {
+        String orderId = task.getOrderId();
+        String targetId = task.getTargetId();
+        switch (task.getStepEnum()) {
+            case ORDER:
+                queueOrderSteps(orderId);
+                break;
+            case SHIPMENT_CANCEL:
+                undo(task, () -> shippingServiceClient.cancelShipment(targetId),
+                    () -> "CANCELLED".equalsIgnoreCase(shippingServiceClient.getShipment(targetId).getStatus()));
+                logger.info("Cancelled shipment: {} for order: {}", targetId, orderId);
+                break;
+            case PAYMENT_REFUND:
+                PaymentServiceClient.RefundRequest refundRequest = 
+                    new PaymentServiceClient.RefundRequest(task.getAmount(), "Order cancellation");
+                undo(task, () -> paymentServiceClient.refundPayment(targetId, refundRequest),
+                    () -> "REFUNDED".equalsIgnoreCase(paymentServiceClient.getPayment(targetId).getStatus()));
+                logger.info("Refunded payment: {} for order: {}", targetId, orderId);
+                break;
+            case RESERVATION_CANCEL:
+                undo(task, () -> inventoryServiceClient.cancelReservation(targetId),
+                    () -> inventoryServiceClient.getReservationsByOrder(orderId).stream()
+                        .anyMatch(reservation -> targetId.equals(reservation.getReservationId())
+                            && RELEASED_RESERVATION_STATUSES.contains(reservation.getStatus())));
+                logger.info("Cancelled inventory reservation: {} for order: {}", targetId, orderId);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown compensation step: " + task.getStep());
+        }
+    }
+    
+    /**
+     * Queue an order for the compensation worker without attempting any step here.
+     */
+    public void queueCompensation(String orderId) {
+        CompensationTask task = new CompensationTask(orderId, CompensationTask.Step.ORDER, orderId);
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            enqueue(task, 0, 0, transaction);
+            transaction.commit();
+            logger.info("Queued compensation for order: {}", orderId);
+        } catch (Exception e) {
+            abortQuietly(transaction);
+            throw new RuntimeException("Failed to queue compensation for order: " + orderId, e);
+        }
+    }
+    
+    /**
+     * Queue a step for each id set on an order that may not have been saved with them, without
+     * attempting any step here.
+     */
+    public void queueCompensation(Order order) {
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            for (CompensationTask.Step step : ORDER_STEPS) {
+                CompensationTask task = stepTask(order, step);
+                if (task != null) {
+                    enqueue(task, 0, 0, transaction);
+                }
             }
+            transaction.commit();
+            logger.info("Queued compensation steps for order: {}", order.getOrderId());
+        } catch (Exception e) {
+            abortQuietly(transaction);
+            throw new RuntimeException("Failed to queue compensation steps for order: " + order.getOrderId(), e);
         }
     }
     
-    private void compensatePayment(Order order) {
-        if (order.getPaymentId() != null) {
+    /**
+     * Make an undo call. When it fails, ask the service whether the target is already undone and,
+     * if so, return normally; otherwise rethrow the call's failure.
+     */
+    private void undo(CompensationTask task, Runnable call, BooleanSupplier alreadyUndone) {
+        try {
+            call.run();
+        } catch (RuntimeException e) {
+            boolean undone;
             try {
-                PaymentServiceClient.RefundRequest refundRequest = 
-                    new PaymentServiceClient.RefundRequest(order.getTotalAmount(), "Order cancellation");
-                paymentServiceClient.refundPayment(order.getPaymentId(), refundRequest);
-                logger.info("Refunded payment: {} for order: {}", order.getPaymentId(), order.getOrderId());
-            } catch (Exception e) {
-                logger.warn("Failed to refund payment: {} for order: {}, error: {}", 
-                    order.getPaymentId(), order.getOrderId(), e.getMessage());
+                undone = alreadyUndone.getAsBoolean();
+            } catch (RuntimeException check) {
+                e.addSuppressed(check);
+                throw e;
+            }
+            if (!undone) {
+                throw e;
             }
+            logger.info("Compensation step {} for order: {} found target: {} already undone",
+                task.getStep(), task.getOrderId(), task.getTargetId());
         }
     }
     
-    private void compensateInventoryReservation(Order order) {
-        if (order.getInventoryReservationId() != null) {
-            try {
-                inventoryServiceClient.cancelReservation(order.getInventoryReservationId());
-                logger.info("Cancelled inventory reservation: {} for order: {}", 
-                    order.getInventoryReservationId(), order.getOrderId());
-            } catch (Exception e) {
-                logger.warn("Failed to cancel inventory reservation: {} for order: {}, error: {}", 
-                    order.getInventoryReservationId(), order.getOrderId(), e.getMessage());
+    private void failCompensation(Timer.Sample sample, String orderId, Exception cause) {
+        logger.error("Compensation failed for order: {}", orderId, cause);
+        metricsService.recordCompensationTime(sample, orderId, "failed");
+        scheduleCompensationRetry(orderId, cause);
+    }
+    
+    private CompletableFuture<CompensationTask> runStep(CompensationTask task) {
+        if (stepExecutor == null) {
+            return CompletableFuture.completedFuture(compensateStep(task));
+        }
+        return CompletableFuture.supplyAsync(() -> compensateStep(task), stepExecutor);
+    }
+    
+    /**
+     * Returns the task when the step failed and has to be queued, otherwise null.
+     */
+    private CompensationTask compensateStep(CompensationTask task) {
+        try {
+            executeStep(task);
+            return null;
+        } catch (Exception e) {
+            logger.warn("Compensation step {} failed for target: {} of order: {}, error: {}", 
+                task.getStep(), task.getTargetId(), task.getOrderId(), e.getMessage());
+            task.setLastError(e.getMessage());
+            return task;
+        }
+    }
+    
+    private CompensationTask stepTask(Order order, CompensationTask.Step step) {
+        String targetId;
+        switch (step) {
+            case SHIPMENT_CANCEL:
+                targetId = order.getShipmentId();
+                break;
+            case PAYMENT_REFUND:
+                targetId = order.getPaymentId();
+                break;
+            case RESERVATION_CANCEL:
+                targetId = order.getInventoryReservationId();
+                break;
+            default:
+                targetId = null;
+        }
+        if (targetId == null || targetId.isEmpty()) {
+            return null;
+        }
+        CompensationTask task = new CompensationTask(order.getOrderId(), step, targetId);
+        if (step == CompensationTask.Step.PAYMENT_REFUND) {
+            task.setAmount(order.getTotalAmount());
+        }
+        return task;
+    }
+    
+    /**
+     * Resolve an order queued as a whole and queue each of its steps, due immediately.
+     */
+    private void queueOrderSteps(String orderId) {
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            Optional<Order> orderOpt = orderRepository.findById(orderId, transaction);
+            if (orderOpt.isPresent()) {
+                for (CompensationTask.Step step : ORDER_STEPS) {
+                    CompensationTask task = stepTask(orderOpt.get(), step);
+                    if (task != null) {
+                        enqueue(task, 0, 0, transaction);
+                    }
+                }
+            } else {
+                logger.warn("Order not found for queued compensation: {}", orderId);
+            }
+            transaction.commit();
+        } catch (Exception e) {
+            abortQuietly(transaction);
+            throw new RuntimeException("Failed to queue compensation steps for order: " + orderId, e);
+        }
+    }
+    
+    /**
+     * Insert a task, or refresh the error on a task that is already pending so its schedule,
+     * attempt count and lease are kept. A task that had been given up on is queued again.
+     */
+    private void enqueue(CompensationTask task, int attempts, long delayMillis, DistributedTransaction transaction) 
+            throws CrudException {
+        long now = System.currentTimeMillis();
+        Optional<CompensationTask> existing = compensationTaskRepository.findById(task.getTaskId(), transaction);
+        if (existing.isPresent() && existing.get().isPending()) {
+            CompensationTask queued = existing.get();
+            if (task.getLastError() != null) {
+                queued.setLastError(task.getLastError());
             }
+            queued.setUpdatedAt(now);
+            compensationTaskRepository.save(queued, transaction);
+            return;
         }
+        task.setAttempts(attempts);
+        task.setNextRunAt(now + delayMillis);
+        task.setCreatedAt(now);
+        task.setUpdatedAt(now);
+        compensationTaskRepository.save(task, transaction);
     }
     
-    private void scheduleCompensationRetry(String orderId) {
-        // In a production system, this would typically be implemented with:
-        // - Dead letter queue
-        // - Scheduled job
-        // - Circuit breaker pattern
-        logger.warn("Scheduling compensation retry for order: {} (not implemented in demo)", orderId);
+    private void scheduleCompensationRetry(String orderId, Exception cause) {
+        CompensationTask task = new CompensationTask(orderId, CompensationTask.Step.ORDER, orderId);
+        task.setLastError(cause.getMessage());
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            enqueue(task, 1, retryPolicy.nextDelayMillis(1), transaction);
+            transaction.commit();
+            logger.warn("Scheduled compensation retry for order: {}", orderId);
+        } catch (Exception e) {
+            abortQuietly(transaction);
+            logger.error("Failed to schedule compensation retry for order: {}", orderId, e);
+        }
+    }
+    
+    private void abortQuietly(DistributedTransaction transaction) {
+        if (transaction == null) {
+            return;
+        }
+        try {
+            transaction.abort();
+        } catch (Exception e) {
+            logger.warn("Failed to abort transaction: {}", transaction.getId(), e);
+        }
     }
 }
\ No newline at end of file
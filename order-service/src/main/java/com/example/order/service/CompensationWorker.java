@@ -0,0 +1,260 @@
+package com.example.order.service;
+
+import com.example.common.concurrent.ThreadPools;
+import com.example.order.entity.CompensationTask;
+import com.example.order.repository.CompensationTaskRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the compensation queue. Each poll scans the task buckets, claims up to a batch of due
+ * tasks by leasing them (the lease pushes next_run_at forward, so a task held by a crashed
+ * instance becomes due again once the lease runs out) and runs them on the worker pool.
+ * Succeeded tasks are deleted; failed ones are rescheduled with backoff until the retry limit,
+ * after which they stay in the table as FAILED for manual follow-up.
+ */
+@Component
+@ConditionalOnProperty(name = "order.process.compensation.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class CompensationWorker implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompensationWorker.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final DistributedTransactionManager transactionManager;
+    private final CompensationTaskRepository compensationTaskRepository;
+    private final CompensationService compensationService;
+    private final CompensationRetryPolicy retryPolicy;
+    private final MetricsService metricsService;
+    private final MeterRegistry meterRegistry;
+    private final long leaseMillis;
+    private final int batchSize;
+    private final int threads;
+    private final long pollIntervalMillis;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong oldestTaskAgeSeconds = new AtomicLong();
+    private final AtomicLong failedTasks = new AtomicLong();
+    private final AtomicInteger nextBucket = new AtomicInteger();
+    private ScheduledExecutorService poller;
+    private ExecutorService workers;
+
+    public CompensationWorker(DistributedTransactionManager transactionManager,
+                              CompensationTaskRepository compensationTaskRepository,
+                              CompensationService compensationService,
+                              CompensationRetryPolicy retryPolicy,
+                              MetricsService metricsService,
+                              MeterRegistry meterRegistry,
+                              @Value("${order.process.compensation.worker.lease:60s}") Duration lease,
+                              @Value("${order.process.compensation.worker.batch-size:20}") int batchSize,
+                              @Value("${order.process.compensation.worker.threads:4}") int threads,
+                              @Value("${order.process.compensation.worker.poll-interval:5s}") Duration pollInterval) {
+        this.transactionManager = transactionManager;
+        this.compensationTaskRepository = compensationTaskRepository;
+        this.compensationService = compensationService;
+        this.retryPolicy = retryPolicy;
+        this.metricsService = metricsService;
+        this.meterRegistry = meterRegistry;
+        this.leaseMillis = lease.toMillis();
+        this.batchSize = Math.max(1, batchSize);
+        this.threads = Math.max(1, threads);
+        this.pollIntervalMillis = pollInterval.toMillis();
+
+        Gauge.builder("orders.compensation.queue.depth", queueDepth, AtomicLong::get)
+                .description("Compensation tasks waiting to be retried")
+                .register(meterRegistry);
+        Gauge.builder("orders.compensation.queue.oldest.age", oldestTaskAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest pending compensation task")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("orders.compensation.queue.failed", failedTasks, AtomicLong::get)
+                .description("Compensation tasks that exhausted their retries")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        workers = ThreadPools.fixed("compensation-worker", threads, meterRegistry);
+        poller = Executors.newSingleThreadScheduledExecutor(ThreadPools.daemonThreads("compensation-poller"));
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Compensation worker {} started with {} threads", instanceId, threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * Claim one batch and wait for it, so a poll never leases more tasks than the pool is running.
+     */
+    void poll() {
+        try {
+            List<CompensationTask> claimed = claimDueTasks(System.currentTimeMillis());
+            List<Future<?>> running = new ArrayList<>(claimed.size());
+            for (CompensationTask task : claimed) {
+                running.add(workers.submit(() -> process(task)));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Compensation queue poll failed", e);
+        }
+    }
+
+    /**
+     * Lease up to a batch of due tasks, one bucket transaction at a time. The scan also refreshes
+     * the queue gauges, so every bucket is read even after the batch is full.
+     */
+    List<CompensationTask> claimDueTasks(long now) {
+        List<CompensationTask> claimed = new ArrayList<>();
+        long depth = 0;
+        long failed = 0;
+        long oldestCreatedAt = now;
+        int firstBucket = Math.floorMod(nextBucket.getAndIncrement(), CompensationTaskRepository.BUCKETS);
+
+        for (int i = 0; i < CompensationTaskRepository.BUCKETS; i++) {
+            int bucket = (firstBucket + i) % CompensationTaskRepository.BUCKETS;
+            DistributedTransaction transaction = null;
+            try {
+                transaction = transactionManager.start();
+                List<CompensationTask> leased = new ArrayList<>();
+                for (CompensationTask task : compensationTaskRepository.findByBucket(bucket, transaction)) {
+                    if (!task.isPending()) {
+                        failed++;
+                        continue;
+                    }
+                    depth++;
+                    oldestCreatedAt = Math.min(oldestCreatedAt, task.getCreatedAt());
+                    if (claimed.size() + leased.size() < batchSize && task.getNextRunAt() <= now) {
+                        task.setLeaseOwner(instanceId);
+                        task.setNextRunAt(now + leaseMillis);
+                        task.setAttempts(task.getAttempts() + 1);
+                        task.setUpdatedAt(now);
+                        compensationTaskRepository.save(task, transaction);
+                        leased.add(task);
+                    }
+                }
+                transaction.commit();
+                claimed.addAll(leased);
+            } catch (Exception e) {
+                // Usually another instance claiming from the same bucket; its tasks are skipped this round
+                abortQuietly(transaction);
+                logger.debug("Failed to claim compensation tasks from bucket {}", bucket, e);
+            }
+        }
+
+        queueDepth.set(depth);
+        failedTasks.set(failed);
+        oldestTaskAgeSeconds.set(TimeUnit.MILLISECONDS.toSeconds(now - oldestCreatedAt));
+        return claimed;
+    }
+
+    void process(CompensationTask task) {
+        try {
+            compensationService.executeStep(task);
+            complete(task);
+            metricsService.recordCompensationExecution(task.getOrderId(), task.getStep(), true);
+        } catch (Exception e) {
+            logger.warn("Compensation step {} for order: {} failed on attempt {}: {}",
+                task.getStep(), task.getOrderId(), task.getAttempts(), e.getMessage());
+            reschedule(task, e, System.currentTimeMillis());
+            metricsService.recordCompensationExecution(task.getOrderId(), task.getStep(), false);
+        }
+    }
+
+    private void complete(CompensationTask task) {
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            Optional<CompensationTask> current = compensationTaskRepository.findById(task.getTaskId(), transaction);
+            if (current.isPresent() && isLeaseHeld(current.get(), task)) {
+                compensationTaskRepository.delete(current.get(), transaction);
+            }
+            transaction.commit();
+        } catch (Exception e) {
+            // The step already ran; the task runs again after its lease expires and finds its target undone
+            abortQuietly(transaction);
+            logger.warn("Failed to remove completed compensation task: {}", task.getTaskId(), e);
+        }
+    }
+
+    void reschedule(CompensationTask task, Exception error, long now) {
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            Optional<CompensationTask> current = compensationTaskRepository.findById(task.getTaskId(), transaction);
+            if (current.isPresent() && isLeaseHeld(current.get(), task)) {
+                CompensationTask queued = current.get();
+                queued.setLeaseOwner(null);
+                queued.setLastError(truncate(error.getMessage()));
+                queued.setUpdatedAt(now);
+                if (retryPolicy.isExhausted(queued.getAttempts())) {
+                    queued.setStatus(CompensationTask.Status.FAILED.name());
+                    logger.error("Giving up on compensation step {} for order: {} after {} attempts",
+                        queued.getStep(), queued.getOrderId(), queued.getAttempts());
+                } else {
+                    queued.setNextRunAt(now + retryPolicy.nextDelayMillis(queued.getAttempts()));
+                }
+                compensationTaskRepository.save(queued, transaction);
+            }
+            transaction.commit();
+        } catch (Exception e) {
+            // The lease still expires, so the task is retried without the backoff
+            abortQuietly(transaction);
+            logger.warn("Failed to reschedule compensation task: {}", task.getTaskId(), e);
+        }
+    }
+
+    private boolean isLeaseHeld(CompensationTask current, CompensationTask claimed) {
+        return instanceId.equals(current.getLeaseOwner()) && current.getAttempts() == claimed.getAttempts();
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private void abortQuietly(DistributedTransaction transaction) {
+        if (transaction == null) {
+            return;
+        }
+        try {
+            transaction.abort();
+        } catch (Exception e) {
+            logger.warn("Failed to abort transaction: {}", transaction.getId(), e);
+        }
+    }
+}
\ No newline at end of file
@@ -160,6 +160,59 @@ public class MetricsService {
         }
     }
 
+    /**
+     * Time an order compensation from start until every step has completed or been queued
+     */
+    public Timer.Sample startCompensationTimer() {
+        return Timer.start();
+    }
+
+    /**
+     * Record time-to-compensate; result is completed, partial (some steps queued) or failed
+     */
+    public void recordCompensationTime(Timer.Sample sample, String orderId, String result) {
+        try {
+            long durationNanos = sample.stop(Timer.builder("orders.compensation.duration")
+                .description("Time to compensate an order")
+                .tag("result", result)
+                .register(meterRegistry));
+
+            logger.debug("Recorded compensation time for order: {} - Duration: {}ms, Result: {}", 
+                orderId, Duration.ofNanos(durationNanos).toMillis(), result);
+
+        } catch (Exception e) {
+            logger.error("Failed to record compensation time", e);
+        }
+    }
+
+    /**
+     * Time an order saga from its first step until the order has shipped or been compensated
+     */
+    public Timer.Sample startSagaTimer() {
+        return Timer.start();
+    }
+
+    /**
+     * Record end-to-end saga time with p50/p99; mode is parallel or sequential, result is
+     * completed, compensated or interrupted
+     */
+    public void recordSagaTime(Timer.Sample sample, String orderId, String mode, String result) {
+        try {
+            long durationNanos = sample.stop(Timer.builder("orders.saga.duration")
+                .description("End-to-end order saga duration")
+                .tag("mode", mode)
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+
+            logger.debug("Recorded saga time for order: {} - Duration: {}ms, Mode: {}, Result: {}", 
+                orderId, Duration.ofNanos(durationNanos).toMillis(), mode, result);
+
+        } catch (Exception e) {
+            logger.error("Failed to record saga time", e);
+        }
+    }
+
     /**
      * Record compensation execution metrics
      */
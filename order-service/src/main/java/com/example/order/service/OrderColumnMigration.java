@@ -0,0 +1,115 @@
+package com.example.order.service;
+
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderItem;
+import com.example.order.repository.OrderItemRepository;
+import com.example.order.repository.OrderRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Copies amounts and timestamps from the legacy TEXT columns into the typed BIGINT columns
+ * of orders, orders_by_customer and order_items. Rows are read through the dual-read path,
+ * so rows that already have typed values are rewritten unchanged and the job can be rerun.
+ * An order whose legacy values cannot be converted is logged and skipped, so the rest of its
+ * chunk still migrates.
+ */
+@Component
+@ConditionalOnProperty(name = "order.column-migration.enabled", havingValue = "true")
+public class OrderColumnMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderColumnMigration.class);
+
+    private final DistributedTransactionManager transactionManager;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final int batchSize;
+
+    public OrderColumnMigration(DistributedTransactionManager transactionManager,
+                                OrderRepository orderRepository,
+                                OrderItemRepository orderItemRepository,
+                                @Value("${order.column-migration.batch-size:100}") int batchSize) {
+        this.transactionManager = transactionManager;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<String> orderIds = loadOrderIds();
+        logger.info("Migrating typed order columns for {} orders", orderIds.size());
+
+        int migrated = 0;
+        for (int from = 0; from < orderIds.size(); from += batchSize) {
+            List<String> chunk = orderIds.subList(from, Math.min(from + batchSize, orderIds.size()));
+            migrated += migrateChunk(chunk);
+            logger.info("Order column migration progress: {}/{}", migrated, orderIds.size());
+        }
+
+        logger.info("Order column migration completed: {} orders migrated", migrated);
+    }
+
+    private List<String> loadOrderIds() throws Exception {
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            List<String> orderIds = orderRepository.findAllOrderIds(transaction);
+            transaction.commit();
+            return orderIds;
+        } catch (Exception e) {
+            transaction.abort();
+            logger.error("Failed to load order ids for column migration", e);
+            throw e;
+        }
+    }
+
+    private int migrateChunk(List<String> orderIds) throws Exception {
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            int migrated = 0;
+            for (String orderId : orderIds) {
+                if (migrateOrder(orderId, transaction)) {
+                    migrated++;
+                }
+            }
+            transaction.commit();
+            return migrated;
+        } catch (Exception e) {
+            transaction.abort();
+            logger.error("Failed to migrate order columns from {}", orderIds.get(0), e);
+            throw e;
+        }
+    }
+
+    private boolean migrateOrder(String orderId, DistributedTransaction transaction) throws Exception {
+        Order order;
+        List<OrderItem> items;
+        try {
+            // Legacy values are parsed here; a malformed one must not fail the whole chunk
+            Optional<Order> orderOpt = orderRepository.findById(orderId, transaction);
+            if (orderOpt.isEmpty()) {
+                return false;
+            }
+            order = orderOpt.get();
+            items = orderItemRepository.findByOrderId(orderId, transaction);
+        } catch (NumberFormatException | ArithmeticException e) {
+            logger.warn("Skipping order {} in column migration: unreadable legacy value", orderId, e);
+            return false;
+        }
+        orderRepository.writeTypedColumns(order, transaction);
+        for (OrderItem item : items) {
+            orderItemRepository.writeTypedColumns(item, transaction);
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.order.service;
+
+import com.example.common.outbox.OutboxEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached orders when a relayed outbox event reports an order change. The request path
+ * evicts right after commit as well; this covers evictions that failed or were skipped there.
+ * OrderCreated is ignored because the creating request caches the new order itself.
+ */
+@Component
+public class OrderEventCacheListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventCacheListener.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final CacheService cacheService;
+
+    public OrderEventCacheListener(@Autowired(required = false) CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    @EventListener
+    public void onOutboxEvent(OutboxEvent event) {
+        if (cacheService == null
+                || !OrderProcessService.ORDER_AGGREGATE.equals(event.getAggregateType())
+                || "OrderCreated".equals(event.getEventType())) {
+            return;
+        }
+        cacheService.evictOrderFromCache(event.getAggregateId());
+        try {
+            JsonNode customerId = OBJECT_MAPPER.readTree(event.getPayload()).get("customerId");
+            if (customerId != null && !customerId.isNull()) {
+                cacheService.evictCustomerOrdersFromCache(customerId.asText());
+            }
+        } catch (Exception e) {
+            logger.warn("Unreadable payload on outbox event: {}", event.getEventId(), e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.example.order.service;
+
+import com.example.common.concurrent.ThreadPools;
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.OrderResponse;
+import com.example.order.exception.OrderIntakeRejectedException;
+import com.example.order.exception.OrderProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous order intake. An accepted order is written as PENDING together with its saga and
+ * the request returns; a fixed pool of intake workers runs the sagas from a priority queue, express
+ * shipments first and otherwise in arrival order. Admission is bounded by the number of accepted
+ * orders not yet processed, so a checkout spike is turned away with a retry hint instead of
+ * queueing without limit. Orders still queued when the instance stops keep their saga rows and are
+ * picked up by OrderSagaRecovery once their lease expires; recovery leaves orders still queued on
+ * this instance alone, and a worker takes the saga lease afresh when it dequeues an order.
+ */
+@Service
+public class OrderIntakeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+    private static final Set<String> EXPRESS_SHIPPING_METHODS = Set.of("EXPRESS", "OVERNIGHT");
+
+    // Declaration order is queue order
+    public enum Priority {
+        EXPRESS,
+        STANDARD
+    }
+
+    private final OrderProcessService orderProcessService;
+    private final int maxPending;
+    private final Duration retryAfter;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final Counter rejectedCounter;
+    private final ThreadPoolExecutor workers;
+
+    public OrderIntakeService(OrderProcessService orderProcessService,
+                              MeterRegistry meterRegistry,
+                              @Value("${order.intake.workers:8}") int workers,
+                              @Value("${order.intake.max-pending:500}") int maxPending,
+                              @Value("${order.intake.retry-after:5s}") Duration retryAfter) {
+        this.orderProcessService = orderProcessService;
+        this.maxPending = Math.max(1, maxPending);
+        this.retryAfter = retryAfter;
+
+        int threads = Math.max(1, workers);
+        // Unbounded queue type, bounded by admission; tasks are submitted with execute so they stay comparable
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), ThreadPools.daemonThreads("order-intake"));
+        // Pool gauges only: the timed wrapper would hide the comparable tasks from the priority queue
+        new ExecutorServiceMetrics(this.workers, "order-intake", List.of()).bindTo(meterRegistry);
+
+        Gauge.builder("orders.intake.pending", pending, AtomicInteger::get)
+                .description("Accepted orders not yet processed, queued or running")
+                .register(meterRegistry);
+        Gauge.builder("orders.intake.queue.depth", this.workers, executor -> executor.getQueue().size())
+                .description("Accepted orders waiting for an intake worker")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("orders.intake.rejected")
+                .description("Orders turned away because intake was at capacity")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Accept an order and queue it for processing. Throws OrderIntakeRejectedException without
+     * writing anything when intake is at capacity.
+     */
+    public OrderResponse submit(CreateOrderRequest request) throws OrderProcessingException {
+        if (!tryAdmit()) {
+            rejectedCounter.increment();
+            logger.warn("Order intake at capacity ({} pending), rejecting order for customer: {}",
+                maxPending, request.getCustomerId());
+            throw new OrderIntakeRejectedException(retryAfter);
+        }
+
+        OrderResponse accepted;
+        try {
+            accepted = orderProcessService.acceptOrder(request);
+        } catch (OrderProcessingException | RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+
+        queued.add(accepted.getOrderId());
+        try {
+            workers.execute(new IntakeTask(accepted.getOrderId(), priorityOf(request), sequence.getAndIncrement()));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the order is already durable and its saga is resumed by recovery
+            queued.remove(accepted.getOrderId());
+            pending.decrementAndGet();
+            logger.warn("Intake workers stopped, leaving accepted order: {} to saga recovery", accepted.getOrderId());
+        }
+        return accepted;
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Whether the order is waiting for an intake worker on this instance
+     */
+    public boolean isQueued(String orderId) {
+        return queued.contains(orderId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int left = workers.shutdownNow().size();
+        queued.clear();
+        if (left > 0) {
+            logger.info("Stopped order intake with {} queued order(s) left to saga recovery", left);
+        }
+    }
+
+    static Priority priorityOf(CreateOrderRequest request) {
+        String shippingMethod = request.getShippingInfo() != null ? request.getShippingInfo().getShippingMethod() : null;
+        return shippingMethod != null && EXPRESS_SHIPPING_METHODS.contains(shippingMethod.toUpperCase())
+            ? Priority.EXPRESS
+            : Priority.STANDARD;
+    }
+
+    private boolean tryAdmit() {
+        while (true) {
+            int current = pending.get();
+            if (current >= maxPending) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private final class IntakeTask implements Runnable, Comparable<IntakeTask> {
+        private final String orderId;
+        private final Priority priority;
+        private final long sequence;
+
+        private IntakeTask(String orderId, Priority priority, long sequence) {
+            this.orderId = orderId;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            queued.remove(orderId);
+            try {
+                orderProcessService.processAcceptedOrder(orderId);
+            } catch (Exception e) {
+                // The saga row stays in place, so recovery retries or compensates the order
+                logger.error("Failed to process accepted order: {}", orderId, e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+
+        @Override
+        public int compareTo(IntakeTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,10 @@
 package com.example.order.service;
 
+import com.example.common.outbox.OutboxEvent;
+import com.example.common.outbox.OutboxRepository;
+import com.example.common.scalardb.ReadOnlyTransactionManager;
 import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.CursorPage;
 import com.example.order.dto.OrderResponse;
 import com.example.order.entity.Order;
 import com.example.order.entity.OrderItem;
@@ -20,10 +24,11 @@ import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.db.exception.transaction.AbortException;
 import io.micrometer.core.instrument.Timer;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Optional;
@@ -33,42 +38,66 @@ public class OrderProcessService {
     
     private static final Logger logger = LoggerFactory.getLogger(OrderProcessService.class);
     
+    // Aggregate type of the order events written to the outbox
+    public static final String ORDER_AGGREGATE = "Order";
+    
+    // Stand-in unit price until the order service reads prices from the catalog
+    private static final java.math.BigDecimal PLACEHOLDER_UNIT_PRICE = new java.math.BigDecimal("1000.00");
+    
     private final DistributedTransactionManager transactionManager;
+    private final ReadOnlyTransactionManager readOnlyTransactionManager;
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final OutboxRepository outboxRepository;
     private final InventoryServiceClient inventoryServiceClient;
     private final PaymentServiceClient paymentServiceClient;
     private final ShippingServiceClient shippingServiceClient;
     private final CompensationService compensationService;
+    private final OrderSagaOrchestrator sagaOrchestrator;
     private final SensitiveDataFilter sensitiveDataFilter;
     private final CacheService cacheService;
     private final MetricsService metricsService;
     
+    @Value("${order.pagination.default-page-size:20}")
+    private int defaultPageSize = 20;
+    
+    @Value("${order.pagination.max-page-size:100}")
+    private int maxPageSize = 100;
+    
+    @Value("${order.export.page-size:500}")
+    private int exportPageSize = 500;
+    
     public OrderProcessService(
             DistributedTransactionManager transactionManager,
+            ReadOnlyTransactionManager readOnlyTransactionManager,
             OrderRepository orderRepository,
             OrderItemRepository orderItemRepository,
+            OutboxRepository outboxRepository,
             InventoryServiceClient inventoryServiceClient,
             PaymentServiceClient paymentServiceClient,
             ShippingServiceClient shippingServiceClient,
             CompensationService compensationService,
+            OrderSagaOrchestrator sagaOrchestrator,
             SensitiveDataFilter sensitiveDataFilter,
             @Autowired(required = false) CacheService cacheService,
             @Autowired(required = false) MetricsService metricsService) {
         this.transactionManager = transactionManager;
+        this.readOnlyTransactionManager = readOnlyTransactionManager;
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
+        this.outboxRepository = outboxRepository;
         this.inventoryServiceClient = inventoryServiceClient;
         this.paymentServiceClient = paymentServiceClient;
         this.shippingServiceClient = shippingServiceClient;
         this.compensationService = compensationService;
+        this.sagaOrchestrator = sagaOrchestrator;
         this.sensitiveDataFilter = sensitiveDataFilter;
         this.cacheService = cacheService;
         this.metricsService = metricsService;
     }
 
+    // Not retried: every attempt would persist another order and saga, and charge the customer again
     @CircuitBreaker(name = "order-process", fallbackMethod = "createOrderFallback")
-    @Retry(name = "order-process")
     public OrderResponse createOrder(CreateOrderRequest request) throws OrderProcessingException, ExecutionException, TransactionException, AbortException {
         logger.info("Starting order creation process for customer: {}", request.getCustomerId());
         logger.debug("Order request details: {}", sensitiveDataFilter.sanitizeForLogging(request));
@@ -76,70 +105,37 @@ public class OrderProcessService {
         Timer.Sample timerSample = metricsService != null ? metricsService.startOrderProcessingTimer() : null;
         
         try {
-            // Simple order creation without workflow engine
-            String orderId = "ORD-" + java.util.UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+            String orderId = newOrderId();
+            List<OrderItem> items = buildItems(orderId, request);
+            Order order = buildOrder(orderId, request, items);
+            persistPendingOrder(order, items, request);
             
-            DistributedTransaction transaction = transactionManager.start();
+            // Reserve, pay and ship; the saga is left to recovery when it cannot finish here
+            Order processed = sagaOrchestrator.run(orderId);
+            if (processed != null) {
+                order = processed;
+            }
             
-            try {
-                // Create order entity
-                Order order = new Order();
-                order.setOrderId(orderId);
-                order.setCustomerId(request.getCustomerId());
-                order.setStatusEnum(OrderStatus.PENDING);
-                order.setTotalAmount(new java.math.BigDecimal("1000.00")); // Simplified for testing
-                order.setCurrency("JPY");
-                order.setPaymentMethod("CREDIT_CARD");
-                order.setShippingAddress("Test Address");
-                order.setNotes(request.getNotes());
-                order.setCreatedAt(java.time.LocalDateTime.now());
-                order.setUpdatedAt(java.time.LocalDateTime.now());
-                
-                orderRepository.create(order, transaction);
-                
-                // Create simple order item
-                OrderItem item = new OrderItem();
-                item.setOrderId(orderId);
-                item.setProductId("PROD-001");
-                item.setProductName("Test Product");
-                item.setQuantity(1);
-                item.setUnitPrice(new java.math.BigDecimal("1000.00"));
-                item.setTotalPrice(new java.math.BigDecimal("1000.00"));
-                item.setSku("TEST-SKU");
-                item.setCreatedAt(java.time.LocalDateTime.now());
-                
-                orderItemRepository.create(item, transaction);
-                
-                // Update order status to completed
-                order.setStatusEnum(OrderStatus.PENDING); // Keep simple for testing
-                orderRepository.update(order, transaction);
-                
-                transaction.commit();
-                
-                // Build response
-                OrderResponse response = new OrderResponse(order, java.util.List.of(item));
-                
-                // Record success metrics
-                if (metricsService != null) {
-                    metricsService.recordOrderCreation(response);
-                    if (timerSample != null) {
-                        metricsService.recordOrderProcessingTime(timerSample, response.getOrderId(), true);
-                    }
-                }
-                
-                // Cache the created order
-                if (cacheService != null) {
-                    cacheService.putOrderToCache(response);
-                    cacheService.evictCustomerOrdersFromCache(request.getCustomerId());
-                    cacheService.cacheOrderMetrics(request.getCustomerId(), response.getOrderId());
+            // Build response
+            OrderResponse response = new OrderResponse(order, items);
+            
+            // Record success metrics
+            if (metricsService != null) {
+                metricsService.recordOrderCreation(response);
+                if (timerSample != null) {
+                    metricsService.recordOrderProcessingTime(timerSample, response.getOrderId(), true);
                 }
-                
-                return response;
-                
-            } catch (Exception e) {
-                transaction.abort();
-                throw e;
             }
+            
+            // Cache the created order
+            if (cacheService != null) {
+                cacheService.putOrderToCache(response);
+                cacheService.evictCustomerOrdersFromCache(request.getCustomerId());
+                cacheService.cacheOrderMetrics(request.getCustomerId(), response.getOrderId());
+            }
+            
+            return response;
+            
         } catch (Exception e) {
             logger.error("Unexpected error during order creation", e);
             if (metricsService != null) {
@@ -153,6 +149,121 @@ public class OrderProcessService {
         }
     }
 
+    /**
+     * Accept an order for asynchronous processing: write it as PENDING with its saga and return
+     * without calling any downstream service. The accepted order is cached so status polls are
+     * served from the cache until processing changes it.
+     */
+    public OrderResponse acceptOrder(CreateOrderRequest request) throws OrderProcessingException {
+        logger.info("Accepting order for asynchronous processing for customer: {}", request.getCustomerId());
+        logger.debug("Order request details: {}", sensitiveDataFilter.sanitizeForLogging(request));
+        
+        try {
+            String orderId = newOrderId();
+            List<OrderItem> items = buildItems(orderId, request);
+            Order order = buildOrder(orderId, request, items);
+            persistPendingOrder(order, items, request);
+            
+            OrderResponse response = new OrderResponse(order, items);
+            if (metricsService != null) {
+                metricsService.recordOrderCreation(response);
+            }
+            if (cacheService != null) {
+                cacheService.putOrderToCache(response);
+                cacheService.evictCustomerOrdersFromCache(request.getCustomerId());
+            }
+            return response;
+            
+        } catch (Exception e) {
+            logger.error("Failed to accept order for customer: {}", request.getCustomerId(), e);
+            if (metricsService != null) {
+                metricsService.recordOrderProcessingError("UNKNOWN", "SYSTEM_ERROR", e.getMessage());
+            }
+            throw new OrderProcessingException(OrderErrorCode.SYSTEM_ERROR, "UNKNOWN", 
+                "An unexpected error occurred while accepting the order", e);
+        }
+    }
+    
+    /**
+     * Run the saga of an order taken in by acceptOrder. The cached copy is dropped afterwards so
+     * the next status poll reads the processed order.
+     */
+    public void processAcceptedOrder(String orderId) {
+        Order processed = sagaOrchestrator.run(orderId);
+        if (cacheService != null) {
+            cacheService.evictOrderFromCache(orderId);
+            if (processed != null) {
+                cacheService.evictCustomerOrdersFromCache(processed.getCustomerId());
+            }
+        }
+        logger.info("Processed accepted order: {} with status: {}", orderId,
+            processed != null ? processed.getStatus() : "left to saga recovery");
+    }
+    
+    private static String newOrderId() {
+        return "ORD-" + java.util.UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+    
+    private static List<OrderItem> buildItems(String orderId, CreateOrderRequest request) {
+        List<OrderItem> items = new java.util.ArrayList<>();
+        for (CreateOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
+            OrderItem item = new OrderItem();
+            item.setOrderId(orderId);
+            item.setProductId(itemRequest.getProductId());
+            item.setProductName(itemRequest.getProductId());
+            item.setQuantity(itemRequest.getQuantity());
+            item.setUnitPrice(PLACEHOLDER_UNIT_PRICE);
+            item.setTotalPrice(PLACEHOLDER_UNIT_PRICE.multiply(java.math.BigDecimal.valueOf(itemRequest.getQuantity())));
+            item.setSku(itemRequest.getProductId());
+            item.setCreatedAt(java.time.LocalDateTime.now());
+            items.add(item);
+        }
+        return items;
+    }
+    
+    private static Order buildOrder(String orderId, CreateOrderRequest request, List<OrderItem> items) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setCustomerId(request.getCustomerId());
+        order.setStatusEnum(OrderStatus.PENDING);
+        order.setTotalAmount(items.stream()
+            .map(OrderItem::getTotalPrice)
+            .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add));
+        order.setCurrency("JPY");
+        order.setPaymentMethod(request.getPaymentMethodDetails() != null
+            ? request.getPaymentMethodDetails().getPaymentMethod() : null);
+        order.setShippingAddress(shippingAddress(request));
+        order.setNotes(request.getNotes());
+        order.setItemCount(items.size());
+        order.setCreatedAt(java.time.LocalDateTime.now());
+        order.setUpdatedAt(java.time.LocalDateTime.now());
+        return order;
+    }
+    
+    /**
+     * Write a new order, its items, its OrderCreated event and its saga in one transaction
+     */
+    private void persistPendingOrder(Order order, List<OrderItem> items, CreateOrderRequest request) throws Exception {
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            orderRepository.create(order, transaction);
+            for (OrderItem item : items) {
+                orderItemRepository.create(item, transaction);
+            }
+            outboxRepository.append(ORDER_AGGREGATE, order.getOrderId(), "OrderCreated", OutboxEvent.payload(
+                "customerId", order.getCustomerId(),
+                "status", order.getStatus(),
+                "totalAmount", order.getTotalAmount().toPlainString(),
+                "currency", order.getCurrency()), transaction);
+            sagaOrchestrator.start(order.getOrderId(), request, transaction);
+            
+            transaction.commit();
+        } catch (Exception e) {
+            abortQuietly(transaction);
+            throw e;
+        }
+    }
+
     @CircuitBreaker(name = "order-cancel", fallbackMethod = "cancelOrderFallback")
     public void cancelOrder(String orderId) throws OrderProcessingException, ExecutionException, TransactionException, AbortException {
         logger.info("Starting order cancellation for order: {}", orderId);
@@ -175,14 +286,36 @@ public class OrderProcessService {
                     "Cannot cancel order in status: " + order.getStatus());
             }
             
+            // Reading the saga row here makes a concurrent saga transition conflict with the cancellation
+            if (sagaOrchestrator.isInFlight(orderId, transaction)) {
+                transaction.abort();
+                throw new OrderProcessingException(OrderErrorCode.ORDER_IN_PROGRESS, orderId, 
+                    "Cannot cancel order while it is being processed: " + orderId);
+            }
+            
             // Update order status to cancelled
+            String previousStatus = order.getStatus();
             order.setStatusEnum(OrderStatus.CANCELLED);
             orderRepository.update(order, transaction);
+            outboxRepository.append(ORDER_AGGREGATE, orderId, "OrderCancelled", OutboxEvent.payload(
+                "customerId", order.getCustomerId(),
+                "previousStatus", previousStatus,
+                "status", order.getStatus()), transaction);
             
             transaction.commit();
             
-            // Execute compensation asynchronously
-            compensationService.compensateOrderAsync(orderId);
+            if (cacheService != null) {
+                cacheService.evictOrderFromCache(orderId);
+                cacheService.evictCustomerOrdersFromCache(order.getCustomerId());
+            }
+            
+            // Execute compensation asynchronously; hand it to the durable queue when the executor is saturated
+            try {
+                compensationService.compensateOrderAsync(orderId);
+            } catch (TaskRejectedException e) {
+                logger.warn("Compensation executor saturated, queueing compensation for order: {}", orderId);
+                queueCompensationQuietly(orderId);
+            }
             
             logger.info("Order cancelled successfully: {}", orderId);
             
@@ -198,18 +331,18 @@ public class OrderProcessService {
     }
 
     public Optional<OrderResponse> getOrder(String orderId) throws OrderProcessingException, ExecutionException, TransactionException, AbortException {
-        // Check cache first
+        // Cache-aside; concurrent misses for the same order share one read
         if (cacheService != null) {
-            OrderResponse cachedOrder = cacheService.getOrderFromCache(orderId);
-            if (cachedOrder != null) {
-                logger.debug("Order retrieved from cache: {}", orderId);
-                return Optional.of(cachedOrder);
-            }
+            return Optional.ofNullable(cacheService.getOrder(orderId, () -> loadOrder(orderId).orElse(null)));
         }
-        
-        DistributedTransaction transaction = transactionManager.start();
+        return loadOrder(orderId);
+    }
+
+    private Optional<OrderResponse> loadOrder(String orderId) throws OrderProcessingException {
+        DistributedTransaction transaction = null;
         
         try {
+            transaction = readOnlyTransactionManager.start();
             Optional<Order> orderOpt = orderRepository.findById(orderId, transaction);
             if (orderOpt.isEmpty()) {
                 transaction.commit();
@@ -221,75 +354,110 @@ public class OrderProcessService {
             
             transaction.commit();
             
-            OrderResponse response = new OrderResponse(order, orderItems);
-            
-            // Cache the result
-            if (cacheService != null) {
-                cacheService.putOrderToCache(response);
-            }
-            
-            return Optional.of(response);
+            return Optional.of(new OrderResponse(order, orderItems));
             
         } catch (Exception e) {
-            transaction.abort();
+            abortQuietly(transaction);
             logger.error("Failed to get order: {}", orderId, e);
             throw new OrderProcessingException(OrderErrorCode.SYSTEM_ERROR, orderId, 
                 "Failed to retrieve order", e);
         }
     }
 
-    public List<OrderResponse> getOrdersByCustomer(String customerId) throws OrderProcessingException, ExecutionException, TransactionException, AbortException {
-        logger.info("Retrieving orders for customer: {}", customerId);
+    /**
+     * Returns one page of a customer's order summaries, served from the customer index alone.
+     * Item detail is only read when includeItems is set. The first page at the default size,
+     * which is what the order list view asks for, is served cache-aside.
+     */
+    public CursorPage<OrderResponse> getOrdersByCustomer(String customerId, String cursor, Integer limit, boolean includeItems) throws OrderProcessingException, ExecutionException, TransactionException, AbortException {
+        int pageSize = resolvePageSize(limit);
+        logger.info("Retrieving orders page for customer: {} (limit {})", customerId, pageSize);
         
-        // Check cache first
-        if (cacheService != null) {
-            List<OrderResponse> cachedOrders = cacheService.getCustomerOrdersFromCache(customerId);
-            if (cachedOrders != null && !cachedOrders.isEmpty()) {
-                logger.debug("Customer orders retrieved from cache: {}", customerId);
-                return cachedOrders;
-            }
+        if (cacheService != null && cursor == null && pageSize == defaultPageSize && !includeItems) {
+            return cacheService.getCustomerOrders(customerId, 
+                () -> readCustomerOrdersPage(customerId, null, pageSize, false));
         }
-        
-        DistributedTransaction transaction = transactionManager.start();
+        return readCustomerOrdersPage(customerId, cursor, pageSize, includeItems);
+    }
+    
+    /**
+     * Returns one export page of a customer's orders. Export pages are larger than API
+     * pages and each is read in its own transaction.
+     */
+    public CursorPage<OrderResponse> getOrderExportPage(String customerId, String cursor) throws OrderProcessingException, ExecutionException, TransactionException, AbortException {
+        return readCustomerOrdersPage(customerId, cursor, exportPageSize, true);
+    }
+    
+    private CursorPage<OrderResponse> readCustomerOrdersPage(String customerId, String cursor, int pageSize, boolean includeItems) throws OrderProcessingException {
+        DistributedTransaction transaction = null;
         
         try {
-            List<Order> orders = orderRepository.findByCustomerId(customerId, transaction);
-            
-            if (orders.isEmpty()) {
-                transaction.commit();
-                return new java.util.ArrayList<>();
-            }
+            transaction = transactionManager.start();
+            CursorPage<Order> page = orderRepository.findByCustomerId(customerId, cursor, pageSize, transaction);
             
-            // Batch fetch order items to avoid N+1 query problem
-            List<String> orderIds = orders.stream()
+            List<String> orderIds = page.getItems().stream()
                 .map(Order::getOrderId)
                 .collect(java.util.stream.Collectors.toList());
+            java.util.Map<String, List<OrderItem>> orderItemsMap = orderIds.isEmpty() || !includeItems
+                ? java.util.Collections.emptyMap()
+                : orderItemRepository.findByOrderIds(orderIds, transaction);
             
-            java.util.Map<String, List<OrderItem>> orderItemsMap = 
-                orderItemRepository.findByOrderIds(orderIds, transaction);
-            
-            List<OrderResponse> responses = orders.stream()
+            List<OrderResponse> responses = page.getItems().stream()
                 .map(order -> new OrderResponse(order, 
                     orderItemsMap.getOrDefault(order.getOrderId(), new java.util.ArrayList<>())))
                 .collect(java.util.stream.Collectors.toList());
             
             transaction.commit();
+            return new CursorPage<>(responses, page.getNextCursor());
             
-            // Cache the result
-            if (cacheService != null) {
-                cacheService.putCustomerOrdersToCache(customerId, responses);
-            }
-            
-            logger.info("Retrieved {} orders for customer: {}", responses.size(), customerId);
-            return responses;
-            
+        } catch (IllegalArgumentException e) {
+            abortQuietly(transaction);
+            throw e;
         } catch (Exception e) {
-            transaction.abort();
-            logger.error("Failed to get orders for customer: {}", customerId, e);
+            abortQuietly(transaction);
+            logger.error("Failed to get orders page for customer: {}", customerId, e);
             throw new OrderProcessingException(OrderErrorCode.SYSTEM_ERROR, "UNKNOWN", 
                 "Failed to retrieve orders for customer", e);
         }
     }
+    
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private static String shippingAddress(CreateOrderRequest request) {
+        if (request.getShippingInfo() == null || request.getShippingInfo().getRecipientInfo() == null) {
+            return null;
+        }
+        CreateOrderRequest.ShippingInfo.RecipientInfo recipient = request.getShippingInfo().getRecipientInfo();
+        return java.util.stream.Stream.of(recipient.getAddress(), recipient.getCity(), recipient.getState(),
+                recipient.getPostalCode(), recipient.getCountry())
+            .filter(part -> part != null && !part.isEmpty())
+            .collect(java.util.stream.Collectors.joining(", "));
+    }
+
+    private void queueCompensationQuietly(String orderId) {
+        try {
+            compensationService.queueCompensation(orderId);
+        } catch (RuntimeException e) {
+            // The cancellation is already committed; the failure is logged for manual compensation
+            logger.error("Failed to queue compensation for cancelled order: {}", orderId, e);
+        }
+    }
+
+    private void abortQuietly(DistributedTransaction transaction) {
+        if (transaction == null) {
+            return;
+        }
+        try {
+            transaction.abort();
+        } catch (Exception e) {
+            logger.warn("Failed to abort transaction: {}", transaction.getId(), e);
+        }
+    }
 
 
     // Fallback methods for circuit breaker
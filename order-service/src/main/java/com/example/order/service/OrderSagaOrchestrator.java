@@ -0,0 +1,677 @@
+package com.example.order.service;
+
+import com.example.common.outbox.OutboxEvent;
+import com.example.common.outbox.OutboxRepository;
+import com.example.order.client.InventoryServiceClient;
+import com.example.order.client.PaymentServiceClient;
+import com.example.order.client.ShippingServiceClient;
+import com.example.order.config.AsyncConfig;
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderSaga;
+import com.example.order.entity.OrderStatus;
+import com.example.order.repository.OrderRepository;
+import com.example.order.repository.OrderSagaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.exception.storage.ExecutionException;
+import com.scalar.db.exception.transaction.CrudException;
+import com.scalar.db.exception.transaction.TransactionException;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Drives the create-order saga: reserve inventory and take payment, concurrently, then confirm
+ * the reservation and create the shipment. Every transition writes the saga row, the order and an
+ * outbox event in one transaction before the step's remote calls are made. A failed step marks the
+ * order FAILED and hands it to CompensationService, which undoes whatever ids the order recorded.
+ * <p>
+ * Each run of a saga holds a lease on it under a token of its own, taken when the run starts and
+ * renewed at each transition, so two runs on the same instance cannot both pass a transition.
+ * Sagas whose lease ran out (the instance died) are claimed by OrderSagaRecovery: one that made
+ * no remote call yet runs forward, any other is compensated, since its calls may or may not have
+ * reached the downstream services and none of them can be safely repeated. A saga interrupted
+ * while reserving and paying has no ids recorded, so its reservation and payment are looked up by
+ * order id.
+ */
+@Service
+public class OrderSagaOrchestrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSagaOrchestrator.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final Set<String> UNSUCCESSFUL_PAYMENT_STATUSES = Set.of("FAILED", "DECLINED", "CANCELLED");
+    private static final Set<String> RELEASED_RESERVATION_STATUSES = Set.of("EXPIRED", "CONSUMED", "CANCELLED");
+
+    private final DistributedTransactionManager transactionManager;
+    private final OrderRepository orderRepository;
+    private final OrderSagaRepository sagaRepository;
+    private final OutboxRepository outboxRepository;
+    private final InventoryServiceClient inventoryServiceClient;
+    private final PaymentServiceClient paymentServiceClient;
+    private final ShippingServiceClient shippingServiceClient;
+    private final CompensationService compensationService;
+    private final MetricsService metricsService;
+    private final Executor stepExecutor;
+    private final boolean parallelSteps;
+    private final long leaseMillis;
+
+    public OrderSagaOrchestrator(DistributedTransactionManager transactionManager,
+                                 OrderRepository orderRepository,
+                                 OrderSagaRepository sagaRepository,
+                                 OutboxRepository outboxRepository,
+                                 InventoryServiceClient inventoryServiceClient,
+                                 PaymentServiceClient paymentServiceClient,
+                                 ShippingServiceClient shippingServiceClient,
+                                 CompensationService compensationService,
+                                 MetricsService metricsService,
+                                 // Steps run on the calling thread when absent
+                                 @Autowired(required = false) @Qualifier(AsyncConfig.SAGA_STEP_EXECUTOR) Executor stepExecutor,
+                                 @Value("${order.saga.parallel-steps:true}") boolean parallelSteps,
+                                 @Value("${order.saga.lease:2m}") Duration lease) {
+        this.transactionManager = transactionManager;
+        this.orderRepository = orderRepository;
+        this.sagaRepository = sagaRepository;
+        this.outboxRepository = outboxRepository;
+        this.inventoryServiceClient = inventoryServiceClient;
+        this.paymentServiceClient = paymentServiceClient;
+        this.shippingServiceClient = shippingServiceClient;
+        this.compensationService = compensationService;
+        this.metricsService = metricsService;
+        this.stepExecutor = stepExecutor;
+        this.parallelSteps = parallelSteps;
+        this.leaseMillis = lease.toMillis();
+    }
+
+    /**
+     * Record the saga of a new order, in the transaction that creates the order. The saga is
+     * leased from the start, so recovery leaves it alone until it is run or the lease runs out.
+     */
+    public OrderSaga start(String orderId, CreateOrderRequest request, DistributedTransaction transaction) throws CrudException {
+        OrderSaga saga = new OrderSaga(orderId, toJson(request));
+        saga.setLeaseOwner(newLeaseToken());
+        saga.setLeaseExpiresAt(saga.getCreatedAt() + leaseMillis);
+        sagaRepository.save(saga, transaction);
+        return saga;
+    }
+
+    /**
+     * Run a saga started by this instance, taking its lease for this run first. Returns the order
+     * as the saga left it: SHIPPED, or FAILED with compensation handed off. Returns null when the
+     * saga was already taken over by recovery, or could not be finished here (lease lost, or its
+     * state could not be written) and is left to recovery.
+     */
+    public Order run(String orderId) {
+        String leaseToken = acquire(orderId);
+        if (leaseToken == null) {
+            logger.warn("Saga for order: {} was taken over before it ran, leaving it", orderId);
+            return null;
+        }
+        return run(orderId, leaseToken);
+    }
+
+    private Order run(String orderId, String leaseToken) {
+        Timer.Sample sample = metricsService.startSagaTimer();
+        String result = "interrupted";
+        try {
+            Order order = runForward(orderId, leaseToken);
+            result = "completed";
+            return order;
+        } catch (LeaseLostException e) {
+            logger.warn("Saga for order: {} is no longer leased to this run, leaving it", orderId);
+            return null;
+        } catch (OutcomeUnknownException e) {
+            logger.warn("{}, leaving the saga to recovery", e.getMessage());
+            return null;
+        } catch (Exception e) {
+            logger.warn("Saga for order: {} failed, compensating: {}", orderId, e.getMessage());
+            Order order = compensate(orderId, leaseToken, e);
+            if (order != null) {
+                result = "compensated";
+            }
+            return order;
+        } finally {
+            metricsService.recordSagaTime(sample, orderId, parallelSteps ? "parallel" : "sequential", result);
+        }
+    }
+
+    /**
+     * Continue a saga claimed by recovery. Only a saga that never left START is run forward. Throws
+     * when what a saga interrupted during RESERVE_AND_PAY obtained cannot be looked up, so the
+     * saga is retried once its lease runs out again.
+     */
+    public Order resume(OrderSaga saga) {
+        String orderId = saga.getOrderId();
+        String leaseToken = saga.getLeaseOwner();
+        boolean running = saga.getStatusEnum() == OrderSaga.Status.RUNNING;
+        if (running && saga.getStepEnum() == OrderSaga.Step.START) {
+            logger.info("Resuming saga for order: {} (attempt {})", orderId, saga.getAttempts());
+            return run(orderId, leaseToken);
+        }
+        logger.warn("Saga for order: {} was interrupted during {}, compensating", orderId, saga.getStep());
+        String message = "Saga interrupted during step " + saga.getStep();
+        if (running && saga.getStepEnum() == OrderSaga.Step.RESERVE_AND_PAY) {
+            return compensate(orderId, leaseToken, findObtained(orderId, message, null));
+        }
+        return compensate(orderId, leaseToken, new IllegalStateException(message));
+    }
+
+    /**
+     * Whether the order still has a saga running or compensating it
+     */
+    public boolean isInFlight(String orderId, DistributedTransaction transaction) throws CrudException {
+        return sagaRepository.findById(orderId, transaction).isPresent();
+    }
+
+    /**
+     * Lease up to limit sagas whose lease has expired, one bucket transaction at a time, each under
+     * a new token. Sagas of orders for which skip holds are left alone.
+     */
+    public List<OrderSaga> claimStalledSagas(long now, int limit, Predicate<String> skip) {
+        List<OrderSaga> claimed = new ArrayList<>();
+        for (int bucket = 0; bucket < OrderSagaRepository.BUCKETS && claimed.size() < limit; bucket++) {
+            DistributedTransaction transaction = null;
+            try {
+                transaction = transactionManager.start();
+                List<OrderSaga> leased = new ArrayList<>();
+                for (OrderSaga saga : sagaRepository.findByBucket(bucket, transaction)) {
+                    if (claimed.size() + leased.size() >= limit) {
+                        break;
+                    }
+                    if (saga.getLeaseExpiresAt() > now || skip.test(saga.getOrderId())) {
+                        continue;
+                    }
+                    saga.setLeaseOwner(newLeaseToken());
+                    saga.setLeaseExpiresAt(now + leaseMillis);
+                    saga.setAttempts(saga.getAttempts() + 1);
+                    saga.setUpdatedAt(now);
+                    sagaRepository.save(saga, transaction);
+                    leased.add(saga);
+                }
+                transaction.commit();
+                claimed.addAll(leased);
+            } catch (Exception e) {
+                // Usually another instance claiming from the same bucket; its sagas are skipped this round
+                abortQuietly(transaction);
+                logger.debug("Failed to claim sagas from bucket {}", bucket, e);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Take the lease on a saga that has not run yet, under a new token and for a full lease from
+     * now, so however long the order waited to be run the lease covers this run. Returns null when
+     * the saga is gone, already under way, or was claimed by recovery while the order waited.
+     */
+    private String acquire(String orderId) {
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            Optional<OrderSaga> notRun = sagaRepository.findById(orderId, transaction)
+                .filter(saga -> saga.getStatusEnum() == OrderSaga.Status.RUNNING)
+                .filter(saga -> saga.getStepEnum() == OrderSaga.Step.START)
+                .filter(saga -> saga.getAttempts() == 0);
+            if (notRun.isEmpty()) {
+                abortQuietly(transaction);
+                return null;
+            }
+            OrderSaga saga = notRun.get();
+            String leaseToken = newLeaseToken();
+            long now = System.currentTimeMillis();
+            saga.setLeaseOwner(leaseToken);
+            saga.setLeaseExpiresAt(now + leaseMillis);
+            saga.setUpdatedAt(now);
+            sagaRepository.save(saga, transaction);
+            transaction.commit();
+            return leaseToken;
+        } catch (Exception e) {
+            // Usually recovery claiming the saga at the same time
+            abortQuietly(transaction);
+            logger.warn("Failed to take the lease on saga for order: {}: {}", orderId, e.getMessage());
+            return null;
+        }
+    }
+
+    private Order runForward(String orderId, String leaseToken) throws Exception {
+        SagaState state = transition(orderId, leaseToken, OrderSaga.Step.START,
+            saga -> saga.setStep(OrderSaga.Step.RESERVE_AND_PAY.name()),
+            order -> advance(order, OrderStatus.CONFIRMED), "OrderConfirmed");
+        CreateOrderRequest request = fromJson(state.saga.getRequest());
+        Order confirmed = state.order;
+
+        // Payment is taken on the total fixed at intake, so it does not wait for the reservation
+        CompletableFuture<InventoryServiceClient.InventoryReservationResponse> reservation =
+            call(() -> inventoryServiceClient.reserveInventory(reserveRequest(confirmed, request)));
+        CompletableFuture<PaymentServiceClient.PaymentResponse> payment = parallelSteps
+            ? call(() -> paymentServiceClient.processPayment(paymentRequest(confirmed, request)))
+            : reservation.thenApply(reserved -> paymentServiceClient.processPayment(paymentRequest(confirmed, request)));
+
+        List<Throwable> failures = new ArrayList<>();
+        InventoryServiceClient.InventoryReservationResponse reserved = await(reservation, failures);
+        PaymentServiceClient.PaymentResponse paid = await(payment, failures);
+        boolean callFailed = !failures.isEmpty();
+        String reservationId = reserved != null ? blankToNull(reserved.getReservationId()) : null;
+        String paymentId = isPaid(paid) ? paid.getPaymentId() : null;
+        if (paid != null && paymentId == null) {
+            failures.add(new IllegalStateException("Payment not completed: "
+                + (paid.getErrorMessage() != null ? paid.getErrorMessage() : paid.getStatus())));
+        }
+        if (reservationId == null || paymentId == null) {
+            String message = "Reserve and pay failed for order " + orderId;
+            Throwable cause = failures.isEmpty() ? null : failures.get(0);
+            if (!callFailed) {
+                throw new StepFailedException(message, cause, reservationId, paymentId, null);
+            }
+            // A call that failed, say on a timeout, may still have been committed downstream
+            StepFailedException obtained;
+            try {
+                obtained = findObtained(orderId, message, cause);
+            } catch (RuntimeException e) {
+                // The saga stays at RESERVE_AND_PAY, so recovery looks them up again once the lease runs out
+                throw new OutcomeUnknownException("Could not look up what reserve and pay obtained for order "
+                    + orderId + ": " + e.getMessage());
+            }
+            throw new StepFailedException(message, cause,
+                reservationId != null ? reservationId : obtained.reservationId,
+                paymentId != null ? paymentId : obtained.paymentId, null);
+        }
+
+        try {
+            state = transition(orderId, leaseToken, OrderSaga.Step.RESERVE_AND_PAY,
+                saga -> saga.setStep(OrderSaga.Step.SHIP.name()),
+                order -> {
+                    order.setInventoryReservationId(reservationId);
+                    order.setPaymentId(paymentId);
+                    advance(order, OrderStatus.INVENTORY_RESERVED);
+                    advance(order, OrderStatus.PAYMENT_COMPLETED);
+                }, "OrderPaid");
+        } catch (LeaseLostException e) {
+            // Whoever holds the saga now did not see these ids, so their undo is queued here
+            queueUndo(confirmed, reservationId, paymentId);
+            throw e;
+        } catch (Exception e) {
+            throw new StepFailedException("Failed to record reservation " + reservationId + " and payment "
+                + paymentId + " for order " + orderId, e, reservationId, paymentId, null);
+        }
+        Order paidOrder = state.order;
+
+        inventoryServiceClient.confirmReservation(reservationId);
+        ShippingServiceClient.ShipmentResponse shipment = shippingServiceClient.createShipment(shipmentRequest(paidOrder, request));
+        String shipmentId = shipment != null ? blankToNull(shipment.getShipmentId()) : null;
+        if (shipmentId == null) {
+            throw new IllegalStateException("Shipment was not created for order " + orderId);
+        }
+
+        try {
+            state = transition(orderId, leaseToken, OrderSaga.Step.SHIP, null,
+                order -> {
+                    order.setShipmentId(shipmentId);
+                    advance(order, OrderStatus.SHIPPED);
+                }, "OrderShipped");
+        } catch (LeaseLostException e) {
+            throw e;
+        } catch (Exception e) {
+            // Keep the shipment id, or compensation would leave the shipment in place
+            throw new StepFailedException("Failed to record shipment " + shipmentId + " for order " + orderId,
+                e, null, null, shipmentId);
+        }
+        logger.info("Saga completed for order: {}", orderId);
+        return state.order;
+    }
+
+    /**
+     * Look up the reservation and payment made for an order whose saga did not record them, being
+     * interrupted or getting no answer from a call. The reservation is keyed by the order id, and
+     * payments are indexed by it.
+     */
+    private StepFailedException findObtained(String orderId, String message, Throwable cause) {
+        String reservationId = inventoryServiceClient.getReservationsByOrder(orderId).stream()
+            .filter(reservation -> reservation.getStatus() == null
+                || !RELEASED_RESERVATION_STATUSES.contains(reservation.getStatus().toUpperCase()))
+            .map(reservation -> blankToNull(reservation.getReservationId()))
+            .filter(Objects::nonNull)
+            .findFirst()
+            .orElse(null);
+        String paymentId = paymentServiceClient.getPaymentsByOrder(orderId).stream()
+            .filter(payment -> isPaid(payment) && !"REFUNDED".equalsIgnoreCase(payment.getStatus()))
+            .map(PaymentServiceClient.PaymentResponse::getPaymentId)
+            .findFirst()
+            .orElse(null);
+        logger.info("Saga for order: {} had obtained reservation: {}, payment: {}", orderId, reservationId, paymentId);
+        return new StepFailedException(message, cause, reservationId, paymentId, null);
+    }
+
+    private void queueUndo(Order order, String reservationId, String paymentId) {
+        try {
+            order.setInventoryReservationId(reservationId);
+            order.setPaymentId(paymentId);
+            compensationService.queueCompensation(order);
+        } catch (Exception e) {
+            logger.error("Failed to queue undo of reservation: {} and payment: {} for order: {}",
+                reservationId, paymentId, order.getOrderId(), e);
+        }
+    }
+
+    /**
+     * Mark the order FAILED, recording any ids the failed step obtained, and run compensation.
+     * The saga row is only removed after compensation has run or queued every step, so a crash in
+     * between leaves it for recovery. Returns null when the hand-off did not happen.
+     */
+    private Order compensate(String orderId, String leaseToken, Exception cause) {
+        try {
+            SagaState state = transition(orderId, leaseToken, null,
+                saga -> {
+                    saga.setStatus(OrderSaga.Status.COMPENSATING.name());
+                    saga.setLastError(truncate(cause.getMessage()));
+                },
+                order -> {
+                    if (cause instanceof StepFailedException failed) {
+                        failed.recordOn(order);
+                    }
+                    if (order.getStatusEnum().canTransitionTo(OrderStatus.FAILED)) {
+                        order.setStatusEnum(OrderStatus.FAILED);
+                    }
+                }, "OrderFailed");
+
+            compensationService.compensateOrder(orderId);
+
+            finish(orderId);
+            return state.order;
+        } catch (LeaseLostException e) {
+            logger.warn("Saga for order: {} is no longer leased to this run, leaving compensation to its holder", orderId);
+            return null;
+        } catch (Exception e) {
+            logger.error("Failed to hand saga for order: {} to compensation, leaving it to recovery", orderId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Apply one saga transition in a single transaction: check that this run still holds the
+     * lease and that the saga is at the expected step (any step when null), change the order,
+     * record the order event, and either advance the saga and renew its lease or, when sagaChange
+     * is null, delete it.
+     */
+    private SagaState transition(String orderId, String leaseToken, OrderSaga.Step expectedStep, Consumer<OrderSaga> sagaChange,
+                                 Consumer<Order> orderChange, String eventType) throws TransactionException, ExecutionException {
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            OrderSaga saga = sagaRepository.findById(orderId, transaction)
+                .filter(current -> leaseToken.equals(current.getLeaseOwner()))
+                .filter(current -> expectedStep == null || current.getStepEnum() == expectedStep)
+                .orElseThrow(LeaseLostException::new);
+            Order order = orderRepository.findById(orderId, transaction)
+                .orElseThrow(() -> new IllegalStateException("Order not found for saga: " + orderId));
+
+            String previousStatus = order.getStatus();
+            orderChange.accept(order);
+            order.setUpdatedAt(LocalDateTime.now());
+            orderRepository.update(order, transaction);
+
+            if (sagaChange != null) {
+                long now = System.currentTimeMillis();
+                sagaChange.accept(saga);
+                saga.setLeaseExpiresAt(now + leaseMillis);
+                saga.setUpdatedAt(now);
+                sagaRepository.save(saga, transaction);
+            } else {
+                sagaRepository.delete(orderId, transaction);
+            }
+
+            outboxRepository.append(OrderProcessService.ORDER_AGGREGATE, orderId, eventType, OutboxEvent.payload(
+                "customerId", order.getCustomerId(),
+                "previousStatus", previousStatus,
+                "status", order.getStatus(),
+                "inventoryReservationId", order.getInventoryReservationId(),
+                "paymentId", order.getPaymentId(),
+                "shipmentId", order.getShipmentId()), transaction);
+
+            transaction.commit();
+            return new SagaState(saga, order);
+        } catch (Exception e) {
+            abortQuietly(transaction);
+            throw e;
+        }
+    }
+
+    private void finish(String orderId) throws TransactionException {
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            sagaRepository.delete(orderId, transaction);
+            transaction.commit();
+        } catch (Exception e) {
+            abortQuietly(transaction);
+            throw e;
+        }
+    }
+
+    private static String newLeaseToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static void advance(Order order, OrderStatus next) {
+        if (!order.getStatusEnum().canTransitionTo(next)) {
+            throw new IllegalStateException("Order " + order.getOrderId() + " cannot move from "
+                + order.getStatus() + " to " + next);
+        }
+        order.setStatusEnum(next);
+    }
+
+    private <T> CompletableFuture<T> call(Supplier<T> step) {
+        if (stepExecutor == null) {
+            try {
+                return CompletableFuture.completedFuture(step.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(step, stepExecutor);
+    }
+
+    /**
+     * Wait for a step, so both concurrent steps are always joined and their ids recorded even
+     * when the other one failed. Returns null and collects the cause when the step failed.
+     */
+    private static <T> T await(CompletableFuture<T> step, List<Throwable> failures) {
+        try {
+            return step.join();
+        } catch (CompletionException | CancellationException e) {
+            failures.add(e.getCause() != null ? e.getCause() : e);
+            return null;
+        }
+    }
+
+    private static boolean isPaid(PaymentServiceClient.PaymentResponse payment) {
+        return payment != null && blankToNull(payment.getPaymentId()) != null
+            && (payment.getStatus() == null || !UNSUCCESSFUL_PAYMENT_STATUSES.contains(payment.getStatus().toUpperCase()));
+    }
+
+    private static InventoryServiceClient.ReserveInventoryRequest reserveRequest(Order order, CreateOrderRequest request) {
+        InventoryServiceClient.ReserveInventoryRequest reserve = new InventoryServiceClient.ReserveInventoryRequest();
+        reserve.setOrderId(order.getOrderId());
+        reserve.setCustomerId(order.getCustomerId());
+        reserve.setItems(request.getItems().stream()
+            .map(item -> new InventoryServiceClient.InventoryItemRequest(item.getProductId(), item.getQuantity()))
+            .collect(Collectors.toList()));
+        return reserve;
+    }
+
+    private static PaymentServiceClient.ProcessPaymentRequest paymentRequest(Order order, CreateOrderRequest request) {
+        CreateOrderRequest.PaymentMethodDetails details = request.getPaymentMethodDetails();
+        PaymentServiceClient.PaymentMethodDetails paymentDetails = new PaymentServiceClient.PaymentMethodDetails();
+        paymentDetails.setPaymentToken(details.getPaymentToken());
+        paymentDetails.setLast4Digits(details.getLast4Digits());
+        paymentDetails.setCardBrand(details.getCardBrand());
+        paymentDetails.setCardholderName(details.getCardholderName());
+
+        PaymentServiceClient.ProcessPaymentRequest payment = new PaymentServiceClient.ProcessPaymentRequest();
+        payment.setOrderId(order.getOrderId());
+        payment.setCustomerId(order.getCustomerId());
+        payment.setAmount(order.getTotalAmount());
+        payment.setCurrency(order.getCurrency());
+        payment.setPaymentMethod(details.getPaymentMethod());
+        payment.setPaymentMethodDetails(paymentDetails);
+        payment.setDescription("Order " + order.getOrderId());
+        return payment;
+    }
+
+    private static ShippingServiceClient.CreateShipmentRequest shipmentRequest(Order order, CreateOrderRequest request) {
+        CreateOrderRequest.ShippingInfo shipping = request.getShippingInfo();
+        ShippingServiceClient.CreateShipmentRequest shipment = new ShippingServiceClient.CreateShipmentRequest();
+        shipment.setOrderId(order.getOrderId());
+        shipment.setCustomerId(order.getCustomerId());
+        shipment.setShippingMethod(shipping.getShippingMethod());
+        shipment.setCarrier(shipping.getCarrier());
+
+        CreateOrderRequest.ShippingInfo.RecipientInfo recipient = shipping.getRecipientInfo();
+        if (recipient != null) {
+            ShippingServiceClient.CreateShipmentRequest.RecipientInfo recipientInfo =
+                new ShippingServiceClient.CreateShipmentRequest.RecipientInfo();
+            recipientInfo.setName(recipient.getName());
+            recipientInfo.setPhone(recipient.getPhone());
+            recipientInfo.setAddress(recipient.getAddress());
+            recipientInfo.setCity(recipient.getCity());
+            recipientInfo.setState(recipient.getState());
+            recipientInfo.setPostalCode(recipient.getPostalCode());
+            recipientInfo.setCountry(recipient.getCountry());
+            shipment.setRecipientInfo(recipientInfo);
+        }
+
+        CreateOrderRequest.ShippingInfo.PackageInfo pkg = shipping.getPackageInfo();
+        if (pkg != null) {
+            ShippingServiceClient.CreateShipmentRequest.PackageInfo packageInfo =
+                new ShippingServiceClient.CreateShipmentRequest.PackageInfo();
+            packageInfo.setWeight(pkg.getWeight());
+            packageInfo.setDimensions(pkg.getDimensions());
+            packageInfo.setSpecialInstructions(pkg.getSpecialInstructions());
+            shipment.setPackageInfo(packageInfo);
+        }
+
+        shipment.setItems(request.getItems().stream()
+            .map(item -> {
+                ShippingServiceClient.CreateShipmentRequest.ShippingItemRequest shippingItem =
+                    new ShippingServiceClient.CreateShipmentRequest.ShippingItemRequest();
+                shippingItem.setProductId(item.getProductId());
+                shippingItem.setProductName(item.getProductId());
+                shippingItem.setQuantity(item.getQuantity());
+                return shippingItem;
+            })
+            .collect(Collectors.toList()));
+        return shipment;
+    }
+
+    private static String toJson(CreateOrderRequest request) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Order request cannot be serialized", e);
+        }
+    }
+
+    private static CreateOrderRequest fromJson(String json) {
+        try {
+            return OBJECT_MAPPER.readValue(json, CreateOrderRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Saga holds an unreadable order request", e);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private void abortQuietly(DistributedTransaction transaction) {
+        if (transaction == null) {
+            return;
+        }
+        try {
+            transaction.abort();
+        } catch (Exception e) {
+            logger.warn("Failed to abort transaction: {}", transaction.getId(), e);
+        }
+    }
+
+    private static final class SagaState {
+        private final OrderSaga saga;
+        private final Order order;
+
+        private SagaState(OrderSaga saga, Order order) {
+            this.saga = saga;
+            this.order = order;
+        }
+    }
+
+    // The saga row is gone, at another step, or leased to another run
+    private static final class LeaseLostException extends RuntimeException {
+        private LeaseLostException() {
+            super("Saga lease lost");
+        }
+    }
+
+    // Whether a step's calls went through is not known yet; the saga is left for recovery to find out
+    private static final class OutcomeUnknownException extends RuntimeException {
+        private OutcomeUnknownException(String message) {
+            super(message);
+        }
+    }
+
+    // A step failed after obtaining some ids; they are recorded so compensation can undo them
+    private static final class StepFailedException extends RuntimeException {
+        private final String reservationId;
+        private final String paymentId;
+        private final String shipmentId;
+
+        private StepFailedException(String message, Throwable cause, String reservationId, String paymentId, String shipmentId) {
+            super(cause != null ? message + ": " + cause.getMessage() : message, cause);
+            this.reservationId = reservationId;
+            this.paymentId = paymentId;
+            this.shipmentId = shipmentId;
+        }
+
+        private void recordOn(Order order) {
+            if (reservationId != null) {
+                order.setInventoryReservationId(reservationId);
+            }
+            if (paymentId != null) {
+                order.setPaymentId(paymentId);
+            }
+            if (shipmentId != null) {
+                order.setShipmentId(shipmentId);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.example.order.service;
+
+import com.example.order.entity.OrderSaga;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Picks up sagas left in flight by an instance that stopped, once their lease has run out, and
+ * resumes or compensates them. The first run after startup covers sagas interrupted by a restart.
+ * Orders still waiting in this instance's intake queue are skipped, whatever their lease says.
+ */
+@Component
+@ConditionalOnProperty(name = "order.saga.recovery.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderSagaRecovery {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSagaRecovery.class);
+
+    private final OrderSagaOrchestrator sagaOrchestrator;
+    private final OrderIntakeService intakeService;
+    private final int batchSize;
+
+    public OrderSagaRecovery(OrderSagaOrchestrator sagaOrchestrator,
+                             OrderIntakeService intakeService,
+                             @Value("${order.saga.recovery.batch-size:20}") int batchSize) {
+        this.sagaOrchestrator = sagaOrchestrator;
+        this.intakeService = intakeService;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(initialDelayString = "${order.saga.recovery.initial-delay-millis:10000}",
+               fixedDelayString = "${order.saga.recovery.interval-millis:30000}")
+    public void recover() {
+        List<OrderSaga> stalled = sagaOrchestrator.claimStalledSagas(System.currentTimeMillis(), batchSize,
+            intakeService::isQueued);
+        for (OrderSaga saga : stalled) {
+            try {
+                sagaOrchestrator.resume(saga);
+            } catch (Exception e) {
+                // The lease runs out again and the saga is retried on a later run
+                logger.error("Failed to recover saga for order: {}", saga.getOrderId(), e);
+            }
+        }
+        if (!stalled.isEmpty()) {
+            logger.info("Recovered {} stalled order saga(s)", stalled.size());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.example.order.service;
+
+import com.example.common.scalardb.ChunkedBackfill;
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderItemRepository;
+import com.example.order.repository.OrderRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Rewrites the orders_by_customer summary rows (status, total, currency, timestamps,
+ * item count) for orders written before the index carried the summary columns.
+ */
+@Component
+@ConditionalOnProperty(name = "order.summary-backfill.enabled", havingValue = "true")
+public class OrderSummaryBackfill extends ChunkedBackfill {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    public OrderSummaryBackfill(DistributedTransactionManager transactionManager,
+                                OrderRepository orderRepository,
+                                OrderItemRepository orderItemRepository,
+                                @Value("${order.summary-backfill.batch-size:100}") int batchSize) {
+        super(transactionManager, "customer order summary", batchSize);
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    @Override
+    protected List<String> loadIds(DistributedTransaction transaction) throws Exception {
+        return orderRepository.findAllOrderIds(transaction);
+    }
+
+    @Override
+    protected boolean backfill(String orderId, DistributedTransaction transaction) throws Exception {
+        Optional<Order> orderOpt = orderRepository.findById(orderId, transaction);
+        if (orderOpt.isEmpty()) {
+            return false;
+        }
+        Order order = orderOpt.get();
+        Integer itemCount = order.getItemCount() != null
+            ? order.getItemCount()
+            : orderItemRepository.findByOrderId(orderId, transaction).size();
+        orderRepository.saveCustomerOrderIndex(order,
+            order.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli(),
+            order.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli(),
+            itemCount, transaction);
+        return true;
+    }
+}
\ No newline at end of file
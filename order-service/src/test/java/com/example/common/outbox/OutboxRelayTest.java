@@ -0,0 +1,164 @@
+package com.example.common.outbox;
+
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OutboxRelay
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private DistributedTransactionManager transactionManager;
+
+    @Mock
+    private DistributedTransaction transaction;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private OutboxDispatcher outboxDispatcher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(transactionManager, outboxRepository, outboxDispatcher, meterRegistry,
+                10, 3, Duration.ofMillis(500));
+        lenient().when(transactionManager.start()).thenReturn(transaction);
+    }
+
+    @Test
+    void relayBucket_DispatchesOutsideTransactionThenDeletes() throws Exception {
+        // Given
+        OutboxEvent created = event("EVT-1", "OrderCreated", 0);
+        OutboxEvent cancelled = event("EVT-2", "OrderCancelled", 0);
+        when(outboxRepository.findByBucket(3, 10, transaction)).thenReturn(List.of(created, cancelled));
+
+        // When
+        int relayed = relay.relayBucket(3);
+
+        // Then
+        assertThat(relayed).isEqualTo(2);
+        InOrder inOrder = inOrder(outboxDispatcher, outboxRepository, transaction, transactionManager);
+        inOrder.verify(transaction).commit();
+        inOrder.verify(outboxDispatcher).dispatch(List.of(created, cancelled));
+        inOrder.verify(transactionManager).start();
+        inOrder.verify(outboxRepository).delete(created, transaction);
+        inOrder.verify(outboxRepository).delete(cancelled, transaction);
+        inOrder.verify(transaction).commit();
+    }
+
+    @Test
+    void relayBucket_EmptyBucket_DispatchesNothing() throws Exception {
+        // Given
+        when(outboxRepository.findByBucket(0, 10, transaction)).thenReturn(List.of());
+
+        // When
+        int relayed = relay.relayBucket(0);
+
+        // Then
+        assertThat(relayed).isZero();
+        verify(outboxDispatcher, never()).dispatch(any());
+        verify(transaction).commit();
+    }
+
+    @Test
+    void relayBucket_DispatchFails_KeepsEventsAndRecordsAttemptOnHead() throws Exception {
+        // Given
+        OutboxEvent created = event("EVT-1", "OrderCreated", 0);
+        OutboxEvent cancelled = event("EVT-2", "OrderCancelled", 0);
+        when(outboxRepository.findByBucket(3, 10, transaction)).thenReturn(List.of(created, cancelled));
+        doThrow(new RuntimeException("Webhook unavailable")).when(outboxDispatcher).dispatch(any());
+
+        // When
+        int relayed = relay.relayBucket(3);
+
+        // Then
+        assertThat(relayed).isZero();
+        verify(outboxRepository, never()).delete(any(), any());
+        verify(outboxRepository).recordAttempt(created, transaction);
+        assertThat(created.getAttempts()).isEqualTo(1);
+        assertThat(created.getLastError()).isEqualTo("Webhook unavailable");
+    }
+
+    @Test
+    void relayBucket_HeadFailedBefore_DispatchesItAlone() throws Exception {
+        // Given
+        OutboxEvent created = event("EVT-1", "OrderCreated", 1);
+        OutboxEvent cancelled = event("EVT-2", "OrderCancelled", 0);
+        when(outboxRepository.findByBucket(3, 10, transaction)).thenReturn(List.of(created, cancelled));
+
+        // When
+        int relayed = relay.relayBucket(3);
+
+        // Then
+        assertThat(relayed).isEqualTo(1);
+        verify(outboxDispatcher).dispatch(List.of(created));
+        verify(outboxRepository).delete(created, transaction);
+        verify(outboxRepository, never()).delete(eq(cancelled), any());
+    }
+
+    @Test
+    void relayBucket_HeadExhaustsAttempts_IsDeadLettered() throws Exception {
+        // Given
+        OutboxEvent created = event("EVT-1", "OrderCreated", 2);
+        when(outboxRepository.findByBucket(3, 10, transaction)).thenReturn(List.of(created));
+        doThrow(new RuntimeException("Bad payload")).when(outboxDispatcher).dispatch(any());
+
+        // When
+        relay.relayBucket(3);
+
+        // Then
+        verify(outboxRepository).deadLetter(created, transaction);
+        verify(outboxRepository, never()).recordAttempt(any(), any());
+        assertThat(meterRegistry.counter("outbox.dead.lettered").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void relay_PendingEvents_ReportsOldestEventAge() throws Exception {
+        // Given
+        OutboxEvent created = event("EVT-1", "OrderCreated", 0);
+        created.setCreatedAt(System.currentTimeMillis() - 90_000);
+        when(outboxRepository.findByBucket(anyInt(), eq(10), eq(transaction))).thenReturn(List.of());
+        when(outboxRepository.findByBucket(3, 10, transaction)).thenReturn(List.of(created));
+        doThrow(new RuntimeException("Webhook unavailable")).when(outboxDispatcher).dispatch(any());
+
+        // When
+        relay.relay();
+
+        // Then
+        assertThat(meterRegistry.get("outbox.oldest.age").gauge().value()).isBetween(89.0, 91.0);
+    }
+
+    private static OutboxEvent event(String eventId, String eventType, int attempts) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventId(eventId);
+        event.setBucket(3);
+        event.setAggregateType("Order");
+        event.setAggregateId("ORD-001");
+        event.setEventType(eventType);
+        event.setPayload("{}");
+        event.setCreatedAt(System.currentTimeMillis());
+        event.setAttempts(attempts);
+        return event;
+    }
+}
\ No newline at end of file
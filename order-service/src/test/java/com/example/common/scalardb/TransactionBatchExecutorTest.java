@@ -0,0 +1,88 @@
+package com.example.common.scalardb;
+
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionBatchExecutor
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchExecutorTest {
+
+    @Mock
+    private DistributedTransactionManager transactionManager;
+
+    @Mock
+    private DistributedTransaction transaction;
+
+    private TransactionBatchExecutor batchExecutor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        batchExecutor = new TransactionBatchExecutor(transactionManager, 100);
+        when(transactionManager.start()).thenReturn(transaction);
+    }
+
+    @Test
+    void execute_CommitsOncePerChunk() throws Exception {
+        // Given
+        List<String> items = IntStream.range(0, 250).mapToObj(i -> "item-" + i).collect(Collectors.toList());
+
+        // When
+        TransactionBatchExecutor.BatchResult<String> result = 
+            batchExecutor.execute(items, item -> item, (tx, item) -> item.toUpperCase());
+
+        // Then
+        assertThat(result.getCommitCount()).isEqualTo(3);
+        assertThat(result.getFailureCount()).isZero();
+        assertThat(result.getValue(249)).isEqualTo("ITEM-249");
+        verify(transaction, times(3)).commit();
+    }
+
+    @Test
+    void execute_FailingItemOnlyFailsItself() throws Exception {
+        // Given
+        List<String> items = IntStream.range(0, 8).mapToObj(i -> "item-" + i).collect(Collectors.toList());
+
+        // When
+        TransactionBatchExecutor.BatchResult<String> result = batchExecutor.execute(items, item -> item, (tx, item) -> {
+            if (item.equals("item-5")) {
+                throw new IllegalStateException("Invalid item: " + item);
+            }
+            return item;
+        });
+
+        // Then
+        assertThat(result.getFailureCount()).isEqualTo(1);
+        assertThat(result.isSuccess(5)).isFalse();
+        assertThat(result.getError(5)).hasMessage("Invalid item: item-5");
+        assertThat(IntStream.range(0, 8).filter(i -> i != 5).allMatch(result::isSuccess)).isTrue();
+        assertThat(result.getValue(4)).isEqualTo("item-4");
+    }
+
+    @Test
+    void execute_SameKeyStartsNewChunk() throws Exception {
+        // Given
+        List<String> items = List.of("a", "b", "a", "c");
+
+        // When
+        TransactionBatchExecutor.BatchResult<String> result = 
+            batchExecutor.execute(items, item -> item, (tx, item) -> item);
+
+        // Then
+        assertThat(result.getCommitCount()).isEqualTo(2);
+        assertThat(result.getFailureCount()).isZero();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.example.order.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TwoLevelCacheManager
+ */
+class TwoLevelCacheManagerTest {
+
+    private static final String CHANNEL = "order-cache-invalidation";
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private StringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager("orders");
+        redisTemplate = mock(StringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new TwoLevelCacheManager(remoteCacheManager, redisTemplate, CHANNEL, meterRegistry,
+            100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void get_RemoteHit_IsServedLocallyAfterwards() {
+        // Given
+        remoteCacheManager.getCache("orders").put("ORD-001", "order");
+        Cache cache = cacheManager.getCache("orders");
+
+        // When
+        Object first = cache.get("ORD-001").get();
+        Object second = cache.get("ORD-001").get();
+
+        // Then
+        assertThat(first).isEqualTo("order");
+        assertThat(second).isEqualTo("order");
+        assertThat(requests("l1", "hit")).isEqualTo(1);
+        assertThat(requests("l1", "miss")).isEqualTo(1);
+        assertThat(requests("l2", "hit")).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.cache.hit.ratio").tag("tier", "l1").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void evict_RemovesBothTiersAndPublishesInvalidation() {
+        // Given
+        Cache cache = cacheManager.getCache("orders");
+        cache.put("ORD-001", "order");
+
+        // When
+        cache.evict("ORD-001");
+
+        // Then
+        assertThat(cache.get("ORD-001")).isNull();
+        assertThat(remoteCacheManager.getCache("orders").get("ORD-001")).isNull();
+        verify(redisTemplate, times(2)).convertAndSend(eq(CHANNEL), contains("ORD-001"));
+    }
+
+    @Test
+    void onMessage_FromPeer_DropsOnlyLocalCopy() {
+        // Given
+        Cache cache = cacheManager.getCache("orders");
+        cache.put("ORD-001", "order");
+
+        // When
+        cacheManager.onMessage(message("peer-instance\norders\nORD-001"), null);
+
+        // Then
+        assertThat(cache.get("ORD-001").get()).isEqualTo("order");
+        assertThat(requests("l1", "miss")).isEqualTo(1);
+        assertThat(requests("l2", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void onMessage_OwnInvalidation_IsIgnored() {
+        // Given
+        Cache cache = cacheManager.getCache("orders");
+        cache.put("ORD-001", "order");
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), published.capture());
+
+        // When
+        cacheManager.onMessage(message(published.getValue()), null);
+
+        // Then
+        assertThat(cache.get("ORD-001").get()).isEqualTo("order");
+        assertThat(requests("l1", "hit")).isEqualTo(1);
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private double requests(String tier, String result) {
+        return meterRegistry.get("orders.cache.requests").tag("tier", tier).tag("result", result).counter().count();
+    }
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.order.integration;
 
 import com.example.order.OrderServiceApplication;
 import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.CursorPage;
 import com.example.order.dto.OrderResponse;
 import com.example.order.security.JwtUtil;
 import com.example.order.service.OrderProcessService;
@@ -21,6 +22,8 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -62,8 +65,8 @@ class ComprehensiveIntegrationTest {
             .thenReturn(mockResponse);
         when(orderProcessService.getOrder(anyString()))
             .thenReturn(Optional.of(mockResponse));
-        when(orderProcessService.getOrdersByCustomer(customerId))
-            .thenReturn(List.of(mockResponse));
+        when(orderProcessService.getOrdersByCustomer(eq(customerId), any(), any(), anyBoolean()))
+            .thenReturn(new CursorPage<>(List.of(mockResponse), null));
         
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
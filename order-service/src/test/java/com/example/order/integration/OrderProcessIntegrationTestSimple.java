@@ -2,6 +2,7 @@ package com.example.order.integration;
 
 import com.example.order.OrderServiceApplication;
 import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.CursorPage;
 import com.example.order.dto.OrderResponse;
 import com.example.order.entity.OrderStatus;
 import com.example.order.service.OrderProcessService;
@@ -24,6 +25,8 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.when;
 
 /**
@@ -103,8 +106,8 @@ class OrderProcessIntegrationTestSimple {
         String customerId = "CUST-001";
         List<OrderResponse> expectedResponse = List.of(createMockOrderResponse());
         
-        when(orderProcessService.getOrdersByCustomer(customerId))
-            .thenReturn(expectedResponse);
+        when(orderProcessService.getOrdersByCustomer(eq(customerId), any(), any(), anyBoolean()))
+            .thenReturn(new CursorPage<>(expectedResponse, null));
         
         // When
         ResponseEntity<OrderResponse[]> response = restTemplate.getForEntity(
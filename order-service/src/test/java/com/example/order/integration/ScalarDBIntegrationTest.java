@@ -141,7 +141,7 @@ class ScalarDBIntegrationTest {
 
         try {
             // When
-            List<Order> customerOrders = orderRepository.findByCustomerId(testOrder.getCustomerId(), transaction);
+            List<Order> customerOrders = orderRepository.findByCustomerId(testOrder.getCustomerId(), null, 20, transaction).getItems();
             transaction.commit();
 
             // Then
@@ -1,5 +1,6 @@
 package com.example.order.integration;
 
+import com.example.common.scalardb.ReadOnlyTransactionManager;
 import com.example.order.entity.Order;
 import com.example.order.entity.OrderItem;
 import com.example.order.entity.OrderStatus;
@@ -10,6 +11,8 @@ import com.scalar.db.api.DistributedTransactionManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
@@ -18,6 +21,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -45,6 +49,9 @@ class ScalarDBPerformanceTest {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private ReadOnlyTransactionManager readOnlyTransactionManager;
+
     private static final int CONCURRENT_TRANSACTIONS = 10;
     private static final int ORDERS_PER_TRANSACTION = 5;
 
@@ -125,7 +132,7 @@ class ScalarDBPerformanceTest {
         // Verify total orders created
         DistributedTransaction verificationTransaction = transactionManager.start();
         for (int i = 0; i < CONCURRENT_TRANSACTIONS; i++) {
-            List<Order> customerOrders = orderRepository.findByCustomerId("CUST-THREAD-" + i, verificationTransaction);
+            List<Order> customerOrders = orderRepository.findByCustomerId("CUST-THREAD-" + i, null, ORDERS_PER_TRANSACTION, verificationTransaction).getItems();
             assertThat(customerOrders).hasSize(ORDERS_PER_TRANSACTION);
         }
         verificationTransaction.commit();
@@ -176,6 +183,109 @@ class ScalarDBPerformanceTest {
         assertThat(totalItemsRetrieved).isEqualTo(allOrderItems.size());
     }
 
+    /**
+     * Compares serial and concurrent batch item reads; run with -Dtest.performance=true.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void batchOrderItemRetrieval_ConcurrentVsSerial_ReturnsSameItems(int orderCount) throws Exception {
+        // Given - orders with 3 items each, written in chunks to keep setup transactions small
+        List<Order> orders = createTestOrders(orderCount, "BATCH-" + orderCount);
+        for (int from = 0; from < orders.size(); from += 100) {
+            DistributedTransaction setupTransaction = transactionManager.start();
+            try {
+                for (Order order : orders.subList(from, Math.min(from + 100, orders.size()))) {
+                    orderRepository.create(order, setupTransaction);
+                    for (int i = 0; i < 3; i++) {
+                        orderItemRepository.create(createTestOrderItem(order.getOrderId(), i), setupTransaction);
+                    }
+                }
+                setupTransaction.commit();
+            } catch (Exception e) {
+                setupTransaction.abort();
+                throw e;
+            }
+        }
+        List<String> orderIds = orders.stream().map(Order::getOrderId).toList();
+
+        // When - one warm-up round per path, then a measured round
+        Map<String, List<OrderItem>> serialItems = null;
+        Map<String, List<OrderItem>> concurrentItems = null;
+        long serialNanos = 0;
+        long concurrentNanos = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            DistributedTransaction transaction = transactionManager.start();
+            serialItems = orderItemRepository.findByOrderIdsSerially(orderIds, transaction);
+            transaction.commit();
+            serialNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            concurrentItems = orderItemRepository.findByOrderIdsConcurrently(orderIds);
+            concurrentNanos = System.nanoTime() - start;
+        }
+
+        System.out.printf("findByOrderIds %d orders: serial %d ms, concurrent %d ms%n",
+                orderCount, TimeUnit.NANOSECONDS.toMillis(serialNanos), TimeUnit.NANOSECONDS.toMillis(concurrentNanos));
+
+        // Then
+        assertThat(concurrentItems.keySet()).containsExactlyElementsOf(serialItems.keySet());
+        for (String orderId : orderIds) {
+            assertThat(concurrentItems.get(orderId))
+                    .extracting(OrderItem::getProductId)
+                    .containsExactlyElementsOf(serialItems.get(orderId).stream().map(OrderItem::getProductId).toList());
+        }
+    }
+
+    @Test
+    void pointReads_ReadOnlyVsFullTransaction_ReturnSameOrders() throws Exception {
+        // Given
+        List<Order> orders = createTestOrders(200, "POINT");
+        DistributedTransaction setupTransaction = transactionManager.start();
+        try {
+            for (Order order : orders) {
+                orderRepository.create(order, setupTransaction);
+            }
+            setupTransaction.commit();
+        } catch (Exception e) {
+            setupTransaction.abort();
+            throw e;
+        }
+
+        // When - one warm-up round per path, then a measured round
+        List<Order> transactionalReads = new ArrayList<>();
+        List<Order> readOnlyReads = new ArrayList<>();
+        long transactionalNanos = 0;
+        long readOnlyNanos = 0;
+        for (int round = 0; round < 2; round++) {
+            transactionalReads.clear();
+            readOnlyReads.clear();
+
+            long start = System.nanoTime();
+            for (Order order : orders) {
+                DistributedTransaction transaction = transactionManager.start();
+                transactionalReads.add(orderRepository.findById(order.getOrderId(), transaction).orElseThrow());
+                transaction.commit();
+            }
+            transactionalNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (Order order : orders) {
+                DistributedTransaction transaction = readOnlyTransactionManager.start();
+                readOnlyReads.add(orderRepository.findById(order.getOrderId(), transaction).orElseThrow());
+                transaction.commit();
+            }
+            readOnlyNanos = System.nanoTime() - start;
+        }
+
+        System.out.printf("%d point reads: start/commit %d ms, read-only %d ms%n",
+                orders.size(), TimeUnit.NANOSECONDS.toMillis(transactionalNanos), TimeUnit.NANOSECONDS.toMillis(readOnlyNanos));
+
+        // Then
+        assertThat(readOnlyReads).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(transactionalReads);
+    }
+
     @Test
     void customerOrderLookup_SecondaryIndex_PerformsEfficiently() throws Exception {
         // Given - Create many orders for one customer
@@ -197,7 +307,7 @@ class ScalarDBPerformanceTest {
         long startTime = System.currentTimeMillis();
         DistributedTransaction transaction = transactionManager.start();
         
-        List<Order> customerOrders = orderRepository.findByCustomerId(customerId, transaction);
+        List<Order> customerOrders = orderRepository.findByCustomerId(customerId, null, orders.size(), transaction).getItems();
         
         transaction.commit();
         long duration = System.currentTimeMillis() - startTime;
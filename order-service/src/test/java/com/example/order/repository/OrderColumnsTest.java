@@ -0,0 +1,47 @@
+package com.example.order.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for OrderColumns
+ */
+class OrderColumnsTest {
+    
+    @Test
+    void toMinorUnits_RoundTrip_KeepsAmountAtScaleTwo() {
+        // Given
+        BigDecimal amount = new BigDecimal("1000.00");
+        
+        // When
+        long minorUnits = OrderColumns.toMinorUnits(amount);
+        
+        // Then
+        assertThat(minorUnits).isEqualTo(100000L);
+        assertThat(OrderColumns.fromMinorUnits(minorUnits).toString()).isEqualTo("1000.00");
+    }
+    
+    @Test
+    void toMinorUnits_MoreThanTwoDecimals_RoundsHalfEven() {
+        assertThat(OrderColumns.toMinorUnits(new BigDecimal("1.005"))).isEqualTo(100L);
+        assertThat(OrderColumns.toMinorUnits(new BigDecimal("1.015"))).isEqualTo(102L);
+        assertThat(OrderColumns.toMinorUnits(new BigDecimal("-1.019"))).isEqualTo(-102L);
+    }
+    
+    @Test
+    void toEpochMillis_RoundTrip_ReturnsSameDateTime() {
+        // Given
+        LocalDateTime dateTime = LocalDateTime.of(2024, 1, 15, 10, 30, 45, 123_000_000);
+        
+        // When
+        long epochMillis = OrderColumns.toEpochMillis(dateTime);
+        
+        // Then
+        assertThat(OrderColumns.fromEpochMillis(epochMillis)).isEqualTo(dateTime);
+        assertThat(OrderColumns.toLegacyTimestamp(epochMillis)).isEqualTo(String.valueOf(epochMillis / 1000));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,287 @@
+package com.example.order.repository;
+
+import com.example.order.entity.OrderItem;
+import com.scalar.db.api.Result;
+import com.scalar.db.io.Column;
+import com.scalar.db.io.DataType;
+import com.scalar.db.io.Key;
+import com.scalar.db.io.Value;
+import com.scalar.db.io.ValueVisitor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Compares ResultMapper with the Result.getValue based mapping it replaced on a 10k-row page
+ * 
+ * Run with: mvn test -Dtest.performance=true -Dtest=ResultMapperPerformanceTest
+ */
+@EnabledIfSystemProperty(named = "test.performance", matches = "true")
+class ResultMapperPerformanceTest {
+
+    private static final int ROWS = 10_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    private static final ResultMapper<OrderItem> MAPPER = ResultMapper.of(OrderItem::new)
+            .text("order_id", OrderItem::setOrderId)
+            .text("product_id", OrderItem::setProductId)
+            .text("product_name", OrderItem::setProductName)
+            .intValue("quantity", OrderItem::setQuantity)
+            .text("sku", OrderItem::setSku)
+            .text("notes", OrderItem::setNotes)
+            .build();
+
+    @Test
+    void mapTenThousandRows_ResultMapper_AllocatesLessAndMapsFaster() {
+        // Given
+        List<Result> rows = createRows();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapWithGetValue(rows);
+            MAPPER.mapAll(rows);
+        }
+
+        // When
+        Measurement legacy = measure(() -> mapWithGetValue(rows));
+        Measurement mapper = measure(() -> MAPPER.mapAll(rows));
+
+        // Then
+        System.out.printf("getValue mapping: %.0f rows/ms, %.1f bytes/row%n", legacy.rowsPerMilli(), legacy.bytesPerRow());
+        System.out.printf("ResultMapper:     %.0f rows/ms, %.1f bytes/row%n", mapper.rowsPerMilli(), mapper.bytesPerRow());
+        assertThat(MAPPER.mapAll(rows)).usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(mapWithGetValue(rows));
+        assertThat(mapper.bytesPerRow()).isLessThan(legacy.bytesPerRow());
+    }
+
+    private List<OrderItem> mapWithGetValue(List<Result> rows) {
+        List<OrderItem> items = new ArrayList<>(rows.size());
+        for (Result result : rows) {
+            OrderItem item = new OrderItem();
+            result.getValue("order_id").ifPresent(v -> item.setOrderId(v.getAsString().get()));
+            result.getValue("product_id").ifPresent(v -> item.setProductId(v.getAsString().get()));
+            result.getValue("product_name").ifPresent(v -> item.setProductName(v.getAsString().get()));
+            result.getValue("quantity").ifPresent(v -> item.setQuantity(v.getAsInt()));
+            result.getValue("sku").ifPresent(v -> item.setSku(v.getAsString().get()));
+            result.getValue("notes").ifPresent(v -> item.setNotes(v.getAsString().get()));
+            items.add(item);
+        }
+        return items;
+    }
+
+    private Measurement measure(Runnable mapping) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            mapping.run();
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Measurement(elapsedNanos, allocated);
+    }
+
+    private List<Result> createRows() {
+        List<Result> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Map<String, Object> columns = new HashMap<>();
+            columns.put("order_id", "ORDER-" + (i / 10));
+            columns.put("product_id", "PROD-" + i);
+            columns.put("product_name", "Product " + i);
+            columns.put("quantity", i % 5 + 1);
+            columns.put("unit_price_minor", 100000L);
+            columns.put("total_price_minor", 100000L * (i % 5 + 1));
+            columns.put("sku", "SKU-" + i);
+            columns.put("notes", "");
+            columns.put("created_at_ms", 1_700_000_000_000L + i);
+            rows.add(new MapResult(columns));
+        }
+        return rows;
+    }
+
+    /**
+     * Map-backed Result whose getValue wraps each column in a new Optional and Value,
+     * as the storage implementations do.
+     */
+    private static final class MapResult implements Result {
+        private final Map<String, Object> columns;
+
+        private MapResult(Map<String, Object> columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public Optional<Value<?>> getValue(String name) {
+            Object value = columns.get(name);
+            return value != null ? Optional.of(new ColumnValue(name, value)) : Optional.empty();
+        }
+
+        @Override
+        public boolean contains(String name) {
+            return columns.containsKey(name);
+        }
+
+        @Override
+        public boolean isNull(String name) {
+            return columns.get(name) == null;
+        }
+
+        @Override
+        public int getInt(String name) {
+            Object value = columns.get(name);
+            return value != null ? (Integer) value : 0;
+        }
+
+        @Override
+        public long getBigInt(String name) {
+            Object value = columns.get(name);
+            return value != null ? (Long) value : 0L;
+        }
+
+        @Override
+        public String getText(String name) {
+            return (String) columns.get(name);
+        }
+
+        @Override
+        public Object getAsObject(String name) {
+            return columns.get(name);
+        }
+
+        @Override
+        public Set<String> getContainedColumnNames() {
+            return columns.keySet();
+        }
+
+        @Override
+        public Optional<Key> getPartitionKey() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<Key> getClusteringKey() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, Value<?>> getValues() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean getBoolean(String name) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public float getFloat(String name) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public double getDouble(String name) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ByteBuffer getBlobAsByteBuffer(String name) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] getBlobAsBytes(String name) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, Column<?>> getColumns() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Stand-in for the ScalarDB Value classes, which need Guava on the classpath.
+     */
+    private static final class ColumnValue implements Value<Object> {
+        private final String name;
+        private final Object value;
+
+        private ColumnValue(String name, Object value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Value<Object> copyWith(String name) {
+            return new ColumnValue(name, value);
+        }
+
+        @Override
+        public void accept(ValueVisitor visitor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object get() {
+            return value;
+        }
+
+        @Override
+        public DataType getDataType() {
+            return value instanceof String ? DataType.TEXT : value instanceof Integer ? DataType.INT : DataType.BIGINT;
+        }
+
+        @Override
+        public int getAsInt() {
+            return (Integer) value;
+        }
+
+        @Override
+        public long getAsLong() {
+            return (Long) value;
+        }
+
+        @Override
+        public Optional<String> getAsString() {
+            return Optional.of((String) value);
+        }
+
+        @Override
+        public int compareTo(Value<Object> other) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class Measurement {
+        private final long elapsedNanos;
+        private final long allocatedBytes;
+
+        private Measurement(long elapsedNanos, long allocatedBytes) {
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        private double rowsPerMilli() {
+            return (double) ROWS * MEASURED_ROUNDS / (elapsedNanos / 1_000_000.0);
+        }
+
+        private double bytesPerRow() {
+            return (double) allocatedBytes / ((long) ROWS * MEASURED_ROUNDS);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.example.order.service;
+
+import com.example.order.dto.CursorPage;
+import com.example.order.dto.OrderResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CacheService
+ */
+class CacheServiceTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private CacheService cacheService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheService.ORDERS_CACHE, CacheService.CUSTOMERS_CACHE);
+        cacheService = new CacheService(mock(RedisTemplate.class), cacheManager,
+            Duration.ofMinutes(5), Duration.ofMinutes(15), 1.0, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void getOrder_ConcurrentMisses_LoadOnce() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CacheService.Loader<OrderResponse, RuntimeException> loader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            awaitQuietly(release);
+            return order("ORD-001");
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            // When
+            List<Future<OrderResponse>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cacheService.getOrder("ORD-001", loader)));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> cacheService.getOrder("ORD-001", loader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            for (Future<OrderResponse> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getOrderId()).isEqualTo("ORD-001");
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getOrder_LeaderFailsWithError_WaitersFailAndNextCallLoads() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // When
+            Future<OrderResponse> leader = executor.submit(() -> cacheService.getOrder("ORD-001", () -> {
+                loading.countDown();
+                awaitQuietly(release);
+                throw new AssertionError("loader failed");
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<OrderResponse> waiter = executor.submit(() -> cacheService.getOrder("ORD-001", () -> order("ORD-002")));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(AssertionError.class);
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(AssertionError.class);
+            assertThat(cacheService.getOrder("ORD-001", () -> order("ORD-001")).getOrderId()).isEqualTo("ORD-001");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getOrder_LeaderStuck_WaiterLoadsAfterCoalescedWait() throws Exception {
+        // Given
+        cacheService = new CacheService(mock(RedisTemplate.class), cacheManager,
+            Duration.ofMinutes(5), Duration.ofMinutes(15), 1.0, Duration.ofMillis(50));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            executor.submit(() -> cacheService.getOrder("ORD-001", () -> {
+                loading.countDown();
+                awaitQuietly(release);
+                return order("ORD-001");
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // When
+            OrderResponse result = cacheService.getOrder("ORD-001", () -> order("ORD-001"));
+
+            // Then
+            assertThat(result.getOrderId()).isEqualTo("ORD-001");
+            assertThat(release.getCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getOrder_CachedEntry_SkipsLoader() {
+        // Given
+        cacheService.putOrderToCache(order("ORD-001"));
+
+        // When
+        OrderResponse result = cacheService.getOrder("ORD-001", () -> {
+            throw new AssertionError("loader should not run");
+        });
+
+        // Then
+        assertThat(result.getOrderId()).isEqualTo("ORD-001");
+    }
+
+    @Test
+    void getOrder_EntryCloseToExpiry_RefreshesEarly() {
+        // Given an entry that expires shortly and took long to compute
+        cacheManager.getCache(CacheService.ORDERS_CACHE).put("ORD-001",
+            new CacheService.CachedValue(order("ORD-001"), System.currentTimeMillis() + 50, 60_000));
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cacheService.getOrder("ORD-001", () -> {
+            loads.incrementAndGet();
+            return order("ORD-001");
+        });
+
+        // Then
+        assertThat(loads.get()).isEqualTo(1);
+        CacheService.CachedValue refreshed = (CacheService.CachedValue)
+            cacheManager.getCache(CacheService.ORDERS_CACHE).get("ORD-001").get();
+        assertThat(refreshed.getExpiresAt()).isGreaterThan(System.currentTimeMillis() + 60_000);
+    }
+
+    @Test
+    void getOrder_EvictedDuringLoad_DoesNotCacheResult() {
+        // When
+        OrderResponse result = cacheService.getOrder("ORD-001", () -> {
+            cacheService.evictOrderFromCache("ORD-001");
+            return order("ORD-001");
+        });
+
+        // Then
+        assertThat(result.getOrderId()).isEqualTo("ORD-001");
+        assertThat(cacheManager.getCache(CacheService.ORDERS_CACHE).get("ORD-001")).isNull();
+    }
+
+    @Test
+    void getCustomerOrders_EmptyPage_IsNotCached() {
+        // When
+        cacheService.getCustomerOrders("CUST-001", CursorPage::empty);
+
+        // Then
+        assertThat(cacheManager.getCache(CacheService.CUSTOMERS_CACHE).get("CUST-001:first-page")).isNull();
+    }
+
+    @Test
+    void getCustomerOrders_FirstPage_CachedUntilEvicted() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CacheService.Loader<CursorPage<OrderResponse>, RuntimeException> loader = () -> {
+            loads.incrementAndGet();
+            return new CursorPage<>(List.of(order("ORD-001")), "next-token");
+        };
+
+        // When
+        cacheService.getCustomerOrders("CUST-001", loader);
+        CursorPage<OrderResponse> cached = cacheService.getCustomerOrders("CUST-001", loader);
+        cacheService.evictCustomerOrdersFromCache("CUST-001");
+        cacheService.getCustomerOrders("CUST-001", loader);
+
+        // Then
+        assertThat(cached.getNextCursor()).isEqualTo("next-token");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private static OrderResponse order(String orderId) {
+        OrderResponse response = new OrderResponse();
+        response.setOrderId(orderId);
+        return response;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
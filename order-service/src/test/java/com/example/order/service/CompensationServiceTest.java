@@ -3,21 +3,34 @@ package com.example.order.service;
 import com.example.order.client.InventoryServiceClient;
 import com.example.order.client.PaymentServiceClient;
 import com.example.order.client.ShippingServiceClient;
+import com.example.order.entity.CompensationTask;
 import com.example.order.entity.Order;
 import com.example.order.entity.OrderStatus;
+import com.example.order.repository.CompensationTaskRepository;
 import com.example.order.repository.OrderRepository;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -42,6 +55,16 @@ class CompensationServiceTest {
     @Mock
     private ShippingServiceClient shippingServiceClient;
     
+    @Mock
+    private CompensationTaskRepository compensationTaskRepository;
+    
+    @Spy
+    private CompensationRetryPolicy retryPolicy = 
+        new CompensationRetryPolicy(Duration.ofSeconds(1), Duration.ofMinutes(10), 5);
+    
+    @Mock
+    private MetricsService metricsService;
+    
     @Mock
     private DistributedTransaction transaction;
     
@@ -50,7 +73,7 @@ class CompensationServiceTest {
     
     @BeforeEach
     void setUp() throws Exception {
-        when(transactionManager.start()).thenReturn(transaction);
+        lenient().when(transactionManager.start()).thenReturn(transaction);
     }
     
     @Test
@@ -157,9 +180,147 @@ class CompensationServiceTest {
         verify(inventoryServiceClient).cancelReservation("RES-001");
         verify(paymentServiceClient).refundPayment(eq("PAY-001"), any());
         verify(shippingServiceClient).cancelShipment("SHIP-001");
+        verify(transaction, times(2)).commit();
+    }
+    
+    @Test
+    void compensateOrder_StepFails_QueuesOnlyFailedStepAfterReadCommitted() throws Exception {
+        // Given
+        Order order = createCompletedOrder();
+        when(orderRepository.findById(order.getOrderId(), transaction)).thenReturn(Optional.of(order));
+        doThrow(new RuntimeException("Payment service is currently unavailable"))
+            .when(paymentServiceClient).refundPayment(any(), any());
+        
+        // When
+        long before = System.currentTimeMillis();
+        compensationService.compensateOrder(order.getOrderId());
+        
+        // Then
+        ArgumentCaptor<CompensationTask> queued = ArgumentCaptor.forClass(CompensationTask.class);
+        verify(compensationTaskRepository).save(queued.capture(), eq(transaction));
+        CompensationTask task = queued.getValue();
+        assertThat(task.getTaskId()).isEqualTo("ORD-001:PAYMENT_REFUND");
+        assertThat(task.getTargetId()).isEqualTo("PAY-001");
+        assertThat(task.getAmount()).isEqualByComparingTo("1500.00");
+        assertThat(task.getAttempts()).isEqualTo(1);
+        assertThat(task.getNextRunAt()).isGreaterThan(before);
+        assertThat(task.getLastError()).contains("unavailable");
+        InOrder inOrder = inOrder(transaction, paymentServiceClient, compensationTaskRepository);
+        inOrder.verify(transaction).commit();
+        inOrder.verify(paymentServiceClient).refundPayment(any(), any());
+        inOrder.verify(compensationTaskRepository).save(any(), eq(transaction));
+        inOrder.verify(transaction).commit();
+    }
+    
+    @Test
+    void compensateOrder_OrderReadFails_QueuesWholeOrder() throws Exception {
+        // Given
+        when(orderRepository.findById("ORD-001", transaction)).thenThrow(new RuntimeException("Storage unavailable"));
+        
+        // When
+        compensationService.compensateOrder("ORD-001");
+        
+        // Then
+        ArgumentCaptor<CompensationTask> queued = ArgumentCaptor.forClass(CompensationTask.class);
+        verify(compensationTaskRepository).save(queued.capture(), eq(transaction));
+        assertThat(queued.getValue().getStepEnum()).isEqualTo(CompensationTask.Step.ORDER);
+        verify(inventoryServiceClient, never()).cancelReservation(any());
+    }
+    
+    @Test
+    void compensateOrder_WithStepExecutor_RunsStepsConcurrently() throws Exception {
+        // Given each step waits until all three are in flight
+        ExecutorService stepExecutor = Executors.newFixedThreadPool(3);
+        ReflectionTestUtils.setField(compensationService, "stepExecutor", stepExecutor);
+        Order order = createCompletedOrder();
+        when(orderRepository.findById(order.getOrderId(), transaction)).thenReturn(Optional.of(order));
+        CountDownLatch inFlight = new CountDownLatch(3);
+        doAnswer(invocation -> awaitAll(inFlight)).when(shippingServiceClient).cancelShipment(any());
+        doAnswer(invocation -> awaitAll(inFlight)).when(paymentServiceClient).refundPayment(any(), any());
+        doAnswer(invocation -> awaitAll(inFlight)).when(inventoryServiceClient).cancelReservation(any());
+        
+        try {
+            // When
+            compensationService.compensateOrder(order.getOrderId());
+            
+            // Then
+            verify(compensationTaskRepository, never()).save(any(), any());
+            verify(metricsService).recordCompensationTime(any(), eq("ORD-001"), eq("completed"));
+            verify(transaction).commit();
+        } finally {
+            stepExecutor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void queueCompensation_QueuesWholeOrderDueNow() throws Exception {
+        // When
+        long before = System.currentTimeMillis();
+        compensationService.queueCompensation("ORD-001");
+        
+        // Then
+        ArgumentCaptor<CompensationTask> queued = ArgumentCaptor.forClass(CompensationTask.class);
+        verify(compensationTaskRepository).save(queued.capture(), eq(transaction));
+        assertThat(queued.getValue().getStepEnum()).isEqualTo(CompensationTask.Step.ORDER);
+        assertThat(queued.getValue().getNextRunAt()).isBetween(before, System.currentTimeMillis());
+        verify(inventoryServiceClient, never()).cancelReservation(any());
         verify(transaction).commit();
     }
     
+    @Test
+    void executeStep_PaymentAlreadyRefunded_Succeeds() {
+        // Given
+        CompensationTask task = new CompensationTask("ORD-001", CompensationTask.Step.PAYMENT_REFUND, "PAY-001");
+        task.setAmount(new BigDecimal("1500.00"));
+        doThrow(new RuntimeException("Payment cannot be refunded in status: REFUNDED"))
+            .when(paymentServiceClient).refundPayment(eq("PAY-001"), any());
+        PaymentServiceClient.PaymentResponse payment = new PaymentServiceClient.PaymentResponse();
+        payment.setStatus("REFUNDED");
+        when(paymentServiceClient.getPayment("PAY-001")).thenReturn(payment);
+        
+        // When / Then
+        assertThatCode(() -> compensationService.executeStep(task)).doesNotThrowAnyException();
+    }
+    
+    @Test
+    void executeStep_PaymentNotRefunded_Throws() {
+        // Given
+        CompensationTask task = new CompensationTask("ORD-001", CompensationTask.Step.PAYMENT_REFUND, "PAY-001");
+        task.setAmount(new BigDecimal("1500.00"));
+        doThrow(new RuntimeException("Payment service is currently unavailable"))
+            .when(paymentServiceClient).refundPayment(eq("PAY-001"), any());
+        PaymentServiceClient.PaymentResponse payment = new PaymentServiceClient.PaymentResponse();
+        payment.setStatus("COMPLETED");
+        when(paymentServiceClient.getPayment("PAY-001")).thenReturn(payment);
+        
+        // When / Then
+        assertThatThrownBy(() -> compensationService.executeStep(task))
+            .hasMessageContaining("unavailable");
+    }
+    
+    @Test
+    void executeStep_ReservationAlreadyCancelled_Succeeds() {
+        // Given
+        CompensationTask task = new CompensationTask("ORD-001", CompensationTask.Step.RESERVATION_CANCEL, "RES-001");
+        doThrow(new RuntimeException("Reservation cannot be released in status CANCELLED: RES-001"))
+            .when(inventoryServiceClient).cancelReservation("RES-001");
+        InventoryServiceClient.InventoryReservationResponse reservation = new InventoryServiceClient.InventoryReservationResponse();
+        reservation.setReservationId("RES-001");
+        reservation.setStatus("CANCELLED");
+        when(inventoryServiceClient.getReservationsByOrder("ORD-001")).thenReturn(List.of(reservation));
+        
+        // When / Then
+        assertThatCode(() -> compensationService.executeStep(task)).doesNotThrowAnyException();
+    }
+    
+    private static Object awaitAll(CountDownLatch inFlight) throws InterruptedException {
+        inFlight.countDown();
+        if (!inFlight.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Compensation steps did not run concurrently");
+        }
+        return null;
+    }
+    
     private Order createCompletedOrder() {
         Order order = new Order("ORD-001", "CUST-001");
         order.setStatusEnum(OrderStatus.SHIPPED);
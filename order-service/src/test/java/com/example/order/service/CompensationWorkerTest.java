@@ -0,0 +1,179 @@
+package com.example.order.service;
+
+import com.example.order.entity.CompensationTask;
+import com.example.order.repository.CompensationTaskRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CompensationWorker
+ */
+@ExtendWith(MockitoExtension.class)
+class CompensationWorkerTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long LEASE_MILLIS = 60_000;
+
+    @Mock
+    private DistributedTransactionManager transactionManager;
+
+    @Mock
+    private DistributedTransaction transaction;
+
+    @Mock
+    private CompensationTaskRepository compensationTaskRepository;
+
+    @Mock
+    private CompensationService compensationService;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CompensationWorker worker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        CompensationRetryPolicy retryPolicy = new CompensationRetryPolicy(Duration.ofSeconds(1), Duration.ofMinutes(10), 3);
+        worker = new CompensationWorker(transactionManager, compensationTaskRepository, compensationService,
+            retryPolicy, metricsService, meterRegistry, Duration.ofMillis(LEASE_MILLIS), 2, 1, Duration.ofSeconds(5));
+        lenient().when(transactionManager.start()).thenReturn(transaction);
+        lenient().when(compensationTaskRepository.findByBucket(anyInt(), eq(transaction))).thenReturn(List.of());
+    }
+
+    @Test
+    void claimDueTasks_LeasesDueTasksUpToBatchSize() throws Exception {
+        // Given
+        CompensationTask first = task("ORD-001", 0, NOW - 1000);
+        CompensationTask second = task("ORD-002", 0, NOW);
+        CompensationTask third = task("ORD-003", 0, NOW - 500);
+        CompensationTask notDue = task("ORD-004", 0, NOW + 1000);
+        CompensationTask failed = task("ORD-005", 3, NOW - 1000);
+        failed.setStatus(CompensationTask.Status.FAILED.name());
+        when(compensationTaskRepository.findByBucket(eq(0), eq(transaction)))
+            .thenReturn(List.of(first, second, third, notDue, failed));
+
+        // When
+        List<CompensationTask> claimed = worker.claimDueTasks(NOW);
+
+        // Then
+        assertThat(claimed).extracting(CompensationTask::getOrderId).containsExactly("ORD-001", "ORD-002");
+        assertThat(claimed).allSatisfy(task -> {
+            assertThat(task.getLeaseOwner()).isNotNull();
+            assertThat(task.getAttempts()).isEqualTo(1);
+            assertThat(task.getNextRunAt()).isEqualTo(NOW + LEASE_MILLIS);
+        });
+        verify(compensationTaskRepository, times(2)).save(any(), eq(transaction));
+        assertThat(meterRegistry.get("orders.compensation.queue.depth").gauge().value()).isEqualTo(4);
+        assertThat(meterRegistry.get("orders.compensation.queue.failed").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.compensation.queue.oldest.age").gauge().value()).isEqualTo(60);
+    }
+
+    @Test
+    void process_StepSucceeds_DeletesTask() throws Exception {
+        // Given
+        CompensationTask task = claim(task("ORD-001", 0, NOW));
+
+        // When
+        worker.process(task);
+
+        // Then
+        verify(compensationService).executeStep(task);
+        verify(compensationTaskRepository).delete(task, transaction);
+        verify(metricsService).recordCompensationExecution("ORD-001", "RESERVATION_CANCEL", true);
+    }
+
+    @Test
+    void process_StepFails_ReschedulesWithBackoff() throws Exception {
+        // Given
+        CompensationTask task = claim(task("ORD-001", 1, NOW));
+        doThrow(new RuntimeException("Inventory service is currently unavailable"))
+            .when(compensationService).executeStep(task);
+
+        // When
+        long before = System.currentTimeMillis();
+        worker.process(task);
+
+        // Then attempt 2 waits between half and all of 2s
+        verify(compensationTaskRepository, never()).delete(any(), any());
+        assertThat(task.isPending()).isTrue();
+        assertThat(task.getLeaseOwner()).isNull();
+        assertThat(task.getLastError()).contains("unavailable");
+        assertThat(task.getNextRunAt()).isBetween(before + 1000, System.currentTimeMillis() + 2000);
+        verify(metricsService).recordCompensationExecution("ORD-001", "RESERVATION_CANCEL", false);
+    }
+
+    @Test
+    void process_LastAttemptFails_MarksTaskFailed() throws Exception {
+        // Given
+        CompensationTask task = claim(task("ORD-001", 2, NOW));
+        doThrow(new RuntimeException("Inventory service is currently unavailable"))
+            .when(compensationService).executeStep(task);
+
+        // When
+        worker.process(task);
+
+        // Then
+        assertThat(task.getAttempts()).isEqualTo(3);
+        assertThat(task.getStatus()).isEqualTo(CompensationTask.Status.FAILED.name());
+        verify(compensationTaskRepository, atLeastOnce()).save(task, transaction);
+    }
+
+    @Test
+    void process_LeaseTakenOver_LeavesTaskAlone() throws Exception {
+        // Given
+        CompensationTask task = claim(task("ORD-001", 0, NOW));
+        CompensationTask reclaimed = task("ORD-001", 2, NOW);
+        reclaimed.setLeaseOwner("other-instance");
+        when(compensationTaskRepository.findById(task.getTaskId(), transaction)).thenReturn(Optional.of(reclaimed));
+
+        // When
+        worker.process(task);
+
+        // Then
+        verify(compensationTaskRepository, never()).delete(any(), any());
+    }
+
+    @Test
+    void retryPolicy_DelayGrowsExponentiallyUpToCap() {
+        // Given
+        CompensationRetryPolicy policy = new CompensationRetryPolicy(Duration.ofSeconds(1), Duration.ofSeconds(30), 10);
+
+        // Then
+        assertThat(policy.nextDelayMillis(1)).isBetween(500L, 1000L);
+        assertThat(policy.nextDelayMillis(4)).isBetween(4000L, 8000L);
+        assertThat(policy.nextDelayMillis(40)).isBetween(15_000L, 30_000L);
+        assertThat(policy.isExhausted(9)).isFalse();
+        assertThat(policy.isExhausted(10)).isTrue();
+    }
+
+    private CompensationTask claim(CompensationTask task) throws Exception {
+        when(compensationTaskRepository.findByBucket(eq(0), eq(transaction))).thenReturn(List.of(task));
+        assertThat(worker.claimDueTasks(NOW)).containsExactly(task);
+        when(compensationTaskRepository.findById(task.getTaskId(), transaction)).thenReturn(Optional.of(task));
+        return task;
+    }
+
+    private static CompensationTask task(String orderId, int attempts, long nextRunAt) {
+        CompensationTask task = new CompensationTask(orderId, CompensationTask.Step.RESERVATION_CANCEL, "RES-" + orderId);
+        task.setAttempts(attempts);
+        task.setNextRunAt(nextRunAt);
+        task.setCreatedAt(NOW - 60_000);
+        return task;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.example.order.service;
+
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderItemRepository;
+import com.example.order.repository.OrderRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderColumnMigration
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderColumnMigrationTest {
+
+    @Mock
+    private DistributedTransactionManager transactionManager;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private DistributedTransaction transaction;
+
+    private OrderColumnMigration migration;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(transactionManager.start()).thenReturn(transaction);
+        migration = new OrderColumnMigration(transactionManager, orderRepository, orderItemRepository, 100);
+    }
+
+    @Test
+    void run_UnreadableLegacyAmount_SkipsOrderAndMigratesRestOfChunk() throws Exception {
+        // Given
+        Order good = new Order("ORD-002", "CUST-001");
+        when(orderRepository.findAllOrderIds(transaction)).thenReturn(List.of("ORD-001", "ORD-002"));
+        when(orderRepository.findById("ORD-001", transaction)).thenThrow(new NumberFormatException("abc"));
+        when(orderRepository.findById("ORD-002", transaction)).thenReturn(Optional.of(good));
+        when(orderItemRepository.findByOrderId("ORD-002", transaction)).thenReturn(List.of());
+
+        // When
+        migration.run(null);
+
+        // Then
+        verify(orderRepository).writeTypedColumns(good, transaction);
+        verify(orderRepository, times(1)).writeTypedColumns(any(), any());
+        verify(transaction, times(2)).commit();
+        verify(transaction, never()).abort();
+    }
+}
\ No newline at end of file
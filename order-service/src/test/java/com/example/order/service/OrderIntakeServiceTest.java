@@ -0,0 +1,201 @@
+package com.example.order.service;
+
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.OrderResponse;
+import com.example.order.entity.Order;
+import com.example.order.exception.OrderErrorCode;
+import com.example.order.exception.OrderIntakeRejectedException;
+import com.example.order.exception.OrderProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderIntakeService
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderIntakeServiceTest {
+
+    @Mock
+    private OrderProcessService orderProcessService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger orderIds = new AtomicInteger();
+    private OrderIntakeService intakeService;
+
+    @AfterEach
+    void tearDown() {
+        if (intakeService != null) {
+            intakeService.shutdown();
+        }
+    }
+
+    @Test
+    void submit_AcceptsAndProcessesOnWorker() throws Exception {
+        // Given
+        intakeService = intakeService(2, 10);
+        stubAccept();
+        CountDownLatch processed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            processed.countDown();
+            return null;
+        }).when(orderProcessService).processAcceptedOrder("ORD-1");
+
+        // When
+        OrderResponse accepted = intakeService.submit(request("STANDARD"));
+
+        // Then
+        assertThat(accepted.getOrderId()).isEqualTo("ORD-1");
+        assertThat(processed.await(5, TimeUnit.SECONDS)).isTrue();
+        await(() -> intakeService.getPending() == 0);
+    }
+
+    @Test
+    void submit_AtCapacity_RejectsWithRetryAfterWithoutWriting() throws Exception {
+        // Given
+        intakeService = intakeService(1, 2);
+        stubAccept();
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(orderProcessService).processAcceptedOrder(anyString());
+        intakeService.submit(request("STANDARD"));
+        intakeService.submit(request("STANDARD"));
+
+        // When & Then
+        assertThatThrownBy(() -> intakeService.submit(request("STANDARD")))
+            .isInstanceOf(OrderIntakeRejectedException.class)
+            .hasFieldOrPropertyWithValue("errorCode", OrderErrorCode.INTAKE_AT_CAPACITY)
+            .hasFieldOrPropertyWithValue("retryAfter", Duration.ofSeconds(5));
+        verify(orderProcessService, times(2)).acceptOrder(any());
+        assertThat(meterRegistry.counter("orders.intake.rejected").count()).isEqualTo(1.0);
+
+        release.countDown();
+        await(() -> intakeService.getPending() == 0);
+        assertThatCode(() -> intakeService.submit(request("STANDARD"))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void submit_AcceptFails_ReleasesSlot() throws Exception {
+        // Given
+        intakeService = intakeService(1, 1);
+        when(orderProcessService.acceptOrder(any())).thenThrow(
+            new OrderProcessingException(OrderErrorCode.SYSTEM_ERROR, "UNKNOWN", "Database unavailable"));
+
+        // When & Then
+        assertThatThrownBy(() -> intakeService.submit(request("STANDARD")))
+            .isInstanceOf(OrderProcessingException.class)
+            .isNotInstanceOf(OrderIntakeRejectedException.class);
+        assertThat(intakeService.getPending()).isZero();
+        verify(orderProcessService, never()).processAcceptedOrder(anyString());
+    }
+
+    @Test
+    void submit_ExpressOrdersOvertakeQueuedStandardOrders() throws Exception {
+        // Given
+        intakeService = intakeService(1, 10);
+        stubAccept();
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> processed = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            String orderId = invocation.getArgument(0);
+            if ("ORD-1".equals(orderId)) {
+                firstRunning.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            processed.add(orderId);
+            return null;
+        }).when(orderProcessService).processAcceptedOrder(anyString());
+        intakeService.submit(request("STANDARD"));
+        assertThat(firstRunning.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        intakeService.submit(request("STANDARD"));
+        intakeService.submit(request("EXPRESS"));
+        intakeService.submit(request("STANDARD"));
+        intakeService.submit(request("OVERNIGHT"));
+        release.countDown();
+
+        // Then
+        await(() -> processed.size() == 5);
+        assertThat(processed).containsExactly("ORD-1", "ORD-3", "ORD-5", "ORD-2", "ORD-4");
+    }
+
+    @Test
+    void isQueued_UntilAWorkerTakesTheOrder() throws Exception {
+        // Given
+        intakeService = intakeService(1, 10);
+        stubAccept();
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if ("ORD-1".equals(invocation.getArgument(0))) {
+                firstRunning.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(orderProcessService).processAcceptedOrder(anyString());
+        intakeService.submit(request("STANDARD"));
+        assertThat(firstRunning.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        intakeService.submit(request("STANDARD"));
+
+        // Then
+        assertThat(intakeService.isQueued("ORD-1")).isFalse();
+        assertThat(intakeService.isQueued("ORD-2")).isTrue();
+        release.countDown();
+        await(() -> intakeService.getPending() == 0);
+        assertThat(intakeService.isQueued("ORD-2")).isFalse();
+    }
+
+    @Test
+    void priorityOf_ExpressShippingMethods() {
+        assertThat(OrderIntakeService.priorityOf(request("express"))).isEqualTo(OrderIntakeService.Priority.EXPRESS);
+        assertThat(OrderIntakeService.priorityOf(request("OVERNIGHT"))).isEqualTo(OrderIntakeService.Priority.EXPRESS);
+        assertThat(OrderIntakeService.priorityOf(request("STANDARD"))).isEqualTo(OrderIntakeService.Priority.STANDARD);
+    }
+
+    private OrderIntakeService intakeService(int workers, int maxPending) {
+        return new OrderIntakeService(orderProcessService, meterRegistry, workers, maxPending, Duration.ofSeconds(5));
+    }
+
+    private void stubAccept() throws Exception {
+        when(orderProcessService.acceptOrder(any())).thenAnswer(invocation ->
+            new OrderResponse(new Order("ORD-" + orderIds.incrementAndGet(), "CUST-001"), List.of()));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static CreateOrderRequest request(String shippingMethod) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setCustomerId("CUST-001");
+        CreateOrderRequest.ShippingInfo shippingInfo = new CreateOrderRequest.ShippingInfo();
+        shippingInfo.setShippingMethod(shippingMethod);
+        request.setShippingInfo(shippingInfo);
+        return request;
+    }
+}
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.example.order.service;
 
+import com.example.common.outbox.OutboxRepository;
+import com.example.common.scalardb.ReadOnlyTransactionManager;
 import com.example.order.dto.CreateOrderRequest;
+import com.example.order.dto.CursorPage;
 import com.example.order.dto.OrderResponse;
 import com.example.order.entity.Order;
 import com.example.order.entity.OrderItem;
@@ -21,9 +24,11 @@ import com.scalar.db.api.DistributedTransactionManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -45,12 +50,18 @@ class OrderProcessServiceTest {
     @Mock
     private DistributedTransactionManager transactionManager;
     
+    @Mock
+    private ReadOnlyTransactionManager readOnlyTransactionManager;
+    
     @Mock
     private OrderRepository orderRepository;
     
     @Mock
     private OrderItemRepository orderItemRepository;
     
+    @Mock
+    private OutboxRepository outboxRepository;
+    
     @Mock
     private InventoryServiceClient inventoryServiceClient;
     
@@ -63,6 +74,9 @@ class OrderProcessServiceTest {
     @Mock
     private CompensationService compensationService;
     
+    @Mock
+    private OrderSagaOrchestrator sagaOrchestrator;
+    
     @Mock
     private CacheService cacheService;
     
@@ -81,19 +95,27 @@ class OrderProcessServiceTest {
     void setUp() throws Exception {
         orderProcessService = new OrderProcessService(
             transactionManager,
+            readOnlyTransactionManager,
             orderRepository,
             orderItemRepository,
+            outboxRepository,
             inventoryServiceClient,
             paymentServiceClient,
             shippingServiceClient,
             compensationService,
+            sagaOrchestrator,
             sensitiveDataFilter,
             cacheService,
             metricsService
         );
     
         lenient().when(transactionManager.start()).thenReturn(transaction);
+        lenient().when(readOnlyTransactionManager.start()).thenReturn(transaction);
         lenient().when(sensitiveDataFilter.sanitizeForLogging(any())).thenReturn("sanitized-data");
+        lenient().when(cacheService.getOrder(anyString(), any()))
+            .thenAnswer(invocation -> invocation.<CacheService.Loader<?, ?>>getArgument(1).load());
+        lenient().when(cacheService.getCustomerOrders(anyString(), any()))
+            .thenAnswer(invocation -> invocation.<CacheService.Loader<?, ?>>getArgument(1).load());
     }
     
     @Test
@@ -112,10 +134,87 @@ class OrderProcessServiceTest {
         
         verify(orderRepository).create(any(Order.class), eq(transaction));
         verify(orderItemRepository).create(any(OrderItem.class), eq(transaction));
+        verify(outboxRepository).append(eq(OrderProcessService.ORDER_AGGREGATE), eq(result.getOrderId()),
+            eq("OrderCreated"), anyMap(), eq(transaction));
         verify(transaction).commit();
+        verify(sagaOrchestrator).start(eq(result.getOrderId()), eq(request), eq(transaction));
+        verify(sagaOrchestrator).run(result.getOrderId());
         verify(sensitiveDataFilter).sanitizeForLogging(request);
     }
     
+    @Test
+    void createOrder_SagaCompletes_ReturnsOrderAsSagaLeftIt() throws Exception {
+        // Given
+        CreateOrderRequest request = createTestOrderRequest();
+        request.getItems().get(0).setQuantity(3);
+        when(sagaOrchestrator.run(anyString())).thenAnswer(invocation -> {
+            Order shipped = createTestOrder();
+            shipped.setOrderId(invocation.getArgument(0));
+            shipped.setStatusEnum(OrderStatus.SHIPPED);
+            shipped.setShipmentId("SHIP-001");
+            return shipped;
+        });
+        
+        // When
+        OrderResponse result = orderProcessService.createOrder(request);
+        
+        // Then
+        assertThat(result.getStatus()).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getItems().get(0).getQuantity()).isEqualTo(3);
+        
+        InOrder inOrder = inOrder(sagaOrchestrator, transaction);
+        inOrder.verify(sagaOrchestrator).start(eq(result.getOrderId()), eq(request), eq(transaction));
+        inOrder.verify(transaction).commit();
+        inOrder.verify(sagaOrchestrator).run(result.getOrderId());
+    }
+    
+    @Test
+    void acceptOrder_PersistsPendingOrderWithoutRunningSaga() throws Exception {
+        // Given
+        CreateOrderRequest request = createTestOrderRequest();
+        
+        // When
+        OrderResponse result = orderProcessService.acceptOrder(request);
+        
+        // Then
+        assertThat(result.getStatus()).isEqualTo(OrderStatus.PENDING);
+        verify(orderRepository).create(any(Order.class), eq(transaction));
+        verify(sagaOrchestrator).start(eq(result.getOrderId()), eq(request), eq(transaction));
+        verify(transaction).commit();
+        verify(sagaOrchestrator, never()).run(anyString());
+        verify(cacheService).putOrderToCache(result);
+        verifyNoInteractions(inventoryServiceClient, paymentServiceClient, shippingServiceClient);
+    }
+    
+    @Test
+    void acceptOrder_TransactionFailure_AbortsAndThrows() throws Exception {
+        // Given
+        CreateOrderRequest request = createTestOrderRequest();
+        doThrow(new RuntimeException("Transaction failed")).when(orderRepository).create(any(Order.class), eq(transaction));
+        
+        // When & Then
+        assertThatThrownBy(() -> orderProcessService.acceptOrder(request))
+            .isInstanceOf(OrderProcessingException.class)
+            .hasFieldOrPropertyWithValue("errorCode", OrderErrorCode.SYSTEM_ERROR);
+        verify(transaction).abort();
+        verify(cacheService, never()).putOrderToCache(any());
+    }
+    
+    @Test
+    void processAcceptedOrder_RunsSagaAndEvictsCachedOrder() throws Exception {
+        // Given
+        Order shipped = createTestOrder();
+        when(sagaOrchestrator.run("ORD-001")).thenReturn(shipped);
+        
+        // When
+        orderProcessService.processAcceptedOrder("ORD-001");
+        
+        // Then
+        verify(cacheService).evictOrderFromCache("ORD-001");
+        verify(cacheService).evictCustomerOrdersFromCache("CUST-001");
+    }
+    
     @Test
     void createOrder_TransactionFailure_ThrowsOrderProcessingException() throws Exception {
         // Given
@@ -190,6 +289,21 @@ class OrderProcessServiceTest {
         verify(transaction, times(1)).commit();
     }
     
+    @Test
+    void getOrder_ReadsThroughReadOnlyTransaction() throws Exception {
+        // Given
+        String orderId = "ORD-001";
+        when(orderRepository.findById(orderId, transaction)).thenReturn(Optional.of(createTestOrder()));
+        when(orderItemRepository.findByOrderId(orderId, transaction)).thenReturn(createTestOrderItems());
+        
+        // When
+        orderProcessService.getOrder(orderId);
+        
+        // Then
+        verify(readOnlyTransactionManager).start();
+        verify(transactionManager, never()).start();
+    }
+    
     @Test
     void cancelOrder_Success() throws Exception {
         // Given
@@ -205,10 +319,31 @@ class OrderProcessServiceTest {
         // Then
         verify(orderRepository).findById(orderId, transaction);
         verify(orderRepository).update(any(Order.class), eq(transaction));
+        verify(outboxRepository).append(eq(OrderProcessService.ORDER_AGGREGATE), eq(orderId),
+            eq("OrderCancelled"), anyMap(), eq(transaction));
         verify(compensationService).compensateOrderAsync(orderId);
         verify(transaction, times(1)).commit();
     }
     
+    @Test
+    void cancelOrder_CompensationExecutorSaturated_QueuesCompensation() throws Exception {
+        // Given
+        String orderId = "ORD-001";
+        Order order = createTestOrder();
+        order.setStatusEnum(OrderStatus.PAYMENT_COMPLETED);
+        
+        when(orderRepository.findById(orderId, transaction)).thenReturn(Optional.of(order));
+        when(compensationService.compensateOrderAsync(orderId)).thenThrow(new TaskRejectedException("queue full"));
+        
+        // When
+        orderProcessService.cancelOrder(orderId);
+        
+        // Then
+        verify(compensationService).queueCompensation(orderId);
+        verify(transaction, times(1)).commit();
+        verify(transaction, never()).abort();
+    }
+    
     @Test
     void cancelOrder_OrderNotFound_ThrowsException() throws Exception {
         // Given
@@ -247,24 +382,84 @@ class OrderProcessServiceTest {
     }
     
     @Test
-    void getOrdersByCustomer_Success() throws Exception {
+    void cancelOrder_SagaInFlight_ThrowsWithoutCancelling() throws Exception {
+        // Given
+        String orderId = "ORD-001";
+        Order order = createTestOrder();
+        order.setStatusEnum(OrderStatus.CONFIRMED);
+        
+        when(orderRepository.findById(orderId, transaction)).thenReturn(Optional.of(order));
+        when(sagaOrchestrator.isInFlight(orderId, transaction)).thenReturn(true);
+        
+        // When & Then
+        assertThatThrownBy(() -> orderProcessService.cancelOrder(orderId))
+            .isInstanceOf(OrderProcessingException.class)
+            .hasFieldOrPropertyWithValue("errorCode", OrderErrorCode.ORDER_IN_PROGRESS)
+            .hasMessageContaining("being processed");
+        
+        verify(orderRepository, never()).update(any(Order.class), any());
+        verify(compensationService, never()).compensateOrderAsync(anyString());
+        verify(transaction, never()).commit();
+    }
+    
+    @Test
+    void getOrdersByCustomer_Paged_ClampsLimitAndPassesCursor() throws Exception {
         // Given
         String customerId = "CUST-001";
+        String cursor = CursorPage.encodeCursor("1700000000");
         List<Order> orders = List.of(createTestOrder());
-        List<OrderItem> orderItems = createTestOrderItems();
         
-        when(orderRepository.findByCustomerId(customerId, transaction)).thenReturn(orders);
-        when(orderItemRepository.findByOrderIds(any(), eq(transaction))).thenReturn(Map.of("ORD-001", orderItems));
+        when(orderRepository.findByCustomerId(customerId, cursor, 100, transaction))
+            .thenReturn(new CursorPage<>(orders, "next-token"));
+        when(orderItemRepository.findByOrderIds(any(), eq(transaction))).thenReturn(Map.of("ORD-001", createTestOrderItems()));
         
         // When
-        List<OrderResponse> result = orderProcessService.getOrdersByCustomer(customerId);
+        CursorPage<OrderResponse> result = orderProcessService.getOrdersByCustomer(customerId, cursor, 5000, true);
         
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getCustomerId()).isEqualTo(customerId);
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getNextCursor()).isEqualTo("next-token");
+        verify(orderRepository).findByCustomerId(customerId, cursor, 100, transaction);
+        verify(cacheService, never()).getCustomerOrders(anyString(), any());
+        verify(transaction, times(1)).commit();
+    }
+    
+    @Test
+    void getOrdersByCustomer_Paged_ServesSummariesWithoutItemReads() throws Exception {
+        // Given
+        String customerId = "CUST-001";
+        Order summary = createTestOrder();
+        summary.setItemCount(3);
+        
+        when(orderRepository.findByCustomerId(customerId, null, 20, transaction))
+            .thenReturn(new CursorPage<>(List.of(summary), null));
         
-        verify(orderRepository).findByCustomerId(customerId, transaction);
-        verify(orderItemRepository).findByOrderIds(any(), eq(transaction));
+        // When
+        CursorPage<OrderResponse> result = orderProcessService.getOrdersByCustomer(customerId, null, null, false);
+        
+        // Then
+        assertThat(result.getItems()).hasSize(1);
+        assertThat(result.getItems().get(0).getItemCount()).isEqualTo(3);
+        assertThat(result.getItems().get(0).getItems()).isEmpty();
+        verify(cacheService).getCustomerOrders(eq(customerId), any());
+        verify(orderItemRepository, never()).findByOrderIds(any(), any());
+        verify(transaction, times(1)).commit();
+    }
+    
+    @Test
+    void getOrderExportPage_UsesExportPageSize() throws Exception {
+        // Given
+        String customerId = "CUST-001";
+        when(orderRepository.findByCustomerId(customerId, null, 500, transaction))
+            .thenReturn(new CursorPage<>(List.of(), null));
+        
+        // When
+        CursorPage<OrderResponse> result = orderProcessService.getOrderExportPage(customerId, null);
+        
+        // Then
+        assertThat(result.getItems()).isEmpty();
+        assertThat(result.hasNext()).isFalse();
+        verify(orderItemRepository, never()).findByOrderIds(any(), any());
         verify(transaction, times(1)).commit();
     }
     
@@ -0,0 +1,522 @@
+package com.example.order.service;
+
+import com.example.common.outbox.OutboxRepository;
+import com.example.order.client.InventoryServiceClient;
+import com.example.order.client.PaymentServiceClient;
+import com.example.order.client.ShippingServiceClient;
+import com.example.order.dto.CreateOrderRequest;
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderSaga;
+import com.example.order.entity.OrderStatus;
+import com.example.order.repository.OrderRepository;
+import com.example.order.repository.OrderSagaRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderSagaOrchestrator, with the saga table and the order held in memory
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderSagaOrchestratorTest {
+
+    private static final String ORDER_ID = "ORD-001";
+    private static final long LEASE_MILLIS = 120_000;
+
+    @Mock
+    private DistributedTransactionManager transactionManager;
+
+    @Mock
+    private DistributedTransaction transaction;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderSagaRepository sagaRepository;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private InventoryServiceClient inventoryServiceClient;
+
+    @Mock
+    private PaymentServiceClient paymentServiceClient;
+
+    @Mock
+    private ShippingServiceClient shippingServiceClient;
+
+    @Mock
+    private CompensationService compensationService;
+
+    @Mock
+    private MetricsService metricsService;
+
+    private final Map<String, OrderSaga> sagas = new HashMap<>();
+    private Order order;
+    private ExecutorService stepExecutor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        order = new Order(ORDER_ID, "CUST-001");
+        order.setTotalAmount(new BigDecimal("3000.00"));
+        order.setCurrency("JPY");
+
+        lenient().when(transactionManager.start()).thenReturn(transaction);
+        lenient().when(orderRepository.findById(ORDER_ID, transaction)).thenAnswer(invocation -> Optional.of(order));
+        lenient().when(sagaRepository.findById(anyString(), eq(transaction)))
+            .thenAnswer(invocation -> Optional.ofNullable(sagas.get(invocation.<String>getArgument(0))));
+        lenient().when(sagaRepository.findByBucket(anyInt(), eq(transaction)))
+            .thenAnswer(invocation -> sagas.values().stream()
+                .filter(saga -> OrderSagaRepository.bucketOf(saga.getOrderId()) == invocation.<Integer>getArgument(0))
+                .collect(Collectors.toList()));
+        lenient().doAnswer(invocation -> sagas.put(invocation.<OrderSaga>getArgument(0).getOrderId(), invocation.getArgument(0)))
+            .when(sagaRepository).save(any(OrderSaga.class), eq(transaction));
+        lenient().doAnswer(invocation -> sagas.remove(invocation.<String>getArgument(0)))
+            .when(sagaRepository).delete(anyString(), eq(transaction));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (stepExecutor != null) {
+            stepExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void run_ReservesAndPaysConcurrently_ThenShips() throws Exception {
+        // Given
+        stepExecutor = Executors.newFixedThreadPool(2);
+        OrderSagaOrchestrator orchestrator = orchestrator(stepExecutor, true);
+        orchestrator.start(ORDER_ID, request(), transaction);
+        // Each call waits for the other, so the saga only gets through when both are in flight at once
+        CyclicBarrier bothInFlight = new CyclicBarrier(2);
+        when(inventoryServiceClient.reserveInventory(any())).thenAnswer(invocation -> {
+            bothInFlight.await(5, TimeUnit.SECONDS);
+            return reservation("RES-001");
+        });
+        when(paymentServiceClient.processPayment(any())).thenAnswer(invocation -> {
+            bothInFlight.await(5, TimeUnit.SECONDS);
+            return payment("PAY-001", "COMPLETED");
+        });
+        when(shippingServiceClient.createShipment(any())).thenReturn(shipment("SHIP-001"));
+
+        // When
+        Order result = orchestrator.run(ORDER_ID);
+
+        // Then
+        assertThat(result.getStatusEnum()).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(result.getInventoryReservationId()).isEqualTo("RES-001");
+        assertThat(result.getPaymentId()).isEqualTo("PAY-001");
+        assertThat(result.getShipmentId()).isEqualTo("SHIP-001");
+        assertThat(sagas).isEmpty();
+
+        InOrder inOrder = inOrder(outboxRepository, inventoryServiceClient, shippingServiceClient);
+        inOrder.verify(outboxRepository).append(eq(OrderProcessService.ORDER_AGGREGATE), eq(ORDER_ID),
+            eq("OrderConfirmed"), anyMap(), eq(transaction));
+        inOrder.verify(outboxRepository).append(eq(OrderProcessService.ORDER_AGGREGATE), eq(ORDER_ID),
+            eq("OrderPaid"), anyMap(), eq(transaction));
+        inOrder.verify(inventoryServiceClient).confirmReservation("RES-001");
+        inOrder.verify(shippingServiceClient).createShipment(any());
+        inOrder.verify(outboxRepository).append(eq(OrderProcessService.ORDER_AGGREGATE), eq(ORDER_ID),
+            eq("OrderShipped"), anyMap(), eq(transaction));
+        verify(paymentServiceClient).processPayment(argThat(payment ->
+            payment.getAmount().compareTo(new BigDecimal("3000.00")) == 0
+                && "tok_1234567890abcdef".equals(payment.getPaymentMethodDetails().getPaymentToken())));
+        verifyNoInteractions(compensationService);
+        verify(metricsService).recordSagaTime(any(), eq(ORDER_ID), eq("parallel"), eq("completed"));
+    }
+
+    @Test
+    void run_PaymentDeclined_CompensatesWithReservationRecorded() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        orchestrator.start(ORDER_ID, request(), transaction);
+        when(inventoryServiceClient.reserveInventory(any())).thenReturn(reservation("RES-001"));
+        when(paymentServiceClient.processPayment(any())).thenReturn(payment("PAY-001", "DECLINED"));
+
+        // When
+        Order result = orchestrator.run(ORDER_ID);
+
+        // Then
+        assertThat(result.getStatusEnum()).isEqualTo(OrderStatus.FAILED);
+        assertThat(result.getInventoryReservationId()).isEqualTo("RES-001");
+        assertThat(result.getPaymentId()).isNull();
+        assertThat(sagas).isEmpty();
+
+        InOrder inOrder = inOrder(outboxRepository, compensationService);
+        inOrder.verify(outboxRepository).append(eq(OrderProcessService.ORDER_AGGREGATE), eq(ORDER_ID),
+            eq("OrderFailed"), anyMap(), eq(transaction));
+        inOrder.verify(compensationService).compensateOrder(ORDER_ID);
+        verifyNoInteractions(shippingServiceClient);
+        verify(metricsService).recordSagaTime(any(), eq(ORDER_ID), eq("parallel"), eq("compensated"));
+    }
+
+    @Test
+    void run_Sequential_ReservationFails_SkipsPaymentAndCompensates() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, false);
+        orchestrator.start(ORDER_ID, request(), transaction);
+        when(inventoryServiceClient.reserveInventory(any())).thenThrow(new RuntimeException("Insufficient stock"));
+
+        // When
+        Order result = orchestrator.run(ORDER_ID);
+
+        // Then
+        assertThat(result.getStatusEnum()).isEqualTo(OrderStatus.FAILED);
+        verify(paymentServiceClient, never()).processPayment(any());
+        verifyNoInteractions(shippingServiceClient);
+        verify(compensationService).compensateOrder(ORDER_ID);
+        verify(metricsService).recordSagaTime(any(), eq(ORDER_ID), eq("sequential"), eq("compensated"));
+    }
+
+    @Test
+    void run_ClaimedByRecoveryWhileQueued_StopsWithoutCompensating() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        OrderSaga queued = orchestrator.start(ORDER_ID, request(), transaction);
+        queued.setLeaseExpiresAt(0);
+        OrderSaga claimed = orchestrator.claimStalledSagas(System.currentTimeMillis(), 10, orderId -> false).get(0);
+        String recoveryToken = claimed.getLeaseOwner();
+
+        // When
+        Order result = orchestrator.run(ORDER_ID);
+
+        // Then
+        assertThat(result).isNull();
+        assertThat(sagas.get(ORDER_ID).getLeaseOwner()).isEqualTo(recoveryToken);
+        assertThat(sagas.get(ORDER_ID).getStepEnum()).isEqualTo(OrderSaga.Step.START);
+        verifyNoInteractions(inventoryServiceClient, paymentServiceClient, compensationService);
+    }
+
+    @Test
+    void run_LeaseExpiredWhileQueued_TakesFreshLeaseForTheRun() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        OrderSaga queued = orchestrator.start(ORDER_ID, request(), transaction);
+        String acceptToken = queued.getLeaseOwner();
+        queued.setLeaseExpiresAt(0);
+        long[] leaseDuringReserve = new long[1];
+        String[] ownerDuringReserve = new String[1];
+        when(inventoryServiceClient.reserveInventory(any())).thenAnswer(invocation -> {
+            leaseDuringReserve[0] = sagas.get(ORDER_ID).getLeaseExpiresAt();
+            ownerDuringReserve[0] = sagas.get(ORDER_ID).getLeaseOwner();
+            return reservation("RES-001");
+        });
+        when(paymentServiceClient.processPayment(any())).thenReturn(payment("PAY-001", "COMPLETED"));
+        when(shippingServiceClient.createShipment(any())).thenReturn(shipment("SHIP-001"));
+
+        // When
+        long before = System.currentTimeMillis();
+        Order result = orchestrator.run(ORDER_ID);
+
+        // Then
+        assertThat(result.getStatusEnum()).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(ownerDuringReserve[0]).isNotNull().isNotEqualTo(acceptToken);
+        assertThat(leaseDuringReserve[0]).isGreaterThanOrEqualTo(before + LEASE_MILLIS);
+    }
+
+    @Test
+    void run_SecondRunOfSameSaga_DoesNotRunOrCompensate() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        orchestrator.start(ORDER_ID, request(), transaction);
+        when(inventoryServiceClient.reserveInventory(any())).thenAnswer(invocation -> {
+            // A second run of the same saga on this instance, while the first is in its calls
+            assertThat(orchestrator.run(ORDER_ID)).isNull();
+            return reservation("RES-001");
+        });
+        when(paymentServiceClient.processPayment(any())).thenReturn(payment("PAY-001", "COMPLETED"));
+        when(shippingServiceClient.createShipment(any())).thenReturn(shipment("SHIP-001"));
+
+        // When
+        Order result = orchestrator.run(ORDER_ID);
+
+        // Then
+        assertThat(result.getStatusEnum()).isEqualTo(OrderStatus.SHIPPED);
+        verify(inventoryServiceClient, times(1)).reserveInventory(any());
+        verifyNoInteractions(compensationService);
+    }
+
+    @Test
+    void run_PaymentTimesOutAfterCharging_CompensatesWithLookedUpPayment() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        orchestrator.start(ORDER_ID, request(), transaction);
+        when(inventoryServiceClient.reserveInventory(any())).thenReturn(reservation("RES-001"));
+        when(paymentServiceClient.processPayment(any())).thenThrow(new RuntimeException("Read timed out"));
+        when(paymentServiceClient.getPaymentsByOrder(ORDER_ID)).thenReturn(List.of(payment("PAY-001", "CAPTURED")));
+
+        // When
+        Order result = orchestrator.run(ORDER_ID);
+
+        // Then
+        assertThat(result.getStatusEnum()).isEqualTo(OrderStatus.FAILED);
+        assertThat(result.getInventoryReservationId()).isEqualTo("RES-001");
+        assertThat(result.getPaymentId()).isEqualTo("PAY-001");
+        verify(compensationService).compensateOrder(ORDER_ID);
+    }
+
+    @Test
+    void run_CallFailedAndLookupFails_LeavesSagaToRecovery() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        orchestrator.start(ORDER_ID, request(), transaction);
+        when(inventoryServiceClient.reserveInventory(any())).thenReturn(reservation("RES-001"));
+        when(paymentServiceClient.processPayment(any())).thenThrow(new RuntimeException("Read timed out"));
+        when(inventoryServiceClient.getReservationsByOrder(ORDER_ID))
+            .thenThrow(new RuntimeException("Inventory service is currently unavailable"));
+
+        // When
+        Order result = orchestrator.run(ORDER_ID);
+
+        // Then
+        assertThat(result).isNull();
+        assertThat(sagas.get(ORDER_ID).getStepEnum()).isEqualTo(OrderSaga.Step.RESERVE_AND_PAY);
+        verifyNoInteractions(compensationService);
+        verify(metricsService).recordSagaTime(any(), eq(ORDER_ID), eq("parallel"), eq("interrupted"));
+    }
+
+    @Test
+    void run_RecordingReserveAndPayFails_CompensatesWithBothIdsRecorded() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        orchestrator.start(ORDER_ID, request(), transaction);
+        when(inventoryServiceClient.reserveInventory(any())).thenReturn(reservation("RES-001"));
+        when(paymentServiceClient.processPayment(any())).thenReturn(payment("PAY-001", "COMPLETED"));
+        // Saga reads: taking the lease, START, then the transition recording the reservation and payment
+        AtomicInteger sagaReads = new AtomicInteger();
+        when(sagaRepository.findById(ORDER_ID, transaction)).thenAnswer(invocation -> {
+            if (sagaReads.incrementAndGet() == 3) {
+                throw new RuntimeException("Connection reset");
+            }
+            return Optional.ofNullable(sagas.get(ORDER_ID));
+        });
+
+        // When
+        Order result = orchestrator.run(ORDER_ID);
+
+        // Then
+        assertThat(result.getStatusEnum()).isEqualTo(OrderStatus.FAILED);
+        assertThat(result.getInventoryReservationId()).isEqualTo("RES-001");
+        assertThat(result.getPaymentId()).isEqualTo("PAY-001");
+        assertThat(sagas).isEmpty();
+        verify(compensationService).compensateOrder(ORDER_ID);
+        verifyNoInteractions(shippingServiceClient);
+        verify(metricsService).recordSagaTime(any(), eq(ORDER_ID), eq("parallel"), eq("compensated"));
+    }
+
+    @Test
+    void run_LeaseLostDuringReserveAndPay_QueuesUndoOfObtainedIds() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        orchestrator.start(ORDER_ID, request(), transaction);
+        when(inventoryServiceClient.reserveInventory(any())).thenReturn(reservation("RES-001"));
+        when(paymentServiceClient.processPayment(any())).thenAnswer(invocation -> {
+            sagas.get(ORDER_ID).setLeaseOwner("another-instance");
+            return payment("PAY-001", "COMPLETED");
+        });
+
+        // When
+        Order result = orchestrator.run(ORDER_ID);
+
+        // Then
+        assertThat(result).isNull();
+        assertThat(sagas).containsKey(ORDER_ID);
+        verify(compensationService).queueCompensation(argThat((Order queued) ->
+            "RES-001".equals(queued.getInventoryReservationId()) && "PAY-001".equals(queued.getPaymentId())));
+        verify(compensationService, never()).compensateOrder(anyString());
+        verifyNoInteractions(shippingServiceClient);
+    }
+
+    @Test
+    void claimStalledSagas_LeasesOnlyExpiredSagas() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        long now = System.currentTimeMillis();
+        OrderSaga stalled = saga(ORDER_ID, OrderSaga.Step.RESERVE_AND_PAY, "crashed-instance", now - 1);
+        OrderSaga running = saga("ORD-002", OrderSaga.Step.START, "live-instance", now + LEASE_MILLIS);
+        sagas.put(stalled.getOrderId(), stalled);
+        sagas.put(running.getOrderId(), running);
+
+        // When
+        List<OrderSaga> claimed = orchestrator.claimStalledSagas(now, 10, orderId -> false);
+
+        // Then
+        assertThat(claimed).extracting(OrderSaga::getOrderId).containsExactly(ORDER_ID);
+        assertThat(stalled.getLeaseOwner()).isNotEqualTo("crashed-instance");
+        assertThat(stalled.getLeaseExpiresAt()).isEqualTo(now + LEASE_MILLIS);
+        assertThat(stalled.getAttempts()).isEqualTo(1);
+        assertThat(running.getLeaseOwner()).isEqualTo("live-instance");
+    }
+
+    @Test
+    void claimStalledSagas_SkipsOrdersStillQueuedLocally() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        long now = System.currentTimeMillis();
+        OrderSaga queued = saga(ORDER_ID, OrderSaga.Step.START, "accepted", now - 1);
+        OrderSaga stalled = saga("ORD-002", OrderSaga.Step.START, "crashed-instance", now - 1);
+        sagas.put(queued.getOrderId(), queued);
+        sagas.put(stalled.getOrderId(), stalled);
+
+        // When
+        List<OrderSaga> claimed = orchestrator.claimStalledSagas(now, 10, ORDER_ID::equals);
+
+        // Then
+        assertThat(claimed).extracting(OrderSaga::getOrderId).containsExactly("ORD-002");
+        assertThat(queued.getLeaseOwner()).isEqualTo("accepted");
+        assertThat(queued.getAttempts()).isZero();
+    }
+
+    @Test
+    void resume_InterruptedDuringReserveAndPay_CompensatesWhatTheCallsObtained() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        order.setStatusEnum(OrderStatus.CONFIRMED);
+        sagas.put(ORDER_ID, saga(ORDER_ID, OrderSaga.Step.RESERVE_AND_PAY, "crashed-instance", 0));
+        OrderSaga claimed = orchestrator.claimStalledSagas(System.currentTimeMillis(), 10, orderId -> false).get(0);
+        InventoryServiceClient.InventoryReservationResponse reserved = reservation(ORDER_ID);
+        reserved.setStatus("ACTIVE");
+        when(inventoryServiceClient.getReservationsByOrder(ORDER_ID)).thenReturn(List.of(reserved));
+        when(paymentServiceClient.getPaymentsByOrder(ORDER_ID))
+            .thenReturn(List.of(payment("PAY-000", "FAILED"), payment("PAY-001", "CAPTURED")));
+
+        // When
+        Order result = orchestrator.resume(claimed);
+
+        // Then
+        assertThat(result.getStatusEnum()).isEqualTo(OrderStatus.FAILED);
+        assertThat(result.getInventoryReservationId()).isEqualTo(ORDER_ID);
+        assertThat(result.getPaymentId()).isEqualTo("PAY-001");
+        assertThat(sagas).isEmpty();
+        verify(compensationService).compensateOrder(ORDER_ID);
+        verify(inventoryServiceClient, never()).reserveInventory(any());
+        verify(paymentServiceClient, never()).processPayment(any());
+        verifyNoInteractions(shippingServiceClient);
+    }
+
+    @Test
+    void resume_ReserveAndPayLookupFails_LeavesSagaForRetry() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        sagas.put(ORDER_ID, saga(ORDER_ID, OrderSaga.Step.RESERVE_AND_PAY, "crashed-instance", 0));
+        OrderSaga claimed = orchestrator.claimStalledSagas(System.currentTimeMillis(), 10, orderId -> false).get(0);
+        when(inventoryServiceClient.getReservationsByOrder(ORDER_ID))
+            .thenThrow(new RuntimeException("Inventory service is currently unavailable"));
+
+        // When & Then
+        assertThatThrownBy(() -> orchestrator.resume(claimed))
+            .hasMessageContaining("unavailable");
+        assertThat(sagas).containsKey(ORDER_ID);
+        verifyNoInteractions(compensationService);
+    }
+
+    @Test
+    void resume_NotStarted_RunsForward() throws Exception {
+        // Given
+        OrderSagaOrchestrator orchestrator = orchestrator(null, true);
+        OrderSaga interrupted = orchestrator.start(ORDER_ID, request(), transaction);
+        interrupted.setLeaseOwner("crashed-instance");
+        interrupted.setLeaseExpiresAt(0);
+        OrderSaga claimed = orchestrator.claimStalledSagas(System.currentTimeMillis(), 10, orderId -> false).get(0);
+        when(inventoryServiceClient.reserveInventory(any())).thenReturn(reservation("RES-001"));
+        when(paymentServiceClient.processPayment(any())).thenReturn(payment("PAY-001", "COMPLETED"));
+        when(shippingServiceClient.createShipment(any())).thenReturn(shipment("SHIP-001"));
+
+        // When
+        Order result = orchestrator.resume(claimed);
+
+        // Then
+        assertThat(result.getStatusEnum()).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(sagas).isEmpty();
+        verifyNoInteractions(compensationService);
+    }
+
+    private OrderSagaOrchestrator orchestrator(ExecutorService executor, boolean parallelSteps) {
+        return new OrderSagaOrchestrator(transactionManager, orderRepository, sagaRepository, outboxRepository,
+            inventoryServiceClient, paymentServiceClient, shippingServiceClient, compensationService, metricsService,
+            executor, parallelSteps, Duration.ofMillis(LEASE_MILLIS));
+    }
+
+    private static OrderSaga saga(String orderId, OrderSaga.Step step, String leaseOwner, long leaseExpiresAt) {
+        OrderSaga saga = new OrderSaga(orderId, "{}");
+        saga.setStep(step.name());
+        saga.setLeaseOwner(leaseOwner);
+        saga.setLeaseExpiresAt(leaseExpiresAt);
+        return saga;
+    }
+
+    private static InventoryServiceClient.InventoryReservationResponse reservation(String reservationId) {
+        InventoryServiceClient.InventoryReservationResponse reservation = new InventoryServiceClient.InventoryReservationResponse();
+        reservation.setReservationId(reservationId);
+        reservation.setOrderId(ORDER_ID);
+        reservation.setStatus("RESERVED");
+        return reservation;
+    }
+
+    private static PaymentServiceClient.PaymentResponse payment(String paymentId, String status) {
+        PaymentServiceClient.PaymentResponse payment = new PaymentServiceClient.PaymentResponse();
+        payment.setPaymentId(paymentId);
+        payment.setOrderId(ORDER_ID);
+        payment.setStatus(status);
+        return payment;
+    }
+
+    private static ShippingServiceClient.ShipmentResponse shipment(String shipmentId) {
+        ShippingServiceClient.ShipmentResponse shipment = new ShippingServiceClient.ShipmentResponse();
+        shipment.setShipmentId(shipmentId);
+        shipment.setOrderId(ORDER_ID);
+        return shipment;
+    }
+
+    static CreateOrderRequest request() {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setCustomerId("CUST-001");
+
+        CreateOrderRequest.OrderItemRequest item = new CreateOrderRequest.OrderItemRequest();
+        item.setProductId("PROD-001");
+        item.setQuantity(3);
+        request.setItems(List.of(item));
+
+        CreateOrderRequest.PaymentMethodDetails paymentDetails = new CreateOrderRequest.PaymentMethodDetails();
+        paymentDetails.setPaymentMethod("CREDIT_CARD");
+        paymentDetails.setPaymentToken("tok_1234567890abcdef");
+        request.setPaymentMethodDetails(paymentDetails);
+
+        CreateOrderRequest.ShippingInfo shippingInfo = new CreateOrderRequest.ShippingInfo();
+        shippingInfo.setShippingMethod("STANDARD");
+        shippingInfo.setCarrier("YAMATO");
+        CreateOrderRequest.ShippingInfo.RecipientInfo recipientInfo = new CreateOrderRequest.ShippingInfo.RecipientInfo();
+        recipientInfo.setName("田中太郎");
+        recipientInfo.setAddress("東京都渋谷区渋谷1-1-1");
+        recipientInfo.setCountry("JP");
+        shippingInfo.setRecipientInfo(recipientInfo);
+        request.setShippingInfo(shippingInfo);
+        return request;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.example.order.service;
+
+import com.example.common.outbox.OutboxRepository;
+import com.example.order.client.InventoryServiceClient;
+import com.example.order.client.PaymentServiceClient;
+import com.example.order.client.ShippingServiceClient;
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderSaga;
+import com.example.order.repository.OrderRepository;
+import com.example.order.repository.OrderSagaRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Compares saga latency with reservation and payment run concurrently against running them one
+ * after the other, with stub services that sleep for a fixed latency plus jitter
+ *
+ * Run with: mvn test -Dtest.performance=true -Dtest=OrderSagaPerformanceTest
+ */
+@EnabledIfSystemProperty(named = "test.performance", matches = "true")
+class OrderSagaPerformanceTest {
+
+    private static final int SAGAS = 400;
+    private static final int CALLERS = 16;
+    private static final long RESERVE_MILLIS = 30;
+    private static final long PAY_MILLIS = 50;
+    private static final long CONFIRM_MILLIS = 5;
+    private static final long SHIP_MILLIS = 20;
+
+    @Test
+    void run_ParallelSteps_LowerLatencyThanSequential() throws Exception {
+        // Given
+        Fixture sequential = new Fixture(false);
+        Fixture parallel = new Fixture(true);
+        sequential.runAll(SAGAS / 4);
+        parallel.runAll(SAGAS / 4);
+
+        // When
+        long[] sequentialMillis = sequential.runAll(SAGAS);
+        long[] parallelMillis = parallel.runAll(SAGAS);
+        sequential.close();
+        parallel.close();
+
+        // Then
+        System.out.printf("Sequential saga: p50 %d ms, p99 %d ms%n", percentile(sequentialMillis, 0.5), percentile(sequentialMillis, 0.99));
+        System.out.printf("Parallel saga:   p50 %d ms, p99 %d ms%n", percentile(parallelMillis, 0.5), percentile(parallelMillis, 0.99));
+        assertThat(percentile(parallelMillis, 0.5)).isLessThan(percentile(sequentialMillis, 0.5));
+        assertThat(percentile(parallelMillis, 0.99)).isLessThan(percentile(sequentialMillis, 0.99));
+    }
+
+    private static long percentile(long[] sortedMillis, double quantile) {
+        int index = (int) Math.ceil(quantile * sortedMillis.length) - 1;
+        return sortedMillis[Math.max(0, index)];
+    }
+
+    private static void sleepWithJitter(long millis) {
+        try {
+            Thread.sleep(millis + ThreadLocalRandom.current().nextLong(millis / 5 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Fixture {
+        private final Map<String, OrderSaga> sagas = new ConcurrentHashMap<>();
+        private final Map<String, Order> orders = new ConcurrentHashMap<>();
+        private final DistributedTransaction transaction = mock(DistributedTransaction.class);
+        private final ExecutorService stepExecutor = Executors.newFixedThreadPool(CALLERS * 2);
+        private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        private final OrderSagaOrchestrator orchestrator;
+
+        private Fixture(boolean parallelSteps) throws Exception {
+            DistributedTransactionManager transactionManager = mock(DistributedTransactionManager.class);
+            OrderRepository orderRepository = mock(OrderRepository.class);
+            OrderSagaRepository sagaRepository = mock(OrderSagaRepository.class);
+            InventoryServiceClient inventoryServiceClient = mock(InventoryServiceClient.class);
+            PaymentServiceClient paymentServiceClient = mock(PaymentServiceClient.class);
+            ShippingServiceClient shippingServiceClient = mock(ShippingServiceClient.class);
+
+            when(transactionManager.start()).thenReturn(transaction);
+            when(orderRepository.findById(anyString(), eq(transaction)))
+                .thenAnswer(invocation -> Optional.ofNullable(orders.get(invocation.<String>getArgument(0))));
+            when(sagaRepository.findById(anyString(), eq(transaction)))
+                .thenAnswer(invocation -> Optional.ofNullable(sagas.get(invocation.<String>getArgument(0))));
+            doAnswer(invocation -> sagas.put(invocation.<OrderSaga>getArgument(0).getOrderId(), invocation.getArgument(0)))
+                .when(sagaRepository).save(any(OrderSaga.class), eq(transaction));
+            doAnswer(invocation -> sagas.remove(invocation.<String>getArgument(0)))
+                .when(sagaRepository).delete(anyString(), eq(transaction));
+
+            when(inventoryServiceClient.reserveInventory(any())).thenAnswer(invocation -> {
+                sleepWithJitter(RESERVE_MILLIS);
+                InventoryServiceClient.InventoryReservationResponse reservation = new InventoryServiceClient.InventoryReservationResponse();
+                reservation.setReservationId("RES-" + invocation.<InventoryServiceClient.ReserveInventoryRequest>getArgument(0).getOrderId());
+                return reservation;
+            });
+            doAnswer(invocation -> {
+                sleepWithJitter(CONFIRM_MILLIS);
+                return null;
+            }).when(inventoryServiceClient).confirmReservation(anyString());
+            when(paymentServiceClient.processPayment(any())).thenAnswer(invocation -> {
+                sleepWithJitter(PAY_MILLIS);
+                PaymentServiceClient.PaymentResponse payment = new PaymentServiceClient.PaymentResponse();
+                payment.setPaymentId("PAY-" + invocation.<PaymentServiceClient.ProcessPaymentRequest>getArgument(0).getOrderId());
+                payment.setStatus("COMPLETED");
+                return payment;
+            });
+            when(shippingServiceClient.createShipment(any())).thenAnswer(invocation -> {
+                sleepWithJitter(SHIP_MILLIS);
+                ShippingServiceClient.ShipmentResponse shipment = new ShippingServiceClient.ShipmentResponse();
+                shipment.setShipmentId("SHIP-" + invocation.<ShippingServiceClient.CreateShipmentRequest>getArgument(0).getOrderId());
+                return shipment;
+            });
+
+            orchestrator = new OrderSagaOrchestrator(transactionManager, orderRepository, sagaRepository,
+                mock(OutboxRepository.class), inventoryServiceClient, paymentServiceClient, shippingServiceClient,
+                mock(CompensationService.class), mock(MetricsService.class), stepExecutor, parallelSteps, Duration.ofMinutes(2));
+        }
+
+        /**
+         * Run the given number of sagas from CALLERS threads and return their latencies, sorted
+         */
+        private long[] runAll(int count) throws Exception {
+            List<Future<Long>> runs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String orderId = "ORD-" + i + "-" + System.nanoTime();
+                Order order = new Order(orderId, "CUST-001");
+                order.setTotalAmount(new BigDecimal("1000.00"));
+                orders.put(orderId, order);
+                orchestrator.start(orderId, OrderSagaOrchestratorTest.request(), transaction);
+                runs.add(callers.submit(() -> {
+                    long started = System.nanoTime();
+                    Order result = orchestrator.run(orderId);
+                    assertThat(result.getShipmentId()).isNotNull();
+                    return (System.nanoTime() - started) / 1_000_000;
+                }));
+            }
+            long[] millis = new long[count];
+            for (int i = 0; i < count; i++) {
+                millis[i] = runs.get(i).get();
+            }
+            Arrays.sort(millis);
+            return millis;
+        }
+
+        private void close() {
+            callers.shutdownNow();
+            stepExecutor.shutdownNow();
+        }
+    }
+}
\ No newline at end of file
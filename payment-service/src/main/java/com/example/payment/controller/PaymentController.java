@@ -2,15 +2,26 @@ package com.example.payment.controller;
 
 import com.example.payment.dto.CreatePaymentRequest;
 import com.example.payment.dto.CreateRefundRequest;
+import com.example.payment.dto.CursorPage;
 import com.example.payment.dto.ExecutePaymentRequest;
 import com.example.payment.entity.Payment;
+import com.example.payment.entity.PaymentStatistics;
+import com.example.payment.entity.PaymentStatus;
 import com.example.payment.entity.Refund;
 import com.example.payment.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,9 +29,14 @@ import java.util.Optional;
 @RequestMapping("/payments")
 public class PaymentController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     @Autowired
     private PaymentService paymentService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @PostMapping
     public ResponseEntity<Payment> createPayment(@Valid @RequestBody CreatePaymentRequest request) {
         Payment payment = paymentService.createPayment(request);
@@ -41,6 +57,42 @@ public class PaymentController {
         return ResponseEntity.ok().build();
     }
     
+    @GetMapping("/stats")
+    public ResponseEntity<PaymentStatistics> getPaymentStatistics(
+            @RequestParam String status,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        PaymentStatistics statistics = paymentService.getPaymentStatistics(
+            status, currency, date != null ? date.toEpochDay() : null);
+        return ResponseEntity.ok(statistics);
+    }
+    
+    /**
+     * Streams payments as newline-delimited JSON, one page at a time, so an export of a
+     * whole day or status never has to be held in memory. Without a status every status
+     * is exported in turn.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        List<String> statuses = status != null 
+            ? List.of(status) 
+            : Arrays.stream(PaymentStatus.values()).map(Enum::name).toList();
+        
+        StreamingResponseBody body = out -> {
+            for (String exportStatus : statuses) {
+                String cursor = null;
+                do {
+                    CursorPage<Payment> page = paymentService.getPaymentExportPage(exportStatus, date, cursor);
+                    writeNdjson(out, page.getItems());
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
     @GetMapping("/{paymentId}")
     public ResponseEntity<Payment> getPayment(@PathVariable String paymentId) {
         Optional<Payment> payment = paymentService.getPayment(paymentId);
@@ -52,16 +104,22 @@ public class PaymentController {
     public ResponseEntity<List<Payment>> getPayments(
             @RequestParam(required = false) String customerId,
             @RequestParam(required = false) String orderId,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         
-        if (customerId != null) {
-            List<Payment> payments = paymentService.getPaymentsByCustomer(customerId);
-            return ResponseEntity.ok(payments);
+        CursorPage<Payment> page;
+        try {
+            page = paymentService.getPayments(customerId, orderId, status, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
         
-        // For simplicity, just return customer payments if no specific filter
-        // In a real implementation, you'd have more sophisticated filtering
-        return ResponseEntity.ok(List.of());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
     
     @PostMapping("/{paymentId}/refunds")
@@ -85,4 +143,13 @@ public class PaymentController {
         return refund.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
     }
+    
+    private void writeNdjson(OutputStream out, List<?> items) throws IOException {
+        for (Object item : items) {
+            out.write(objectMapper.writeValueAsBytes(item));
+            out.write('\n');
+        }
+        // Flushing per page hands each page to the client before the next one is read
+        out.flush();
+    }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.example.payment.controller;
 
+import com.example.common.scalardb.TransactionBatchExecutor;
 import com.example.payment.dto.ProcessPaymentRequest;
-import com.example.payment.dto.RefundRequest;
+import com.example.payment.dto.BulkRefundItem;
+import com.example.payment.dto.CreateRefundRequest;
 import com.example.payment.entity.Payment;
 import com.example.payment.entity.Refund;
 import com.example.payment.service.PaymentService;
@@ -75,28 +77,32 @@ public class PaymentProcessController {
     public ResponseEntity<BulkRefundResponse> bulkRefund(@Valid @RequestBody BulkRefundRequest request) {
         logger.info("Received bulk refund request for {} payments", request.getRefundRequests().size());
         
-        BulkRefundResponse response = new BulkRefundResponse();
-        
+        java.util.List<BulkRefundItem> items = new java.util.ArrayList<>();
         for (BulkRefundRequest.RefundRequestItem refundItem : request.getRefundRequests()) {
-            try {
-                RefundRequest refundRequest = new RefundRequest();
-                refundRequest.setAmount(refundItem.getAmount());
-                refundRequest.setReason(refundItem.getReason());
-                
-                Refund refund = paymentService.refundPayment(refundItem.getPaymentId(), refundRequest);
-                
+            CreateRefundRequest refundRequest = new CreateRefundRequest();
+            refundRequest.setRefundAmount(refundItem.getAmount() != null ? refundItem.getAmount().longValue() : null);
+            refundRequest.setRefundReason(refundItem.getReason());
+            items.add(new BulkRefundItem(refundItem.getPaymentId(), refundRequest));
+        }
+        
+        TransactionBatchExecutor.BatchResult<Refund> results = paymentService.processRefunds(items);
+        
+        BulkRefundResponse response = new BulkRefundResponse();
+        for (int i = 0; i < items.size(); i++) {
+            String paymentId = items.get(i).getPaymentId();
+            if (results.isSuccess(i)) {
+                Refund refund = results.getValue(i);
                 BulkRefundResponse.RefundResult result = new BulkRefundResponse.RefundResult();
-                result.setPaymentId(refundItem.getPaymentId());
+                result.setPaymentId(paymentId);
                 result.setRefundId(refund.getRefundId());
-                result.setRefundAmount(refund.getRefundAmount());
-                result.setStatus(refund.getStatus());
+                result.setRefundAmount(BigDecimal.valueOf(refund.getRefundAmount()));
+                result.setStatus(refund.getRefundStatus());
                 response.getSuccessfulRefunds().add(result);
                 
-                logger.debug("Refunded payment: {}", refundItem.getPaymentId());
-                
-            } catch (Exception e) {
-                logger.warn("Failed to refund payment: {}, error: {}", refundItem.getPaymentId(), e.getMessage());
-                response.getFailedRefunds().put(refundItem.getPaymentId(), e.getMessage());
+                logger.debug("Refunded payment: {}", paymentId);
+            } else {
+                logger.warn("Failed to refund payment: {}, error: {}", paymentId, results.getError(i).getMessage());
+                response.getFailedRefunds().put(paymentId, results.getError(i).getMessage());
             }
         }
         
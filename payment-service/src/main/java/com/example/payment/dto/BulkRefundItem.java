@@ -0,0 +1,32 @@
+package com.example.payment.dto;
+
+public class BulkRefundItem {
+    private String paymentId;
+    
+    private CreateRefundRequest refundRequest;
+    
+    // Constructors
+    public BulkRefundItem() {}
+    
+    public BulkRefundItem(String paymentId, CreateRefundRequest refundRequest) {
+        this.paymentId = paymentId;
+        this.refundRequest = refundRequest;
+    }
+    
+    // Getters and Setters
+    public String getPaymentId() {
+        return paymentId;
+    }
+    
+    public void setPaymentId(String paymentId) {
+        this.paymentId = paymentId;
+    }
+    
+    public CreateRefundRequest getRefundRequest() {
+        return refundRequest;
+    }
+    
+    public void setRefundRequest(CreateRefundRequest refundRequest) {
+        this.refundRequest = refundRequest;
+    }
+}
\ No newline at end of file
@@ -50,6 +50,12 @@ public class Payment {
     @Column(name = "version")
     private Integer version;
     
+    @Column(name = "refunded_amount")
+    private Long refundedAmount;
+    
+    @Column(name = "refund_count")
+    private Integer refundCount;
+    
     // Constructors
     public Payment() {}
     
@@ -66,6 +72,8 @@ public class Payment {
         this.createdAt = System.currentTimeMillis();
         this.updatedAt = System.currentTimeMillis();
         this.version = 1;
+        this.refundedAmount = 0L;
+        this.refundCount = 0;
     }
     
     // Getters and Setters
@@ -223,6 +231,23 @@ public class Payment {
         this.version = version;
     }
     
+    // Null on rows written before running refund totals were tracked
+    public Long getRefundedAmount() {
+        return refundedAmount;
+    }
+    
+    public void setRefundedAmount(Long refundedAmount) {
+        this.refundedAmount = refundedAmount;
+    }
+    
+    public Integer getRefundCount() {
+        return refundCount;
+    }
+    
+    public void setRefundCount(Integer refundCount) {
+        this.refundCount = refundCount;
+    }
+    
     public Key getPartitionKey() {
         return Key.ofText("payment_id", paymentId);
     }
@@ -0,0 +1,77 @@
+package com.example.payment.entity;
+
+import com.scalar.db.io.Column;
+
+public class PaymentStatistics {
+    @Column(name = "payment_status", isPrimaryKey = true)
+    private String paymentStatus;
+    
+    @Column(name = "currency", isPrimaryKey = true)
+    private String currency;
+    
+    @Column(name = "stat_day", isPrimaryKey = true)
+    private Long statDay;
+    
+    @Column(name = "payment_count")
+    private Long paymentCount;
+    
+    @Column(name = "total_amount")
+    private Long totalAmount;
+    
+    // Constructors
+    public PaymentStatistics() {}
+    
+    public PaymentStatistics(String paymentStatus, String currency, Long statDay) {
+        this.paymentStatus = paymentStatus;
+        this.currency = currency;
+        this.statDay = statDay;
+        this.paymentCount = 0L;
+        this.totalAmount = 0L;
+    }
+    
+    public void add(long countDelta, long amountDelta) {
+        this.paymentCount += countDelta;
+        this.totalAmount += amountDelta;
+    }
+    
+    // Getters and Setters
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+    
+    public void setPaymentStatus(String paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public Long getStatDay() {
+        return statDay;
+    }
+    
+    public void setStatDay(Long statDay) {
+        this.statDay = statDay;
+    }
+    
+    public Long getPaymentCount() {
+        return paymentCount;
+    }
+    
+    public void setPaymentCount(Long paymentCount) {
+        this.paymentCount = paymentCount;
+    }
+    
+    public Long getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(Long totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+}
\ No newline at end of file
@@ -1,24 +1,57 @@
 package com.example.payment.repository;
 
+import com.example.payment.dto.CursorPage;
 import com.example.payment.entity.Payment;
+import com.scalar.db.api.Delete;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.api.Result;
 import com.scalar.db.api.Scan;
+import com.scalar.db.api.ScanBuilder;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.TextValue;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Repository
 public class PaymentRepository {
     
     private static final String NAMESPACE = "payment";
     private static final String TABLE_NAME = "payments";
+    private static final String BY_CUSTOMER_TABLE = "payments_by_customer";
+    private static final String BY_ORDER_TABLE = "payments_by_order";
+    private static final String BY_STATUS_TABLE = "payments_by_status";
+    private static final ResultMapper<Payment> PAYMENT_MAPPER = ResultMapper.of(Payment::new)
+        .text("payment_id", Payment::setPaymentId)
+        .text("order_id", Payment::setOrderId)
+        .text("customer_id", Payment::setCustomerId)
+        .bigIntValue("amount", Payment::setAmount)
+        .text("currency", Payment::setCurrency)
+        .text("payment_method_type", Payment::setPaymentMethodType)
+        .text("payment_method_id", Payment::setPaymentMethodId)
+        .text("payment_status", Payment::setPaymentStatus)
+        .text("payment_provider", Payment::setPaymentProvider)
+        .text("provider_transaction_id", Payment::setProviderTransactionId)
+        .text("failure_reason", Payment::setFailureReason)
+        .bigIntValue("processed_at", Payment::setProcessedAt)
+        .bigIntValue("created_at", Payment::setCreatedAt)
+        .bigIntValue("updated_at", Payment::setUpdatedAt)
+        .intValue("version", Payment::setVersion)
+        .bigIntValue("refunded_amount", Payment::setRefundedAmount)
+        .intValue("refund_count", Payment::setRefundCount)
+        .build();
+    
+    // Each status is spread over this many partitions so hot statuses don't end up in one partition
+    private static final int STATUS_BUCKETS = 16;
+    
+    @Autowired
+    private PaymentStatsRepository paymentStatsRepository;
     
     public Optional<Payment> findById(DistributedTransaction transaction, String paymentId) 
             throws TransactionException {
@@ -36,61 +69,217 @@ public class PaymentRepository {
             throws TransactionException {
         Scan scan = Scan.newBuilder()
             .namespace(NAMESPACE)
-            .table(TABLE_NAME)
+            .table(BY_CUSTOMER_TABLE)
+            .partitionKey(Key.ofText("customer_id", customerId))
             .build();
         
-        List<Result> results = transaction.scan(scan);
-        List<Payment> payments = new ArrayList<>();
-        for (Result result : results) {
-            Payment payment = mapResultToPayment(result);
-            if (customerId.equals(payment.getCustomerId())) {
-                payments.add(payment);
-            }
-        }
-        return payments;
+        return mapResults(transaction.scan(scan));
     }
     
     public List<Payment> findByOrderId(DistributedTransaction transaction, String orderId) 
             throws TransactionException {
         Scan scan = Scan.newBuilder()
             .namespace(NAMESPACE)
-            .table(TABLE_NAME)
+            .table(BY_ORDER_TABLE)
+            .partitionKey(Key.ofText("order_id", orderId))
             .build();
         
-        List<Result> results = transaction.scan(scan);
+        return mapResults(transaction.scan(scan));
+    }
+    
+    public List<Payment> findByStatus(DistributedTransaction transaction, String status) 
+            throws TransactionException {
         List<Payment> payments = new ArrayList<>();
-        for (Result result : results) {
-            Payment payment = mapResultToPayment(result);
-            if (orderId.equals(payment.getOrderId())) {
-                payments.add(payment);
-            }
+        for (int bucket = 0; bucket < STATUS_BUCKETS; bucket++) {
+            payments.addAll(mapResults(transaction.scan(statusScan(status, bucket).build())));
         }
         return payments;
     }
     
-    public List<Payment> findByStatus(DistributedTransaction transaction, String status) 
-            throws TransactionException {
+    /**
+     * Reads one page of a customer's payments, oldest first. The cursor holds the
+     * (created_at, payment_id) clustering key of the last payment on the previous page.
+     */
+    public CursorPage<Payment> findByCustomerId(DistributedTransaction transaction, String customerId, 
+            String cursor, int limit) throws TransactionException {
+        ScanBuilder.BuildableScan scanBuilder = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_CUSTOMER_TABLE)
+            .partitionKey(Key.ofText("customer_id", customerId))
+            .limit(limit + 1);
+        if (cursor != null) {
+            String[] position = CursorPage.decodeCursor(cursor, 2);
+            scanBuilder.start(createdAtClusteringKey(Long.parseLong(position[0]), position[1]), false);
+        }
+        
+        return toPage(mapResults(transaction.scan(scanBuilder.build())), limit, 
+            last -> CursorPage.encodeCursor(last.getCreatedAt(), last.getPaymentId()));
+    }
+    
+    public CursorPage<Payment> findByOrderId(DistributedTransaction transaction, String orderId, 
+            String cursor, int limit) throws TransactionException {
+        ScanBuilder.BuildableScan scanBuilder = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_ORDER_TABLE)
+            .partitionKey(Key.ofText("order_id", orderId))
+            .limit(limit + 1);
+        if (cursor != null) {
+            String lastPaymentId = CursorPage.decodeCursor(cursor, 1)[0];
+            scanBuilder.start(Key.ofText("payment_id", lastPaymentId), false);
+        }
+        
+        return toPage(mapResults(transaction.scan(scanBuilder.build())), limit, 
+            last -> CursorPage.encodeCursor(last.getPaymentId()));
+    }
+    
+    /**
+     * Reads one page of payments in a status by walking the status buckets in order.
+     * The cursor holds the bucket and clustering key of the last payment returned, so
+     * a page can end part-way through a bucket and the next one resumes right after it.
+     */
+    public CursorPage<Payment> findByStatus(DistributedTransaction transaction, String status, 
+            String cursor, int limit) throws TransactionException {
+        return findByStatus(transaction, status, null, null, cursor, limit);
+    }
+    
+    /**
+     * Same as {@link #findByStatus(DistributedTransaction, String, String, int)} but restricted
+     * to payments created in [createdFrom, createdTo); either bound may be null.
+     */
+    public CursorPage<Payment> findByStatus(DistributedTransaction transaction, String status, 
+            Long createdFrom, Long createdTo, String cursor, int limit) throws TransactionException {
+        int startBucket = 0;
+        Key startKey = null;
+        if (cursor != null) {
+            String[] position = CursorPage.decodeCursor(cursor, 3);
+            startBucket = Integer.parseInt(position[0]);
+            startKey = createdAtClusteringKey(Long.parseLong(position[1]), position[2]);
+        }
+        
+        List<Payment> payments = new ArrayList<>();
+        for (int bucket = startBucket; bucket < STATUS_BUCKETS && payments.size() <= limit; bucket++) {
+            ScanBuilder.BuildableScan scanBuilder = statusScan(status, bucket).limit(limit + 1 - payments.size());
+            if (bucket == startBucket && startKey != null) {
+                scanBuilder.start(startKey, false);
+            } else if (createdFrom != null) {
+                scanBuilder.start(Key.ofBigInt("created_at", createdFrom), true);
+            }
+            if (createdTo != null) {
+                scanBuilder.end(Key.ofBigInt("created_at", createdTo), false);
+            }
+            payments.addAll(mapResults(transaction.scan(scanBuilder.build())));
+        }
+        
+        return toPage(payments, limit, last -> CursorPage.encodeCursor(
+            statusBucketOf(last.getPaymentId()), last.getCreatedAt(), last.getPaymentId()));
+    }
+    
+    public long countByStatus(DistributedTransaction transaction, String status) throws TransactionException {
+        long count = 0;
+        for (int bucket = 0; bucket < STATUS_BUCKETS; bucket++) {
+            count += transaction.scan(statusScan(status, bucket).projections("payment_id").build()).size();
+        }
+        return count;
+    }
+    
+    public List<Payment> findAll(DistributedTransaction transaction) throws TransactionException {
         Scan scan = Scan.newBuilder()
             .namespace(NAMESPACE)
             .table(TABLE_NAME)
+            .all()
             .build();
         
-        List<Result> results = transaction.scan(scan);
-        List<Payment> payments = new ArrayList<>();
-        for (Result result : results) {
-            Payment payment = mapResultToPayment(result);
-            if (status.equals(payment.getPaymentStatus())) {
-                payments.add(payment);
-            }
+        return mapResults(transaction.scan(scan));
+    }
+    
+    public List<String> findAllPaymentIds(DistributedTransaction transaction) throws TransactionException {
+        Scan scan = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .all()
+            .projections("payment_id")
+            .build();
+        
+        List<String> paymentIds = new ArrayList<>();
+        for (Result result : transaction.scan(scan)) {
+            paymentIds.add(result.getText("payment_id"));
         }
-        return payments;
+        return paymentIds;
     }
     
     public void save(DistributedTransaction transaction, Payment payment) throws TransactionException {
+        Optional<Payment> existing = findById(transaction, payment.getPaymentId());
+        
         Put.Builder putBuilder = Put.newBuilder()
             .namespace(NAMESPACE)
             .table(TABLE_NAME)
-            .partitionKey(Key.ofText("payment_id", payment.getPaymentId()))
+            .partitionKey(Key.ofText("payment_id", payment.getPaymentId()));
+        
+        transaction.put(withPaymentColumns(putBuilder, payment).build());
+        
+        if (existing.isPresent()) {
+            deleteStaleIndexes(transaction, existing.get(), payment);
+        }
+        saveIndexes(transaction, payment);
+    }
+    
+    public void saveIndexes(DistributedTransaction transaction, Payment payment) throws TransactionException {
+        Put.Builder byCustomer = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_CUSTOMER_TABLE)
+            .partitionKey(Key.ofText("customer_id", payment.getCustomerId()))
+            .clusteringKey(createdAtClusteringKey(payment));
+        
+        Put.Builder byOrder = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_ORDER_TABLE)
+            .partitionKey(Key.ofText("order_id", payment.getOrderId()))
+            .clusteringKey(Key.ofText("payment_id", payment.getPaymentId()));
+        
+        Put.Builder byStatus = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_STATUS_TABLE)
+            .partitionKey(statusPartitionKey(payment.getPaymentStatus(), statusBucketOf(payment.getPaymentId())))
+            .clusteringKey(createdAtClusteringKey(payment));
+        
+        transaction.put(withPaymentColumns(byCustomer, payment).build());
+        transaction.put(withPaymentColumns(byOrder, payment).build());
+        transaction.put(withPaymentColumns(byStatus, payment).build());
+    }
+    
+    private void deleteStaleIndexes(DistributedTransaction transaction, Payment previous, Payment current) 
+            throws TransactionException {
+        if (!previous.getCustomerId().equals(current.getCustomerId()) 
+                || !Objects.equals(previous.getCreatedAt(), current.getCreatedAt())) {
+            transaction.delete(Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_CUSTOMER_TABLE)
+                .partitionKey(Key.ofText("customer_id", previous.getCustomerId()))
+                .clusteringKey(createdAtClusteringKey(previous))
+                .build());
+        }
+        if (!previous.getOrderId().equals(current.getOrderId())) {
+            transaction.delete(Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_ORDER_TABLE)
+                .partitionKey(Key.ofText("order_id", previous.getOrderId()))
+                .clusteringKey(Key.ofText("payment_id", previous.getPaymentId()))
+                .build());
+        }
+        if (!previous.getPaymentStatus().equals(current.getPaymentStatus()) 
+                || !Objects.equals(previous.getCreatedAt(), current.getCreatedAt())) {
+            transaction.delete(Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_STATUS_TABLE)
+                .partitionKey(statusPartitionKey(previous.getPaymentStatus(), statusBucketOf(previous.getPaymentId())))
+                .clusteringKey(createdAtClusteringKey(previous))
+                .build());
+        }
+    }
+    
+    private Put.Builder withPaymentColumns(Put.Builder putBuilder, Payment payment) {
+        putBuilder
+            .textValue("payment_id", payment.getPaymentId())
             .textValue("order_id", payment.getOrderId())
             .textValue("customer_id", payment.getCustomerId())
             .bigIntValue("amount", payment.getAmount())
@@ -114,8 +303,49 @@ public class PaymentRepository {
         if (payment.getProcessedAt() != null) {
             putBuilder.bigIntValue("processed_at", payment.getProcessedAt());
         }
-        
-        transaction.put(putBuilder.build());
+        if (payment.getRefundedAmount() != null) {
+            putBuilder.bigIntValue("refunded_amount", payment.getRefundedAmount());
+            putBuilder.intValue("refund_count", payment.getRefundCount());
+        }
+        return putBuilder;
+    }
+    
+    private ScanBuilder.BuildableScan statusScan(String status, int bucket) {
+        return Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_STATUS_TABLE)
+            .partitionKey(statusPartitionKey(status, bucket));
+    }
+    
+    private static int statusBucketOf(String paymentId) {
+        return Math.floorMod(paymentId.hashCode(), STATUS_BUCKETS);
+    }
+    
+    private Key statusPartitionKey(String status, int bucket) {
+        return Key.newBuilder()
+            .addText("payment_status", status)
+            .addInt("status_bucket", bucket)
+            .build();
+    }
+    
+    private Key createdAtClusteringKey(Payment payment) {
+        return createdAtClusteringKey(payment.getCreatedAt(), payment.getPaymentId());
+    }
+    
+    private Key createdAtClusteringKey(long createdAt, String paymentId) {
+        return Key.newBuilder()
+            .addBigInt("created_at", createdAt)
+            .addText("payment_id", paymentId)
+            .build();
+    }
+    
+    private static CursorPage<Payment> toPage(List<Payment> payments, int limit, 
+            Function<Payment, String> cursorOf) {
+        if (payments.size() <= limit) {
+            return new CursorPage<>(payments, null);
+        }
+        List<Payment> page = new ArrayList<>(payments.subList(0, limit));
+        return new CursorPage<>(page, cursorOf.apply(page.get(limit - 1)));
     }
     
     public boolean existsById(DistributedTransaction transaction, String paymentId) 
@@ -124,32 +354,27 @@ public class PaymentRepository {
     }
     
     public long countFailedPayments(DistributedTransaction transaction) throws TransactionException {
-        return findByStatus(transaction, "FAILED").size();
+        return countFromStatistics(transaction, "FAILED");
     }
     
     public long countSuccessfulPayments(DistributedTransaction transaction) throws TransactionException {
-        return findByStatus(transaction, "CAPTURED").size();
+        return countFromStatistics(transaction, "CAPTURED");
+    }
+    
+    private long countFromStatistics(DistributedTransaction transaction, String status) throws TransactionException {
+        return paymentStatsRepository.getStatistics(transaction, status, 
+            PaymentStatsRepository.ALL_CURRENCIES, PaymentStatsRepository.ALL_DAYS).getPaymentCount();
+    }
+    
+    private List<Payment> mapResults(List<Result> results) {
+        List<Payment> payments = new ArrayList<>();
+        for (Result result : results) {
+            payments.add(mapResultToPayment(result));
+        }
+        return payments;
     }
     
     private Payment mapResultToPayment(Result result) {
-        Payment payment = new Payment();
-        
-        result.getValue("payment_id").ifPresent(v -> payment.setPaymentId(((TextValue) v).get()));
-        result.getValue("order_id").ifPresent(v -> payment.setOrderId(((TextValue) v).get()));
-        result.getValue("customer_id").ifPresent(v -> payment.setCustomerId(((TextValue) v).get()));
-        result.getValue("amount").ifPresent(v -> payment.setAmount(v.getAsLong()));
-        result.getValue("currency").ifPresent(v -> payment.setCurrency(((TextValue) v).get()));
-        result.getValue("payment_method_type").ifPresent(v -> payment.setPaymentMethodType(((TextValue) v).get()));
-        result.getValue("payment_method_id").ifPresent(v -> payment.setPaymentMethodId(((TextValue) v).get()));
-        result.getValue("payment_status").ifPresent(v -> payment.setPaymentStatus(((TextValue) v).get()));
-        result.getValue("payment_provider").ifPresent(v -> payment.setPaymentProvider(((TextValue) v).get()));
-        result.getValue("provider_transaction_id").ifPresent(v -> payment.setProviderTransactionId(((TextValue) v).get()));
-        result.getValue("failure_reason").ifPresent(v -> payment.setFailureReason(((TextValue) v).get()));
-        result.getValue("processed_at").ifPresent(v -> payment.setProcessedAt(v.getAsLong()));
-        result.getValue("created_at").ifPresent(v -> payment.setCreatedAt(v.getAsLong()));
-        result.getValue("updated_at").ifPresent(v -> payment.setUpdatedAt(v.getAsLong()));
-        result.getValue("version").ifPresent(v -> payment.setVersion(v.getAsInt()));
-        
-        return payment;
+        return PAYMENT_MAPPER.map(result);
     }
 }
\ No newline at end of file
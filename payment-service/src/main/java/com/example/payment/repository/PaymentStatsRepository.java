@@ -0,0 +1,154 @@
+package com.example.payment.repository;
+
+import com.example.payment.entity.Payment;
+import com.example.payment.entity.PaymentStatistics;
+import com.scalar.db.api.Delete;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.exception.transaction.TransactionException;
+import com.scalar.db.io.Key;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sharded counters of payment count and amount per status, currency and day.
+ * Every change is also rolled up into ALL_CURRENCIES/ALL_DAYS rows, so any total is read from one partition.
+ */
+@Repository
+public class PaymentStatsRepository {
+    
+    private static final String NAMESPACE = "payment";
+    private static final String TABLE_NAME = "payment_stats";
+    
+    public static final String ALL_CURRENCIES = "*";
+    public static final long ALL_DAYS = -1L;
+    public static final int SHARDS = 8;
+    
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    
+    public void recordTransition(DistributedTransaction transaction, Payment payment, String previousStatus) 
+            throws TransactionException {
+        if (payment.getPaymentStatus().equals(previousStatus)) {
+            return;
+        }
+        if (previousStatus != null) {
+            applyDelta(transaction, previousStatus, payment, -1, -payment.getAmount());
+        }
+        applyDelta(transaction, payment.getPaymentStatus(), payment, 1, payment.getAmount());
+    }
+    
+    public PaymentStatistics getStatistics(DistributedTransaction transaction, String status, String currency, long statDay) 
+            throws TransactionException {
+        Scan scan = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .partitionKey(partitionKey(status, currency, statDay))
+            .build();
+        
+        PaymentStatistics statistics = new PaymentStatistics(status, currency, statDay);
+        for (Result result : transaction.scan(scan)) {
+            statistics.add(result.getBigInt("payment_count"), result.getBigInt("total_amount"));
+        }
+        return statistics;
+    }
+    
+    // Sums shards of every partition; only meant for offline reconciliation
+    public List<PaymentStatistics> findAll(DistributedTransaction transaction) throws TransactionException {
+        Scan scan = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .all()
+            .build();
+        
+        Map<List<Object>, PaymentStatistics> statistics = new LinkedHashMap<>();
+        for (Result result : transaction.scan(scan)) {
+            String status = result.getText("payment_status");
+            String currency = result.getText("currency");
+            long statDay = result.getBigInt("stat_day");
+            statistics.computeIfAbsent(List.of(status, currency, statDay), 
+                    key -> new PaymentStatistics(status, currency, statDay))
+                .add(result.getBigInt("payment_count"), result.getBigInt("total_amount"));
+        }
+        return new ArrayList<>(statistics.values());
+    }
+    
+    // Collapses all shards of the partition into shard 0 holding the given totals
+    public void overwrite(DistributedTransaction transaction, PaymentStatistics statistics) 
+            throws TransactionException {
+        Key partitionKey = partitionKey(statistics.getPaymentStatus(), statistics.getCurrency(), statistics.getStatDay());
+        transaction.put(Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .partitionKey(partitionKey)
+            .clusteringKey(Key.ofInt("shard_id", 0))
+            .bigIntValue("payment_count", statistics.getPaymentCount())
+            .bigIntValue("total_amount", statistics.getTotalAmount())
+            .bigIntValue("updated_at", System.currentTimeMillis())
+            .build());
+        for (int shardId = 1; shardId < SHARDS; shardId++) {
+            transaction.delete(Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(TABLE_NAME)
+                .partitionKey(partitionKey)
+                .clusteringKey(Key.ofInt("shard_id", shardId))
+                .build());
+        }
+    }
+    
+    public static long statDayOf(long createdAt) {
+        return Math.floorDiv(createdAt, DAY_MILLIS);
+    }
+    
+    private void applyDelta(DistributedTransaction transaction, String status, Payment payment, 
+                            long countDelta, long amountDelta) throws TransactionException {
+        long statDay = statDayOf(payment.getCreatedAt());
+        // A random shard per update keeps concurrent payments from conflicting on the same row
+        int shardId = ThreadLocalRandom.current().nextInt(SHARDS);
+        
+        increment(transaction, partitionKey(status, payment.getCurrency(), statDay), shardId, countDelta, amountDelta);
+        increment(transaction, partitionKey(status, payment.getCurrency(), ALL_DAYS), shardId, countDelta, amountDelta);
+        increment(transaction, partitionKey(status, ALL_CURRENCIES, ALL_DAYS), shardId, countDelta, amountDelta);
+    }
+    
+    private void increment(DistributedTransaction transaction, Key partitionKey, int shardId, 
+                           long countDelta, long amountDelta) throws TransactionException {
+        Get get = Get.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .partitionKey(partitionKey)
+            .clusteringKey(Key.ofInt("shard_id", shardId))
+            .build();
+        
+        Optional<Result> current = transaction.get(get);
+        long count = current.map(r -> r.getBigInt("payment_count")).orElse(0L);
+        long amount = current.map(r -> r.getBigInt("total_amount")).orElse(0L);
+        
+        Put put = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(TABLE_NAME)
+            .partitionKey(partitionKey)
+            .clusteringKey(Key.ofInt("shard_id", shardId))
+            .bigIntValue("payment_count", count + countDelta)
+            .bigIntValue("total_amount", amount + amountDelta)
+            .bigIntValue("updated_at", System.currentTimeMillis())
+            .build();
+        
+        transaction.put(put);
+    }
+    
+    private Key partitionKey(String status, String currency, long statDay) {
+        return Key.newBuilder()
+            .addText("payment_status", status)
+            .addText("currency", currency)
+            .addBigInt("stat_day", statDay)
+            .build();
+    }
+}
\ No newline at end of file
@@ -8,7 +8,6 @@ import com.scalar.db.api.Result;
 import com.scalar.db.api.Scan;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.TextValue;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +18,19 @@ public class RefundRepository {
     
     private static final String NAMESPACE = "payment";
     private static final String TABLE_NAME = "refunds";
+    private static final ResultMapper<Refund> REFUND_MAPPER = ResultMapper.of(Refund::new)
+        .text("refund_id", Refund::setRefundId)
+        .text("payment_id", Refund::setPaymentId)
+        .text("order_id", Refund::setOrderId)
+        .bigIntValue("refund_amount", Refund::setRefundAmount)
+        .text("currency", Refund::setCurrency)
+        .text("refund_reason", Refund::setRefundReason)
+        .text("refund_status", Refund::setRefundStatus)
+        .text("provider_refund_id", Refund::setProviderRefundId)
+        .bigIntValue("processed_at", Refund::setProcessedAt)
+        .bigIntValue("created_at", Refund::setCreatedAt)
+        .bigIntValue("updated_at", Refund::setUpdatedAt)
+        .build();
     
     public Optional<Refund> findById(DistributedTransaction transaction, String refundId) 
             throws TransactionException {
@@ -83,26 +95,19 @@ public class RefundRepository {
                 .sum();
     }
     
+    public int countCompletedRefunds(DistributedTransaction transaction, String paymentId) 
+            throws TransactionException {
+        return (int) findByPaymentId(transaction, paymentId).stream()
+                .filter(refund -> "COMPLETED".equals(refund.getRefundStatus()))
+                .count();
+    }
+    
     public boolean existsById(DistributedTransaction transaction, String refundId) 
             throws TransactionException {
         return findById(transaction, refundId).isPresent();
     }
     
     private Refund mapResultToRefund(Result result) {
-        Refund refund = new Refund();
-        
-        result.getValue("refund_id").ifPresent(v -> refund.setRefundId(((TextValue) v).get()));
-        result.getValue("payment_id").ifPresent(v -> refund.setPaymentId(((TextValue) v).get()));
-        result.getValue("order_id").ifPresent(v -> refund.setOrderId(((TextValue) v).get()));
-        result.getValue("refund_amount").ifPresent(v -> refund.setRefundAmount(v.getAsLong()));
-        result.getValue("currency").ifPresent(v -> refund.setCurrency(((TextValue) v).get()));
-        result.getValue("refund_reason").ifPresent(v -> refund.setRefundReason(((TextValue) v).get()));
-        result.getValue("refund_status").ifPresent(v -> refund.setRefundStatus(((TextValue) v).get()));
-        result.getValue("provider_refund_id").ifPresent(v -> refund.setProviderRefundId(((TextValue) v).get()));
-        result.getValue("processed_at").ifPresent(v -> refund.setProcessedAt(v.getAsLong()));
-        result.getValue("created_at").ifPresent(v -> refund.setCreatedAt(v.getAsLong()));
-        result.getValue("updated_at").ifPresent(v -> refund.setUpdatedAt(v.getAsLong()));
-        
-        return refund;
+        return REFUND_MAPPER.map(result);
     }
 }
\ No newline at end of file
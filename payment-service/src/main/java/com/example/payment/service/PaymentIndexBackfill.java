@@ -0,0 +1,42 @@
+package com.example.payment.service;
+
+import com.example.common.scalardb.ChunkedBackfill;
+import com.example.payment.entity.Payment;
+import com.example.payment.repository.PaymentRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Optional;
+
+// Populates payments_by_customer/order/status for rows written before the index tables existed
+@Component
+@ConditionalOnProperty(name = "payment.index-backfill.enabled", havingValue = "true")
+public class PaymentIndexBackfill extends ChunkedBackfill {
+    
+    private final PaymentRepository paymentRepository;
+    
+    public PaymentIndexBackfill(DistributedTransactionManager transactionManager,
+                                PaymentRepository paymentRepository,
+                                @Value("${payment.index-backfill.batch-size:100}") int batchSize) {
+        super(transactionManager, "payment index", batchSize);
+        this.paymentRepository = paymentRepository;
+    }
+    
+    @Override
+    protected List<String> loadIds(DistributedTransaction transaction) throws Exception {
+        return paymentRepository.findAllPaymentIds(transaction);
+    }
+    
+    @Override
+    protected boolean backfill(String paymentId, DistributedTransaction transaction) throws Exception {
+        Optional<Payment> payment = paymentRepository.findById(transaction, paymentId);
+        if (payment.isEmpty()) {
+            return false;
+        }
+        paymentRepository.saveIndexes(transaction, payment.get());
+        return true;
+    }
+}
\ No newline at end of file
@@ -1,10 +1,17 @@
 package com.example.payment.service;
 
+import com.example.common.outbox.OutboxEvent;
+import com.example.common.outbox.OutboxRepository;
+import com.example.common.scalardb.ReadOnlyTransactionManager;
+import com.example.common.scalardb.TransactionBatchExecutor;
+import com.example.payment.dto.BulkRefundItem;
 import com.example.payment.dto.CreatePaymentRequest;
 import com.example.payment.dto.CreateRefundRequest;
+import com.example.payment.dto.CursorPage;
 import com.example.payment.dto.ExecutePaymentRequest;
 import com.example.payment.entity.Payment;
 import com.example.payment.entity.PaymentMethodType;
+import com.example.payment.entity.PaymentStatistics;
 import com.example.payment.entity.PaymentStatus;
 import com.example.payment.entity.Refund;
 import com.example.payment.entity.RefundStatus;
@@ -12,6 +19,7 @@ import com.example.payment.exception.InvalidPaymentStatusException;
 import com.example.payment.exception.PaymentNotFoundException;
 import com.example.payment.exception.PaymentProviderException;
 import com.example.payment.repository.PaymentRepository;
+import com.example.payment.repository.PaymentStatsRepository;
 import com.example.payment.repository.RefundRepository;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
@@ -19,9 +27,15 @@ import com.scalar.db.exception.transaction.TransactionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -30,18 +44,45 @@ public class PaymentService {
     
     private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
     
+    public static final String PAYMENT_AGGREGATE = "Payment";
+    
     @Autowired
     private DistributedTransactionManager transactionManager;
     
+    @Autowired
+    private ReadOnlyTransactionManager readOnlyTransactionManager;
+    
     @Autowired
     private PaymentRepository paymentRepository;
     
     @Autowired
     private RefundRepository refundRepository;
     
+    @Autowired
+    private PaymentStatsRepository paymentStatsRepository;
+    
+    @Autowired
+    private OutboxRepository outboxRepository;
+    
     @Autowired
     private PaymentProviderService paymentProviderService;
     
+    @Autowired
+    private TransactionBatchExecutor batchExecutor;
+    
+    // Cross-checks the running refund totals on payments against the refunds table while migrating
+    @Value("${payment.refund.verify-running-totals:false}")
+    private boolean verifyRunningRefundTotals;
+    
+    @Value("${payment.pagination.default-page-size:20}")
+    private int defaultPageSize = 20;
+    
+    @Value("${payment.pagination.max-page-size:100}")
+    private int maxPageSize = 100;
+    
+    @Value("${payment.export.page-size:500}")
+    private int exportPageSize = 500;
+    
     public Payment createPayment(CreatePaymentRequest request) {
         DistributedTransaction transaction = transactionManager.start();
         try {
@@ -61,6 +102,8 @@ public class PaymentService {
             payment.setPaymentMethodTypeEnum(PaymentMethodType.CREDIT_CARD);
             
             paymentRepository.save(transaction, payment);
+            paymentStatsRepository.recordTransition(transaction, payment, null);
+            appendPaymentEvent(transaction, "PaymentCreated", payment, null);
             transaction.commit();
             
             log.info("Created payment: {}", paymentId);
@@ -83,6 +126,8 @@ public class PaymentService {
             
             Payment payment = paymentOpt.get();
             
+            String previousStatus = payment.getPaymentStatus();
+            
             // Check payment status
             if (payment.getPaymentStatusEnum() != PaymentStatus.PENDING) {
                 throw new InvalidPaymentStatusException("Payment is not in pending status: " + paymentId);
@@ -126,6 +171,8 @@ public class PaymentService {
             payment.setVersion(payment.getVersion() + 1);
             
             paymentRepository.save(transaction, payment);
+            paymentStatsRepository.recordTransition(transaction, payment, previousStatus);
+            appendPaymentEvent(transaction, "PaymentStatusChanged", payment, previousStatus);
             transaction.commit();
             
             log.info("Executed payment: {} with status: {}", paymentId, payment.getPaymentStatus());
@@ -168,6 +215,8 @@ public class PaymentService {
             payment.setVersion(payment.getVersion() + 1);
             
             paymentRepository.save(transaction, payment);
+            paymentStatsRepository.recordTransition(transaction, payment, currentStatus.name());
+            appendPaymentEvent(transaction, "PaymentCancelled", payment, currentStatus.name());
             transaction.commit();
             
             log.info("Cancelled payment: {}", paymentId);
@@ -181,91 +230,165 @@ public class PaymentService {
     public Refund processRefund(String paymentId, CreateRefundRequest request) {
         DistributedTransaction transaction = transactionManager.start();
         try {
-            // Get payment
-            Optional<Payment> paymentOpt = paymentRepository.findById(transaction, paymentId);
-            if (paymentOpt.isEmpty()) {
-                throw new PaymentNotFoundException("Payment not found: " + paymentId);
-            }
-            
-            Payment payment = paymentOpt.get();
-            
-            // Check if payment can be refunded
-            if (payment.getPaymentStatusEnum() != PaymentStatus.CAPTURED) {
-                throw new InvalidPaymentStatusException("Payment cannot be refunded: " + paymentId);
-            }
-            
-            // Check refund amount
-            Long totalRefunded = refundRepository.getTotalRefundedAmount(transaction, paymentId);
-            Long availableAmount = payment.getAmount() - totalRefunded;
-            
-            if (request.getRefundAmount() > availableAmount) {
-                throw new IllegalArgumentException("Refund amount exceeds available amount");
-            }
+            Refund refund = processRefund(transaction, paymentId, request, 
+                                          UUID.randomUUID().toString(), new HashMap<>());
             
-            // Create refund
-            String refundId = UUID.randomUUID().toString();
-            Refund refund = new Refund(
-                refundId,
-                paymentId,
-                payment.getOrderId(),
-                request.getRefundAmount(),
-                request.getCurrency(),
-                request.getRefundReason()
-            );
+            transaction.commit();
             
-            try {
-                // Process refund through provider (mock implementation)
-                RefundProviderResponse providerResponse = paymentProviderService.processRefund(
+            log.info("Processed refund: {} for payment: {}", refund.getRefundId(), paymentId);
+            return refund;
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to process refund for payment: {}", paymentId, e);
+            throw new RuntimeException("Failed to process refund", e);
+        }
+    }
+    
+    /**
+     * Processes refunds in chunked transactions; results are index-aligned with the given items.
+     */
+    public TransactionBatchExecutor.BatchResult<Refund> processRefunds(List<BulkRefundItem> items) {
+        // Refund ids and provider responses are fixed per item so a chunk retried after an abort
+        // does not issue a second provider refund
+        Map<BulkRefundItem, String> refundIds = new IdentityHashMap<>();
+        items.forEach(item -> refundIds.put(item, UUID.randomUUID().toString()));
+        Map<String, RefundProviderResponse> providerResponses = new HashMap<>();
+        
+        return batchExecutor.execute(items, BulkRefundItem::getPaymentId, (transaction, item) -> 
+            processRefund(transaction, item.getPaymentId(), item.getRefundRequest(), 
+                          refundIds.get(item), providerResponses));
+    }
+    
+    private Refund processRefund(DistributedTransaction transaction, String paymentId, CreateRefundRequest request, 
+                                 String refundId, Map<String, RefundProviderResponse> providerResponses) 
+            throws TransactionException {
+        // Get payment
+        Optional<Payment> paymentOpt = paymentRepository.findById(transaction, paymentId);
+        if (paymentOpt.isEmpty()) {
+            throw new PaymentNotFoundException("Payment not found: " + paymentId);
+        }
+        
+        Payment payment = paymentOpt.get();
+        
+        // Check if payment can be refunded; a partially refunded payment keeps its remaining balance
+        if (payment.getPaymentStatusEnum() != PaymentStatus.CAPTURED
+                && payment.getPaymentStatusEnum() != PaymentStatus.PARTIALLY_REFUNDED) {
+            throw new InvalidPaymentStatusException("Payment cannot be refunded: " + paymentId);
+        }
+        
+        // Check refund amount
+        if (request.getRefundAmount() == null || request.getRefundAmount() <= 0) {
+            throw new IllegalArgumentException("Refund amount must be positive");
+        }
+        Long totalRefunded = refundedAmountOf(transaction, payment);
+        Long availableAmount = payment.getAmount() - totalRefunded;
+        
+        if (request.getRefundAmount() > availableAmount) {
+            throw new IllegalArgumentException("Refund amount exceeds available amount");
+        }
+        
+        // Create refund
+        String currency = request.getCurrency() != null ? request.getCurrency() : payment.getCurrency();
+        Refund refund = new Refund(
+            refundId,
+            paymentId,
+            payment.getOrderId(),
+            request.getRefundAmount(),
+            currency,
+            request.getRefundReason()
+        );
+        
+        try {
+            // Process refund through provider (mock implementation)
+            RefundProviderResponse providerResponse = providerResponses.get(refundId);
+            if (providerResponse == null) {
+                providerResponse = paymentProviderService.processRefund(
                     RefundProviderRequest.builder()
                         .originalTransactionId(payment.getProviderTransactionId())
                         .refundAmount(request.getRefundAmount())
-                        .currency(request.getCurrency())
+                        .currency(currency)
                         .reason(request.getRefundReason())
                         .build()
                 );
-                
-                if (providerResponse.isSuccess()) {
-                    refund.setRefundStatusEnum(RefundStatus.COMPLETED);
-                    refund.setProviderRefundId(providerResponse.getRefundId());
-                    refund.setProcessedAt(System.currentTimeMillis());
-                } else {
-                    refund.setRefundStatusEnum(RefundStatus.FAILED);
-                }
-                
-            } catch (Exception e) {
-                refund.setRefundStatusEnum(RefundStatus.FAILED);
-                log.error("Refund provider error for payment: {}", paymentId, e);
+                providerResponses.put(refundId, providerResponse);
             }
             
-            refund.setUpdatedAt(System.currentTimeMillis());
-            refundRepository.save(transaction, refund);
-            
-            // Update payment status if fully refunded
-            if (refund.getRefundStatusEnum() == RefundStatus.COMPLETED) {
-                Long newTotalRefunded = totalRefunded + request.getRefundAmount();
-                if (newTotalRefunded.equals(payment.getAmount())) {
-                    payment.setPaymentStatusEnum(PaymentStatus.REFUNDED);
-                } else {
-                    payment.setPaymentStatusEnum(PaymentStatus.PARTIALLY_REFUNDED);
-                }
-                payment.setUpdatedAt(System.currentTimeMillis());
-                payment.setVersion(payment.getVersion() + 1);
-                paymentRepository.save(transaction, payment);
+            if (providerResponse.isSuccess()) {
+                refund.setRefundStatusEnum(RefundStatus.COMPLETED);
+                refund.setProviderRefundId(providerResponse.getRefundId());
+                refund.setProcessedAt(System.currentTimeMillis());
+            } else {
+                refund.setRefundStatusEnum(RefundStatus.FAILED);
             }
             
-            transaction.commit();
-            
-            log.info("Processed refund: {} for payment: {}", refundId, paymentId);
-            return refund;
         } catch (Exception e) {
-            transaction.abort();
-            log.error("Failed to process refund for payment: {}", paymentId, e);
-            throw new RuntimeException("Failed to process refund", e);
+            refund.setRefundStatusEnum(RefundStatus.FAILED);
+            log.error("Refund provider error for payment: {}", paymentId, e);
+        }
+        
+        refund.setUpdatedAt(System.currentTimeMillis());
+        refundRepository.save(transaction, refund);
+        
+        // Update payment status if fully refunded
+        if (refund.getRefundStatusEnum() == RefundStatus.COMPLETED) {
+            Long newTotalRefunded = totalRefunded + request.getRefundAmount();
+            String previousStatus = payment.getPaymentStatus();
+            payment.setRefundedAmount(newTotalRefunded);
+            payment.setRefundCount(payment.getRefundCount() + 1);
+            if (newTotalRefunded.equals(payment.getAmount())) {
+                payment.setPaymentStatusEnum(PaymentStatus.REFUNDED);
+            } else {
+                payment.setPaymentStatusEnum(PaymentStatus.PARTIALLY_REFUNDED);
+            }
+            payment.setUpdatedAt(System.currentTimeMillis());
+            payment.setVersion(payment.getVersion() + 1);
+            paymentRepository.save(transaction, payment);
+            paymentStatsRepository.recordTransition(transaction, payment, previousStatus);
         }
+        
+        outboxRepository.append(PAYMENT_AGGREGATE, paymentId, "RefundProcessed", OutboxEvent.payload(
+            "refundId", refund.getRefundId(),
+            "orderId", refund.getOrderId(),
+            "refundStatus", refund.getRefundStatus(),
+            "refundAmount", refund.getRefundAmount(),
+            "currency", refund.getCurrency(),
+            "paymentStatus", payment.getPaymentStatus()), transaction);
+        
+        return refund;
+    }
+    
+    // Recorded in the same transaction as the payment change, so the event exists exactly when the change commits
+    private void appendPaymentEvent(DistributedTransaction transaction, String eventType, Payment payment, 
+                                    String previousStatus) throws TransactionException {
+        outboxRepository.append(PAYMENT_AGGREGATE, payment.getPaymentId(), eventType, OutboxEvent.payload(
+            "orderId", payment.getOrderId(),
+            "customerId", payment.getCustomerId(),
+            "status", payment.getPaymentStatus(),
+            "previousStatus", previousStatus,
+            "amount", payment.getAmount(),
+            "currency", payment.getCurrency()), transaction);
+    }
+    
+    private Long refundedAmountOf(DistributedTransaction transaction, Payment payment) 
+            throws TransactionException {
+        if (payment.getRefundedAmount() == null) {
+            // Payment written before running totals existed; initialize them from its refunds
+            payment.setRefundedAmount(refundRepository.getTotalRefundedAmount(transaction, payment.getPaymentId()));
+            payment.setRefundCount(refundRepository.countCompletedRefunds(transaction, payment.getPaymentId()));
+        } else if (verifyRunningRefundTotals) {
+            Long summed = refundRepository.getTotalRefundedAmount(transaction, payment.getPaymentId());
+            if (!summed.equals(payment.getRefundedAmount())) {
+                log.warn("Refunded amount mismatch for payment: {} (running total: {}, summed: {})", 
+                    payment.getPaymentId(), payment.getRefundedAmount(), summed);
+                payment.setRefundedAmount(summed);
+                payment.setRefundCount(refundRepository.countCompletedRefunds(transaction, payment.getPaymentId()));
+            }
+        }
+        return payment.getRefundedAmount();
     }
     
     public Optional<Payment> getPayment(String paymentId) {
-        DistributedTransaction transaction = transactionManager.start();
+        DistributedTransaction transaction = readOnlyTransactionManager.start();
         try {
             Optional<Payment> payment = paymentRepository.findById(transaction, paymentId);
             transaction.commit();
@@ -290,6 +413,79 @@ public class PaymentService {
         }
     }
     
+    /**
+     * Returns one page of payments filtered by customer, order or status, in that
+     * order of precedence. The requested limit is clamped to the configured maximum.
+     */
+    public CursorPage<Payment> getPayments(String customerId, String orderId, String status, 
+            String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            CursorPage<Payment> page;
+            if (customerId != null) {
+                page = paymentRepository.findByCustomerId(transaction, customerId, cursor, pageSize);
+            } else if (orderId != null) {
+                page = paymentRepository.findByOrderId(transaction, orderId, cursor, pageSize);
+            } else if (status != null) {
+                page = paymentRepository.findByStatus(transaction, status, cursor, pageSize);
+            } else {
+                page = CursorPage.empty();
+            }
+            transaction.commit();
+            return page;
+        } catch (IllegalArgumentException e) {
+            transaction.abort();
+            throw e;
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to get payments page", e);
+            throw new RuntimeException("Failed to get payments", e);
+        }
+    }
+    
+    /**
+     * Returns one export page of payments in a status, optionally restricted to payments
+     * created on the given UTC day. Each page is read in its own transaction.
+     */
+    public CursorPage<Payment> getPaymentExportPage(String status, LocalDate createdOn, String cursor) {
+        Long createdFrom = createdOn != null ? createdOn.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli() : null;
+        Long createdTo = createdOn != null ? createdOn.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli() : null;
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            CursorPage<Payment> page = paymentRepository.findByStatus(transaction, status, 
+                createdFrom, createdTo, cursor, exportPageSize);
+            transaction.commit();
+            return page;
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to read payment export page for status: {}", status, e);
+            throw new RuntimeException("Failed to export payments", e);
+        }
+    }
+    
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+    
+    public PaymentStatistics getPaymentStatistics(String status, String currency, Long statDay) {
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            PaymentStatistics statistics = paymentStatsRepository.getStatistics(transaction, status, 
+                currency != null ? currency : PaymentStatsRepository.ALL_CURRENCIES, 
+                statDay != null ? statDay : PaymentStatsRepository.ALL_DAYS);
+            transaction.commit();
+            return statistics;
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to get payment statistics for status: {}", status, e);
+            throw new RuntimeException("Failed to get payment statistics", e);
+        }
+    }
+    
     public Optional<Refund> getRefund(String refundId) {
         DistributedTransaction transaction = transactionManager.start();
         try {
@@ -0,0 +1,111 @@
+package com.example.payment.service;
+
+import com.example.payment.entity.Payment;
+import com.example.payment.entity.PaymentStatistics;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.repository.PaymentStatsRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Offline check of payment_stats against a full scan of payments; optionally rewrites mismatched totals
+@Component
+@ConditionalOnProperty(name = "payment.stats.reconciliation.enabled", havingValue = "true")
+public class PaymentStatsReconciler implements ApplicationRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(PaymentStatsReconciler.class);
+    
+    @Autowired
+    private DistributedTransactionManager transactionManager;
+    
+    @Autowired
+    private PaymentRepository paymentRepository;
+    
+    @Autowired
+    private PaymentStatsRepository paymentStatsRepository;
+    
+    @Value("${payment.stats.reconciliation.repair:false}")
+    private boolean repair;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        Map<List<Object>, PaymentStatistics> expected = new LinkedHashMap<>();
+        Map<List<Object>, PaymentStatistics> actual = new LinkedHashMap<>();
+        
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            for (Payment payment : paymentRepository.findAll(transaction)) {
+                long statDay = PaymentStatsRepository.statDayOf(payment.getCreatedAt());
+                accumulate(expected, payment, payment.getCurrency(), statDay);
+                accumulate(expected, payment, payment.getCurrency(), PaymentStatsRepository.ALL_DAYS);
+                accumulate(expected, payment, PaymentStatsRepository.ALL_CURRENCIES, PaymentStatsRepository.ALL_DAYS);
+            }
+            for (PaymentStatistics statistics : paymentStatsRepository.findAll(transaction)) {
+                actual.put(keyOf(statistics), statistics);
+            }
+            transaction.commit();
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to load payment statistics for reconciliation", e);
+            throw new RuntimeException("Failed to load payment statistics for reconciliation", e);
+        }
+        
+        List<PaymentStatistics> mismatched = new ArrayList<>();
+        for (PaymentStatistics statistics : actual.values()) {
+            expected.computeIfAbsent(keyOf(statistics), key -> new PaymentStatistics(
+                statistics.getPaymentStatus(), statistics.getCurrency(), statistics.getStatDay()));
+        }
+        for (Map.Entry<List<Object>, PaymentStatistics> entry : expected.entrySet()) {
+            PaymentStatistics want = entry.getValue();
+            PaymentStatistics have = actual.get(entry.getKey());
+            long haveCount = have != null ? have.getPaymentCount() : 0;
+            long haveAmount = have != null ? have.getTotalAmount() : 0;
+            if (haveCount != want.getPaymentCount() || haveAmount != want.getTotalAmount()) {
+                log.warn("Payment statistics mismatch for {}: expected count={} amount={}, found count={} amount={}", 
+                    entry.getKey(), want.getPaymentCount(), want.getTotalAmount(), haveCount, haveAmount);
+                mismatched.add(want);
+            }
+        }
+        
+        log.info("Payment statistics reconciliation checked {} aggregates: {} mismatched", 
+            expected.size(), mismatched.size());
+        if (repair && !mismatched.isEmpty()) {
+            repair(mismatched);
+        }
+    }
+    
+    private void repair(List<PaymentStatistics> mismatched) {
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            for (PaymentStatistics statistics : mismatched) {
+                paymentStatsRepository.overwrite(transaction, statistics);
+            }
+            transaction.commit();
+            log.info("Repaired {} payment statistics aggregates", mismatched.size());
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to repair payment statistics", e);
+            throw new RuntimeException("Failed to repair payment statistics", e);
+        }
+    }
+    
+    private void accumulate(Map<List<Object>, PaymentStatistics> totals, Payment payment, String currency, long statDay) {
+        PaymentStatistics statistics = new PaymentStatistics(payment.getPaymentStatus(), currency, statDay);
+        totals.computeIfAbsent(keyOf(statistics), key -> statistics).add(1, payment.getAmount());
+    }
+    
+    private List<Object> keyOf(PaymentStatistics statistics) {
+        return List.of(statistics.getPaymentStatus(), statistics.getCurrency(), statistics.getStatDay());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.example.payment.repository;
+
+import com.example.payment.entity.Payment;
+import com.scalar.db.api.Delete;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Result;
+import com.scalar.db.io.Key;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentRepositoryTest {
+    
+    private static final long CREATED_AT = 1_700_000_000_000L;
+    
+    @Mock
+    private DistributedTransaction transaction;
+    
+    private final PaymentRepository paymentRepository = new PaymentRepository();
+    
+    @Test
+    void save_StatusChanged_MovesStatusIndexRow() throws Exception {
+        // Given
+        Payment stored = payment("PENDING");
+        when(transaction.get(any(Get.class))).thenReturn(Optional.of(storedRow(stored)));
+        
+        // When
+        paymentRepository.save(transaction, payment("CAPTURED"));
+        
+        // Then
+        ArgumentCaptor<Delete> deletes = ArgumentCaptor.forClass(Delete.class);
+        verify(transaction).delete(deletes.capture());
+        assertThat(deletes.getValue().forTable()).contains("payments_by_status");
+        assertThat(statusOf(deletes.getValue().getPartitionKey())).isEqualTo("PENDING");
+        
+        assertThat(putsTo("payments_by_status"))
+            .extracting(put -> statusOf(put.getPartitionKey()))
+            .containsExactly("CAPTURED");
+    }
+    
+    @Test
+    void save_StatusUnchanged_KeepsIndexRows() throws Exception {
+        // Given
+        Payment stored = payment("PENDING");
+        when(transaction.get(any(Get.class))).thenReturn(Optional.of(storedRow(stored)));
+        
+        // When
+        paymentRepository.save(transaction, payment("PENDING"));
+        
+        // Then
+        verify(transaction, never()).delete(any(Delete.class));
+        assertThat(putsTo("payments_by_status"))
+            .extracting(put -> statusOf(put.getPartitionKey()))
+            .containsExactly("PENDING");
+    }
+    
+    @Test
+    void save_NewPayment_WritesIndexesWithoutDeletes() throws Exception {
+        // Given
+        when(transaction.get(any(Get.class))).thenReturn(Optional.empty());
+        
+        // When
+        paymentRepository.save(transaction, payment("PENDING"));
+        
+        // Then
+        verify(transaction, never()).delete(any(Delete.class));
+        assertThat(putsTo("payments_by_customer")).hasSize(1);
+        assertThat(putsTo("payments_by_order")).hasSize(1);
+        assertThat(putsTo("payments_by_status")).hasSize(1);
+    }
+    
+    private List<Put> putsTo(String table) throws Exception {
+        ArgumentCaptor<Put> puts = ArgumentCaptor.forClass(Put.class);
+        verify(transaction, atLeastOnce()).put(puts.capture());
+        return puts.getAllValues().stream()
+            .filter(put -> put.forTable().filter(table::equals).isPresent())
+            .collect(Collectors.toList());
+    }
+    
+    // payments_by_status partition keys are (payment_status, status_bucket)
+    private static String statusOf(Key partitionKey) {
+        return partitionKey.getColumns().get(0).getTextValue();
+    }
+    
+    private static Payment payment(String status) {
+        Payment payment = new Payment();
+        payment.setPaymentId("PAY-001");
+        payment.setOrderId("ORD-001");
+        payment.setCustomerId("CUST-001");
+        payment.setAmount(5000L);
+        payment.setCurrency("JPY");
+        payment.setPaymentMethodId("PM-001");
+        payment.setPaymentStatus(status);
+        payment.setPaymentProvider("stripe");
+        payment.setCreatedAt(CREATED_AT);
+        payment.setUpdatedAt(CREATED_AT);
+        payment.setVersion(1);
+        return payment;
+    }
+    
+    // Result whose typed getters read the stored payment's columns
+    private static Result storedRow(Payment payment) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("payment_id", payment.getPaymentId());
+        columns.put("order_id", payment.getOrderId());
+        columns.put("customer_id", payment.getCustomerId());
+        columns.put("amount", payment.getAmount());
+        columns.put("currency", payment.getCurrency());
+        columns.put("payment_method_id", payment.getPaymentMethodId());
+        columns.put("payment_status", payment.getPaymentStatus());
+        columns.put("payment_provider", payment.getPaymentProvider());
+        columns.put("created_at", payment.getCreatedAt());
+        columns.put("updated_at", payment.getUpdatedAt());
+        columns.put("version", payment.getVersion());
+        return mock(Result.class, invocation -> {
+            Object column = columns.get(invocation.<String>getArgument(0));
+            switch (invocation.getMethod().getName()) {
+                case "contains":
+                    return columns.containsKey(invocation.<String>getArgument(0));
+                case "isNull":
+                    return column == null;
+                default:
+                    return column;
+            }
+        });
+    }
+}
\ No newline at end of file
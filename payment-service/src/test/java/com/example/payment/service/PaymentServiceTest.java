@@ -1,10 +1,14 @@
 package com.example.payment.service;
 
+import com.example.common.outbox.OutboxRepository;
 import com.example.payment.dto.CreatePaymentRequest;
+import com.example.payment.dto.CreateRefundRequest;
 import com.example.payment.dto.ExecutePaymentRequest;
 import com.example.payment.entity.Payment;
 import com.example.payment.entity.PaymentStatus;
+import com.example.payment.entity.Refund;
 import com.example.payment.repository.PaymentRepository;
+import com.example.payment.repository.PaymentStatsRepository;
 import com.example.payment.repository.RefundRepository;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
@@ -33,6 +37,12 @@ class PaymentServiceTest {
     @Mock
     private RefundRepository refundRepository;
     
+    @Mock
+    private PaymentStatsRepository paymentStatsRepository;
+    
+    @Mock
+    private OutboxRepository outboxRepository;
+    
     @Mock
     private PaymentProviderService paymentProviderService;
     
@@ -65,6 +75,8 @@ class PaymentServiceTest {
         assertThat(result.getPaymentStatusEnum()).isEqualTo(PaymentStatus.PENDING);
         
         verify(paymentRepository).save(transaction, any(Payment.class));
+        verify(outboxRepository).append(eq(PaymentService.PAYMENT_AGGREGATE), 
+            eq(result.getPaymentId()), eq("PaymentCreated"), anyMap(), eq(transaction));
         verify(transaction).commit();
     }
     
@@ -180,4 +192,84 @@ class PaymentServiceTest {
         verify(paymentRepository).save(transaction, any(Payment.class));
         verify(transaction).commit();
     }
+    
+    @Test
+    void cancelPayment_RecordsStatusTransitionInStatistics() throws Exception {
+        // Given
+        String paymentId = "PAY-001";
+        Payment payment = new Payment(paymentId, "ORDER-001", "CUST-001", 
+            15000L, "JPY", "PM-001", "stripe");
+        payment.setPaymentStatusEnum(PaymentStatus.PENDING);
+        
+        when(paymentRepository.findById(transaction, paymentId)).thenReturn(Optional.of(payment));
+        
+        // When
+        paymentService.cancelPayment(paymentId);
+        
+        // Then
+        verify(paymentStatsRepository).recordTransition(transaction, payment, "PENDING");
+        assertThat(payment.getPaymentStatusEnum()).isEqualTo(PaymentStatus.CANCELLED);
+    }
+    
+    @Test
+    void processRefund_UsesRunningRefundTotal() throws Exception {
+        // Given
+        String paymentId = "PAY-001";
+        Payment payment = new Payment(paymentId, "ORDER-001", "CUST-001", 
+            15000L, "JPY", "PM-001", "stripe");
+        payment.setPaymentStatusEnum(PaymentStatus.CAPTURED);
+        payment.setRefundedAmount(5000L);
+        payment.setRefundCount(2);
+        
+        when(paymentRepository.findById(transaction, paymentId)).thenReturn(Optional.of(payment));
+        when(paymentProviderService.processRefund(any())).thenReturn(
+            RefundProviderResponse.builder().success(true).refundId("re_12345").build());
+        
+        // When
+        Refund result = paymentService.processRefund(paymentId, 
+            new CreateRefundRequest(3000L, "JPY", "Damaged item"));
+        
+        // Then
+        assertThat(result.getRefundStatus()).isEqualTo("COMPLETED");
+        assertThat(payment.getRefundedAmount()).isEqualTo(8000L);
+        assertThat(payment.getRefundCount()).isEqualTo(3);
+        assertThat(payment.getPaymentStatusEnum()).isEqualTo(PaymentStatus.PARTIALLY_REFUNDED);
+        verify(refundRepository, never()).getTotalRefundedAmount(any(), any());
+        verify(transaction).commit();
+    }
+    
+    @Test
+    void processRefund_PartialRefundsThenFullRefund_AcceptsPartiallyRefundedPayment() throws Exception {
+        // Given
+        String paymentId = "PAY-001";
+        Payment payment = new Payment(paymentId, "ORDER-001", "CUST-001", 
+            15000L, "JPY", "PM-001", "stripe");
+        payment.setPaymentStatusEnum(PaymentStatus.CAPTURED);
+        payment.setRefundedAmount(0L);
+        payment.setRefundCount(0);
+        
+        when(paymentRepository.findById(transaction, paymentId)).thenReturn(Optional.of(payment));
+        when(paymentProviderService.processRefund(any())).thenReturn(
+            RefundProviderResponse.builder().success(true).refundId("re_12345").build());
+        
+        // When
+        paymentService.processRefund(paymentId, new CreateRefundRequest(3000L, "JPY", "Damaged item"));
+        paymentService.processRefund(paymentId, new CreateRefundRequest(2000L, "JPY", "Late delivery"));
+        PaymentStatus afterPartialRefunds = payment.getPaymentStatusEnum();
+        Refund result = paymentService.processRefund(paymentId, 
+            new CreateRefundRequest(10000L, "JPY", "Order returned"));
+        
+        // Then
+        assertThat(afterPartialRefunds).isEqualTo(PaymentStatus.PARTIALLY_REFUNDED);
+        assertThat(result.getRefundStatus()).isEqualTo("COMPLETED");
+        assertThat(payment.getRefundedAmount()).isEqualTo(15000L);
+        assertThat(payment.getRefundCount()).isEqualTo(3);
+        assertThat(payment.getPaymentStatusEnum()).isEqualTo(PaymentStatus.REFUNDED);
+        verify(transaction, times(3)).commit();
+        
+        assertThatThrownBy(() -> paymentService.processRefund(paymentId, 
+            new CreateRefundRequest(1L, "JPY", "Duplicate")))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("Failed to process refund");
+    }
 }
\ No newline at end of file
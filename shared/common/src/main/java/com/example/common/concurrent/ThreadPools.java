@@ -0,0 +1,55 @@
+package com.example.common.concurrent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools for work that runs off the request thread. Pools are wrapped with Micrometer
+ * executor metrics: pool size, active and queued tasks, rejections, plus timers for task run time
+ * (executor) and queue wait (executor.idle), tagged name=<pool>.
+ */
+public final class ThreadPools {
+
+    private ThreadPools() {
+    }
+
+    /**
+     * Daemon threads named {@code <name>-1}, {@code <name>-2}, ...
+     */
+    public static ThreadFactory daemonThreads(String name) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Fixed-size pool with an unbounded queue, for callers that bound their own submissions.
+     */
+    public static ExecutorService fixed(String name, int threads, MeterRegistry meterRegistry) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(threads, 1), daemonThreads(name));
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, name);
+    }
+
+    /**
+     * Pool that grows from coreSize to maxSize once its queue is full, and hands submissions beyond
+     * that to the rejection policy.
+     */
+    public static ExecutorService bounded(String name, int coreSize, int maxSize, int queueCapacity,
+                                          RejectedExecutionHandler rejectionPolicy, MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(coreSize, Math.max(coreSize, maxSize),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity), daemonThreads(name), rejectionPolicy);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, name);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.common.outbox;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Delivers relayed outbox events: each event is published in-process as an application event, and
+ * the batch is POSTed as a JSON array to every configured webhook. Any failure fails the whole
+ * batch, which the relay retries, so delivery is at-least-once and consumers should dedupe on eventId.
+ */
+public class OutboxDispatcher {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final RestTemplate restTemplate;
+    private final List<String> webhookUrls;
+
+    public OutboxDispatcher(ApplicationEventPublisher eventPublisher,
+                            RestTemplateBuilder restTemplateBuilder,
+                            List<String> webhookUrls,
+                            Duration webhookTimeout) {
+        this.eventPublisher = eventPublisher;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(webhookTimeout)
+                .setReadTimeout(webhookTimeout)
+                .build();
+        this.webhookUrls = webhookUrls;
+    }
+
+    public void dispatch(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            eventPublisher.publishEvent(event);
+        }
+        for (String url : webhookUrls) {
+            restTemplate.postForEntity(url, events, Void.class);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.example.common.outbox;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Event recorded in the outbox table in the same transaction as the change it describes.
+ * Events of one aggregate share a bucket and are relayed in sequence order.
+ */
+public class OutboxEvent {
+
+    private String eventId;
+    private int bucket;
+    private long sequence;
+    private String aggregateType;
+    private String aggregateId;
+    private String eventType;
+    // JSON object
+    private String payload;
+    private long createdAt;
+    // Failed deliveries of this event on its own; relay bookkeeping, not sent to consumers
+    private int attempts;
+    private String lastError;
+
+    public OutboxEvent() {}
+
+    /**
+     * Payload fields from alternating names and values; unlike Map.of, null values are kept.
+     */
+    public static Map<String, Object> payload(Object... namesAndValues) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            payload.put(String.valueOf(namesAndValues[i]), namesAndValues[i + 1]);
+        }
+        return payload;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public int getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(int bucket) {
+        this.bucket = bucket;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(String aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @JsonIgnore
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    @JsonIgnore
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
\ No newline at end of file
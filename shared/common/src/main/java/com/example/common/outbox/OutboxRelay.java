@@ -0,0 +1,180 @@
+package com.example.common.outbox;
+
+import com.example.common.concurrent.ThreadPools;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves committed outbox events to the dispatcher, one bucket at a time: the oldest batch is read in
+ * a short transaction, dispatched with no transaction open, and deleted in a fresh one. A batch that
+ * fails stays in place and blocks its bucket, which keeps per-aggregate ordering; the bucket is then
+ * retried one event at a time until the failing event is found, and an event that fails maxAttempts
+ * times on its own is moved to the dead-letter table so the events behind it can go through.
+ *
+ * <p>Not a component: each service declares it as a bean with its own properties, with start and stop
+ * as its init and destroy methods.
+ */
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final DistributedTransactionManager transactionManager;
+    private final OutboxRepository outboxRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long intervalMillis;
+    private final AtomicLong oldestEventAgeSeconds = new AtomicLong();
+    private final Counter deadLetteredCounter;
+    private ScheduledExecutorService scheduler;
+    // Creation time of the oldest event seen by the current run; only touched by the relay thread
+    private long oldestCreatedAt;
+
+    public OutboxRelay(DistributedTransactionManager transactionManager,
+                       OutboxRepository outboxRepository,
+                       OutboxDispatcher outboxDispatcher,
+                       MeterRegistry meterRegistry,
+                       int batchSize,
+                       int maxAttempts,
+                       Duration interval) {
+        this.transactionManager = transactionManager;
+        this.outboxRepository = outboxRepository;
+        this.outboxDispatcher = outboxDispatcher;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.intervalMillis = interval.toMillis();
+
+        Gauge.builder("outbox.oldest.age", oldestEventAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest outbox event waiting to be relayed, as of the last run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("outbox.dead.lettered")
+                .description("Outbox events moved to the dead-letter table after exhausting their attempts")
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(ThreadPools.daemonThreads("outbox-relay"));
+        scheduler.scheduleWithFixedDelay(this::relay, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void relay() {
+        oldestCreatedAt = Long.MAX_VALUE;
+        int relayed = 0;
+        for (int bucket = 0; bucket < OutboxRepository.BUCKETS; bucket++) {
+            relayed += relayBucket(bucket);
+        }
+        oldestEventAgeSeconds.set(oldestCreatedAt == Long.MAX_VALUE ? 0
+                : Math.max(0, (System.currentTimeMillis() - oldestCreatedAt) / 1000));
+        if (relayed > 0) {
+            logger.debug("Relayed {} outbox events", relayed);
+        }
+    }
+
+    int relayBucket(int bucket) {
+        List<OutboxEvent> events;
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            events = outboxRepository.findByBucket(bucket, batchSize, transaction);
+            transaction.commit();
+        } catch (Exception e) {
+            abortQuietly(transaction);
+            logger.warn("Failed to read outbox bucket {}, retrying on next run", bucket, e);
+            return 0;
+        }
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        OutboxEvent head = events.get(0);
+        oldestCreatedAt = Math.min(oldestCreatedAt, head.getCreatedAt());
+        // A head that has failed before goes alone, so a failure can be pinned on one event
+        List<OutboxEvent> batch = head.getAttempts() > 0 ? events.subList(0, 1) : events;
+        try {
+            outboxDispatcher.dispatch(batch);
+        } catch (Exception e) {
+            recordFailure(head, e);
+            return 0;
+        }
+
+        transaction = null;
+        try {
+            transaction = transactionManager.start();
+            for (OutboxEvent event : batch) {
+                outboxRepository.delete(event, transaction);
+            }
+            transaction.commit();
+            return batch.size();
+        } catch (Exception e) {
+            // Delivered but still stored: the batch goes out again on the next run
+            abortQuietly(transaction);
+            logger.warn("Failed to delete {} relayed outbox events from bucket {}", batch.size(), bucket, e);
+            return 0;
+        }
+    }
+
+    private void recordFailure(OutboxEvent head, Exception cause) {
+        head.setAttempts(head.getAttempts() + 1);
+        head.setLastError(truncate(String.valueOf(cause.getMessage())));
+        boolean exhausted = head.getAttempts() >= maxAttempts;
+
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            if (exhausted) {
+                outboxRepository.deadLetter(head, transaction);
+            } else {
+                outboxRepository.recordAttempt(head, transaction);
+            }
+            transaction.commit();
+        } catch (Exception e) {
+            abortQuietly(transaction);
+            logger.warn("Failed to record outbox delivery failure for event {}", head.getEventId(), e);
+            return;
+        }
+
+        if (exhausted) {
+            deadLetteredCounter.increment();
+            logger.error("Dead-lettered outbox event {} ({} {}) after {} attempts",
+                    head.getEventId(), head.getEventType(), head.getAggregateId(), head.getAttempts(), cause);
+        } else {
+            logger.warn("Failed to relay outbox bucket {} (attempt {} of {}), retrying on next run",
+                    head.getBucket(), head.getAttempts(), maxAttempts, cause);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private void abortQuietly(DistributedTransaction transaction) {
+        if (transaction == null) {
+            return;
+        }
+        try {
+            transaction.abort();
+        } catch (Exception e) {
+            logger.warn("Failed to abort transaction: {}", transaction.getId(), e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.example.common.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scalar.db.api.Delete;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.exception.transaction.CrudException;
+import com.scalar.db.io.Key;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox. Callers append events with the transaction that makes the business change,
+ * so an event is stored exactly when its change commits. Each aggregate maps to one bucket partition,
+ * clustered by a sequence that grows with time, so a bucket scan returns an aggregate's events in the
+ * order they were written. Events the relay gives up on move to the outbox_dead_letter table.
+ */
+public class OutboxRepository {
+
+    public static final int BUCKETS = 16;
+
+    private static final String TABLE_NAME = "outbox";
+    private static final String DEAD_LETTER_TABLE_NAME = "outbox_dead_letter";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String namespace;
+    // Microseconds since the epoch, bumped so events appended by this instance never share a sequence
+    private final AtomicLong lastSequence = new AtomicLong();
+
+    /**
+     * @param namespace the service's ScalarDB namespace holding the outbox tables
+     */
+    public OutboxRepository(String namespace) {
+        this.namespace = namespace;
+    }
+
+    public static int bucketOf(String aggregateId) {
+        return Math.floorMod(aggregateId.hashCode(), BUCKETS);
+    }
+
+    public OutboxEvent append(String aggregateType, String aggregateId, String eventType, Map<String, Object> payload,
+                              DistributedTransaction transaction) throws CrudException {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setBucket(bucketOf(aggregateId));
+        event.setCreatedAt(System.currentTimeMillis());
+        event.setSequence(lastSequence.accumulateAndGet(event.getCreatedAt() * 1000,
+                (last, candidate) -> Math.max(last + 1, candidate)));
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setPayload(toJson(payload));
+
+        Put put = Put.newBuilder()
+                .namespace(namespace)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", event.getBucket()))
+                .clusteringKey(Key.of("event_seq", event.getSequence(), "event_id", event.getEventId()))
+                .textValue("aggregate_type", event.getAggregateType())
+                .textValue("aggregate_id", event.getAggregateId())
+                .textValue("event_type", event.getEventType())
+                .textValue("payload", event.getPayload())
+                .bigIntValue("created_at_ms", event.getCreatedAt())
+                .intValue("attempts", 0)
+                .build();
+
+        transaction.put(put);
+        return event;
+    }
+
+    /**
+     * Oldest events of a bucket, in the order they were appended.
+     */
+    public List<OutboxEvent> findByBucket(int bucket, int limit, DistributedTransaction transaction) throws CrudException {
+        Scan scan = Scan.newBuilder()
+                .namespace(namespace)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", bucket))
+                .ordering(Scan.Ordering.asc("event_seq"))
+                .ordering(Scan.Ordering.asc("event_id"))
+                .limit(limit)
+                .build();
+
+        List<OutboxEvent> events = new ArrayList<>();
+        for (Result result : transaction.scan(scan)) {
+            events.add(mapResultToEvent(result));
+        }
+        return events;
+    }
+
+    /**
+     * Records a failed delivery on the event, which stays at the head of its bucket.
+     */
+    public void recordAttempt(OutboxEvent event, DistributedTransaction transaction) throws CrudException {
+        Put put = Put.newBuilder()
+                .namespace(namespace)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", event.getBucket()))
+                .clusteringKey(Key.of("event_seq", event.getSequence(), "event_id", event.getEventId()))
+                .intValue("attempts", event.getAttempts())
+                .textValue("last_error", event.getLastError())
+                .build();
+
+        transaction.put(put);
+    }
+
+    /**
+     * Moves the event to the dead-letter table, unblocking the events behind it in its bucket.
+     */
+    public void deadLetter(OutboxEvent event, DistributedTransaction transaction) throws CrudException {
+        Put put = Put.newBuilder()
+                .namespace(namespace)
+                .table(DEAD_LETTER_TABLE_NAME)
+                .partitionKey(Key.ofText("event_id", event.getEventId()))
+                .intValue("bucket", event.getBucket())
+                .bigIntValue("event_seq", event.getSequence())
+                .textValue("aggregate_type", event.getAggregateType())
+                .textValue("aggregate_id", event.getAggregateId())
+                .textValue("event_type", event.getEventType())
+                .textValue("payload", event.getPayload())
+                .bigIntValue("created_at_ms", event.getCreatedAt())
+                .intValue("attempts", event.getAttempts())
+                .textValue("last_error", event.getLastError())
+                .bigIntValue("dead_lettered_at_ms", System.currentTimeMillis())
+                .build();
+
+        transaction.put(put);
+        delete(event, transaction);
+    }
+
+    public void delete(OutboxEvent event, DistributedTransaction transaction) throws CrudException {
+        Delete delete = Delete.newBuilder()
+                .namespace(namespace)
+                .table(TABLE_NAME)
+                .partitionKey(Key.ofInt("bucket", event.getBucket()))
+                .clusteringKey(Key.of("event_seq", event.getSequence(), "event_id", event.getEventId()))
+                .build();
+
+        transaction.delete(delete);
+    }
+
+    private static OutboxEvent mapResultToEvent(Result result) {
+        OutboxEvent event = new OutboxEvent();
+        event.setBucket(result.getInt("bucket"));
+        event.setSequence(result.getBigInt("event_seq"));
+        event.setEventId(result.getText("event_id"));
+        event.setAggregateType(result.getText("aggregate_type"));
+        event.setAggregateId(result.getText("aggregate_id"));
+        event.setEventType(result.getText("event_type"));
+        event.setPayload(result.getText("payload"));
+        event.setCreatedAt(result.getBigInt("created_at_ms"));
+        // Events appended before attempts were tracked have the column null, which reads as 0
+        event.setAttempts(result.getInt("attempts"));
+        event.setLastError(result.getText("last_error"));
+        return event;
+    }
+
+    private static String toJson(Map<String, Object> payload) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+    }
+}
\ No newline at end of file
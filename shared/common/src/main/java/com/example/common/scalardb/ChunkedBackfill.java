@@ -0,0 +1,94 @@
+package com.example.common.scalardb;
+
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import java.util.List;
+
+/**
+ * Startup job that rewrites rows derived from a source table, such as index or summary rows, for
+ * data written before the derived table existed. The source ids are read once, then rewritten in
+ * chunks of batchSize, one transaction per chunk. A failed chunk stops the run; rerunning starts
+ * over, so backfill must be idempotent.
+ *
+ * <p>Subclasses are components gated on their own enabled property.
+ */
+public abstract class ChunkedBackfill implements ApplicationRunner {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final DistributedTransactionManager transactionManager;
+    private final String name;
+    private final int batchSize;
+
+    /**
+     * @param name what is backfilled, used in log messages, e.g. "reservation index"
+     */
+    protected ChunkedBackfill(DistributedTransactionManager transactionManager, String name, int batchSize) {
+        this.transactionManager = transactionManager;
+        this.name = name;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Ids of every source row to backfill.
+     */
+    protected abstract List<String> loadIds(DistributedTransaction transaction) throws Exception;
+
+    /**
+     * Rewrites the derived rows of one source row.
+     *
+     * @return false if the source row no longer exists
+     */
+    protected abstract boolean backfill(String id, DistributedTransaction transaction) throws Exception;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<String> ids = loadAllIds();
+        logger.info("Backfilling {} for {} rows", name, ids.size());
+
+        int backfilled = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            backfilled += backfillChunk(chunk);
+            logger.info("{} backfill progress: {}/{}", name, backfilled, ids.size());
+        }
+
+        logger.info("{} backfill completed: {} rows backfilled", name, backfilled);
+    }
+
+    private List<String> loadAllIds() throws Exception {
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            List<String> ids = loadIds(transaction);
+            transaction.commit();
+            return ids;
+        } catch (Exception e) {
+            transaction.abort();
+            logger.error("Failed to load ids for {} backfill", name, e);
+            throw e;
+        }
+    }
+
+    private int backfillChunk(List<String> ids) throws Exception {
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            int backfilled = 0;
+            for (String id : ids) {
+                if (backfill(id, transaction)) {
+                    backfilled++;
+                }
+            }
+            transaction.commit();
+            return backfilled;
+        } catch (Exception e) {
+            transaction.abort();
+            logger.error("Failed to backfill {} from {}", name, ids.get(0), e);
+            throw e;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,236 @@
+package com.example.common.scalardb;
+
+import com.scalar.db.api.Consistency;
+import com.scalar.db.api.Delete;
+import com.scalar.db.api.DistributedStorage;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.GetBuilder;
+import com.scalar.db.api.Mutation;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.api.ScanBuilder;
+import com.scalar.db.api.Scanner;
+import com.scalar.db.api.TransactionState;
+import com.scalar.db.exception.storage.ExecutionException;
+import com.scalar.db.exception.transaction.CrudException;
+import com.scalar.db.exception.transaction.TransactionException;
+import com.scalar.db.transaction.consensuscommit.Attribute;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Starts read-only transactions for pure query paths. A read-only transaction reads straight
+ * from DistributedStorage and returns records whose last writer has committed, so it writes no
+ * coordinator state and has nothing to validate on commit. A record still held by an in-flight
+ * transaction (PREPARED or DELETED) sends that read through a short consensus-commit transaction
+ * instead, which also runs lazy recovery on it. Each read is committed-consistent on its own;
+ * reads do not share a snapshot, so callers that need a consistent view across several rows
+ * must keep using a full transaction.
+ *
+ * <p>Not a component: each service declares it as a bean, reading its own enabled property.
+ */
+public class ReadOnlyTransactionManager {
+
+    private final DistributedStorage storage;
+    private final DistributedTransactionManager transactionManager;
+    private final boolean enabled;
+
+    public ReadOnlyTransactionManager(DistributedStorage storage,
+                                      DistributedTransactionManager transactionManager,
+                                      boolean enabled) {
+        this.storage = storage;
+        this.transactionManager = transactionManager;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts a read-only transaction, or a regular transaction when read-only queries are disabled.
+     * Commit and abort are no-ops on a read-only transaction; writes are rejected.
+     */
+    public DistributedTransaction start() throws TransactionException {
+        if (!enabled) {
+            return transactionManager.start();
+        }
+        return new ReadOnlyTransaction(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Whether start() hands out read-only transactions. Those keep no per-transaction state,
+     * so one instance can serve reads from several threads.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static boolean isCommitted(Result result) {
+        return result.contains(Attribute.STATE) && !result.isNull(Attribute.STATE)
+                && result.getInt(Attribute.STATE) == TransactionState.COMMITTED.get();
+    }
+
+    // Copies keep the caller's operation intact for the fallback read; projected reads still
+    // need the record state to tell committed rows apart
+    private static Get forStorage(Get get) {
+        GetBuilder.BuildableGetOrGetWithIndexFromExisting builder =
+                Get.newBuilder(get).consistency(Consistency.LINEARIZABLE);
+        if (!get.getProjections().isEmpty()) {
+            builder.projection(Attribute.STATE);
+        }
+        return builder.build();
+    }
+
+    private static Scan forStorage(Scan scan) {
+        ScanBuilder.BuildableScanOrScanAllFromExisting builder =
+                Scan.newBuilder(scan).consistency(Consistency.LINEARIZABLE);
+        if (!scan.getProjections().isEmpty()) {
+            builder.projection(Attribute.STATE);
+        }
+        return builder.build();
+    }
+
+    @FunctionalInterface
+    private interface TransactionalRead<T> {
+        T read(DistributedTransaction transaction) throws CrudException;
+    }
+
+    private final class ReadOnlyTransaction implements DistributedTransaction {
+
+        private final String id;
+
+        private ReadOnlyTransaction(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public Optional<Result> get(Get get) throws CrudException {
+            Optional<Result> result;
+            try {
+                result = storage.get(forStorage(get));
+            } catch (ExecutionException e) {
+                throw new CrudException("Read-only get failed", e, id);
+            }
+            if (result.isPresent() && !isCommitted(result.get())) {
+                return readInTransaction(transaction -> transaction.get(get));
+            }
+            return result;
+        }
+
+        @Override
+        public List<Result> scan(Scan scan) throws CrudException {
+            List<Result> results;
+            try (Scanner scanner = storage.scan(forStorage(scan))) {
+                results = scanner.all();
+            } catch (ExecutionException | IOException e) {
+                throw new CrudException("Read-only scan failed", e, id);
+            }
+            for (Result result : results) {
+                if (!isCommitted(result)) {
+                    return readInTransaction(transaction -> transaction.scan(scan));
+                }
+            }
+            return results;
+        }
+
+        private <T> T readInTransaction(TransactionalRead<T> read) throws CrudException {
+            DistributedTransaction transaction;
+            try {
+                transaction = transactionManager.start();
+            } catch (TransactionException e) {
+                throw new CrudException("Failed to start fallback read transaction", e, id);
+            }
+            try {
+                T value = read.read(transaction);
+                transaction.commit();
+                return value;
+            } catch (TransactionException e) {
+                try {
+                    transaction.abort();
+                } catch (TransactionException abortException) {
+                    e.addSuppressed(abortException);
+                }
+                if (e instanceof CrudException) {
+                    throw (CrudException) e;
+                }
+                throw new CrudException("Fallback read transaction failed", e, transaction.getId());
+            }
+        }
+
+        @Override
+        public void put(Put put) {
+            throw new UnsupportedOperationException("Read-only transaction");
+        }
+
+        @Override
+        public void put(List<Put> puts) {
+            throw new UnsupportedOperationException("Read-only transaction");
+        }
+
+        @Override
+        public void delete(Delete delete) {
+            throw new UnsupportedOperationException("Read-only transaction");
+        }
+
+        @Override
+        public void delete(List<Delete> deletes) {
+            throw new UnsupportedOperationException("Read-only transaction");
+        }
+
+        @Override
+        public void mutate(List<? extends Mutation> mutations) {
+            throw new UnsupportedOperationException("Read-only transaction");
+        }
+
+        @Override
+        public void commit() {
+            // Nothing was written and nothing needs validating
+        }
+
+        @Override
+        public void rollback() {
+        }
+
+        @Override
+        public void abort() {
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void with(String namespace, String tableName) {
+            throw new UnsupportedOperationException("Operations must name their namespace and table");
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void withNamespace(String namespace) {
+            throw new UnsupportedOperationException("Operations must name their namespace and table");
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public Optional<String> getNamespace() {
+            return Optional.empty();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void withTable(String tableName) {
+            throw new UnsupportedOperationException("Operations must name their namespace and table");
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public Optional<String> getTable() {
+            return Optional.empty();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.example.common.scalardb;
+
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Runs bulk operations as a few large transactions instead of one transaction per item.
+ * A chunk that fails is split in half and retried, down to single items, so one bad or
+ * conflicting item only fails itself. Items sharing a key never share a chunk.
+ *
+ * <p>Not a component: each service declares it as a bean with its own chunk-size property.
+ */
+public class TransactionBatchExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionBatchExecutor.class);
+
+    private final DistributedTransactionManager transactionManager;
+    private final int chunkSize;
+
+    public TransactionBatchExecutor(DistributedTransactionManager transactionManager, int chunkSize) {
+        this.transactionManager = transactionManager;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @FunctionalInterface
+    public interface ItemHandler<T, R> {
+        R handle(DistributedTransaction transaction, T item) throws Exception;
+    }
+
+    public <T, R> BatchResult<R> execute(List<T> items, Function<T, ?> keyFunction, ItemHandler<T, R> handler) {
+        BatchResult<R> result = new BatchResult<>(items.size());
+        int from = 0;
+        Set<Object> keys = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (i - from == chunkSize || !keys.add(keyFunction.apply(items.get(i)))) {
+                executeChunk(items, from, i, handler, result);
+                from = i;
+                keys.clear();
+                keys.add(keyFunction.apply(items.get(i)));
+            }
+        }
+        if (from < items.size()) {
+            executeChunk(items, from, items.size(), handler, result);
+        }
+        logger.info("Batch of {} items finished with {} commits ({} failed)", 
+            items.size(), result.getCommitCount(), result.getFailureCount());
+        return result;
+    }
+
+    private <T, R> void executeChunk(List<T> items, int from, int to, ItemHandler<T, R> handler, 
+                                     BatchResult<R> result) {
+        DistributedTransaction transaction = null;
+        try {
+            transaction = transactionManager.start();
+            List<R> values = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                values.add(handler.handle(transaction, items.get(i)));
+            }
+            transaction.commit();
+
+            result.commits++;
+            for (int i = from; i < to; i++) {
+                result.values.set(i, values.get(i - from));
+            }
+        } catch (Exception e) {
+            abort(transaction);
+            if (to - from == 1) {
+                result.errors.set(from, e);
+                return;
+            }
+            logger.debug("Chunk [{}, {}) failed, retrying in halves: {}", from, to, e.getMessage());
+            int mid = (from + to) >>> 1;
+            executeChunk(items, from, mid, handler, result);
+            executeChunk(items, mid, to, handler, result);
+        }
+    }
+
+    private void abort(DistributedTransaction transaction) {
+        if (transaction == null) {
+            return;
+        }
+        try {
+            transaction.abort();
+        } catch (Exception e) {
+            logger.warn("Failed to abort batch transaction", e);
+        }
+    }
+
+    /**
+     * Outcome per input position: either a value or the exception that failed the item.
+     */
+    public static class BatchResult<R> {
+        private final List<R> values;
+        private final List<Exception> errors;
+        private int commits;
+
+        BatchResult(int size) {
+            this.values = new ArrayList<>(size);
+            this.errors = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(null);
+                errors.add(null);
+            }
+        }
+
+        public boolean isSuccess(int index) {
+            return errors.get(index) == null;
+        }
+
+        public R getValue(int index) {
+            return values.get(index);
+        }
+
+        public Exception getError(int index) {
+            return errors.get(index);
+        }
+
+        public int getCommitCount() {
+            return commits;
+        }
+
+        public int getFailureCount() {
+            return (int) errors.stream().filter(e -> e != null).count();
+        }
+    }
+}
\ No newline at end of file
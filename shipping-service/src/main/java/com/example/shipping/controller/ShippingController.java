@@ -1,6 +1,7 @@
 package com.example.shipping.controller;
 
 import com.example.shipping.dto.CreateShipmentRequest;
+import com.example.shipping.dto.CursorPage;
 import com.example.shipping.dto.UpdateShippingStatusRequest;
 import com.example.shipping.entity.Shipment;
 import com.example.shipping.entity.ShippingItem;
@@ -17,6 +18,8 @@ import java.util.Optional;
 @RequestMapping("/shipments")
 public class ShippingController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     @Autowired
     private ShippingService shippingService;
     
@@ -37,16 +40,22 @@ public class ShippingController {
     public ResponseEntity<List<Shipment>> getShipments(
             @RequestParam(required = false) String customerId,
             @RequestParam(required = false) String orderId,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         
-        if (customerId != null) {
-            List<Shipment> shipments = shippingService.getShipmentsByCustomer(customerId);
-            return ResponseEntity.ok(shipments);
+        CursorPage<Shipment> page;
+        try {
+            page = shippingService.getShipments(customerId, orderId, status, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
         
-        // For simplicity, just return customer shipments if no specific filter
-        // In a real implementation, you'd have more sophisticated filtering
-        return ResponseEntity.ok(List.of());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
     
     @PutMapping("/{shipmentId}/status")
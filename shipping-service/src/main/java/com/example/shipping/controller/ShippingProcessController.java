@@ -1,5 +1,7 @@
 package com.example.shipping.controller;
 
+import com.example.common.scalardb.TransactionBatchExecutor;
+import com.example.shipping.dto.BulkStatusUpdateItem;
 import com.example.shipping.dto.CreateShipmentRequest;
 import com.example.shipping.dto.UpdateShippingStatusRequest;
 import com.example.shipping.entity.Shipment;
@@ -88,15 +90,21 @@ public class ShippingProcessController {
     public ResponseEntity<BulkStatusUpdateResponse> bulkStatusUpdate(@Valid @RequestBody BulkStatusUpdateRequest request) {
         logger.info("Received bulk status update request for {} shipments", request.getStatusUpdates().size());
         
-        BulkStatusUpdateResponse response = new BulkStatusUpdateResponse();
+        List<BulkStatusUpdateRequest.StatusUpdateItem> updateItems = request.getStatusUpdates();
+        List<BulkStatusUpdateItem> items = new java.util.ArrayList<>();
+        for (BulkStatusUpdateRequest.StatusUpdateItem updateItem : updateItems) {
+            UpdateShippingStatusRequest statusRequest = new UpdateShippingStatusRequest(updateItem.getNewStatus());
+            statusRequest.setTrackingNumber(updateItem.getTrackingNumber());
+            items.add(new BulkStatusUpdateItem(updateItem.getShipmentId(), statusRequest));
+        }
         
-        for (BulkStatusUpdateRequest.StatusUpdateItem updateItem : request.getStatusUpdates()) {
-            try {
-                UpdateShippingStatusRequest statusRequest = new UpdateShippingStatusRequest(updateItem.getNewStatus());
-                statusRequest.setTrackingNumber(updateItem.getTrackingNumber());
-                
-                Shipment shipment = shippingService.updateShippingStatus(updateItem.getShipmentId(), statusRequest);
-                
+        TransactionBatchExecutor.BatchResult<Shipment> results = shippingService.updateShippingStatuses(items);
+        
+        BulkStatusUpdateResponse response = new BulkStatusUpdateResponse();
+        for (int i = 0; i < updateItems.size(); i++) {
+            BulkStatusUpdateRequest.StatusUpdateItem updateItem = updateItems.get(i);
+            if (results.isSuccess(i)) {
+                Shipment shipment = results.getValue(i);
                 BulkStatusUpdateResponse.UpdateResult result = new BulkStatusUpdateResponse.UpdateResult();
                 result.setShipmentId(updateItem.getShipmentId());
                 result.setOldStatus(updateItem.getCurrentStatus());
@@ -105,10 +113,10 @@ public class ShippingProcessController {
                 response.getSuccessfulUpdates().add(result);
                 
                 logger.debug("Updated shipment status: {}", updateItem.getShipmentId());
-                
-            } catch (Exception e) {
-                logger.warn("Failed to update shipment status: {}, error: {}", updateItem.getShipmentId(), e.getMessage());
-                response.getFailedUpdates().put(updateItem.getShipmentId(), e.getMessage());
+            } else {
+                String message = results.getError(i).getMessage();
+                logger.warn("Failed to update shipment status: {}, error: {}", updateItem.getShipmentId(), message);
+                response.getFailedUpdates().put(updateItem.getShipmentId(), message);
             }
         }
         
@@ -0,0 +1,32 @@
+package com.example.shipping.dto;
+
+public class BulkStatusUpdateItem {
+    private String shipmentId;
+    
+    private UpdateShippingStatusRequest statusRequest;
+    
+    // Constructors
+    public BulkStatusUpdateItem() {}
+    
+    public BulkStatusUpdateItem(String shipmentId, UpdateShippingStatusRequest statusRequest) {
+        this.shipmentId = shipmentId;
+        this.statusRequest = statusRequest;
+    }
+    
+    // Getters and Setters
+    public String getShipmentId() {
+        return shipmentId;
+    }
+    
+    public void setShipmentId(String shipmentId) {
+        this.shipmentId = shipmentId;
+    }
+    
+    public UpdateShippingStatusRequest getStatusRequest() {
+        return statusRequest;
+    }
+    
+    public void setStatusRequest(UpdateShippingStatusRequest statusRequest) {
+        this.statusRequest = statusRequest;
+    }
+}
\ No newline at end of file
@@ -1,24 +1,61 @@
 package com.example.shipping.repository;
 
+import com.example.shipping.dto.CursorPage;
 import com.example.shipping.entity.Shipment;
+import com.scalar.db.api.Delete;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.api.Result;
 import com.scalar.db.api.Scan;
+import com.scalar.db.api.ScanBuilder;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.TextValue;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Repository
 public class ShipmentRepository {
     
     private static final String NAMESPACE = "shipping";
     private static final String TABLE_NAME = "shipments";
+    private static final String BY_ORDER_TABLE = "shipments_by_order";
+    private static final String BY_CUSTOMER_TABLE = "shipments_by_customer";
+    private static final String BY_STATUS_TABLE = "shipments_by_status";
+    private static final ResultMapper<Shipment> SHIPMENT_MAPPER = ResultMapper.of(Shipment::new)
+        .text("shipment_id", Shipment::setShipmentId)
+        .text("order_id", Shipment::setOrderId)
+        .text("customer_id", Shipment::setCustomerId)
+        .text("shipping_method", Shipment::setShippingMethod)
+        .text("carrier", Shipment::setCarrier)
+        .text("tracking_number", Shipment::setTrackingNumber)
+        .text("shipping_status", Shipment::setShippingStatus)
+        .text("recipient_name", Shipment::setRecipientName)
+        .text("recipient_phone", Shipment::setRecipientPhone)
+        .text("shipping_address", Shipment::setShippingAddress)
+        .text("shipping_city", Shipment::setShippingCity)
+        .text("shipping_state", Shipment::setShippingState)
+        .text("shipping_postal_code", Shipment::setShippingPostalCode)
+        .text("shipping_country", Shipment::setShippingCountry)
+        .bigIntValue("estimated_delivery_date", Shipment::setEstimatedDeliveryDate)
+        .bigIntValue("actual_delivery_date", Shipment::setActualDeliveryDate)
+        .bigIntValue("shipping_cost", Shipment::setShippingCost)
+        .text("currency", Shipment::setCurrency)
+        .doubleValue("weight", Shipment::setWeight)
+        .text("dimensions", Shipment::setDimensions)
+        .text("special_instructions", Shipment::setSpecialInstructions)
+        .bigIntValue("created_at", Shipment::setCreatedAt)
+        .bigIntValue("updated_at", Shipment::setUpdatedAt)
+        .intValue("version", Shipment::setVersion)
+        .build();
+    
+    // Each status is spread over this many partitions so busy statuses don't end up in one partition
+    private static final int STATUS_BUCKETS = 16;
+    private static final List<String> ACTIVE_STATUSES = List.of("SHIPPED", "IN_TRANSIT", "OUT_FOR_DELIVERY");
     
     public Optional<Shipment> findById(DistributedTransaction transaction, String shipmentId) 
             throws TransactionException {
@@ -36,80 +73,202 @@ public class ShipmentRepository {
             throws TransactionException {
         Scan scan = Scan.newBuilder()
             .namespace(NAMESPACE)
-            .table(TABLE_NAME)
+            .table(BY_CUSTOMER_TABLE)
+            .partitionKey(Key.ofText("customer_id", customerId))
             .build();
         
-        List<Result> results = transaction.scan(scan);
-        List<Shipment> shipments = new ArrayList<>();
-        for (Result result : results) {
-            Shipment shipment = mapResultToShipment(result);
-            if (customerId.equals(shipment.getCustomerId())) {
-                shipments.add(shipment);
-            }
-        }
-        return shipments;
+        return mapResults(transaction.scan(scan));
     }
     
     public List<Shipment> findByOrderId(DistributedTransaction transaction, String orderId) 
             throws TransactionException {
         Scan scan = Scan.newBuilder()
             .namespace(NAMESPACE)
-            .table(TABLE_NAME)
+            .table(BY_ORDER_TABLE)
+            .partitionKey(Key.ofText("order_id", orderId))
             .build();
         
-        List<Result> results = transaction.scan(scan);
+        return mapResults(transaction.scan(scan));
+    }
+    
+    public List<Shipment> findByStatus(DistributedTransaction transaction, String status) 
+            throws TransactionException {
         List<Shipment> shipments = new ArrayList<>();
-        for (Result result : results) {
-            Shipment shipment = mapResultToShipment(result);
-            if (orderId.equals(shipment.getOrderId())) {
-                shipments.add(shipment);
-            }
+        for (int bucket = 0; bucket < STATUS_BUCKETS; bucket++) {
+            Scan scan = Scan.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_STATUS_TABLE)
+                .partitionKey(statusPartitionKey(status, bucket))
+                .build();
+            shipments.addAll(mapResults(transaction.scan(scan)));
         }
         return shipments;
     }
     
-    public List<Shipment> findByStatus(DistributedTransaction transaction, String status) 
-            throws TransactionException {
-        Scan scan = Scan.newBuilder()
+    /**
+     * Reads one page of a customer's shipments, oldest first. The cursor holds the
+     * (created_at, shipment_id) clustering key of the last shipment on the previous page.
+     */
+    public CursorPage<Shipment> findByCustomerId(DistributedTransaction transaction, String customerId, 
+            String cursor, int limit) throws TransactionException {
+        ScanBuilder.BuildableScan scanBuilder = Scan.newBuilder()
             .namespace(NAMESPACE)
-            .table(TABLE_NAME)
-            .build();
+            .table(BY_CUSTOMER_TABLE)
+            .partitionKey(Key.ofText("customer_id", customerId))
+            .limit(limit + 1);
+        if (cursor != null) {
+            String[] position = CursorPage.decodeCursor(cursor, 2);
+            scanBuilder.start(createdAtClusteringKey(Long.parseLong(position[0]), position[1]), false);
+        }
+        
+        return toPage(mapResults(transaction.scan(scanBuilder.build())), limit, 
+            last -> CursorPage.encodeCursor(last.getCreatedAt(), last.getShipmentId()));
+    }
+    
+    public CursorPage<Shipment> findByOrderId(DistributedTransaction transaction, String orderId, 
+            String cursor, int limit) throws TransactionException {
+        ScanBuilder.BuildableScan scanBuilder = Scan.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_ORDER_TABLE)
+            .partitionKey(Key.ofText("order_id", orderId))
+            .limit(limit + 1);
+        if (cursor != null) {
+            String lastShipmentId = CursorPage.decodeCursor(cursor, 1)[0];
+            scanBuilder.start(Key.ofText("shipment_id", lastShipmentId), false);
+        }
+        
+        return toPage(mapResults(transaction.scan(scanBuilder.build())), limit, 
+            last -> CursorPage.encodeCursor(last.getShipmentId()));
+    }
+    
+    /**
+     * Reads one page of shipments in a status by walking the status buckets in order.
+     * The cursor holds the bucket and clustering key of the last shipment returned.
+     */
+    public CursorPage<Shipment> findByStatus(DistributedTransaction transaction, String status, 
+            String cursor, int limit) throws TransactionException {
+        int startBucket = 0;
+        Key startKey = null;
+        if (cursor != null) {
+            String[] position = CursorPage.decodeCursor(cursor, 3);
+            startBucket = Integer.parseInt(position[0]);
+            startKey = createdAtClusteringKey(Long.parseLong(position[1]), position[2]);
+        }
         
-        List<Result> results = transaction.scan(scan);
         List<Shipment> shipments = new ArrayList<>();
-        for (Result result : results) {
-            Shipment shipment = mapResultToShipment(result);
-            if (status.equals(shipment.getShippingStatus())) {
-                shipments.add(shipment);
+        for (int bucket = startBucket; bucket < STATUS_BUCKETS && shipments.size() <= limit; bucket++) {
+            ScanBuilder.BuildableScan scanBuilder = Scan.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_STATUS_TABLE)
+                .partitionKey(statusPartitionKey(status, bucket))
+                .limit(limit + 1 - shipments.size());
+            if (bucket == startBucket && startKey != null) {
+                scanBuilder.start(startKey, false);
             }
+            shipments.addAll(mapResults(transaction.scan(scanBuilder.build())));
         }
-        return shipments;
+        
+        return toPage(shipments, limit, last -> CursorPage.encodeCursor(
+            statusBucketOf(last.getShipmentId()), last.getCreatedAt(), last.getShipmentId()));
     }
     
     public List<Shipment> findActiveShipments(DistributedTransaction transaction) 
             throws TransactionException {
+        List<Shipment> activeShipments = new ArrayList<>();
+        for (String status : ACTIVE_STATUSES) {
+            activeShipments.addAll(findByStatus(transaction, status));
+        }
+        return activeShipments;
+    }
+    
+    public List<String> findAllShipmentIds(DistributedTransaction transaction) throws TransactionException {
         Scan scan = Scan.newBuilder()
             .namespace(NAMESPACE)
             .table(TABLE_NAME)
+            .all()
+            .projections("shipment_id")
             .build();
         
-        List<Result> results = transaction.scan(scan);
-        List<Shipment> activeShipments = new ArrayList<>();
-        for (Result result : results) {
-            Shipment shipment = mapResultToShipment(result);
-            String status = shipment.getShippingStatus();
-            if ("SHIPPED".equals(status) || "IN_TRANSIT".equals(status) || "OUT_FOR_DELIVERY".equals(status)) {
-                activeShipments.add(shipment);
-            }
+        List<String> shipmentIds = new ArrayList<>();
+        for (Result result : transaction.scan(scan)) {
+            shipmentIds.add(result.getText("shipment_id"));
         }
-        return activeShipments;
+        return shipmentIds;
     }
     
     public void save(DistributedTransaction transaction, Shipment shipment) throws TransactionException {
+        Optional<Shipment> existing = findById(transaction, shipment.getShipmentId());
+        
         Put.Builder putBuilder = Put.newBuilder()
             .namespace(NAMESPACE)
             .table(TABLE_NAME)
-            .partitionKey(Key.ofText("shipment_id", shipment.getShipmentId()))
+            .partitionKey(Key.ofText("shipment_id", shipment.getShipmentId()));
+        
+        transaction.put(withShipmentColumns(putBuilder, shipment).build());
+        
+        if (existing.isPresent()) {
+            deleteStaleIndexes(transaction, existing.get(), shipment);
+        }
+        saveIndexes(transaction, shipment);
+    }
+    
+    public void saveIndexes(DistributedTransaction transaction, Shipment shipment) throws TransactionException {
+        Put.Builder byOrder = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_ORDER_TABLE)
+            .partitionKey(Key.ofText("order_id", shipment.getOrderId()))
+            .clusteringKey(Key.ofText("shipment_id", shipment.getShipmentId()));
+        
+        Put.Builder byCustomer = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_CUSTOMER_TABLE)
+            .partitionKey(Key.ofText("customer_id", shipment.getCustomerId()))
+            .clusteringKey(createdAtClusteringKey(shipment));
+        
+        Put.Builder byStatus = Put.newBuilder()
+            .namespace(NAMESPACE)
+            .table(BY_STATUS_TABLE)
+            .partitionKey(statusPartitionKey(shipment.getShippingStatus(), statusBucketOf(shipment.getShipmentId())))
+            .clusteringKey(createdAtClusteringKey(shipment));
+        
+        transaction.put(withShipmentColumns(byOrder, shipment).build());
+        transaction.put(withShipmentColumns(byCustomer, shipment).build());
+        transaction.put(withShipmentColumns(byStatus, shipment).build());
+    }
+    
+    private void deleteStaleIndexes(DistributedTransaction transaction, Shipment previous, Shipment current) 
+            throws TransactionException {
+        if (!previous.getOrderId().equals(current.getOrderId())) {
+            transaction.delete(Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_ORDER_TABLE)
+                .partitionKey(Key.ofText("order_id", previous.getOrderId()))
+                .clusteringKey(Key.ofText("shipment_id", previous.getShipmentId()))
+                .build());
+        }
+        if (!previous.getCustomerId().equals(current.getCustomerId()) 
+                || !Objects.equals(previous.getCreatedAt(), current.getCreatedAt())) {
+            transaction.delete(Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_CUSTOMER_TABLE)
+                .partitionKey(Key.ofText("customer_id", previous.getCustomerId()))
+                .clusteringKey(createdAtClusteringKey(previous))
+                .build());
+        }
+        if (!previous.getShippingStatus().equals(current.getShippingStatus()) 
+                || !Objects.equals(previous.getCreatedAt(), current.getCreatedAt())) {
+            transaction.delete(Delete.newBuilder()
+                .namespace(NAMESPACE)
+                .table(BY_STATUS_TABLE)
+                .partitionKey(statusPartitionKey(previous.getShippingStatus(), statusBucketOf(previous.getShipmentId())))
+                .clusteringKey(createdAtClusteringKey(previous))
+                .build());
+        }
+    }
+    
+    private Put.Builder withShipmentColumns(Put.Builder putBuilder, Shipment shipment) {
+        putBuilder
+            .textValue("shipment_id", shipment.getShipmentId())
             .textValue("order_id", shipment.getOrderId())
             .textValue("customer_id", shipment.getCustomerId())
             .textValue("carrier", shipment.getCarrier())
@@ -166,8 +325,38 @@ public class ShipmentRepository {
         if (shipment.getSpecialInstructions() != null) {
             putBuilder.textValue("special_instructions", shipment.getSpecialInstructions());
         }
-        
-        transaction.put(putBuilder.build());
+        return putBuilder;
+    }
+    
+    private static int statusBucketOf(String shipmentId) {
+        return Math.floorMod(shipmentId.hashCode(), STATUS_BUCKETS);
+    }
+    
+    private Key statusPartitionKey(String status, int bucket) {
+        return Key.newBuilder()
+            .addText("shipping_status", status)
+            .addInt("status_bucket", bucket)
+            .build();
+    }
+    
+    private Key createdAtClusteringKey(Shipment shipment) {
+        return createdAtClusteringKey(shipment.getCreatedAt(), shipment.getShipmentId());
+    }
+    
+    private Key createdAtClusteringKey(long createdAt, String shipmentId) {
+        return Key.newBuilder()
+            .addBigInt("created_at", createdAt)
+            .addText("shipment_id", shipmentId)
+            .build();
+    }
+    
+    private static CursorPage<Shipment> toPage(List<Shipment> shipments, int limit, 
+            Function<Shipment, String> cursorOf) {
+        if (shipments.size() <= limit) {
+            return new CursorPage<>(shipments, null);
+        }
+        List<Shipment> page = new ArrayList<>(shipments.subList(0, limit));
+        return new CursorPage<>(page, cursorOf.apply(page.get(limit - 1)));
     }
     
     public boolean existsById(DistributedTransaction transaction, String shipmentId) 
@@ -185,34 +374,15 @@ public class ShipmentRepository {
             .count();
     }
     
+    private List<Shipment> mapResults(List<Result> results) {
+        List<Shipment> shipments = new ArrayList<>();
+        for (Result result : results) {
+            shipments.add(mapResultToShipment(result));
+        }
+        return shipments;
+    }
+    
     private Shipment mapResultToShipment(Result result) {
-        Shipment shipment = new Shipment();
-        
-        result.getValue("shipment_id").ifPresent(v -> shipment.setShipmentId(((TextValue) v).get()));
-        result.getValue("order_id").ifPresent(v -> shipment.setOrderId(((TextValue) v).get()));
-        result.getValue("customer_id").ifPresent(v -> shipment.setCustomerId(((TextValue) v).get()));
-        result.getValue("shipping_method").ifPresent(v -> shipment.setShippingMethod(((TextValue) v).get()));
-        result.getValue("carrier").ifPresent(v -> shipment.setCarrier(((TextValue) v).get()));
-        result.getValue("tracking_number").ifPresent(v -> shipment.setTrackingNumber(((TextValue) v).get()));
-        result.getValue("shipping_status").ifPresent(v -> shipment.setShippingStatus(((TextValue) v).get()));
-        result.getValue("recipient_name").ifPresent(v -> shipment.setRecipientName(((TextValue) v).get()));
-        result.getValue("recipient_phone").ifPresent(v -> shipment.setRecipientPhone(((TextValue) v).get()));
-        result.getValue("shipping_address").ifPresent(v -> shipment.setShippingAddress(((TextValue) v).get()));
-        result.getValue("shipping_city").ifPresent(v -> shipment.setShippingCity(((TextValue) v).get()));
-        result.getValue("shipping_state").ifPresent(v -> shipment.setShippingState(((TextValue) v).get()));
-        result.getValue("shipping_postal_code").ifPresent(v -> shipment.setShippingPostalCode(((TextValue) v).get()));
-        result.getValue("shipping_country").ifPresent(v -> shipment.setShippingCountry(((TextValue) v).get()));
-        result.getValue("estimated_delivery_date").ifPresent(v -> shipment.setEstimatedDeliveryDate(v.getAsLong()));
-        result.getValue("actual_delivery_date").ifPresent(v -> shipment.setActualDeliveryDate(v.getAsLong()));
-        result.getValue("shipping_cost").ifPresent(v -> shipment.setShippingCost(v.getAsLong()));
-        result.getValue("currency").ifPresent(v -> shipment.setCurrency(((TextValue) v).get()));
-        result.getValue("weight").ifPresent(v -> shipment.setWeight(v.getAsDouble()));
-        result.getValue("dimensions").ifPresent(v -> shipment.setDimensions(((TextValue) v).get()));
-        result.getValue("special_instructions").ifPresent(v -> shipment.setSpecialInstructions(((TextValue) v).get()));
-        result.getValue("created_at").ifPresent(v -> shipment.setCreatedAt(v.getAsLong()));
-        result.getValue("updated_at").ifPresent(v -> shipment.setUpdatedAt(v.getAsLong()));
-        result.getValue("version").ifPresent(v -> shipment.setVersion(v.getAsInt()));
-        
-        return shipment;
+        return SHIPMENT_MAPPER.map(result);
     }
 }
\ No newline at end of file
@@ -8,7 +8,6 @@ import com.scalar.db.api.Result;
 import com.scalar.db.api.Scan;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.TextValue;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +18,17 @@ public class ShippingItemRepository {
     
     private static final String NAMESPACE = "shipping";
     private static final String TABLE_NAME = "shipping_items";
+    private static final ResultMapper<ShippingItem> SHIPPING_ITEM_MAPPER = ResultMapper.of(ShippingItem::new)
+        .text("shipment_id", ShippingItem::setShipmentId)
+        .text("item_id", ShippingItem::setItemId)
+        .text("product_id", ShippingItem::setProductId)
+        .text("product_name", ShippingItem::setProductName)
+        .intValue("quantity", ShippingItem::setQuantity)
+        .doubleValue("weight", ShippingItem::setWeight)
+        .text("dimensions", ShippingItem::setDimensions)
+        .booleanValue("is_fragile", ShippingItem::setIsFragile)
+        .booleanValue("is_hazardous", ShippingItem::setIsHazardous)
+        .build();
     
     public Optional<ShippingItem> findById(DistributedTransaction transaction, String shipmentId, String itemId) 
             throws TransactionException {
@@ -87,18 +97,6 @@ public class ShippingItemRepository {
     }
     
     private ShippingItem mapResultToShippingItem(Result result) {
-        ShippingItem item = new ShippingItem();
-        
-        result.getValue("shipment_id").ifPresent(v -> item.setShipmentId(((TextValue) v).get()));
-        result.getValue("item_id").ifPresent(v -> item.setItemId(((TextValue) v).get()));
-        result.getValue("product_id").ifPresent(v -> item.setProductId(((TextValue) v).get()));
-        result.getValue("product_name").ifPresent(v -> item.setProductName(((TextValue) v).get()));
-        result.getValue("quantity").ifPresent(v -> item.setQuantity(v.getAsInt()));
-        result.getValue("weight").ifPresent(v -> item.setWeight(v.getAsDouble()));
-        result.getValue("dimensions").ifPresent(v -> item.setDimensions(((TextValue) v).get()));
-        result.getValue("is_fragile").ifPresent(v -> item.setIsFragile(v.getAsBoolean()));
-        result.getValue("is_hazardous").ifPresent(v -> item.setIsHazardous(v.getAsBoolean()));
-        
-        return item;
+        return SHIPPING_ITEM_MAPPER.map(result);
     }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.example.shipping.service;
+
+import com.example.common.scalardb.ChunkedBackfill;
+import com.example.shipping.entity.Shipment;
+import com.example.shipping.repository.ShipmentRepository;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Optional;
+
+// Populates shipments_by_order/customer/status for rows written before the index tables existed
+@Component
+@ConditionalOnProperty(name = "shipping.index-backfill.enabled", havingValue = "true")
+public class ShipmentIndexBackfill extends ChunkedBackfill {
+    
+    private final ShipmentRepository shipmentRepository;
+    
+    public ShipmentIndexBackfill(DistributedTransactionManager transactionManager,
+                                 ShipmentRepository shipmentRepository,
+                                 @Value("${shipping.index-backfill.batch-size:100}") int batchSize) {
+        super(transactionManager, "shipment index", batchSize);
+        this.shipmentRepository = shipmentRepository;
+    }
+    
+    @Override
+    protected List<String> loadIds(DistributedTransaction transaction) throws Exception {
+        return shipmentRepository.findAllShipmentIds(transaction);
+    }
+    
+    @Override
+    protected boolean backfill(String shipmentId, DistributedTransaction transaction) throws Exception {
+        Optional<Shipment> shipment = shipmentRepository.findById(transaction, shipmentId);
+        if (shipment.isEmpty()) {
+            return false;
+        }
+        shipmentRepository.saveIndexes(transaction, shipment.get());
+        return true;
+    }
+}
\ No newline at end of file
@@ -1,6 +1,12 @@
 package com.example.shipping.service;
 
+import com.example.common.outbox.OutboxEvent;
+import com.example.common.outbox.OutboxRepository;
+import com.example.common.scalardb.ReadOnlyTransactionManager;
+import com.example.common.scalardb.TransactionBatchExecutor;
+import com.example.shipping.dto.BulkStatusUpdateItem;
 import com.example.shipping.dto.CreateShipmentRequest;
+import com.example.shipping.dto.CursorPage;
 import com.example.shipping.dto.UpdateShippingStatusRequest;
 import com.example.shipping.entity.Shipment;
 import com.example.shipping.entity.ShippingItem;
@@ -15,6 +21,7 @@ import com.scalar.db.exception.transaction.TransactionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -27,18 +34,35 @@ public class ShippingService {
     
     private static final Logger log = LoggerFactory.getLogger(ShippingService.class);
     
+    public static final String SHIPMENT_AGGREGATE = "Shipment";
+    
     @Autowired
     private DistributedTransactionManager transactionManager;
     
+    @Autowired
+    private ReadOnlyTransactionManager readOnlyTransactionManager;
+    
     @Autowired
     private ShipmentRepository shipmentRepository;
     
     @Autowired
     private ShippingItemRepository shippingItemRepository;
     
+    @Autowired
+    private OutboxRepository outboxRepository;
+    
     @Autowired
     private CarrierIntegrationService carrierIntegrationService;
     
+    @Autowired
+    private TransactionBatchExecutor batchExecutor;
+    
+    @Value("${shipping.pagination.default-page-size:20}")
+    private int defaultPageSize = 20;
+    
+    @Value("${shipping.pagination.max-page-size:100}")
+    private int maxPageSize = 100;
+    
     public Shipment createShipment(CreateShipmentRequest request) {
         DistributedTransaction transaction = transactionManager.start();
         try {
@@ -103,6 +127,7 @@ public class ShippingService {
             }
             
             shippingItemRepository.saveAll(transaction, shippingItems);
+            appendShipmentEvent(transaction, "ShipmentCreated", shipment, null);
             
             transaction.commit();
             
@@ -118,42 +143,10 @@ public class ShippingService {
     public Shipment updateShippingStatus(String shipmentId, UpdateShippingStatusRequest request) {
         DistributedTransaction transaction = transactionManager.start();
         try {
-            // Get shipment
-            Optional<Shipment> shipmentOpt = shipmentRepository.findById(transaction, shipmentId);
-            if (shipmentOpt.isEmpty()) {
-                throw new ShipmentNotFoundException("Shipment not found: " + shipmentId);
-            }
-            
-            Shipment shipment = shipmentOpt.get();
-            ShippingStatus previousStatus = shipment.getShippingStatusEnum();
-            ShippingStatus newStatus = ShippingStatus.valueOf(request.getShippingStatus());
-            
-            // Validate status transition
-            if (!isValidStatusTransition(previousStatus, newStatus)) {
-                throw new InvalidShippingStatusException(
-                    "Invalid status transition from " + previousStatus + " to " + newStatus);
-            }
-            
-            // Update shipment
-            shipment.setShippingStatusEnum(newStatus);
-            if (request.getTrackingNumber() != null) {
-                shipment.setTrackingNumber(request.getTrackingNumber());
-            }
-            if (request.getEstimatedDeliveryDate() != null) {
-                shipment.setEstimatedDeliveryDateAsDateTime(request.getEstimatedDeliveryDate());
-            }
-            if (request.getActualDeliveryDate() != null && newStatus == ShippingStatus.DELIVERED) {
-                shipment.setActualDeliveryDateAsDateTime(request.getActualDeliveryDate());
-            }
-            
-            shipment.setUpdatedAt(System.currentTimeMillis());
-            shipment.setVersion(shipment.getVersion() + 1);
-            
-            shipmentRepository.save(transaction, shipment);
+            Shipment shipment = updateShippingStatus(transaction, shipmentId, request);
             
             transaction.commit();
             
-            log.info("Updated shipment status: {} from {} to {}", shipmentId, previousStatus, newStatus);
             return shipment;
         } catch (Exception e) {
             transaction.abort();
@@ -162,6 +155,54 @@ public class ShippingService {
         }
     }
     
+    /**
+     * Applies status updates in chunked transactions; results are index-aligned with the given items.
+     */
+    public TransactionBatchExecutor.BatchResult<Shipment> updateShippingStatuses(List<BulkStatusUpdateItem> items) {
+        return batchExecutor.execute(items, BulkStatusUpdateItem::getShipmentId, 
+            (transaction, item) -> updateShippingStatus(transaction, item.getShipmentId(), item.getStatusRequest()));
+    }
+    
+    private Shipment updateShippingStatus(DistributedTransaction transaction, String shipmentId, 
+                                          UpdateShippingStatusRequest request) throws TransactionException {
+        // Get shipment
+        Optional<Shipment> shipmentOpt = shipmentRepository.findById(transaction, shipmentId);
+        if (shipmentOpt.isEmpty()) {
+            throw new ShipmentNotFoundException("Shipment not found: " + shipmentId);
+        }
+        
+        Shipment shipment = shipmentOpt.get();
+        ShippingStatus previousStatus = shipment.getShippingStatusEnum();
+        ShippingStatus newStatus = ShippingStatus.valueOf(request.getShippingStatus());
+        
+        // Validate status transition
+        if (!isValidStatusTransition(previousStatus, newStatus)) {
+            throw new InvalidShippingStatusException(
+                "Invalid status transition from " + previousStatus + " to " + newStatus);
+        }
+        
+        // Update shipment
+        shipment.setShippingStatusEnum(newStatus);
+        if (request.getTrackingNumber() != null) {
+            shipment.setTrackingNumber(request.getTrackingNumber());
+        }
+        if (request.getEstimatedDeliveryDate() != null) {
+            shipment.setEstimatedDeliveryDateAsDateTime(request.getEstimatedDeliveryDate());
+        }
+        if (request.getActualDeliveryDate() != null && newStatus == ShippingStatus.DELIVERED) {
+            shipment.setActualDeliveryDateAsDateTime(request.getActualDeliveryDate());
+        }
+        
+        shipment.setUpdatedAt(System.currentTimeMillis());
+        shipment.setVersion(shipment.getVersion() + 1);
+        
+        shipmentRepository.save(transaction, shipment);
+        appendShipmentEvent(transaction, "ShipmentStatusChanged", shipment, previousStatus.name());
+        
+        log.info("Updated shipment status: {} from {} to {}", shipmentId, previousStatus, newStatus);
+        return shipment;
+    }
+    
     public void cancelShipment(String shipmentId) {
         DistributedTransaction transaction = transactionManager.start();
         try {
@@ -193,6 +234,7 @@ public class ShippingService {
             shipment.setVersion(shipment.getVersion() + 1);
             
             shipmentRepository.save(transaction, shipment);
+            appendShipmentEvent(transaction, "ShipmentCancelled", shipment, currentStatus.name());
             
             transaction.commit();
             
@@ -204,8 +246,20 @@ public class ShippingService {
         }
     }
     
+    // Recorded in the same transaction as the shipment change, so the event exists exactly when the change commits
+    private void appendShipmentEvent(DistributedTransaction transaction, String eventType, Shipment shipment, 
+                                     String previousStatus) throws TransactionException {
+        outboxRepository.append(SHIPMENT_AGGREGATE, shipment.getShipmentId(), eventType, OutboxEvent.payload(
+            "orderId", shipment.getOrderId(),
+            "customerId", shipment.getCustomerId(),
+            "status", shipment.getShippingStatus(),
+            "previousStatus", previousStatus,
+            "carrier", shipment.getCarrier(),
+            "trackingNumber", shipment.getTrackingNumber()), transaction);
+    }
+    
     public Optional<Shipment> getShipment(String shipmentId) {
-        DistributedTransaction transaction = transactionManager.start();
+        DistributedTransaction transaction = readOnlyTransactionManager.start();
         try {
             Optional<Shipment> shipment = shipmentRepository.findById(transaction, shipmentId);
             transaction.commit();
@@ -230,6 +284,44 @@ public class ShippingService {
         }
     }
     
+    /**
+     * Returns one page of shipments filtered by customer, order or status, in that
+     * order of precedence. The requested limit is clamped to the configured maximum.
+     */
+    public CursorPage<Shipment> getShipments(String customerId, String orderId, String status, 
+            String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        DistributedTransaction transaction = transactionManager.start();
+        try {
+            CursorPage<Shipment> page;
+            if (customerId != null) {
+                page = shipmentRepository.findByCustomerId(transaction, customerId, cursor, pageSize);
+            } else if (orderId != null) {
+                page = shipmentRepository.findByOrderId(transaction, orderId, cursor, pageSize);
+            } else if (status != null) {
+                page = shipmentRepository.findByStatus(transaction, status, cursor, pageSize);
+            } else {
+                page = CursorPage.empty();
+            }
+            transaction.commit();
+            return page;
+        } catch (IllegalArgumentException e) {
+            transaction.abort();
+            throw e;
+        } catch (Exception e) {
+            transaction.abort();
+            log.error("Failed to get shipments page", e);
+            throw new RuntimeException("Failed to get shipments", e);
+        }
+    }
+    
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+    
     public List<ShippingItem> getShipmentItems(String shipmentId) {
         DistributedTransaction transaction = transactionManager.start();
         try {
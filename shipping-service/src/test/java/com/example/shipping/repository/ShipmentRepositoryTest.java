@@ -0,0 +1,135 @@
+package com.example.shipping.repository;
+
+import com.example.shipping.entity.Shipment;
+import com.scalar.db.api.Delete;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Result;
+import com.scalar.db.io.Key;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShipmentRepositoryTest {
+    
+    private static final long CREATED_AT = 1_700_000_000_000L;
+    
+    @Mock
+    private DistributedTransaction transaction;
+    
+    private final ShipmentRepository shipmentRepository = new ShipmentRepository();
+    
+    @Test
+    void save_StatusChanged_MovesStatusIndexRow() throws Exception {
+        // Given
+        Shipment stored = shipment("PROCESSING");
+        when(transaction.get(any(Get.class))).thenReturn(Optional.of(storedRow(stored)));
+        
+        // When
+        shipmentRepository.save(transaction, shipment("SHIPPED"));
+        
+        // Then
+        ArgumentCaptor<Delete> deletes = ArgumentCaptor.forClass(Delete.class);
+        verify(transaction).delete(deletes.capture());
+        assertThat(deletes.getValue().forTable()).contains("shipments_by_status");
+        assertThat(statusOf(deletes.getValue().getPartitionKey())).isEqualTo("PROCESSING");
+        
+        assertThat(putsTo("shipments_by_status"))
+            .extracting(put -> statusOf(put.getPartitionKey()))
+            .containsExactly("SHIPPED");
+    }
+    
+    @Test
+    void save_StatusUnchanged_KeepsIndexRows() throws Exception {
+        // Given
+        Shipment stored = shipment("PROCESSING");
+        when(transaction.get(any(Get.class))).thenReturn(Optional.of(storedRow(stored)));
+        
+        // When
+        shipmentRepository.save(transaction, shipment("PROCESSING"));
+        
+        // Then
+        verify(transaction, never()).delete(any(Delete.class));
+        assertThat(putsTo("shipments_by_status"))
+            .extracting(put -> statusOf(put.getPartitionKey()))
+            .containsExactly("PROCESSING");
+    }
+    
+    @Test
+    void save_NewShipment_WritesIndexesWithoutDeletes() throws Exception {
+        // Given
+        when(transaction.get(any(Get.class))).thenReturn(Optional.empty());
+        
+        // When
+        shipmentRepository.save(transaction, shipment("PROCESSING"));
+        
+        // Then
+        verify(transaction, never()).delete(any(Delete.class));
+        assertThat(putsTo("shipments_by_order")).hasSize(1);
+        assertThat(putsTo("shipments_by_customer")).hasSize(1);
+        assertThat(putsTo("shipments_by_status")).hasSize(1);
+    }
+    
+    private List<Put> putsTo(String table) throws Exception {
+        ArgumentCaptor<Put> puts = ArgumentCaptor.forClass(Put.class);
+        verify(transaction, atLeastOnce()).put(puts.capture());
+        return puts.getAllValues().stream()
+            .filter(put -> put.forTable().filter(table::equals).isPresent())
+            .collect(Collectors.toList());
+    }
+    
+    // shipments_by_status partition keys are (shipping_status, status_bucket)
+    private static String statusOf(Key partitionKey) {
+        return partitionKey.getColumns().get(0).getTextValue();
+    }
+    
+    private static Shipment shipment(String status) {
+        Shipment shipment = new Shipment();
+        shipment.setShipmentId("SHP-001");
+        shipment.setOrderId("ORD-001");
+        shipment.setCustomerId("CUST-001");
+        shipment.setCarrier("YAMATO");
+        shipment.setShippingStatus(status);
+        shipment.setCreatedAt(CREATED_AT);
+        shipment.setUpdatedAt(CREATED_AT);
+        shipment.setVersion(1);
+        return shipment;
+    }
+    
+    // Result whose typed getters read the stored shipment's columns
+    private static Result storedRow(Shipment shipment) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("shipment_id", shipment.getShipmentId());
+        columns.put("order_id", shipment.getOrderId());
+        columns.put("customer_id", shipment.getCustomerId());
+        columns.put("carrier", shipment.getCarrier());
+        columns.put("shipping_status", shipment.getShippingStatus());
+        columns.put("created_at", shipment.getCreatedAt());
+        columns.put("updated_at", shipment.getUpdatedAt());
+        columns.put("version", shipment.getVersion());
+        return mock(Result.class, invocation -> {
+            Object column = columns.get(invocation.<String>getArgument(0));
+            switch (invocation.getMethod().getName()) {
+                case "contains":
+                    return columns.containsKey(invocation.<String>getArgument(0));
+                case "isNull":
+                    return column == null;
+                default:
+                    return column;
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.shipping.service;
 
+import com.example.common.outbox.OutboxRepository;
 import com.example.shipping.dto.CreateShipmentRequest;
 import com.example.shipping.dto.UpdateShippingStatusRequest;
 import com.example.shipping.entity.Shipment;
@@ -34,6 +35,9 @@ class ShippingServiceTest {
     @Mock
     private ShippingItemRepository shippingItemRepository;
     
+    @Mock
+    private OutboxRepository outboxRepository;
+    
     @Mock
     private CarrierIntegrationService carrierIntegrationService;
     
@@ -74,6 +78,8 @@ class ShippingServiceTest {
         
         verify(shipmentRepository).save(transaction, any(Shipment.class));
         verify(shippingItemRepository).saveAll(transaction, any());
+        verify(outboxRepository).append(eq(ShippingService.SHIPMENT_AGGREGATE), 
+            eq(result.getShipmentId()), eq("ShipmentCreated"), anyMap(), eq(transaction));
         verify(transaction).commit();
     }
     